@@ -7,6 +7,7 @@ import krystal.framework.commander.CommanderInterface;
 import krystal.framework.core.NativeConsoleReader;
 import krystal.framework.core.PropertiesAndArguments;
 import krystal.framework.core.PropertiesInterface;
+import krystal.framework.core.cache.PersistenceCache;
 import krystal.framework.core.flow.FlowControlInterface;
 import krystal.framework.core.jfxApp;
 import krystal.framework.database.abstraction.ConnectionPoolInterface;
@@ -247,6 +248,10 @@ public class KrystalFramework {
 		log.fatal("=== Initializing Tomcat Server...");
 		try {
 			tomcat = TomcatFactory.buildServer(properties);
+			if (properties.isAwaitCacheWarmUp()) {
+				log.fatal("  > Awaiting cache warm-up...");
+				PersistenceCache.awaitWarmUp();
+			}
 			tomcat.start();
 		} catch (LifecycleException e) {
 			log.fatal("!!! Tomcat broke with exception:\n" + e.getMessage());
@@ -8,6 +8,7 @@ import krystal.framework.KrystalFramework;
 import krystal.framework.commander.CommandInterface;
 import krystal.framework.commander.CommanderInterface;
 import krystal.framework.core.PropertiesInterface;
+import krystal.framework.core.flow.TasksSchedulerInterface;
 import krystal.framework.database.abstraction.ConnectionPoolInterface;
 import krystal.framework.database.abstraction.QueryExecutorInterface;
 import krystal.framework.database.implementation.ConnectionPool;
@@ -22,6 +23,7 @@ import org.apache.logging.log4j.core.AbstractLifeCycle;
 import org.json.JSONObject;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -342,6 +344,16 @@ public class BaseCommander implements CommanderInterface {
 							                                              <dd>A ms tick of objects lifetime in memory.</dd>
 							                                              <dt>c, count</dt>
 							                                              <dd>Intervals count, after which the objects are trashed.</dd>
+							                                              <dt>m, max</dt>
+							                                              <dd>Maximum total weight of objects (0 - unbounded), above which the coldest are evicted.</dd>
+							                                              <dt>s, snapshot</dt>
+							                                              <dd>Writes memorized objects to given file.</dd>
+							                                              <dt>r, restore</dt>
+							                                              <dd>Restores memorized objects from given snapshot file.</dd>
+							                                              <dt>p, pressure</dt>
+							                                              <dd>Heap usage percentage (0 - disabled), above which the memory is progressively shrunk.</dd>
+							                                              <dt>shrink</dt>
+							                                              <dd>Manually runs the next memory pressure shrinking stage.</dd>
 							                                              <dt>clear</dt>
 							                                              <dd>Manually trashes all stored objects.</dd>
 							                                             </dl>
@@ -370,6 +382,41 @@ public class BaseCommander implements CommanderInterface {
 							                                                    }
 						                                                    })
 						                                                    .ifPresent(mem::setIntervalsCount);
+						                                  CommanderInterface.getValueIfArgumentMatches(arg, "m", "max")
+						                                                    .map(s -> {
+							                                                    try {
+								                                                    val l = Long.parseLong(s);
+								                                                    logConsole("Persistence Memory maximum weight set to: %s.".formatted(l));
+								                                                    return l;
+							                                                    } catch (NumberFormatException e) {
+								                                                    return null;
+							                                                    }
+						                                                    })
+						                                                    .ifPresent(mem::setMaximumWeight);
+						                                  CommanderInterface.getValueIfArgumentMatches(arg, "s", "snapshot")
+						                                                    .map(Path::of)
+						                                                    .ifPresent(file -> logConsole("Persistence Memory snapshot of %s objects written.".formatted(mem.snapshot(file))));
+						                                  CommanderInterface.getValueIfArgumentMatches(arg, "r", "restore")
+						                                                    .map(Path::of)
+						                                                    .ifPresent(file -> logConsole("Persistence Memory restored classes: %s.".formatted(mem.restore(file).size())));
+						                                  CommanderInterface.getValueIfArgumentMatches(arg, "p", "pressure")
+						                                                    .map(s -> {
+							                                                    try {
+								                                                    return Integer.parseInt(s);
+							                                                    } catch (NumberFormatException e) {
+								                                                    return null;
+							                                                    }
+						                                                    })
+						                                                    .ifPresent(p -> {
+							                                                    if (p > 0) mem.enablePressureShrinking(p / 100d);
+							                                                    else mem.disablePressureShrinking();
+							                                                    logConsole(mem.getPressureMonitor().report());
+						                                                    });
+						                                  
+						                                  if (CommanderInterface.argumentMatches(arg, "shrink")) {
+							                                  mem.getPressureMonitor().shrink();
+							                                  logConsole(mem.getPressureMonitor().report());
+						                                  }
 						                                  
 						                                  if (CommanderInterface.argumentMatches(arg, "clear")) {
 							                                  mem.clear();
@@ -441,6 +488,10 @@ public class BaseCommander implements CommanderInterface {
 						} else logConsole("Conneciton Pool is custom implementation.");
 					},
 					() -> logConsole("Connection Pool not implemented."));
+			case tasks -> {
+				logConsole(TasksSchedulerInterface.SCHEDULER.report());
+				return true;
+			}
 			default -> {
 				return false;
 			}
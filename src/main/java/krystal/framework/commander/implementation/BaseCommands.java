@@ -11,6 +11,6 @@ import krystal.framework.commander.CommanderInterface;
  * @see ConsoleView ConsoleView
  */
 public enum BaseCommands implements CommandInterface {
-	help, cls, log, props, exit, console, providers, krystal, spring, tomcat, pmem, cpool
+	help, cls, log, props, exit, console, providers, krystal, spring, tomcat, pmem, cpool, tasks
 	// TODO restart, commanderOff, reload, etc
 }
\ No newline at end of file
@@ -9,4 +9,16 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheCollection {
 	
+	/**
+	 * The collection can be cleared on memory pressure, to be loaded again when needed.
+	 *
+	 * @see PersistenceCache#shrinkOnMemoryPressure()
+	 */
+	boolean evictable() default false;
+	
+	/**
+	 * Classes of collections, which must be loaded before this one during {@link PersistenceCache#warmUp()}.
+	 */
+	Class<?>[] dependsOn() default {};
+	
 }
\ No newline at end of file
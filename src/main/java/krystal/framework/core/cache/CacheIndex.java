@@ -0,0 +1,66 @@
+package krystal.framework.core.cache;
+
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Hash index of {@link CacheCollection @CacheCollection} elements by values of given fields. The index follows the collection lazily - it is rebuilt on lookup, whenever the collection instance or its size differ from the indexed ones (i.e. after
+ * {@link PersistenceCache#loadCacheCollection(Class) loading}), while single elements added by {@link PersistenceCache#cache(java.util.function.Supplier, java.util.function.Predicate, Collection)} are indexed right away.
+ */
+class CacheIndex {
+	
+	private final List<Field> fields;
+	private final Map<List<Object>, Object> index;
+	private Collection<?> indexed;
+	private int indexedSize;
+	
+	CacheIndex(List<Field> fields) {
+		this.fields = fields;
+		index = new HashMap<>();
+		indexedSize = -1;
+	}
+	
+	synchronized Optional<Object> get(Collection<?> collection, List<Object> values) {
+		if (collection != indexed || collection.size() != indexedSize) rebuild(collection);
+		return Optional.ofNullable(index.get(values));
+	}
+	
+	/**
+	 * Indexes the element just added to the collection, if the index is up to date.
+	 */
+	synchronized void added(Collection<?> collection, Object element) {
+		if (collection != indexed || collection.size() != indexedSize + 1) return;
+		index.putIfAbsent(valuesOf(element, fields), element);
+		indexedSize++;
+	}
+	
+	private void rebuild(Collection<?> collection) {
+		index.clear();
+		for (val element : collection) index.putIfAbsent(valuesOf(element, fields), element);
+		indexed = collection;
+		indexedSize = collection.size();
+	}
+	
+	static List<Object> valuesOf(Object element, List<Field> fields) {
+		val values = new ArrayList<>(fields.size());
+		for (val field : fields) values.add(valueOf(element, field));
+		return values;
+	}
+	
+	static @Nullable Object valueOf(Object element, Field field) {
+		try {
+			return field.get(element);
+		} catch (IllegalAccessException | IllegalArgumentException _) {
+			return null;
+		}
+	}
+	
+}
\ No newline at end of file
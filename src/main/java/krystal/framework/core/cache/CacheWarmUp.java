@@ -0,0 +1,162 @@
+package krystal.framework.core.cache;
+
+import com.zaxxer.hikari.HikariDataSource;
+import krystal.VirtualPromise;
+import krystal.framework.KrystalFramework;
+import krystal.framework.core.ConsoleProgress;
+import krystal.framework.core.flow.FlowControlInterface;
+import krystal.framework.core.flow.implementation.Flows;
+import krystal.framework.database.abstraction.ConnectionPoolInterface;
+import krystal.framework.database.abstraction.ProviderInterface;
+import krystal.framework.database.implementation.ConnectionPool;
+import krystal.framework.database.persistence.PersistenceInterface;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Single run of {@link PersistenceCache#warmUp(Map)} - loads the collections in dependency order, each as soon as its dependencies are loaded, so independent ones load concurrently. Loads of each {@link ProviderInterface} are bounded by the
+ * size of its connection pool. Collections depending on one which failed to load are skipped, and the warm-up fails once the others are loaded.
+ */
+@Log4j2
+class CacheWarmUp {
+	
+	private final PersistenceCache cache;
+	private final Map<Class<?>, List<Class<?>>> dependencies;
+	private final Map<Class<?>, CompletableFuture<Void>> loads;
+	private final Map<ProviderInterface, Semaphore> permits;
+	private final ConsoleProgress progress;
+	private final AtomicInteger loaded;
+	private final AtomicInteger finished;
+	private final Set<Class<?>> failed;
+	private final Set<Class<?>> skipped;
+	
+	/**
+	 * @throws IllegalArgumentException
+	 * 		If the dependencies are cyclic.
+	 */
+	CacheWarmUp(PersistenceCache cache, Map<Class<?>, ? extends Collection<Class<?>>> dependencies) {
+		this.cache = cache;
+		this.dependencies = new LinkedHashMap<>();
+		dependencies.forEach((clazz, on) -> this.dependencies.put(clazz, on.stream().filter(dependency -> {
+			if (dependencies.containsKey(dependency)) return true;
+			log.warn("  ! {} depends on {}, which is not warmed-up - ignored.", clazz.getSimpleName(), dependency.getSimpleName());
+			return false;
+		}).toList()));
+		loads = new HashMap<>();
+		permits = new ConcurrentHashMap<>();
+		progress = new ConsoleProgress(this.dependencies.size());
+		loaded = new AtomicInteger();
+		finished = new AtomicInteger();
+		failed = ConcurrentHashMap.newKeySet();
+		skipped = ConcurrentHashMap.newKeySet();
+		this.dependencies.keySet().forEach(clazz -> checkCycles(clazz, new LinkedHashSet<>(), new HashSet<>()));
+	}
+	
+	VirtualPromise<Void> start() {
+		// the phaser holds the readiness until the last load arrives
+		val flows = FlowControlInterface.getInstance().isPresent();
+		if (flows) Flows.cache.register();
+		
+		log.info("=== Warming-up {} cache collections...", dependencies.size());
+		progress.setUnit("collections");
+		progress.render();
+		
+		val executor = Executors.newVirtualThreadPerTaskExecutor();
+		dependencies.keySet().forEach(clazz -> schedule(clazz, executor));
+		return VirtualPromise.run(() -> {
+			try {
+				// failures are reported below, once all loads are settled
+				CompletableFuture.allOf(loads.values().stream().map(load -> load.exceptionally(_ -> null)).toArray(CompletableFuture[]::new)).join();
+			} finally {
+				executor.close();
+				if (flows) Flows.cache.arriveAndDeregister();
+				log.info("  > Cache warm-up finished: {} / {} collections loaded.", loaded.get(), dependencies.size());
+			}
+			if (!failed.isEmpty())
+				throw new RuntimeException("  ! Cache warm-up failed - collections not loaded: %s, skipped as depending on them: %s.".formatted(names(failed), names(skipped)));
+		});
+	}
+	
+	private CompletableFuture<Void> schedule(Class<?> clazz, ExecutorService executor) {
+		val scheduled = loads.get(clazz);
+		if (scheduled != null) return scheduled;
+		
+		val after = dependencies.get(clazz).stream().map(dependency -> schedule(dependency, executor)).toArray(CompletableFuture[]::new);
+		val load = CompletableFuture.allOf(after)
+		                            .thenRunAsync(() -> load(clazz), executor)
+		                            .whenComplete((_, e) -> {
+			                            if (e != null && !failed.contains(clazz)) {
+				                            skipped.add(clazz);
+				                            log.warn("  ! {} cache collection is skipped - a collection it depends on failed to load.", clazz.getSimpleName());
+			                            }
+			                            progress.setProgress(finished.incrementAndGet());
+			                            progress.render();
+		                            });
+		loads.put(clazz, load);
+		return load;
+	}
+	
+	private void load(Class<?> clazz) {
+		val permit = permits.computeIfAbsent(providerOf(clazz), provider -> new Semaphore(Math.max(poolSize(provider), 1)));
+		permit.acquireUninterruptibly();
+		try {
+			cache.reload(clazz, null).joinThrow();
+			loaded.incrementAndGet();
+		} catch (RuntimeException e) {
+			failed.add(clazz);
+			log.fatal("Failed to reload collection of {}.class", clazz.getSimpleName(), e);
+			throw e;
+		} finally {
+			permit.release();
+		}
+	}
+	
+	private void checkCycles(Class<?> clazz, LinkedHashSet<Class<?>> path, Set<Class<?>> checked) {
+		if (checked.contains(clazz)) return;
+		if (!path.add(clazz)) {
+			throw new IllegalArgumentException("  ! Cyclic cache collections dependency: %s -> %s.".formatted(
+					path.stream().map(Class::getSimpleName).collect(Collectors.joining(" -> ")), clazz.getSimpleName()));
+		}
+		
+		dependencies.get(clazz).forEach(dependency -> checkCycles(dependency, path, checked));
+		path.remove(clazz);
+		checked.add(clazz);
+	}
+	
+	private static String names(Set<Class<?>> classes) {
+		return classes.stream().map(Class::getSimpleName).sorted().collect(Collectors.joining(", "));
+	}
+	
+	private static ProviderInterface providerOf(Class<?> clazz) {
+		try {
+			return PersistenceInterface.getLoader(clazz, null).getProvider();
+		} catch (RuntimeException _) {
+			return KrystalFramework.getDefaultProvider();
+		}
+	}
+	
+	private static int poolSize(ProviderInterface provider) {
+		return ConnectionPoolInterface.getInstance()
+		                              .filter(ConnectionPool.class::isInstance)
+		                              .map(pool -> ((ConnectionPool) pool).getPools().get(provider))
+		                              .map(HikariDataSource::getMaximumPoolSize)
+		                              .orElseGet(() -> ConnectionPool.getDefaultConfig().getMaximumPoolSize());
+	}
+	
+}
\ No newline at end of file
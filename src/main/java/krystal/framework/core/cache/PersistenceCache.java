@@ -3,11 +3,16 @@ package krystal.framework.core.cache;
 import krystal.Tools;
 import krystal.VirtualPromise;
 import krystal.framework.KrystalFramework;
+import krystal.framework.core.flow.FlowControlInterface;
 import krystal.framework.core.flow.ScheduledTaskInterface;
 import krystal.framework.core.flow.TasksSchedulerInterface;
+import krystal.framework.core.flow.implementation.Flows;
 import krystal.framework.database.persistence.Persistence;
 import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.annotations.ChangeMarker;
 import krystal.framework.database.persistence.annotations.Key;
+import krystal.framework.database.queryfactory.ComparisonOperator;
 import krystal.framework.database.queryfactory.WhereClause;
 import krystal.framework.logging.LoggingWrapper;
 import lombok.Getter;
@@ -20,9 +25,14 @@ import javax.annotation.Nullable;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -38,36 +48,69 @@ public abstract class PersistenceCache implements TasksSchedulerInterface {
 	
 	private static @Getter @Setter boolean cachedResourcesOnly = false;
 	
+	/**
+	 * {@link CacheCollection @CacheCollection} fields resolved by the contained (or key) class.
+	 */
+	private final Map<Class<?>, Optional<Field>> collectionFields;
+	private final Map<Class<?>, Optional<Field>> mapFields;
+	private final Map<Class<?>, List<Field>> keyFields;
+	/**
+	 * Indexes of collections by contained class and the looked-up fields.
+	 */
+	private final Map<Class<?>, Map<List<Field>, CacheIndex>> indexes;
+	/**
+	 * The highest {@link ChangeMarker @ChangeMarker} values seen, by contained class.
+	 */
+	private final Map<Class<?>, Object> highWaterMarks;
+	/**
+	 * Current immutable generations of {@link #reloadCacheCollection(Class, UnaryOperator) reloaded} collections and {@link #swapCacheMap(Class, Map) swapped} maps.
+	 */
+	private final Map<Field, AtomicReference<Object>> generations;
+	
+	protected PersistenceCache() {
+		collectionFields = new ConcurrentHashMap<>();
+		mapFields = new ConcurrentHashMap<>();
+		keyFields = new ConcurrentHashMap<>();
+		indexes = new ConcurrentHashMap<>();
+		highWaterMarks = new ConcurrentHashMap<>();
+		generations = new ConcurrentHashMap<>();
+	}
+	
 	/*
 	 * Get collections
 	 */
 	
+	/**
+	 * @apiNote Prefer it over reading the field directly - the field is not updated with a new generation if it is {@code final} or of incompatible type.
+	 */
 	public <T> Optional<Collection<T>> getCollection(Class<T> containedClass) {
-		return getCollections().filter(field -> Tools.determineParameterTypes(field.getGenericType()).types()[0].equals(containedClass))
-		                       .findAny()
-		                       .map(f -> {
-			                       try {
-				                       return f.get(this);
-			                       } catch (IllegalAccessException _) {
-				                       // filtered-out at this point by cacheCollectionsSelector()
-				                       return null;
-			                       }
-		                       })
-		                       .map(c -> (Collection<T>) c);
+		return collectionField(containedClass).map(this::valueOf).map(c -> (Collection<T>) c);
 	}
 	
+	/**
+	 * @apiNote Prefer it over reading the field directly - the field is not updated with a new generation if it is {@code final} or of incompatible type.
+	 */
 	public <T> Optional<Map<T, Object>> getMap(Class<T> keyClass) {
-		return getMaps().filter(field -> Tools.determineParameterTypes(field.getGenericType()).types()[0].equals(keyClass))
-		                .findAny()
-		                .map(f -> {
-			                try {
-				                return f.get(this);
-			                } catch (IllegalAccessException _) {
-				                // filtered-out at this point by cacheCollectionsSelector()
-				                return null;
-			                }
-		                })
-		                .map(c -> (Map<T, Object>) c);
+		return mapField(keyClass).map(this::valueOf).map(c -> (Map<T, Object>) c);
+	}
+	
+	private Optional<Field> collectionField(Class<?> containedClass) {
+		return collectionFields.computeIfAbsent(containedClass, c -> getCollections().filter(field -> Tools.determineParameterTypes(field.getGenericType()).types()[0].equals(c)).findAny());
+	}
+	
+	private Optional<Field> mapField(Class<?> keyClass) {
+		return mapFields.computeIfAbsent(keyClass, c -> getMaps().filter(field -> Tools.determineParameterTypes(field.getGenericType()).types()[0].equals(c)).findAny());
+	}
+	
+	private @Nullable Object valueOf(Field field) {
+		val generation = generations.get(field);
+		if (generation != null) return generation.get();
+		try {
+			return field.get(this);
+		} catch (IllegalAccessException _) {
+			// filtered-out at this point by cacheCollectionsSelector()
+			return null;
+		}
 	}
 	
 	private Supplier<Stream<Field>> cacheCollectionsSelector() {
@@ -88,50 +131,317 @@ public abstract class PersistenceCache implements TasksSchedulerInterface {
 	
 	public <T> Optional<T> cache(Supplier<T> objectSupplier, @Nullable Predicate<T> objectValidator, @Nullable Collection<T> toCollection) {
 		val object = objectSupplier.get();
-		if (object != null && (objectValidator == null || objectValidator.test(object))) {
-			Optional.ofNullable(toCollection)
-			        .or(() -> getCollection((Class<T>) object.getClass()))
-			        .map(c -> {
-				        c.add(object);
-				        return object;
-			        });
+		if (object == null || (objectValidator != null && !objectValidator.test(object))) return Optional.empty();
+		val collection = Optional.ofNullable(toCollection).or(() -> getCollection((Class<T>) object.getClass()));
+		val generation = collection.flatMap(this::generationField);
+		if (generation.isPresent()) {
+			modify(generation.get(), c -> c.add(object));
+		} else {
+			collection.filter(c -> c.add(object))
+			          .ifPresent(c -> Optional.ofNullable(indexes.get(object.getClass())).ifPresent(i -> i.values().forEach(index -> index.added(c, object))));
 		}
-		return Optional.empty();
+		return Optional.of(object);
 	}
 	
+	/**
+	 * Adds loaded objects to the collection. Readers might see the collection partially filled meanwhile (unless it is a {@link #reloadCacheCollection(Class, UnaryOperator) generation}) - use the reload to replace the content.
+	 */
 	public <T> VirtualPromise<Void> loadCacheCollection(Class<T> clazz, @Nullable UnaryOperator<WhereClause> queryFilter) {
-		val collection = getCollection(clazz).orElseThrow();
+		val field = collectionField(clazz).orElseThrow();
 		return Persistence.promiseAll(clazz, queryFilter)
 		                  .map(Stream::toList)
-		                  .accept(collection::addAll)
+		                  .accept(loaded -> modify(field, c -> c.addAll(loaded)))
 		                  .catchRun(e -> log.fatal("Failed to load collection of {}.class", clazz.getSimpleName(), e));
 	}
 	
+	/**
+	 * Loads the collection off to the side and publishes it as a new immutable generation, with single atomic swap - so readers see either the previous or the new content, never a partial one. Objects {@link #cache cached} to the collection
+	 * afterward are added copy-on-write, as a next generation.
+	 */
+	public <T> VirtualPromise<Void> reloadCacheCollection(Class<T> clazz, @Nullable UnaryOperator<WhereClause> queryFilter) {
+		return reload(clazz, queryFilter).catchRun(e -> log.fatal("Failed to reload collection of {}.class", clazz.getSimpleName(), e));
+	}
+	
+	/**
+	 * {@link #reloadCacheCollection(Class, UnaryOperator) Reload} which failure is left to the caller.
+	 */
+	<T> VirtualPromise<Void> reload(Class<T> clazz, @Nullable UnaryOperator<WhereClause> queryFilter) {
+		val field = collectionField(clazz).orElseThrow();
+		return Persistence.promiseAll(clazz, queryFilter)
+		                  .map(Stream::toList)
+		                  .accept(loaded -> publish(field, loaded));
+	}
+	
+	public <T> VirtualPromise<Void> reloadCacheCollection(Class<T> clazz) {
+		return reloadCacheCollection(clazz, null);
+	}
+	
+	/**
+	 * {@link #reloadCacheCollection(Class) Reloads} all collections, one by one.
+	 */
+	public void reloadCaches() {
+		getCollections().map(field -> (Class<?>) Tools.determineParameterTypes(field.getGenericType()).types()[0])
+		                .toList()
+		                .forEach(clazz -> reloadCacheCollection(clazz).join());
+	}
+	
+	/*
+	 * Warm-up
+	 */
+	
+	/**
+	 * Warms-up all collections, with dependencies declared by {@link CacheCollection#dependsOn()}.
+	 *
+	 * @see #warmUp(Map)
+	 */
+	public VirtualPromise<Void> warmUp() {
+		return warmUp(getCollections().collect(Collectors.toMap(
+				field -> (Class<?>) Tools.determineParameterTypes(field.getGenericType()).types()[0],
+				field -> List.of(field.getAnnotation(CacheCollection.class).dependsOn()),
+				(a, _) -> a,
+				LinkedHashMap::new
+		)));
+	}
+	
+	/**
+	 * {@link #reloadCacheCollection(Class) Reloads} given collections concurrently, each one as soon as the collections it depends on are loaded. Loads from each {@link krystal.framework.database.abstraction.ProviderInterface provider} are
+	 * bounded by its connection pool size. The progress is rendered with {@link krystal.framework.core.ConsoleProgress ConsoleProgress}, and the {@link Flows#cache} phaser is held until the warm-up finishes - see {@link #awaitWarmUp()}. Collections
+	 * depending on one which failed to load are skipped, and the promise fails once the others are loaded.
+	 *
+	 * @param dependencies
+	 * 		Classes of collections to load, with classes of collections they depend on.
+	 * @throws IllegalArgumentException
+	 * 		If the dependencies are cyclic.
+	 */
+	public VirtualPromise<Void> warmUp(Map<Class<?>, ? extends Collection<Class<?>>> dependencies) {
+		return new CacheWarmUp(this, dependencies).start();
+	}
+	
+	/**
+	 * Blocks until running {@link #warmUp() warm-ups} finish, by arriving at the {@link Flows#cache} phaser on behalf of its initial party. Returns immediately, if there is no warm-up running.
+	 */
+	public static void awaitWarmUp() {
+		if (FlowControlInterface.getInstance().isPresent()) Flows.cache.arriveAndAwait();
+	}
+	
+	/**
+	 * Publishes the content as a new immutable generation of the map, with single atomic swap.
+	 */
+	public <T> void swapCacheMap(Class<T> keyClass, Map<T, ?> content) {
+		publish(mapField(keyClass).orElseThrow(), content);
+	}
+	
 	public <T> VirtualPromise<Void> loadCacheCollection(Class<T> clazz) {
 		return loadCacheCollection(clazz, null);
 	}
 	
+	/**
+	 * Fills the collection with objects held by {@link PersistenceMemory} (i.e. {@link PersistenceMemory#restore(Path) restored} from a snapshot), instead of loading them from the database.
+	 *
+	 * @return {@code false} if the memory holds no objects of the class - then load the collection.
+	 */
+	public <T> boolean restoreCacheCollection(Class<T> clazz) {
+		val field = collectionField(clazz).orElseThrow();
+		return PersistenceMemory.getInstance()
+		                        .filter(mem -> mem.containsAny(clazz))
+		                        .map(mem -> {
+			                        val restored = mem.find(clazz, _ -> true);
+			                        modify(field, c -> c.addAll(restored));
+			                        return true;
+		                        })
+		                        .orElse(false);
+	}
+	
 	public void clearCaches() {
-		clearCaches(getCollections().map(f -> {
-			            try {
-				            return f.get(this);
-			            } catch (IllegalAccessException _) {
-				            return null;
-			            }
-		            }).map(c -> (Collection<Object>) c),
-		            getMaps().map(f -> {
-			            try {
-				            return f.get(this);
-			            } catch (IllegalAccessException _) {
-				            return null;
-			            }
-		            }).map(m -> (Map<Object, Object>) m)
-		);
+		clearFields(cacheCollectionsSelector().get());
+	}
+	
+	/**
+	 * Generations are replaced with empty ones, other collections and maps are cleared in place.
+	 */
+	private void clearFields(Stream<Field> fields) {
+		fields.forEach(field -> {
+			if (generations.containsKey(field)) {
+				publish(field, Map.class.isAssignableFrom(field.getType()) ? Map.of() : List.of());
+				return;
+			}
+			switch (valueOf(field)) {
+				case Collection<?> c -> c.clear();
+				case Map<?, ?> m -> m.clear();
+				case null, default -> {}
+			}
+		});
+		indexes.clear();
+		log.info("    Caches cleared.");
+	}
+	
+	/*
+	 * Generations
+	 */
+	
+	/**
+	 * Replaces the collection or map with immutable copy of the content.
+	 */
+	private void publish(Field field, Object content) {
+		val generation = generationOf(field, content);
+		generations.computeIfAbsent(field, _ -> new AtomicReference<>()).set(generation);
+		mirror(field, generation);
+	}
+	
+	/**
+	 * Modifies the collection in place, or if it is a generation - its copy, published with compare-and-set (repeating the modification if other one won).
+	 */
+	private void modify(Field field, Consumer<Collection<Object>> modification) {
+		val generation = generations.get(field);
+		if (generation == null) {
+			modification.accept((Collection<Object>) valueOf(field));
+			return;
+		}
+		
+		while (true) {
+			val current = generation.get();
+			val copy = new ArrayList<Object>((Collection<?>) current);
+			modification.accept(copy);
+			val next = generationOf(field, copy);
+			if (generation.compareAndSet(current, next)) {
+				mirror(field, next);
+				return;
+			}
+		}
+	}
+	
+	private Optional<Field> generationField(Object collection) {
+		return generations.entrySet().stream().filter(e -> e.getValue().get() == collection).map(Entry::getKey).findAny();
+	}
+	
+	/**
+	 * Updates the field as well, for readers not using {@link #getCollection(Class)} or {@link #getMap(Class)}, if possible.
+	 */
+	private void mirror(Field field, Object generation) {
+		if (Modifier.isFinal(field.getModifiers()) || !field.getType().isInstance(generation)) return;
+		try {
+			field.set(this, generation);
+		} catch (IllegalAccessException _) {
+			// filtered-out at this point by cacheCollectionsSelector()
+		}
+	}
+	
+	private static Object generationOf(Field field, Object content) {
+		return switch (content) {
+			case Map<?, ?> m -> Collections.unmodifiableMap(new LinkedHashMap<>(m));
+			case Collection<?> c when Set.class.isAssignableFrom(field.getType()) -> Collections.unmodifiableSet(new LinkedHashSet<>(c));
+			case Collection<?> c -> Collections.unmodifiableList(new ArrayList<>(c));
+			default -> content;
+		};
+	}
+	
+	/*
+	 * Delta refresh
+	 */
+	
+	/**
+	 * Loads only the rows which {@link ChangeMarker @ChangeMarker} column is at or above the high-water mark (the highest marker value seen), and merges them into the collection - replacing objects with the same {@link Key @Key} values. Rows at
+	 * the mark are loaded again, as markers which are not strictly increasing (i.e. timestamps) can be shared with rows modified after the previous refresh. Without the mark, it is taken from the collection, or if the collection is empty (or
+	 * the class has no keys) - the collection is loaded whole.
+	 * <p>
+	 * Rows deleted from the database are not detected - clear the caches occasionally.
+	 *
+	 * @see #setHighWaterMark(Class, Object)
+	 */
+	public <T> VirtualPromise<Void> refreshCacheCollection(Class<T> clazz) {
+		val field = collectionField(clazz).orElseThrow();
+		val collection = getCollection(clazz).orElseThrow();
+		val marker = Arrays.stream(clazz.getDeclaredFields())
+		                   .filter(f -> f.isAnnotationPresent(ChangeMarker.class) && f.trySetAccessible())
+		                   .findAny()
+		                   .orElseThrow(() -> new RuntimeException("  ! Class %s has no @ChangeMarker field.".formatted(clazz.getName())));
+		val keys = getKeyFields(clazz);
+		val mark = Optional.ofNullable(highWaterMarks.get(clazz)).or(() -> highestMark(collection, marker));
+		
+		if (mark.isEmpty() || keys.isEmpty()) {
+			if (keys.isEmpty()) log.warn("  ! Class {} has no @Key fields, delta refresh reloads the whole collection.", clazz.getSimpleName());
+			return reloadCacheCollection(clazz).thenRun(() -> highestMark(getCollection(clazz).orElseThrow(), marker).ifPresent(m -> highWaterMarks.put(clazz, m)));
+		}
+		
+		val column = PersistenceInterface.getFieldsToColumns(clazz, null).get(marker);
+		UnaryOperator<WhereClause> changedSince = where -> where.andWhere(column.is(ComparisonOperator.MORE_EQUAL, mark.get()));
+		return Persistence.promiseAll(clazz, changedSince)
+		                  .map(Stream::toList)
+		                  .accept(changed -> {
+			                  if (changed.isEmpty()) return;
+			                  val changedKeys = changed.stream().map(o -> CacheIndex.valuesOf(o, keys)).collect(Collectors.toSet());
+			                  modify(field, c -> {
+				                  c.removeIf(o -> changedKeys.contains(CacheIndex.valuesOf(o, keys)));
+				                  c.addAll(changed);
+			                  });
+			                  indexes.remove(clazz);
+			                  highestMark(changed, marker).filter(m -> compareMarks(m, mark.get()) > 0).ifPresent(m -> highWaterMarks.put(clazz, m));
+			                  log.debug("    Cache of {} refreshed with {} changed rows.", clazz.getSimpleName(), changed.size());
+		                  })
+		                  .catchRun(e -> log.fatal("Failed to refresh collection of {}.class", clazz.getSimpleName(), e));
+	}
+	
+	/**
+	 * {@link #refreshCacheCollection(Class) Delta refresh} of all collections of classes with {@link ChangeMarker @ChangeMarker} field.
+	 */
+	public void refreshCacheCollections() {
+		getCollections().map(field -> (Class<?>) Tools.determineParameterTypes(field.getGenericType()).types()[0])
+		                .filter(clazz -> Arrays.stream(clazz.getDeclaredFields()).anyMatch(f -> f.isAnnotationPresent(ChangeMarker.class)))
+		                .toList()
+		                .forEach(clazz -> refreshCacheCollection(clazz).join());
+	}
+	
+	/**
+	 * Sets the value above which the next {@link #refreshCacheCollection(Class) delta refresh} loads the rows - i.e. the time of {@link PersistenceMemory#restore(Path) restored} snapshot, after {@link #restoreCacheCollection(Class)}.
+	 * {@code null} removes the mark.
+	 */
+	public void setHighWaterMark(Class<?> clazz, @Nullable Object mark) {
+		if (mark == null) highWaterMarks.remove(clazz);
+		else highWaterMarks.put(clazz, mark);
+	}
+	
+	public Optional<Object> getHighWaterMark(Class<?> clazz) {
+		return Optional.ofNullable(highWaterMarks.get(clazz));
+	}
+	
+	private static Optional<Object> highestMark(Collection<?> objects, Field marker) {
+		return objects.stream().map(o -> CacheIndex.valueOf(o, marker)).filter(Objects::nonNull).max(PersistenceCache::compareMarks);
+	}
+	
+	@SuppressWarnings("rawtypes")
+	private static int compareMarks(Object a, Object b) {
+		if (a instanceof byte[] x && b instanceof byte[] y) return Arrays.compareUnsigned(x, y);
+		return ((Comparable) a).compareTo(b);
+	}
+	
+	/**
+	 * Clears {@link CacheCollection#evictable() evictable} collections and maps.
+	 *
+	 * @return Number of cleared elements.
+	 */
+	public long clearEvictableCaches() {
+		val evictable = cacheCollectionsSelector().get().filter(f -> f.getAnnotation(CacheCollection.class).evictable()).toList();
+		val cleared = evictable.stream().map(this::valueOf).mapToLong(c -> switch (c) {
+			case Collection<?> collection -> collection.size();
+			case Map<?, ?> map -> map.size();
+			case null, default -> 0;
+		}).sum();
+		clearFields(evictable.stream());
+		return cleared;
+	}
+	
+	/**
+	 * Registers {@link #clearEvictableCaches()} as the last stage of {@link PersistenceMemory#enablePressureShrinking(double) memory pressure shrinking}, following the eviction of non-{@link krystal.framework.database.persistence.annotations.Memorized
+	 * @Memorized} objects.
+	 */
+	public void shrinkOnMemoryPressure() {
+		PersistenceMemory.getInstance().ifPresent(mem -> mem.getPressureMonitor().addStage("evictable cache collections", this::clearEvictableCaches));
 	}
 	
 	public void clearCaches(@Nullable Stream<Collection<Object>> collections, @Nullable Stream<Map<Object, Object>> maps) {
 		if (collections != null) collections.forEach(Collection::clear);
 		if (maps != null) maps.forEach(Map::clear);
+		indexes.clear();
 		if (collections != null || maps != null) log.info("    Caches cleared.");
 	}
 	
@@ -166,49 +476,60 @@ public abstract class PersistenceCache implements TasksSchedulerInterface {
 	 */
 	private <T> Optional<T> getOrConstructor(Class<T> clazz, @Nullable Predicate<T> objectValidator, Map<Field, Object> fieldsValues, Object... otherConstructorParams) {
 		val cacheCollection = getCollection(clazz).orElseThrow();
-		return cacheCollection.stream()
-		                      .filter(o -> fieldsEquals(o, fieldsValues))
-		                      .findAny()
-		                      .or(() -> {
-			                      if (cachedResourcesOnly) return Optional.empty();
-			                      return cache(
-					                      () -> {
-						                      try {
-							                      return clazz.getDeclaredConstructor(Stream.concat(fieldsValues.keySet().stream().map(Field::getType),
-							                                                                        Arrays.stream(otherConstructorParams).map(Object::getClass))
-							                                                                .toArray(Class[]::new))
-							                                  .newInstance(Stream.concat(fieldsValues.values().stream(),
-							                                                             Arrays.stream(otherConstructorParams))
-							                                                     .toArray());
-						                      } catch (NoSuchMethodException e) {
-							                      throw new RuntimeException("  ! Constructor is missing for provided keys types.", e);
-						                      } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-							                      throw new RuntimeException(e);
-						                      }
-					                      },
-					                      objectValidator,
-					                      cacheCollection
-			                      );
-		                      });
+		return indexes.computeIfAbsent(clazz, _ -> new ConcurrentHashMap<>())
+		              .computeIfAbsent(List.copyOf(fieldsValues.keySet()), CacheIndex::new)
+		              .get(cacheCollection, Arrays.asList(fieldsValues.values().toArray()))
+		              .map(clazz::cast)
+		              .filter(o -> fieldsEquals(o, fieldsValues))
+		              .or(() -> {
+			              if (cachedResourcesOnly) return Optional.empty();
+			              return cache(
+					              () -> {
+						              try {
+							              return clazz.getDeclaredConstructor(Stream.concat(fieldsValues.keySet().stream().map(Field::getType),
+							                                                                Arrays.stream(otherConstructorParams).map(Object::getClass))
+							                                                        .toArray(Class[]::new))
+							                          .newInstance(Stream.concat(fieldsValues.values().stream(),
+							                                                     Arrays.stream(otherConstructorParams))
+							                                             .toArray());
+						              } catch (NoSuchMethodException e) {
+							              throw new RuntimeException("  ! Constructor is missing for provided keys types.", e);
+						              } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+							              throw new RuntimeException(e);
+						              }
+					              },
+					              objectValidator,
+					              // current generation, if swapped meanwhile
+					              getCollection(clazz).orElseThrow()
+			              );
+		              });
 	}
 	
 	private Map<Field, Object> getFieldValuesMap(Class<?> clazz, Map<String, Object> fieldValuesMap) {
 		return fieldValuesMap.entrySet().stream()
 		                     .collect(Collectors.toMap(
-				                     e -> Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.getName().equals(e.getKey())).findAny().orElseThrow(),
-				                     Entry::getValue
+				                     e -> Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.getName().equals(e.getKey()) && f.trySetAccessible()).findAny().orElseThrow(),
+				                     Entry::getValue,
+				                     (a, _) -> a,
+				                     LinkedHashMap::new
 		                     ));
 	}
 	
+	private List<Field> getKeyFields(Class<?> clazz) {
+		return keyFields.computeIfAbsent(clazz, c -> Arrays.stream(c.getDeclaredFields())
+		                                                   .filter(AccessibleObject::trySetAccessible)
+		                                                   .filter(f -> f.isAnnotationPresent(Key.class))
+		                                                   .toList());
+	}
+	
 	private Map<Field, Object> getKeysValuesMap(Class<?> clazz, List<Object> keyValues) {
-		val keyFields = Arrays.stream(clazz.getDeclaredFields())
-		                      .filter(AccessibleObject::trySetAccessible)
-		                      .filter(f -> f.isAnnotationPresent(Key.class))
-		                      .toList();
+		val keyFields = getKeyFields(clazz);
 		try {
 			return keyFields.stream().collect(Collectors.toMap(
 					f -> f,
-					f -> keyValues.get(keyFields.indexOf(f))
+					f -> keyValues.get(keyFields.indexOf(f)),
+					(a, _) -> a,
+					LinkedHashMap::new
 			));
 		} catch (IndexOutOfBoundsException e) {
 			throw new RuntimeException("  ! Wrong number of provided key values or fields in class %s.".formatted(clazz.getName()), e);
@@ -242,12 +563,16 @@ public abstract class PersistenceCache implements TasksSchedulerInterface {
 		Runnable runnable =
 				switch (defaultCacheTask) {
 					case AUTO_CLEAR -> this::clearCaches;
+					case AUTO_RELOAD -> this::reloadCaches;
+					case DELTA_REFRESH -> this::refreshCacheCollections;
 				};
 		startSchedule(defaultCacheTask, runnable, interval, unit);
 	}
 	
 	public enum DefaultCacheTask implements ScheduledTaskInterface {
-		AUTO_CLEAR
+		AUTO_CLEAR,
+		AUTO_RELOAD,
+		DELTA_REFRESH
 	}
 	
 }
\ No newline at end of file
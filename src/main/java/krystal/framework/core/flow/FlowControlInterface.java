@@ -1,6 +1,7 @@
 package krystal.framework.core.flow;
 
 import krystal.framework.KrystalFramework;
+import krystal.framework.core.flow.implementation.TaskScheduler;
 import krystal.framework.logging.LoggingInterface;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 
@@ -13,7 +14,22 @@ public interface FlowControlInterface extends LoggingInterface {
 	
 	Map<FlowInterface, Phaser> getFlowControls();
 	
-	ScheduledExecutorService getScheduledExecutor();
+	/**
+	 * @see TasksSchedulerInterface#SCHEDULER
+	 */
+	default TaskScheduler getScheduler() {
+		return TasksSchedulerInterface.SCHEDULER;
+	}
+	
+	/**
+	 * Executor of tasks scheduled directly - without the {@link TaskMetrics metrics}, timeouts and overlap prevention of the {@link #getScheduler() scheduler}.
+	 *
+	 * @deprecated Use {@link TasksSchedulerInterface#startSchedule(ScheduledTaskInterface, Runnable, TaskSchedule)} or {@link #getScheduler()}.
+	 */
+	@Deprecated
+	default ScheduledExecutorService getScheduledExecutor() {
+		return getScheduler().getExecutor();
+	}
 	
 	static Optional<FlowControlInterface> getInstance() {
 		try {
@@ -0,0 +1,102 @@
+package krystal.framework.core.flow;
+
+import lombok.val;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics of a {@link ScheduledTaskInterface}. The <i>lag</i> is the delay between the planned and the actual start of a run.
+ */
+public class TaskMetrics {
+	
+	private final LongAdder runs;
+	private final LongAdder skipped;
+	private final LongAdder failures;
+	private final LongAdder timeouts;
+	private final LongAdder totalDuration;
+	private final AtomicLong lastDuration;
+	private final AtomicLong maxDuration;
+	private final AtomicLong lastLag;
+	private final AtomicLong maxLag;
+	
+	public TaskMetrics() {
+		runs = new LongAdder();
+		skipped = new LongAdder();
+		failures = new LongAdder();
+		timeouts = new LongAdder();
+		totalDuration = new LongAdder();
+		lastDuration = new AtomicLong();
+		maxDuration = new AtomicLong();
+		lastLag = new AtomicLong();
+		maxLag = new AtomicLong();
+	}
+	
+	public void recordRun(long durationNanos, long lagNanos) {
+		runs.increment();
+		totalDuration.add(durationNanos);
+		lastDuration.set(durationNanos);
+		maxDuration.accumulateAndGet(durationNanos, Math::max);
+		lastLag.set(lagNanos);
+		maxLag.accumulateAndGet(lagNanos, Math::max);
+	}
+	
+	public void recordSkip() {
+		skipped.increment();
+	}
+	
+	public void recordFailure() {
+		failures.increment();
+	}
+	
+	public void recordTimeout() {
+		timeouts.increment();
+	}
+	
+	public long getRuns() {
+		return runs.sum();
+	}
+	
+	public long getSkipped() {
+		return skipped.sum();
+	}
+	
+	public long getFailures() {
+		return failures.sum();
+	}
+	
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+	
+	public long getLastDuration(TimeUnit unit) {
+		return unit.convert(lastDuration.get(), TimeUnit.NANOSECONDS);
+	}
+	
+	public long getMaxDuration(TimeUnit unit) {
+		return unit.convert(maxDuration.get(), TimeUnit.NANOSECONDS);
+	}
+	
+	public long getAverageDuration(TimeUnit unit) {
+		val count = runs.sum();
+		return count == 0 ? 0 : unit.convert(totalDuration.sum() / count, TimeUnit.NANOSECONDS);
+	}
+	
+	public long getLastLag(TimeUnit unit) {
+		return unit.convert(lastLag.get(), TimeUnit.NANOSECONDS);
+	}
+	
+	public long getMaxLag(TimeUnit unit) {
+		return unit.convert(maxLag.get(), TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public String toString() {
+		return "Runs: %s (skipped: %s, failed: %s, timed-out: %s), Duration ms: %s last / %s avg / %s max, Lag ms: %s last / %s max".formatted(
+				getRuns(), getSkipped(), getFailures(), getTimeouts(),
+				getLastDuration(TimeUnit.MILLISECONDS), getAverageDuration(TimeUnit.MILLISECONDS), getMaxDuration(TimeUnit.MILLISECONDS),
+				getLastLag(TimeUnit.MILLISECONDS), getMaxLag(TimeUnit.MILLISECONDS));
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package krystal.framework.core.flow;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a task scheduled with {@link TasksSchedulerInterface#startSchedule(ScheduledTaskInterface, Runnable, TaskSchedule)}.
+ * <dl>
+ *     <dt><b><i>interval</i></b></dt><dd>Period between the runs, in <i>unit</i>.</dd>
+ *     <dt><b><i>unit</i></b></dt><dd><code>Default: <i>milliseconds</i></code></dd>
+ *     <dt><b><i>initialDelay</i></b></dt><dd>Delay of the first run, in <i>unit</i>.<br /><code>Default: <i>0</i></code></dd>
+ *     <dt><b><i>fixedRate</i></b></dt><dd>If <code><i>true</i></code>, runs are planned every <i>interval</i> regardless of their duration, otherwise the <i>interval</i> is counted from the end of previous run.<br /><code>Default: <i>true</i></code></dd>
+ *     <dt><b><i>preventOverlap</i></b></dt><dd>If <code><i>true</i></code>, a fixed-rate run is skipped, while the previous one is still running - instead of piling up.<br /><code>Default: <i>true</i></code></dd>
+ *     <dt><b><i>jitter</i></b></dt><dd>Fraction of <i>interval</i> the period randomly varies by, so tasks with the same interval do not fire together.<br /><code>Default: <i>0</i></code></dd>
+ *     <dt><b><i>timeout</i></b></dt><dd>Time in <i>unit</i>, after which the running task is interrupted. <code><i>0</i></code> means no timeout.<br /><code>Default: <i>0</i></code></dd>
+ * </dl>
+ */
+@Builder(builderMethodName = "define", buildMethodName = "set")
+@Getter
+public class TaskSchedule {
+	
+	private long interval;
+	@Builder.Default private TimeUnit unit = TimeUnit.MILLISECONDS;
+	private long initialDelay;
+	@Builder.Default private boolean fixedRate = true;
+	@Builder.Default private boolean preventOverlap = true;
+	private double jitter;
+	private long timeout;
+	
+}
\ No newline at end of file
@@ -1,22 +1,34 @@
 package krystal.framework.core.flow;
 
+import krystal.framework.core.flow.implementation.TaskScheduler;
+
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @FunctionalInterface
 public interface TasksSchedulerInterface {
 	
-	ScheduledExecutorService SCHEDULER = new ScheduledThreadPoolExecutor(1);
+	/**
+	 * Shared by all implementations - each run is executed on its own virtual thread.
+	 */
+	TaskScheduler SCHEDULER = new TaskScheduler();
 	
 	Map<ScheduledTaskInterface, ScheduledFuture<?>> getScheduledTasks();
 	
+	/**
+	 * Fixed-rate schedule, skipping runs while the previous one is still running.
+	 *
+	 * @see #startSchedule(ScheduledTaskInterface, Runnable, TaskSchedule)
+	 */
 	default void startSchedule(ScheduledTaskInterface scheduledTask, Runnable taskRunnable, long interval, TimeUnit unit) {
+		startSchedule(scheduledTask, taskRunnable, TaskSchedule.define().interval(interval).unit(unit).set());
+	}
+	
+	default void startSchedule(ScheduledTaskInterface scheduledTask, Runnable taskRunnable, TaskSchedule schedule) {
 		cancelSchedule(scheduledTask);
-		getScheduledTasks().put(scheduledTask, SCHEDULER.scheduleAtFixedRate(taskRunnable, 0, interval, unit));
+		getScheduledTasks().put(scheduledTask, SCHEDULER.schedule(scheduledTask, taskRunnable, schedule));
 	}
 	
 	default void cancelSchedule(ScheduledTaskInterface scheduledAction) {
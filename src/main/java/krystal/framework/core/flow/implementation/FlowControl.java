@@ -2,25 +2,24 @@ package krystal.framework.core.flow.implementation;
 
 import krystal.framework.core.flow.FlowControlInterface;
 import krystal.framework.core.flow.FlowInterface;
+import krystal.framework.core.flow.TasksSchedulerInterface;
 import lombok.Getter;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Phaser;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 @Service
 @Getter
 public class FlowControl implements FlowControlInterface {
 	
 	private final Map<FlowInterface, Phaser> flowControls;
-	private final ScheduledExecutorService scheduledExecutor;
+	private final TaskScheduler scheduler;
 	
 	private FlowControl() {
 		flowControls = new ConcurrentHashMap<>();
-		scheduledExecutor = new ScheduledThreadPoolExecutor(1);
+		scheduler = TasksSchedulerInterface.SCHEDULER;
 		initialize(Flows.values());
 	}
 	
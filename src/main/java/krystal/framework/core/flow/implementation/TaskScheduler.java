@@ -0,0 +1,213 @@
+package krystal.framework.core.flow.implementation;
+
+import krystal.framework.core.flow.ScheduledTaskInterface;
+import krystal.framework.core.flow.TaskMetrics;
+import krystal.framework.core.flow.TaskSchedule;
+import krystal.framework.core.flow.TasksSchedulerInterface;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Fires the scheduled tasks on a single timer thread, but runs each one on its own virtual thread - so a slow task never delays the others. Collects {@link TaskMetrics} for each {@link ScheduledTaskInterface}. Failing runs are logged and do not
+ * stop the schedule.
+ *
+ * @see TaskSchedule
+ * @see TasksSchedulerInterface#SCHEDULER
+ */
+@Log4j2
+public class TaskScheduler {
+	
+	/**
+	 * Only triggers the runs (and timeouts) - never runs the tasks themselves.
+	 */
+	private final ScheduledThreadPoolExecutor timer;
+	private final Map<ScheduledTaskInterface, TaskMetrics> metrics;
+	private ScheduledThreadPoolExecutor executor;
+	
+	public TaskScheduler() {
+		timer = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("krystal-scheduler").factory());
+		timer.setRemoveOnCancelPolicy(true);
+		metrics = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * @return Handle of the schedule - {@link ScheduledFuture#cancel(boolean) cancel} it to stop further runs (and interrupt running ones).
+	 */
+	public ScheduledFuture<?> schedule(ScheduledTaskInterface task, Runnable runnable, TaskSchedule schedule) {
+		if (schedule.getInterval() <= 0) throw new IllegalArgumentException("  ! Task %s requires positive interval.".formatted(task.name()));
+		return new ScheduledRun(task, runnable, schedule, metrics.computeIfAbsent(task, _ -> new TaskMetrics())).start();
+	}
+	
+	/**
+	 * Executor of tasks scheduled directly, created on first use - with its own thread, so the tasks never run on the timer.
+	 *
+	 * @deprecated Use {@link #schedule(ScheduledTaskInterface, Runnable, TaskSchedule)}.
+	 */
+	@Deprecated
+	public synchronized ScheduledExecutorService getExecutor() {
+		if (executor == null) executor = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("krystal-scheduled-executor").factory());
+		return executor;
+	}
+	
+	public Optional<TaskMetrics> getMetrics(ScheduledTaskInterface task) {
+		return Optional.ofNullable(metrics.get(task));
+	}
+	
+	public Map<ScheduledTaskInterface, TaskMetrics> getMetrics() {
+		return Map.copyOf(metrics);
+	}
+	
+	public String report() {
+		return "Scheduled Tasks: %s%s".formatted(
+				metrics.size(),
+				metrics.entrySet().stream().map(e -> "\n  %s: %s".formatted(e.getKey().name(), e.getValue())).collect(Collectors.joining()));
+	}
+	
+	private final class ScheduledRun implements ScheduledFuture<Void> {
+		
+		private final ScheduledTaskInterface task;
+		private final Runnable runnable;
+		private final TaskSchedule schedule;
+		private final TaskMetrics metrics;
+		private final Set<Thread> running;
+		private final CountDownLatch cancellation;
+		private volatile ScheduledFuture<?> next;
+		/**
+		 * {@link System#nanoTime()} of the next run.
+		 */
+		private volatile long planned;
+		private volatile boolean cancelled;
+		
+		private ScheduledRun(ScheduledTaskInterface task, Runnable runnable, TaskSchedule schedule, TaskMetrics metrics) {
+			this.task = task;
+			this.runnable = runnable;
+			this.schedule = schedule;
+			this.metrics = metrics;
+			running = ConcurrentHashMap.newKeySet();
+			cancellation = new CountDownLatch(1);
+		}
+		
+		private ScheduledRun start() {
+			plan(System.nanoTime() + schedule.getUnit().toNanos(schedule.getInitialDelay()));
+			return this;
+		}
+		
+		private synchronized void plan(long at) {
+			if (cancelled) return;
+			planned = at;
+			next = timer.schedule(this::fire, at - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		/**
+		 * On the timer thread.
+		 */
+		private void fire() {
+			val lag = Math.max(System.nanoTime() - planned, 0);
+			// fixed rate counts from the planned time, so the lag does not accumulate
+			if (schedule.isFixedRate()) plan(planned + period());
+			
+			if (schedule.isPreventOverlap() && !running.isEmpty()) {
+				metrics.recordSkip();
+				log.debug("  ! Scheduled task {} is still running, the run is skipped.", task.name());
+				return;
+			}
+			
+			val thread = Thread.ofVirtual().name(task.name()).unstarted(() -> execute(lag));
+			running.add(thread);
+			thread.start();
+		}
+		
+		private void execute(long lag) {
+			val thread = Thread.currentThread();
+			val timeout = schedule.getTimeout() > 0 ? timer.schedule(() -> interrupt(thread), schedule.getTimeout(), schedule.getUnit()) : null;
+			
+			val start = System.nanoTime();
+			try {
+				runnable.run();
+			} catch (RuntimeException e) {
+				metrics.recordFailure();
+				log.error("  ! Scheduled task {} failed.", task.name(), e);
+			} finally {
+				if (timeout != null) timeout.cancel(false);
+				running.remove(thread);
+				metrics.recordRun(System.nanoTime() - start, lag);
+				if (!schedule.isFixedRate()) plan(System.nanoTime() + period());
+			}
+		}
+		
+		private void interrupt(Thread thread) {
+			if (!running.contains(thread)) return;
+			metrics.recordTimeout();
+			log.warn("  ! Scheduled task {} timed-out, interrupting.", task.name());
+			thread.interrupt();
+		}
+		
+		private long period() {
+			val period = schedule.getUnit().toNanos(schedule.getInterval());
+			if (schedule.getJitter() <= 0) return period;
+			return Math.max((long) (period * (1 + schedule.getJitter() * ThreadLocalRandom.current().nextDouble(-1, 1))), 0);
+		}
+		
+		@Override
+		public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+			if (cancelled) return false;
+			cancelled = true;
+			Optional.ofNullable(next).ifPresent(future -> future.cancel(false));
+			if (mayInterruptIfRunning) running.forEach(Thread::interrupt);
+			cancellation.countDown();
+			return true;
+		}
+		
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+		
+		@Override
+		public boolean isDone() {
+			return cancelled;
+		}
+		
+		/**
+		 * Periodic schedule never completes - waits for the cancellation.
+		 */
+		@Override
+		public Void get() throws InterruptedException {
+			cancellation.await();
+			throw new CancellationException();
+		}
+		
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+			if (!cancellation.await(timeout, unit)) throw new TimeoutException();
+			throw new CancellationException();
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(planned - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+		
+	}
+	
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package krystal.framework.database.abstraction;
 import krystal.framework.database.implementation.DBCDrivers;
 import krystal.framework.database.implementation.QueryExecutor;
 import krystal.framework.database.queryfactory.DeleteStatement;
+import krystal.framework.database.queryfactory.InListStrategy;
 import krystal.framework.database.queryfactory.InsertStatement;
 import krystal.framework.database.queryfactory.QueryType;
 import krystal.framework.database.queryfactory.UpdateStatement;
@@ -32,6 +33,13 @@ public interface DBCDriverInterface {
 	 */
 	Set<QueryType> getSupportedOutputtingStatements();
 	
+	/**
+	 * Strategy for {@code IN} list of given size. By default, lists longer than {@link InListStrategy#MAXIMUM_INLINE} are {@link InListStrategy#CHUNKED chunked}.
+	 */
+	default InListStrategy getInListStrategy(int size) {
+		return size <= InListStrategy.MAXIMUM_INLINE ? InListStrategy.INLINE : InListStrategy.CHUNKED;
+	}
+	
 	default String getDriverName() {
 		return getConnectionStringBase().split(":")[1];
 	}
@@ -4,18 +4,21 @@ import krystal.Tools;
 import krystal.VirtualPromise;
 import krystal.framework.KrystalFramework;
 import krystal.framework.database.implementation.Q;
+import krystal.framework.database.queryfactory.InListStrategy;
 import krystal.framework.database.queryfactory.QueryType;
 import krystal.framework.logging.LoggingInterface;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.val;
 
+import javax.annotation.Nullable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -26,21 +29,30 @@ import java.util.stream.Stream;
  * {@link krystal.framework.database.queryfactory.InsertStatement InsertStatement},
  * {@link krystal.framework.database.queryfactory.DeleteStatement DeleteStatement},
  * or manually type with {@link Q} factory class.
+ * <p>
+ * Statements are rendered by {@link QueryRenderer} in a single pass - subclasses implement {@link #build(QueryRenderer)}. The former API is kept as deprecated adapters: {@link #getQuery()}, {@link #getPackedSteps()},
+ * {@link #setProvidersPacked(ProviderInterface)} and the mutating {@link #setProvider(ProviderInterface)}.
  */
 @Getter
 @NoArgsConstructor
-public abstract class Query implements QueryExecutionInterface, LoggingInterface {
+public abstract class Query implements QueryExecutionInterface, LoggingInterface, Cloneable {
 	
-	protected volatile StringBuilder query;
+	/**
+	 * Preceding step of the statement (i.e. {@link krystal.framework.database.queryfactory.SelectStatement SelectStatement} of its {@link krystal.framework.database.queryfactory.WhereClause WhereClause}), rendered before this one. Steps are
+	 * never modified once created - modifiers return copies (except the deprecated {@link #setProvider(ProviderInterface)}) - so a statement can be shared across threads and extended by many others, as a template.
+	 */
+	protected @Nullable Query previous;
 	protected ProviderInterface provider;
 	protected QueryType type;
-	protected List<Query> packedSteps = new LinkedList<>();
+	/**
+	 * Last {@link #sqlQuery(ProviderInterface) rendered} SQL, reused while the provider is the same.
+	 */
+	private @Getter(AccessLevel.NONE) volatile @Nullable Rendered rendered;
 	
 	public Query(Query query) {
-		this.query = query.getQuery();
+		previous = query;
 		provider = query.getProvider();
 		type = query.getType();
-		packedSteps = query.getPackedSteps();
 	}
 	
 	public Query(QueryType type) {
@@ -51,8 +63,8 @@ public abstract class Query implements QueryExecutionInterface, LoggingInterface
 		return new Query() {
 			
 			@Override
-			protected void build(StringBuilder appended, Set<String> appendLast) {
-				appended.append(sql);
+			protected void build(QueryRenderer renderer) {
+				renderer.append(sql);
 			}
 		};
 	}
@@ -63,75 +75,150 @@ public abstract class Query implements QueryExecutionInterface, LoggingInterface
 	
 	public static Object parseValueForSQL(Object value) {
 		
-		// Enquoted format
-		String withSingleQuotes = "'%s'";
 		val asString = String.valueOf(value);
 		
 		if (value == null || asString.equalsIgnoreCase("null")) return "NULL";
 		return switch (value) {
-			case String val -> String.format(withSingleQuotes, Tools.sanitizeForSql(val));
-			case LocalDateTime val -> String.format(withSingleQuotes, Tools.sanitizeForSql(val.format(KrystalFramework.getDatetimeFormat())));
-			case LocalDate val -> String.format(withSingleQuotes, Tools.sanitizeForSql(val.format(KrystalFramework.getDateFormat())));
+			case String val -> enquote(val);
+			case LocalDateTime val -> enquote(val.format(KrystalFramework.getDatetimeFormat()));
+			case LocalDate val -> enquote(val.format(KrystalFramework.getDateFormat()));
 			case Double val -> asString.replace(",", ".");
 			case Integer val -> asString;
 			case Boolean val -> val ? "1" : "0";
-			default ->
-				// else
-					String.format(withSingleQuotes, Tools.sanitizeForSql(asString));
+			default -> enquote(asString);
 		};
 		
 	}
 	
+	private static String enquote(String value) {
+		return "'" + Tools.sanitizeForSql(value) + "'";
+	}
+	
 	/**
-	 * Append stored string with current part's semantics.
+	 * Append the renderer with current part's semantics - clauses {@link QueryRenderer#appendLast(String) deferred} are appended after all steps.
 	 */
-	protected abstract void build(StringBuilder query, Set<String> appendLast);
+	protected abstract void build(QueryRenderer renderer);
 	
+	/**
+	 * @return Copy of the statement with the provider.
+	 */
+	public Query withProvider(ProviderInterface provider) {
+		Query copy = copy();
+		copy.provider = provider;
+		return copy;
+	}
+	
+	/**
+	 * Sets the provider of this statement - also for the other users of it, if the statement is shared (i.e. as a template).
+	 *
+	 * @return This statement.
+	 * @deprecated Use {@link #withProvider(ProviderInterface)}.
+	 */
+	@Deprecated
 	public Query setProvider(ProviderInterface provider) {
 		this.provider = provider;
+		rendered = null;
 		return this;
 	}
 	
 	/**
-	 * This method is used by {@link QueryExecutorInterface} to unify provider for the internal steps of the Loader. To set provider use {@link #setProvider(ProviderInterface)}.
+	 * @deprecated Steps are rendered with the provider of the last one - use {@link #withProvider(ProviderInterface)}.
 	 */
+	@Deprecated
 	public void setProvidersPacked(ProviderInterface provider) {
-		packedSteps.forEach(q -> q.setProvider(provider));
+		setProvider(provider);
 	}
 	
+	/**
+	 * Shallow copy, to be modified before it is returned - so the original stays intact. Collections held by statements are immutable, thus shared by the copies.
+	 */
+	@SuppressWarnings("unchecked")
+	protected <Q extends Query> Q copy() {
+		try {
+			val copy = (Query) super.clone();
+			copy.rendered = null;
+			return (Q) copy;
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * @return The statement {@link #sqlQuery() rendered}.
+	 * @deprecated Use {@link #sqlQuery()}.
+	 */
+	@Deprecated
+	public StringBuilder getQuery() {
+		return new StringBuilder(sqlQuery());
+	}
+	
+	/**
+	 * @return Steps of the statement, from the first one to this one.
+	 * @deprecated Steps are linked - use {@link #getPrevious()}.
+	 */
+	@Deprecated
+	public List<Query> getPackedSteps() {
+		val steps = new LinkedList<Query>();
+		for (Query step = this; step != null; step = step.getPrevious()) steps.addFirst(step);
+		return steps;
+	}
+	
+	/**
+	 * The statement as the last step of the chain - steps are linked when created, so there is nothing to collect.
+	 */
 	public Query pack() {
-		packedSteps.addLast(this);
 		return this;
 	}
 	
+	/**
+	 * Rendered with the statement's provider or {@link KrystalFramework#getDefaultProvider() default}.
+	 */
 	public String sqlQuery() {
-		if (query == null)
-			query = new StringBuilder();
-		else return query.toString();
-		
-		val appendLast = new LinkedHashSet<String>();
-		packedSteps.forEach(q -> q.build(query, appendLast));
-		packedSteps.clear();
-		appendLast.forEach(a -> query.append(" ").append(a));
-		appendLast.clear();
+		return sqlQuery(Optional.ofNullable(provider).orElseGet(KrystalFramework::getDefaultProvider));
+	}
+	
+	/**
+	 * Renders the statement with all its preceding steps, in the dialect of the provider's driver.
+	 *
+	 * @see QueryRenderer
+	 */
+	public String sqlQuery(@Nullable ProviderInterface provider) {
+		val last = rendered;
+		if (last != null && Objects.equals(last.provider(), provider)) return last.sql();
 		
-		return query.toString();
+		val sql = QueryRenderer.render(this, provider);
+		rendered = new Rendered(provider, sql);
+		return sql;
+	}
+	
+	/**
+	 * Renders the statement for execution - with bound parameters, and split into chunks where {@link InListStrategy large IN lists} require it.
+	 *
+	 * @see QueryRenderer#statements(Query, ProviderInterface)
+	 */
+	public List<QueryRenderer.SqlStatement> statements(@Nullable ProviderInterface provider) {
+		return QueryRenderer.statements(this, provider);
 	}
 	
 	public TableInterface asTable(String alias) {
-		return () -> "(%s) %s".formatted(pack().sqlQuery(), alias);
+		return () -> "(" + sqlQuery() + ") " + alias;
 	}
 	
 	public Query union(boolean all, Query query) {
-		return Query.of("""
-		                %s
-		                UNION%s
-		                %s
-		                """.formatted(pack().sqlQuery(), all ? " ALL" : "", query.pack().sqlQuery()));
+		val first = this;
+		return new Query() {
+			
+			@Override
+			protected void build(QueryRenderer renderer) {
+				renderer.query(first)
+				        .append(all ? "\nUNION ALL\n" : "\nUNION\n")
+				        .query(query)
+				        .append('\n');
+			}
+		};
 	}
 	
 	public VirtualPromise<Stream<QueryResultInterface>> promise(QueryExecutorInterface executor) {
-		pack();
 		return VirtualPromise.supply(() -> executor.execute(List.of(this)), "QueryExecutor");
 	}
 	
@@ -144,14 +231,18 @@ public abstract class Query implements QueryExecutionInterface, LoggingInterface
 		if (type != null)
 			return type;
 		
-		String query = sqlQuery(); // unpacking!
+		String query = sqlQuery();
 		for (QueryType t : QueryType.values())
-			if (query.matches(String.format("^%s[\\w\\W]*", t.toString()))) return t;
+			if (query.startsWith(t.name())) return t;
 		
 		log().warn("  ! UNDEFINED QueryType.");
 		return QueryType.UNDEFINED;
 	}
 	
+	private record Rendered(@Nullable ProviderInterface provider, String sql) {
+		
+	}
+	
 	// TODO generalize output inserted / deleted
 	// TODO test output ins / del with other drivers
 }
\ No newline at end of file
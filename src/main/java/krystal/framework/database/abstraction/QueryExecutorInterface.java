@@ -5,6 +5,7 @@ import krystal.framework.KrystalFramework;
 import krystal.framework.database.implementation.ExecutionType;
 import krystal.framework.database.implementation.QueryResult;
 import krystal.framework.database.implementation.QueryResult.ResultSetProcessingException;
+import krystal.framework.database.queryfactory.InListStrategy;
 import krystal.framework.database.queryfactory.QueryType;
 import krystal.framework.logging.LoggingInterface;
 import krystal.framework.logging.LoggingWrapper;
@@ -14,8 +15,10 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -111,7 +114,6 @@ public interface QueryExecutorInterface extends LoggingInterface {
 				              return e.getValue()
 				                      .stream()
 				                      .collect(Collectors.groupingBy(q -> {
-					                      q.setProvidersPacked(provider);
 					                      val type = q.determineType();
 					                      
 					                      if (type == QueryType.SELECT) {
@@ -129,6 +131,41 @@ public interface QueryExecutorInterface extends LoggingInterface {
 	}
 	
 	
+	/**
+	 * Executes the queries with single connection of the provider, in one transaction - all are committed, or all rolled back on the first failure. Results of the statements the driver {@link DBCDriverInterface#getSupportedOutputtingStatements()
+	 * outputs} are read, others are counted - one result per query.
+	 */
+	default List<QueryResultInterface> executeInTransaction(ProviderInterface provider, List<Query> queries) throws RuntimeException {
+		try (Connection conn = connectToJDBCProvider(provider)) {
+			val autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+			try {
+				val results = new ArrayList<QueryResultInterface>(queries.size());
+				for (var query : queries) {
+					val outputting = provider.getDriver().getSupportedOutputtingStatements().contains(query.determineType());
+					val chunks = new ArrayList<QueryResultInterface>(1);
+					var count = 0;
+					for (var statement : query.statements(provider)) {
+						log().trace("    Transaction: {}", statement.sql());
+						if (outputting) chunks.add(readStatement(conn, statement));
+						else count += writeStatement(conn, statement);
+					}
+					results.add(outputting ? (chunks.size() == 1 ? chunks.getFirst() : QueryResult.merge(chunks)) : QueryResult.of(QueryResultInterface.singleton(ColumnInterface.of("#"), count)));
+				}
+				conn.commit();
+				return results;
+			} catch (SQLException | ResultSetProcessingException | RuntimeException e) {
+				conn.rollback();
+				throw new RuntimeException("!!! Failed transaction - rolled back:\n%s\n".formatted(String.join("\n", queries.stream().map(q -> q.sqlQuery(provider)).toList())), e);
+			} finally {
+				// pooled connections are reused
+				conn.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException("!!! FATAL error during Database connection.\n", e);
+		}
+	}
+	
 	/*
 	 * JDBC
 	 */
@@ -140,21 +177,28 @@ public interface QueryExecutorInterface extends LoggingInterface {
 		};
 	}
 	
+	/**
+	 * Each query is read with its {@link Query#statements(ProviderInterface) statements} - results of chunks are merged.
+	 */
 	private Stream<QueryResultInterface> readJDBC(ProviderInterface provider, List<Query> queries) throws RuntimeException {
 		return queries.stream().map(q -> {
 			RuntimeException error;
 			try (Connection conn = connectToJDBCProvider(provider)) {
 				log().trace("  - Connected Successfully.");
 				
-				val sql = q.sqlQuery();
-				log().trace("    Loader: {}", sql);
-				try (ResultSet rs = conn.createStatement().executeQuery(sql)) {
-					return (QueryResultInterface) new QueryResult(rs);
-				} catch (SQLException e) {
-					error = new RuntimeException("!!! Failed query execution:\n%s\n".formatted(sql), e);
-				} catch (ResultSetProcessingException e) {
-					error = new RuntimeException("!!! Error processing the ResultSet.\n%s\n".formatted(sql), e);
+				val statements = q.statements(provider);
+				val results = new ArrayList<QueryResultInterface>(statements.size());
+				for (var statement : statements) {
+					log().trace("    Loader: {}", statement.sql());
+					try {
+						results.add(readStatement(conn, statement));
+					} catch (SQLException e) {
+						throw new RuntimeException("!!! Failed query execution:\n%s\n".formatted(statement.sql()), e);
+					} catch (ResultSetProcessingException e) {
+						throw new RuntimeException("!!! Error processing the ResultSet.\n%s\n".formatted(statement.sql()), e);
+					}
 				}
+				return results.size() == 1 ? results.getFirst() : QueryResult.merge(results);
 			} catch (SQLException e) {
 				error = new RuntimeException("!!! FATAL error during Database connection.\n", e);
 			}
@@ -163,30 +207,130 @@ public interface QueryExecutorInterface extends LoggingInterface {
 		
 	}
 	
+	/**
+	 * Statements are batched, unless any binds parameters or uses temporary tables - then they are executed one by one. Either way, there is one result per query, summing the counts of its chunks.
+	 */
 	private Stream<QueryResultInterface> writeJDBC(ProviderInterface provider, List<Query> queries) throws RuntimeException {
 		try (Connection conn = connectToJDBCProvider(provider)) {
 			log().trace("    Connected Successfully.");
-			val batch = conn.createStatement();
 			
-			val sqls = queries.stream().map(Query::sqlQuery).toList();
-			
-			for (val sql : sqls) {
-				log().trace("    Writer: {}", sql);
-				batch.addBatch(sql);
-			}
+			val statements = queries.stream().map(q -> q.statements(provider)).toList();
+			val flat = statements.stream().flatMap(List::stream).toList();
+			val counts = new int[flat.size()];
 			
 			try {
-				val result = batch.executeBatch();
-				return Arrays.stream(result).mapToObj(i -> QueryResult.of(QueryResultInterface.singleton(ColumnInterface.of("#"), i)));
+				if (flat.stream().allMatch(QueryRenderer.SqlStatement::isBatchable)) {
+					val batch = conn.createStatement();
+					for (val statement : flat) {
+						log().trace("    Writer: {}", statement.sql());
+						batch.addBatch(statement.sql());
+					}
+					System.arraycopy(batch.executeBatch(), 0, counts, 0, counts.length);
+				} else {
+					for (var i = 0; i < flat.size(); i++) {
+						log().trace("    Writer: {}", flat.get(i).sql());
+						counts[i] = writeStatement(conn, flat.get(i));
+					}
+				}
 			} catch (SQLException e) {
-				throw new RuntimeException("!!! Failed query execution:\n%s\n".formatted(String.join("\n", sqls)), e);
+				throw new RuntimeException("!!! Failed query execution:\n%s\n".formatted(String.join("\n", flat.stream().map(QueryRenderer.SqlStatement::sql).toList())), e);
+			}
+			
+			val results = new ArrayList<QueryResultInterface>(statements.size());
+			var position = 0;
+			for (var chunks : statements) {
+				var count = 0;
+				for (var i = 0; i < chunks.size(); i++) count += counts[position++];
+				results.add(QueryResult.of(QueryResultInterface.singleton(ColumnInterface.of("#"), count)));
 			}
+			return results.stream();
 			
 		} catch (Exception e) {
 			throw new RuntimeException("!!! FATAL error during Database connection.\n", e);
 		}
 	}
 	
+	private QueryResultInterface readStatement(Connection conn, QueryRenderer.SqlStatement statement) throws SQLException, ResultSetProcessingException {
+		try (var jdbc = prepare(conn, statement)) {
+			var isResultSet = execute(jdbc, statement);
+			// counts (i.e. of triggers) may be reported before the result
+			while (!isResultSet && jdbc.getUpdateCount() != -1) isResultSet = jdbc.getMoreResults();
+			if (!isResultSet) return QueryResultInterface.empty();
+			
+			try (ResultSet rs = jdbc.getResultSet()) {
+				return new QueryResult(rs);
+			}
+		} finally {
+			dropTemporaryTables(conn, statement);
+		}
+	}
+	
+	private int writeStatement(Connection conn, QueryRenderer.SqlStatement statement) throws SQLException {
+		try (var jdbc = prepare(conn, statement)) {
+			var isResultSet = execute(jdbc, statement);
+			var count = 0;
+			while (true) {
+				if (!isResultSet) {
+					val updated = jdbc.getUpdateCount();
+					if (updated == -1) break;
+					count += updated;
+				}
+				isResultSet = jdbc.getMoreResults();
+			}
+			return count;
+		} finally {
+			dropTemporaryTables(conn, statement);
+		}
+	}
+	
+	/**
+	 * Creates the statement's temporary tables and fills them with batched, parameterized inserts - on the connection the statement is executed with.
+	 */
+	private void fillTemporaryTables(Connection conn, QueryRenderer.SqlStatement statement) throws SQLException {
+		for (var table : statement.temporaryTables()) {
+			try (var create = conn.createStatement()) {
+				create.execute(table.drop());
+				create.execute(table.create());
+			}
+			try (var insert = conn.prepareStatement(table.insert())) {
+				val values = table.values();
+				for (var i = 0; i < values.size(); i++) {
+					insert.setObject(1, values.get(i));
+					insert.addBatch();
+					if ((i + 1) % InListStrategy.MAXIMUM_INLINE == 0 || i == values.size() - 1) insert.executeBatch();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Pooled connections are reused, so temporary tables are dropped as soon as the statement is executed.
+	 */
+	private void dropTemporaryTables(Connection conn, QueryRenderer.SqlStatement statement) {
+		if (statement.temporaryTables().isEmpty()) return;
+		try (var drop = conn.createStatement()) {
+			for (var table : statement.temporaryTables()) drop.execute(table.drop());
+		} catch (SQLException e) {
+			log().warn("  ! Temporary tables could not be dropped: {}", e.getMessage());
+		}
+	}
+	
+	private Statement prepare(Connection conn, QueryRenderer.SqlStatement statement) throws SQLException {
+		fillTemporaryTables(conn, statement);
+		if (statement.parameters().isEmpty()) return conn.createStatement();
+		
+		val prepared = conn.prepareStatement(statement.sql());
+		for (var i = 0; i < statement.parameters().size(); i++) {
+			val parameter = statement.parameters().get(i);
+			prepared.setObject(i + 1, parameter instanceof QueryRenderer.ArrayParameter array ? conn.createArrayOf(array.type(), array.elements()) : parameter);
+		}
+		return prepared;
+	}
+	
+	private boolean execute(Statement jdbc, QueryRenderer.SqlStatement statement) throws SQLException {
+		return jdbc instanceof PreparedStatement prepared ? prepared.execute() : jdbc.execute(statement.sql());
+	}
+	
 	/*
 	 * Connectors
 	 */
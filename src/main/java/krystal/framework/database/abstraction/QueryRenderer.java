@@ -0,0 +1,388 @@
+package krystal.framework.database.abstraction;
+
+import krystal.framework.database.queryfactory.ColumnsComparisonInterface;
+import krystal.framework.database.queryfactory.InListStrategy;
+import krystal.framework.database.queryfactory.QueryType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Renders {@link Query} steps, from the first one, in a single pass into one {@link StringBuilder} - in the dialect of the provider's {@link DBCDriverInterface driver}. Clauses which the dialect requires at the very end of the statement (i.e.
+ * {@code LIMIT}) are {@link #appendLast(String) deferred} until all steps are rendered. Sub-queries are rendered into the same builder.
+ * <p>
+ * Rendered {@link #statements(Query, ProviderInterface) for execution}, the query can {@link #bind(Object) bind parameters}, use {@link #temporaryTable(List) temporary tables} and be split into {@link #chunk(List) chunks}. Rendered as
+ * {@link #render(Query, ProviderInterface) text}, it is always a single, self-contained statement.
+ *
+ * @see Query#sqlQuery(ProviderInterface)
+ * @see InListStrategy
+ */
+public class QueryRenderer {
+	
+	/**
+	 * Builders above this capacity are not kept for reuse.
+	 */
+	public static final int MAXIMUM_REUSED_CAPACITY = 64 * 1024;
+	
+	private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+	/**
+	 * Chunk number of the statements rendered whole.
+	 */
+	private static final int WHOLE = -1;
+	
+	private final StringBuilder sql;
+	private final @Getter @Nullable ProviderInterface provider;
+	/**
+	 * Rendered for execution, rather than as text.
+	 */
+	private final @Getter boolean executable;
+	private final int chunk;
+	private final List<Object> parameters;
+	private @Nullable Set<String> appendLast;
+	private @Nullable List<TemporaryTable> temporaryTables;
+	/**
+	 * Number of chunks the query is split into.
+	 */
+	private @Getter int chunks;
+	private boolean chunked;
+	/**
+	 * Set while rendering conditions which can be split into separate statements - i.e. joined with {@code AND} only.
+	 */
+	private @Getter @Setter boolean chunkable;
+	/**
+	 * Set when results of the chunks could not be simply merged - the statement orders, limits, groups, aggregates or de-duplicates its rows.
+	 */
+	private boolean whole;
+	/**
+	 * Set once the currently rendered query opened its {@code WHERE} clause.
+	 */
+	private boolean filtered;
+	
+	public QueryRenderer(StringBuilder sql, @Nullable ProviderInterface provider) {
+		this(sql, provider, false, 0);
+	}
+	
+	private QueryRenderer(StringBuilder sql, @Nullable ProviderInterface provider, boolean executable, int chunk) {
+		this.sql = sql;
+		this.provider = provider;
+		this.executable = executable;
+		this.chunk = chunk;
+		parameters = new ArrayList<>();
+		chunks = 1;
+	}
+	
+	/**
+	 * Renders the query as text into the thread's reused builder.
+	 */
+	public static String render(Query query, @Nullable ProviderInterface provider) {
+		return withBuffer(sql -> {
+			new QueryRenderer(sql, provider).query(query);
+			return sql.toString();
+		});
+	}
+	
+	/**
+	 * Renders the query for execution - one statement for each chunk. Only {@code SELECT} statements which results can be merged are split - so writes are never partially applied, and statements {@link #keepWhole() kept whole} are
+	 * rendered again as single one.
+	 */
+	public static List<SqlStatement> statements(Query query, @Nullable ProviderInterface provider) {
+		if (query.getType() != QueryType.SELECT) return List.of(whole(query, provider));
+		
+		val statements = new ArrayList<SqlStatement>(1);
+		var chunks = 1;
+		for (var chunk = 0; chunk < chunks; chunk++) {
+			val current = chunk;
+			val rendering = withBuffer(sql -> new QueryRenderer(sql, provider, true, current).query(query).statement());
+			if (rendering.whole() && rendering.chunks() > 1) return List.of(whole(query, provider));
+			statements.add(rendering.statement());
+			chunks = rendering.chunks();
+		}
+		return statements;
+	}
+	
+	/**
+	 * Single statement, with large {@code IN} lists chunked within it.
+	 */
+	private static SqlStatement whole(Query query, @Nullable ProviderInterface provider) {
+		return withBuffer(sql -> new QueryRenderer(sql, provider, true, WHOLE).query(query).statement()).statement();
+	}
+	
+	/**
+	 * Renders started while rendering (i.e. {@link Query#asTable(String) queries as tables}) get their own builder.
+	 */
+	private static <T> T withBuffer(Function<StringBuilder, T> rendering) {
+		val reused = buffers.get();
+		val sql = reused == null ? new StringBuilder(256) : reused;
+		buffers.remove();
+		try {
+			sql.setLength(0);
+			return rendering.apply(sql);
+		} finally {
+			if (sql.capacity() <= MAXIMUM_REUSED_CAPACITY) buffers.set(sql);
+		}
+	}
+	
+	private Rendering statement() {
+		return new Rendering(new SqlStatement(sql.toString(), List.copyOf(parameters), temporaryTables == null ? List.of() : List.copyOf(temporaryTables)), chunks, whole);
+	}
+	
+	public @Nullable DBCDriverInterface getDriver() {
+		return provider == null ? null : provider.getDriver();
+	}
+	
+	/**
+	 * @see DBCDriverInterface#getInListStrategy(int)
+	 */
+	public InListStrategy getInListStrategy(int size) {
+		val driver = getDriver();
+		return driver == null ? InListStrategy.INLINE : driver.getInListStrategy(size);
+	}
+	
+	/**
+	 * Renders the query with all its preceding steps, followed by its deferred clauses.
+	 */
+	public QueryRenderer query(Query query) {
+		val steps = new ArrayDeque<Query>();
+		for (var step = query; step != null; step = step.getPrevious()) steps.push(step);
+		
+		val outer = appendLast;
+		val outerChunkable = chunkable;
+		val outerFiltered = filtered;
+		appendLast = null;
+		chunkable = false;
+		filtered = false;
+		steps.forEach(step -> step.build(this));
+		if (appendLast != null) appendLast.forEach(a -> sql.append(' ').append(a));
+		appendLast = outer;
+		chunkable = outerChunkable;
+		filtered = outerFiltered;
+		return this;
+	}
+	
+	public QueryRenderer comparison(ColumnsComparisonInterface comparison) {
+		comparison.render(this);
+		return this;
+	}
+	
+	public QueryRenderer append(CharSequence part) {
+		sql.append(part);
+		return this;
+	}
+	
+	public QueryRenderer append(char part) {
+		sql.append(part);
+		return this;
+	}
+	
+	public QueryRenderer append(long part) {
+		sql.append(part);
+		return this;
+	}
+	
+	public QueryRenderer append(Object part) {
+		sql.append(part);
+		return this;
+	}
+	
+	public <T> QueryRenderer join(Iterable<T> parts, String delimiter, Function<T, ?> mapper) {
+		var first = true;
+		for (var part : parts) {
+			if (!first) sql.append(delimiter);
+			sql.append(mapper.apply(part));
+			first = false;
+		}
+		return this;
+	}
+	
+	public QueryRenderer columns(Iterable<ColumnInterface> columns) {
+		return join(columns, ", ", ColumnInterface::getSqlName);
+	}
+	
+	/**
+	 * Opens the {@code WHERE} clause of the currently rendered query or, if a statement already opened it (i.e. with join conditions of its source), continues it with {@code AND (} - then the conditions have to be closed with the bracket.
+	 *
+	 * @return {@code true} if continued.
+	 */
+	public boolean where() {
+		if (!filtered) {
+			filtered = true;
+			sql.append(" WHERE ");
+			return false;
+		}
+		sql.append(" AND (");
+		return true;
+	}
+	
+	/**
+	 * Appended at the end of the currently rendered query, once.
+	 */
+	public QueryRenderer appendLast(String clause) {
+		if (appendLast == null) appendLast = new LinkedHashSet<>();
+		appendLast.add(clause);
+		return this;
+	}
+	
+	/**
+	 * Position to {@link #wrap(int, String, String) wrap} the query rendered from.
+	 */
+	public int mark() {
+		return sql.length();
+	}
+	
+	/**
+	 * Surrounds everything rendered since the {@link #mark() mark}.
+	 */
+	public QueryRenderer wrap(int mark, String prefix, String suffix) {
+		sql.insert(mark, prefix).append(suffix);
+		return this;
+	}
+	
+	/**
+	 * Placeholder of the parameter - only when {@link #isExecutable() executable}.
+	 *
+	 * @see ArrayParameter
+	 */
+	public QueryRenderer bind(Object parameter) {
+		if (!executable) throw new IllegalStateException("Parameters can be bound only to executed statements.");
+		parameters.add(parameter);
+		sql.append('?');
+		return this;
+	}
+	
+	/**
+	 * SQL Server's session temporary table with single {@code v} column, filled with the values (bound as parameters, in batches) before the statement and dropped after it - only when {@link #isExecutable() executable}.
+	 *
+	 * @return Name of the table.
+	 * @see TemporaryTable
+	 */
+	public String temporaryTable(List<?> values) {
+		if (!executable) throw new IllegalStateException("Temporary tables can be used only by executed statements.");
+		if (temporaryTables == null) temporaryTables = new ArrayList<>();
+		
+		val table = TemporaryTable.of("#krystal_in_" + (temporaryTables.size() + 1), values);
+		temporaryTables.add(table);
+		return table.name();
+	}
+	
+	/**
+	 * Marks the statement as one which results of {@link #chunk(List) chunks} could not be merged (i.e. ordered or limited) - so it is executed as single statement, with the chunks joined.
+	 */
+	public QueryRenderer keepWhole() {
+		whole = true;
+		return this;
+	}
+	
+	/**
+	 * Part of the values for the currently rendered chunk - if the statement is {@link #isExecutable() executed} as split, the values are {@link #isChunkable() chunkable}, and no other values were chunked within the statement. Otherwise, all
+	 * values.
+	 */
+	public <T> List<T> chunk(List<T> values) {
+		if (!executable || !chunkable || chunked || chunk == WHOLE || values.size() <= InListStrategy.MAXIMUM_INLINE) return values;
+		
+		chunked = true;
+		chunks = (values.size() + InListStrategy.MAXIMUM_INLINE - 1) / InListStrategy.MAXIMUM_INLINE;
+		val from = chunk * InListStrategy.MAXIMUM_INLINE;
+		return values.subList(from, Math.min(from + InListStrategy.MAXIMUM_INLINE, values.size()));
+	}
+	
+	/**
+	 * SQL of the statement and parameters to bind, in order.
+	 *
+	 * @param temporaryTables Created and filled before the statement, on the same connection - so it can not be batched.
+	 */
+	public record SqlStatement(String sql, List<Object> parameters, List<TemporaryTable> temporaryTables) {
+		
+		public boolean isBatchable() {
+			return parameters.isEmpty() && temporaryTables.isEmpty();
+		}
+		
+	}
+	
+	/**
+	 * SQL Server's session temporary table of single {@code v} column, typed after the values (mixed types are stored as text). Filled with {@link #insert() parameterized insert}, executed in batches of {@link InListStrategy#MAXIMUM_INLINE}
+	 * values - so neither the statement's text nor its plan depend on the values.
+	 */
+	public record TemporaryTable(String name, String type, List<Object> values) {
+		
+		public static TemporaryTable of(String name, List<?> values) {
+			val first = values.isEmpty() ? null : values.getFirst();
+			val homogeneous = first != null && values.stream().allMatch(v -> v != null && v.getClass() == first.getClass());
+			val type = switch (homogeneous ? first : null) {
+				case Integer _ -> "int";
+				case Long _ -> "bigint";
+				case Short _ -> "smallint";
+				case BigDecimal _ -> "decimal(38, %d)".formatted(Math.min(values.stream().mapToInt(v -> Math.max(((BigDecimal) v).scale(), 0)).max().orElse(0), 18));
+				case Double _, Float _ -> "float";
+				case Boolean _ -> "bit";
+				case UUID _ -> "uniqueidentifier";
+				case LocalDate _ -> "date";
+				case LocalDateTime _, Timestamp _ -> "datetime2";
+				case null, default -> values.stream().anyMatch(v -> String.valueOf(v).length() > 4000) ? "nvarchar(max)" : "nvarchar(4000)";
+			};
+			val bound = values.stream().map(v -> homogeneous ? switch (v) {
+				case LocalDate date -> java.sql.Date.valueOf(date);
+				case LocalDateTime dateTime -> Timestamp.valueOf(dateTime);
+				case Integer _, Long _, Short _, BigDecimal _, Double _, Float _, Boolean _, Timestamp _ -> v;
+				default -> String.valueOf(v);
+			} : String.valueOf(v)).toList();
+			return new TemporaryTable(name, type, bound);
+		}
+		
+		public String create() {
+			return "CREATE TABLE " + name + " (v " + type + ")";
+		}
+		
+		public String insert() {
+			return "INSERT INTO " + name + " (v) VALUES (?)";
+		}
+		
+		public String drop() {
+			return "DROP TABLE IF EXISTS " + name;
+		}
+		
+	}
+	
+	/**
+	 * Array bound as single parameter, with the element type named as by PostgreSQL (other drivers, like H2, derive it from the elements). Values of mixed types are bound as text.
+	 */
+	public record ArrayParameter(String type, Object[] elements) {
+		
+		public static ArrayParameter of(List<?> values) {
+			val first = values.isEmpty() ? null : values.getFirst();
+			val homogeneous = first != null && values.stream().allMatch(v -> v != null && v.getClass() == first.getClass());
+			val type = switch (homogeneous ? first : null) {
+				case Integer _ -> "int4";
+				case Long _ -> "int8";
+				case Short _ -> "int2";
+				case BigDecimal _ -> "numeric";
+				case Double _, Float _ -> "float8";
+				case Boolean _ -> "bool";
+				case UUID _ -> "uuid";
+				case LocalDate _ -> "date";
+				case LocalDateTime _, Timestamp _ -> "timestamp";
+				case null, default -> "varchar";
+			};
+			val elements = values.stream().map(v -> homogeneous ? switch (v) {
+				case LocalDate date -> java.sql.Date.valueOf(date);
+				case LocalDateTime dateTime -> Timestamp.valueOf(dateTime);
+				case Integer _, Long _, Short _, BigDecimal _, Double _, Float _, Boolean _, UUID _, Timestamp _ -> v;
+				default -> String.valueOf(v);
+			} : String.valueOf(v)).toArray();
+			return new ArrayParameter(type, elements);
+		}
+		
+	}
+	
+	private record Rendering(SqlStatement statement, int chunks, boolean whole) {
+		
+	}
+	
+}
\ No newline at end of file
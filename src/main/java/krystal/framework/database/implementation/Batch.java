@@ -19,7 +19,6 @@ public class Batch implements QueryExecutionInterface, LoggingInterface {
 	@Singular protected List<Query> queries;
 	
 	public VirtualPromise<Stream<QueryResultInterface>> promise(QueryExecutorInterface queryExecutor) {
-		queries.forEach(Query::pack);
 		return VirtualPromise.supply(() -> queryExecutor.execute(queries), "QueryExecutor Batch");
 	}
 	
@@ -28,7 +27,7 @@ public class Batch implements QueryExecutionInterface, LoggingInterface {
 	}
 	
 	public Batch setProviders(ProviderInterface provider) {
-		queries.forEach(q -> q.setProvider(provider));
+		queries = queries.stream().map(q -> q.withProvider(provider)).toList();
 		return this;
 	}
 	
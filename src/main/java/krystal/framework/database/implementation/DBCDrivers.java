@@ -1,6 +1,7 @@
 package krystal.framework.database.implementation;
 
 import krystal.framework.database.abstraction.DBCDriverInterface;
+import krystal.framework.database.queryfactory.InListStrategy;
 import krystal.framework.database.queryfactory.QueryType;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
@@ -13,17 +14,27 @@ import java.util.Set;
 @Log4j2
 @Getter
 public enum DBCDrivers implements DBCDriverInterface {
-	jdbcSQLServer("jdbc:sqlserver://", QueryType.CUDs()),
-	jdbcAS400("jdbc:as400://", QueryType.INSERT),
-	jdbcH2("jdbc:h2:"),
-	jdbcPostgresql("jdbc:postgresql://"),
-	jdbcMySQL("jdbc:mysql://");
+	jdbcSQLServer("jdbc:sqlserver://", InListStrategy.TEMP_TABLE, QueryType.CUDs()),
+	jdbcAS400("jdbc:as400://", InListStrategy.CHUNKED, QueryType.INSERT),
+	jdbcH2("jdbc:h2:", InListStrategy.ARRAY),
+	jdbcPostgresql("jdbc:postgresql://", InListStrategy.ARRAY),
+	jdbcMySQL("jdbc:mysql://", InListStrategy.CHUNKED);
 	
 	private final String connectionStringBase;
 	private final Set<QueryType> supportedOutputtingStatements;
+	/**
+	 * Strategy for {@code IN} lists above {@link InListStrategy#MAXIMUM_INLINE}.
+	 */
+	private final InListStrategy largeInListStrategy;
 	
-	DBCDrivers(String connectionStringBase, QueryType... supportedOutputtingStatements) {
+	DBCDrivers(String connectionStringBase, InListStrategy largeInListStrategy, QueryType... supportedOutputtingStatements) {
 		this.connectionStringBase = connectionStringBase;
+		this.largeInListStrategy = largeInListStrategy;
 		this.supportedOutputtingStatements = Set.of(supportedOutputtingStatements);
 	}
+	
+	@Override
+	public InListStrategy getInListStrategy(int size) {
+		return size <= InListStrategy.MAXIMUM_INLINE ? InListStrategy.INLINE : largeInListStrategy;
+	}
 }
\ No newline at end of file
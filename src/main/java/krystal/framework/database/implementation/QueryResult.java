@@ -8,10 +8,7 @@ import lombok.val;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -79,6 +76,29 @@ public record QueryResult(List<Map<ColumnInterface, Object>> rows, Map<ColumnInt
 		return new QueryResult(qr);
 	}
 	
+	/**
+	 * Rows of all the results, under the columns of the first one (matched by name) - i.e. of the chunks of single query.
+	 */
+	public static QueryResultInterface merge(List<QueryResultInterface> results) {
+		val merged = new QueryResult();
+		if (results.isEmpty()) return merged;
+		
+		merged.columns().putAll(results.getFirst().columns());
+		val rows = new ArrayList<Map<ColumnInterface, Object>>();
+		results.forEach(qr -> {
+			val byName = new HashMap<String, ColumnInterface>();
+			qr.columns().keySet().forEach(c -> byName.put(c.getSqlName(), c));
+			qr.rows().forEach(row -> {
+				Map<ColumnInterface, Object> mapped = Collections.synchronizedMap(LinkedHashMap.newLinkedHashMap(merged.columns().size()));
+				merged.columns().keySet().forEach(c -> mapped.put(c, Optional.ofNullable(byName.get(c.getSqlName())).map(row::get).orElse(null)));
+				rows.add(mapped);
+			});
+		});
+		// single copy of the copy-on-write list
+		merged.rows().addAll(rows);
+		return merged;
+	}
+	
 	@Override
 	public String toString() {
 		return this.renderAsStringTable();
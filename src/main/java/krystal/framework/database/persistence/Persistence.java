@@ -8,16 +8,24 @@ import krystal.framework.database.abstraction.QueryResultInterface;
 import krystal.framework.database.persistence.annotations.*;
 import krystal.framework.database.persistence.filters.PersistenceFilters;
 import krystal.framework.database.persistence.filters.StatementModifiers;
+import krystal.framework.database.persistence.filters.ValuesAggregate;
 import krystal.framework.database.persistence.filters.ValuesOrder;
 import krystal.framework.database.queryfactory.WhereClause;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import lombok.extern.log4j.Log4j2;
+import lombok.val;
 
 import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Retrieval operations on {@link Entity} objects.
@@ -29,6 +37,7 @@ import java.util.stream.Stream;
  * @see #promiseAll(Class, UnaryOperator)
  * @see #promiseAll(Class, QueryExecutorInterface)
  * @see #promiseAll(Class, QueryExecutorInterface, StatementModifiers, Object)
+ * @see #promiseAggregate(Class, PersistenceFilters)
  */
 @UtilityClass
 @Log4j2
@@ -47,13 +56,15 @@ public class Persistence {
 	 * @see ReadOnly @ReadOnly
 	 */
 	public <T> VirtualPromise<Stream<T>> promiseAll(Class<T> clazz, QueryExecutorInterface queryExecutor, @Nullable StatementModifiers modifiers, @Nullable T optionalDummyType) {
+		// partial objects of projected columns are not memorized
+		val projected = modifiers != null && !modifiers.getColumns().isEmpty();
 		return PersistenceInterface.getQuery(clazz, modifiers, optionalDummyType)
 		                           .promise(queryExecutor)
 		                           .map(s -> s.findFirst().orElse(QueryResultInterface.empty()))
-		                           .compose(qr -> qr.toStreamOf(clazz))
+		                           .compose(qr -> projected ? PersistenceInterface.mapQueryResultPartially(qr, clazz) : qr.toStreamOf(clazz))
 		                           .map(s -> s.peek(o -> Tools.runAnnotatedMethods(Reader.class, o)))
 		                           .map(s -> {
-			                           if (!PersistenceInterface.class.isAssignableFrom(clazz) || clazz.isAnnotationPresent(Fresh.class)) return s;
+			                           if (!PersistenceInterface.class.isAssignableFrom(clazz) || clazz.isAnnotationPresent(Fresh.class) || projected) return s;
 			                           return PersistenceMemory.getInstance()
 			                                                   .map(inMemory -> s.peek(o -> ((PersistenceInterface) o).memorize(inMemory)))
 			                                                   .orElse(s);
@@ -61,8 +72,27 @@ public class Persistence {
 	}
 	
 	/**
-	 * Unless {@link Fresh @Fresh} or explicitly set false {@link PersistenceFilters#isMemorized()}, attempts to load {@code atLeast} number of objects from {@link PersistenceMemory}. If the number is not satisfied - loads elements from database with
-	 * {@link #promiseAll(Class, QueryExecutorInterface, StatementModifiers, Object)}.
+	 * Unless {@link Fresh @Fresh} or explicitly set false {@link PersistenceFilters#isMemorized()}, answers from {@link PersistenceMemory} if it holds {@link PersistenceMemory#isComplete(Class, PersistenceFilters) complete} set of objects for the filters
+	 * (i.e. after previous unfiltered load). Otherwise, loads from database with {@link #promiseAll(Class, QueryExecutorInterface, StatementModifiers, Object)} - and, unless the load is a page or projection, marks the loaded set as complete once the stream is consumed.
+	 *
+	 * @see #promiseAll(Class, int, PersistenceFilters)
+	 * @see Fresh
+	 * @see Memorized
+	 */
+	public <T> VirtualPromise<Stream<T>> promiseAll(Class<T> clazz, @Nullable PersistenceFilters filters) {
+		if (filters == null) return promiseAll(clazz);
+		if (clazz.isAnnotationPresent(Fresh.class) || !filters.isMemorized()) return promiseAll(clazz, filters.toStatementModifiers(clazz));
+		
+		val memory = PersistenceMemory.getInstance();
+		if (memory.filter(mem -> mem.isComplete(clazz, filters)).isPresent())
+			return VirtualPromise.supply(() -> fromMemory(clazz, memory.get().find(clazz, filters), filters));
+		
+		return filters.getAfter() != null || filters.isProjected() ? promiseAll(clazz, filters.toStatementModifiers(clazz)) : promiseComplete(clazz, filters);
+	}
+	
+	/**
+	 * Opts in to partial answers - like {@link #promiseAll(Class, PersistenceFilters)}, but if the memory is not complete for the filters and still holds at least {@code atLeast} matching objects, answers with them, even though the database may hold
+	 * more. Following pages ({@link PersistenceFilters#getAfter() after} the cursor) are never answered partially.
 	 *
 	 * @param atLeast
 	 * 		If 0, then the method will load only from {@link PersistenceMemory}.
@@ -70,33 +100,101 @@ public class Persistence {
 	 * @see Memorized
 	 */
 	public <T> VirtualPromise<Stream<T>> promiseAll(Class<T> clazz, int atLeast, @NonNull PersistenceFilters filters) {
-		if (clazz.isAnnotationPresent(Fresh.class) || !filters.isMemorized()) return promiseAll(clazz, filters.toStatementModifiers(clazz));
+		if (clazz.isAnnotationPresent(Fresh.class) || !filters.isMemorized() || filters.getAfter() != null) return promiseAll(clazz, filters);
+		
 		return VirtualPromise.supply(() -> PersistenceMemory.getInstance()
 		                                                    .filter(mem -> mem.containsAny(clazz))
-		                                                    .map(mem -> mem.find(clazz, filters.toPredicate()))
+		                                                    .map(mem -> mem.find(clazz, filters))
 		                                                    .orElse(List.of()))
 		                     .compose(memorized -> {
 			                     if (memorized.size() >= (Math.max(atLeast, 0))) {
-				                     return VirtualPromise.supply(() -> !filters.getOrderBy().isEmpty() ? ValuesOrder.sort(memorized, filters.getOrderBy(), clazz) : memorized.stream());
+				                     return VirtualPromise.supply(() -> fromMemory(clazz, memorized, filters));
 			                     } else {
-				                     return promiseAll(clazz, filters.toStatementModifiers(clazz));
+				                     return promiseAll(clazz, filters);
 			                     }
 		                     });
 	}
 	
 	/**
-	 * @see #promiseAll(Class, int, PersistenceFilters)
+	 * Loads from database and, once all objects are consumed (so memorized), marks them as {@link PersistenceMemory#markComplete(Class, PersistenceFilters, long) complete} for the filters.
 	 */
-	public <T> VirtualPromise<Stream<T>> promiseAll(Class<T> clazz, @Nullable PersistenceFilters filter) {
-		if (filter == null) return promiseAll(clazz);
-		return promiseAll(clazz, 1, filter);
+	private <T> VirtualPromise<Stream<T>> promiseComplete(Class<T> clazz, @Nullable PersistenceFilters filters) {
+		val modifiers = filters == null ? null : filters.toStatementModifiers(clazz);
+		if (!PersistenceInterface.class.isAssignableFrom(clazz) || clazz.isAnnotationPresent(Fresh.class)) return promiseAll(clazz, modifiers);
+		
+		return PersistenceMemory.getInstance().map(mem -> {
+			val version = mem.getCompletenessVersion(clazz);
+			return promiseAll(clazz, modifiers).map(s -> whenConsumed(s, () -> mem.markComplete(clazz, filters, version)));
+		}).orElseGet(() -> promiseAll(clazz, modifiers));
+	}
+	
+	/**
+	 * {@link PersistenceFilters#isAggregated() Aggregated} rows - named by grouping fields and {@link ValuesAggregate#alias() aggregates' aliases}. Computed from {@link PersistenceMemory} only if it holds the
+	 * {@link PersistenceMemory#isComplete(Class, PersistenceFilters) complete} set of objects for the filters (and the aggregates are {@link PersistenceFilters#isComputable(Class) computable} in memory), otherwise pushed down to the database as
+	 * {@code SELECT ... GROUP BY}, so no objects are loaded.
+	 *
+	 * @throws IllegalArgumentException If the filters are not {@link PersistenceFilters#validate(Class) valid} for the class.
+	 */
+	public <T> VirtualPromise<List<Map<String, Object>>> promiseAggregate(Class<T> clazz, @NonNull PersistenceFilters filters) {
+		filters.validate(clazz);
+		
+		val memory = PersistenceMemory.getInstance();
+		if (!clazz.isAnnotationPresent(Fresh.class) && filters.isMemorized() && filters.isComputable(clazz) && memory.filter(mem -> mem.isComplete(clazz, filters)).isPresent())
+			return VirtualPromise.supply(() -> ValuesAggregate.aggregate(memory.get().find(clazz, filters), filters.getGroupBy(), filters.getAggregates(), clazz, filters.getOrderBy(), filters.getLimit()));
+		
+		// columns of the result are renamed by position - drivers may change the case of the aliases
+		val names = Stream.concat(filters.getGroupBy().stream(), filters.getAggregates().stream().map(ValuesAggregate::alias)).toList();
+		return PersistenceInterface.getQuery(clazz, filters.toStatementModifiers(clazz), null)
+		                           .promise(QueryExecutorInterface.getInstance().orElseThrow())
+		                           .map(s -> s.findFirst().orElse(QueryResultInterface.empty()))
+		                           .map(qr -> qr.rows().stream().map(row -> {
+			                           val named = LinkedHashMap.<String, Object>newLinkedHashMap(names.size());
+			                           val values = row.values().iterator();
+			                           for (var name : names) named.put(name, values.hasNext() ? values.next() : null);
+			                           return (Map<String, Object>) named;
+		                           }).toList());
+	}
+	
+	/**
+	 * The same elements, not collected - the action runs once the last of them is consumed. Never, if the stream is abandoned before.
+	 */
+	<T> Stream<T> whenConsumed(Stream<T> stream, Runnable action) {
+		val source = stream.spliterator();
+		return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(source.estimateSize(), source.characteristics() & ~Spliterator.SORTED) {
+			private boolean consumed;
+			
+			@Override
+			public boolean tryAdvance(Consumer<? super T> consumer) {
+				if (source.tryAdvance(consumer)) return true;
+				consume();
+				return false;
+			}
+			
+			@Override
+			public void forEachRemaining(Consumer<? super T> consumer) {
+				source.forEachRemaining(consumer);
+				consume();
+			}
+			
+			private void consume() {
+				if (consumed) return;
+				consumed = true;
+				action.run();
+			}
+		}, false).onClose(stream::close);
+	}
+	
+	private <T> Stream<T> fromMemory(Class<T> clazz, List<T> found, PersistenceFilters filters) {
+		val memorized = filters.getAfter() == null ? found : found.stream().filter(ValuesOrder.after(filters.getOrderBy(), filters.getAfter(), clazz)).toList();
+		val stream = !filters.getOrderBy().isEmpty() ? ValuesOrder.sort(memorized, filters.getOrderBy(), clazz, filters.getLimit()) : memorized.stream();
+		return filters.getLimit() == null ? stream : stream.limit(filters.getLimit());
 	}
 	
 	/**
 	 * @see #promiseAll(Class, QueryExecutorInterface, StatementModifiers, Object)
 	 */
 	public <T> VirtualPromise<Stream<T>> promiseAll(Class<T> clazz) {
-		return promiseAll(clazz, QueryExecutorInterface.getInstance().orElseThrow(), null, null);
+		return promiseComplete(clazz, null);
 	}
 	
 	/**
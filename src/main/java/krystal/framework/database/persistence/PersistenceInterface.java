@@ -12,7 +12,10 @@ import krystal.framework.database.persistence.annotations.*;
 import krystal.framework.database.persistence.annotations.Vertical.PivotColumn;
 import krystal.framework.database.persistence.annotations.Vertical.UnpivotToColumns;
 import krystal.framework.database.persistence.annotations.Vertical.ValuesColumn;
+import krystal.framework.database.persistence.filters.PersistenceFilters;
 import krystal.framework.database.persistence.filters.StatementModifiers;
+import krystal.framework.database.persistence.filters.ValueConverter;
+import krystal.framework.database.persistence.memory.invalidation.Invalidation.Change;
 import krystal.framework.database.queryfactory.*;
 import krystal.framework.logging.LoggingInterface;
 import lombok.val;
@@ -93,6 +96,46 @@ public interface PersistenceInterface extends LoggingInterface {
 		});
 	}
 	
+	/**
+	 * Maps rows of some of the columns (i.e. {@link PersistenceFilters#isProjected() projected}) into partial objects - created with no-args constructor, with the fields of the columns (matched by mapped or field name, case-insensitive)
+	 * {@link ValueConverter converted} and set. Other fields are left as initialized.
+	 */
+	static <T> VirtualPromise<Stream<T>> mapQueryResultPartially(QueryResultInterface qr, Class<T> clazz) {
+		if (qr.rows().isEmpty()) return VirtualPromise.supply(Stream::empty);
+		
+		val byName = new HashMap<String, Field>();
+		getFieldsToColumns(clazz, null).forEach((f, c) -> {
+			if (!f.trySetAccessible()) return;
+			byName.put(f.getName().toLowerCase(), f);
+			byName.put(c.getSqlName().toLowerCase(), f);
+		});
+		val fields = qr.columns().keySet().stream().map(c -> byName.get(c.getSqlName().toLowerCase())).toArray(Field[]::new);
+		
+		Constructor<T> constructor;
+		try {
+			constructor = clazz.getDeclaredConstructor();
+			constructor.trySetAccessible();
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException("Class %s requires no args constructor, to map partial objects.".formatted(clazz.getSimpleName()), e);
+		}
+		
+		return VirtualPromise.supply(qr::rows).mapFork(List::stream, row -> {
+			try {
+				val object = constructor.newInstance();
+				var i = 0;
+				for (var value : row.values()) {
+					val field = fields[i++];
+					if (field == null) continue;
+					val converted = ValueConverter.convert(value, field.getType());
+					if (converted != null || !field.getType().isPrimitive()) field.set(object, converted);
+				}
+				return object;
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+				throw new RuntimeException("Exception during Persistence partial object mapping.\n" + e.getMessage(), e);
+			}
+		});
+	}
+	
 	// TODO change type to StatementModifiers and merge within promise all (StatementModifiers.merge)
 	default Function<SelectStatement, WhereClause> getFilter() {
 		return getFilter(getClass(), this);
@@ -138,17 +181,26 @@ public interface PersistenceInterface extends LoggingInterface {
 		// SELECT
 		var select = PersistenceInterface.getLoader(clazz, invokeTarget);
 		
-		// LIMIT
+		// LIMIT, COLUMNS
 		if (modifiers != null) {
-			if (modifiers.getLimit() != null && modifiers.getLimit() > 0) select.limit(modifiers.getLimit());
+			if (modifiers.getLimit() != null && modifiers.getLimit() > 0) select = select.limit(modifiers.getLimit());
+			if (!modifiers.getColumns().isEmpty()) select = select.theseColumns(modifiers.getColumns());
+			// keyset seek orders the statement itself
+			if (modifiers.getAfter() != null && !modifiers.getOrderBy().isEmpty()) select = select.seekAfter(modifiers.getOrderBy(), modifiers.getAfter());
 		}
 		
 		// WHERE
 		val filter = PersistenceInterface.getFilter(clazz, invokeTarget).apply(select);
 		val modifiedQuery = modifiers == null || modifiers.getWhere() == null ? filter : modifiers.getWhere().apply(filter);
 		
+		// GROUP BY
+		if (modifiers != null && !modifiers.getGroupBy().isEmpty()) {
+			val grouped = modifiedQuery.groupBy(modifiers.getGroupBy().toArray(ColumnInterface[]::new));
+			return modifiers.getOrderBy().isEmpty() ? grouped : grouped.orderBy(modifiers.getOrderBy());
+		}
+		
 		// ORDER BY
-		return modifiers == null || modifiers.getOrderBy().isEmpty() ? modifiedQuery : modifiedQuery.orderBy(modifiers.getOrderBy());
+		return modifiers == null || modifiers.getOrderBy().isEmpty() || modifiers.getAfter() != null ? modifiedQuery : modifiedQuery.orderBy(modifiers.getOrderBy());
 	}
 	
 	/**
@@ -225,7 +277,7 @@ public interface PersistenceInterface extends LoggingInterface {
 			
 			val obj = (PersistenceInterface) instance;
 			
-			return selectQuery.orElseGet(() -> obj.getTable().select(obj.getColumns())).setProvider(obj.getProvider());
+			return selectQuery.orElseGet(() -> obj.getTable().select(obj.getColumns())).withProvider(obj.getProvider());
 			
 		} catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException e) {
 			
@@ -454,6 +506,196 @@ public interface PersistenceInterface extends LoggingInterface {
 		execute(PersistenceExecutions.save);
 	}
 	
+	/**
+	 * {@link #save() Saves} objects of single class in bulk - existing records are found with single query, then all updates and multi-row inserts are {@link QueryExecutorInterface#executeInTransaction(ProviderInterface, List) executed} in
+	 * one transaction. If it fails (i.e. a key was matched only by the database's collation, so the insert violates it), it is rolled back and the objects are saved one by one. Objects which can not be written this way - of {@link Vertical} or {@link SeparateKeys} classes, with {@link Inserter @Inserter} or {@link Updater @Updater} queries, without keys values, or new ones
+	 * with {@link Incremental} keys (generated values have to be read back) - are saved one by one. As with {@link #save()}, statements are outputting where the driver supports it, so database defaults and computed columns are copied back into the
+	 * objects before they are memorized.
+	 */
+	static void saveAll(List<? extends PersistenceInterface> objects) {
+		if (objects.isEmpty()) return;
+		
+		val first = objects.getFirst();
+		val clazz = first.getClass();
+		if (objects.stream().anyMatch(o -> o.getClass() != clazz)) throw new IllegalArgumentException("Objects saved in bulk must be of the same class.");
+		if (!classHasKeys(clazz)) throw new RuntimeException(String.format("%s.class is missing @Keys - can not perform single persistence operations.", clazz.getSimpleName()));
+		if (classIsReadOnly(clazz)) throw new RuntimeException(String.format("%s.class is marked as @ReadOnly.", clazz.getSimpleName()));
+		
+		val customQueries = Stream.of(clazz.getDeclaredMethods()).anyMatch(m -> m.isAnnotationPresent(Inserter.class) || m.isAnnotationPresent(Updater.class));
+		if (customQueries || clazz.isAnnotationPresent(Vertical.class) || clazz.isAnnotationPresent(SeparateKeys.class)) {
+			objects.forEach(PersistenceInterface::save);
+			return;
+		}
+		
+		val keys = List.copyOf(first.getKeys());
+		val incremental = keys.stream().anyMatch(f -> f.isAnnotationPresent(Incremental.class));
+		val fieldsToColumns = getFieldsToColumns(clazz, first);
+		val table = first.getTable();
+		val provider = first.getProvider();
+		
+		// objects with all keys are looked up together, others are saved as usual
+		val bulk = new ArrayList<PersistenceInterface>(objects.size());
+		val bulkValues = new ArrayList<Map<Field, Object>>(objects.size());
+		val single = new ArrayList<PersistenceInterface>();
+		for (var object : objects) {
+			val values = object.getFieldsToValues();
+			if (keys.stream().anyMatch(f -> values.get(f) == null)) {
+				single.add(object);
+			} else {
+				bulk.add(object);
+				bulkValues.add(values);
+			}
+		}
+		
+		val existing = bulk.isEmpty() ? Set.<String>of() : existingHashKeys(clazz, table, provider, keys, fieldsToColumns, bulkValues);
+		
+		// as with single save - database defaults and computed columns are read back
+		val outputting = provider.getDriver().getSupportedOutputtingStatements();
+		val outputUpdates = outputting.contains(QueryType.UPDATE);
+		val outputInserts = outputting.contains(QueryType.INSERT);
+		val output = outputUpdates || outputInserts ? first.getLoader().getColumns().toArray(ColumnInterface[]::new) : new ColumnInterface[0];
+		
+		val queries = new ArrayList<Query>();
+		val rows = new ArrayList<Object[]>();
+		Set<ColumnInterface> insertColumns = Set.of();
+		val updated = new ArrayList<PersistenceInterface>();
+		val inserted = new ArrayList<PersistenceInterface>();
+		for (var i = 0; i < bulk.size(); i++) {
+			val object = bulk.get(i);
+			val values = bulkValues.get(i);
+			if (existing.contains(keysHash(keys, values::get))) {
+				val q = table.update(values.entrySet()
+				                           .stream()
+				                           .filter(e -> !e.getKey().isAnnotationPresent(Key.class))
+				                           .map(e -> ColumnSetValueComparison.of(fieldsToColumns.get(e.getKey()), e.getValue()))
+				                           .toArray(ColumnSetValueComparison[]::new));
+				queries.add((outputUpdates ? q.output(output) : q).where(object.getKeyValuePairs(Set.copyOf(keys), fieldsToColumns, values, true)));
+				updated.add(object);
+			} else if (incremental) {
+				single.add(object);
+			} else {
+				val columnsToValues = object.getColumnsToValues(fieldsToColumns, values).getFirst();
+				insertColumns = columnsToValues.keySet();
+				rows.add(columnsToValues.values().toArray());
+				inserted.add(object);
+			}
+		}
+		
+		// SQL Server allows up to 1000 rows in single VALUES
+		for (var from = 0; from < rows.size(); from += 1000) {
+			val q = table.insert().into(insertColumns.toArray(ColumnInterface[]::new));
+			queries.add((outputInserts ? q.output(output) : q).values(rows.subList(from, Math.min(from + 1000, rows.size()))));
+		}
+		
+		if (!queries.isEmpty()) {
+			first.log().trace(">>> Saving in bulk {} objects of {}.class: {} updates, {} inserts.", updated.size() + inserted.size(), clazz.getSimpleName(), updated.size(), inserted.size());
+			List<QueryResultInterface> results;
+			try {
+				results = QueryExecutorInterface.getInstance().orElseThrow().executeInTransaction(provider, queries);
+			} catch (RuntimeException e) {
+				// rolled back - i.e. a key matched by database collation only, so each object is looked up on its own
+				first.log().debug("    Bulk save of {}.class rolled back, saving one by one: {}", clazz.getSimpleName(), e.getMessage());
+				updated.forEach(PersistenceInterface::save);
+				inserted.forEach(PersistenceInterface::save);
+				single.forEach(PersistenceInterface::save);
+				return;
+			}
+			
+			// one result per update, then the inserts' rows - in no particular order, so matched by keys
+			if (outputUpdates)
+				for (var i = 0; i < updated.size(); i++)
+					results.get(i).toStreamOf(clazz).joinThrow().flatMap(Stream::findFirst).ifPresent(updated.get(i)::copyFrom);
+			if (outputInserts) {
+				val byKeys = new HashMap<String, PersistenceInterface>(inserted.size());
+				for (var object : inserted) byKeys.put(keysHash(keys, valuesOf(object)), object);
+				for (var result : results.subList(updated.size(), results.size()))
+					result.toStreamOf(clazz).joinThrow().orElseGet(Stream::empty).forEach(o -> {
+						val object = byKeys.get(keysHash(keys, valuesOf(o)));
+						if (object != null) object.copyFrom(o);
+					});
+			}
+		}
+		
+		updated.forEach(PersistenceInterface::runWriters);
+		inserted.forEach(PersistenceInterface::runWriters);
+		if (!clazz.isAnnotationPresent(Fresh.class))
+			PersistenceMemory.getInstance().ifPresent(memory -> {
+				for (var object : updated) {
+					memory.put(object.hashKeys(), object, memory.getIntervalsCount());
+					memory.publish(clazz, object.hashKeys(), Change.UPDATED);
+				}
+				for (var object : inserted) {
+					memory.put(object.hashKeys(), object, memory.getIntervalsCount());
+					memory.markExisting(clazz, object.hashKeys());
+					memory.publish(clazz, object.hashKeys(), Change.INSERTED);
+				}
+			});
+		
+		single.forEach(PersistenceInterface::save);
+	}
+	
+	/**
+	 * {@link #keysHash(List, Function) Keys} of the records which exist in the database, selected by keys only - with {@code IN} list for single key (rendered with the driver's {@link InListStrategy}), otherwise with alternative of keys
+	 * equalities, in separate queries for each {@link InListStrategy#MAXIMUM_INLINE} values.
+	 */
+	private static Set<String> existingHashKeys(Class<? extends PersistenceInterface> clazz,
+	                                            TableInterface table,
+	                                            ProviderInterface provider,
+	                                            List<Field> keys,
+	                                            Map<Field, ColumnInterface> fieldsToColumns,
+	                                            List<Map<Field, Object>> values) {
+		keys.forEach(AccessibleObject::trySetAccessible);
+		val select = table.select(keys.stream().map(fieldsToColumns::get).toArray(ColumnInterface[]::new));
+		
+		if (keys.size() == 1) {
+			val key = keys.getFirst();
+			return existingHashKeys(clazz, provider, keys, select.where(new ColumnToValueComparison(fieldsToColumns.get(key), ComparisonOperator.IN, values.stream().map(v -> v.get(key)).distinct().toList())));
+		}
+		
+		val existing = new HashSet<String>();
+		val chunk = Math.max(1, InListStrategy.MAXIMUM_INLINE / keys.size());
+		for (var from = 0; from < values.size(); from += chunk) {
+			WhereClause lookup = null;
+			for (var v : values.subList(from, Math.min(from + chunk, values.size()))) {
+				val pairs = keys.stream().map(f -> new ColumnToValueComparison(fieldsToColumns.get(f), ComparisonOperator.EQUAL, v.get(f))).toArray(ColumnsComparisonInterface[]::new);
+				lookup = lookup == null ? select.where(WhereClauseDelimiter.AND, pairs) : lookup.orWhere(WhereClauseDelimiter.AND, pairs);
+			}
+			existing.addAll(existingHashKeys(clazz, provider, keys, Objects.requireNonNull(lookup)));
+		}
+		return existing;
+	}
+	
+	private static Set<String> existingHashKeys(Class<? extends PersistenceInterface> clazz, ProviderInterface provider, List<Field> keys, WhereClause lookup) {
+		return lookup.withProvider(provider)
+		             .promise()
+		             .compose(qr -> mapQueryResultPartially(qr, clazz))
+		             .map(s -> s.map(o -> keysHash(keys, valuesOf(o))).collect(Collectors.toSet()))
+		             .joinThrow()
+		             .orElseGet(Set::of);
+	}
+	
+	/**
+	 * Reads the (accessible) fields of the object.
+	 */
+	private static Function<Field, Object> valuesOf(Object object) {
+		return f -> {
+			try {
+				return f.get(object);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+	
+	/**
+	 * Keys' values {@link ValueConverter#canonical(Object, Class) as the database compares them} - so values read back match the objects' ones despite i.e. decimal scale or time precision.
+	 */
+	private static String keysHash(List<Field> keys, Function<Field, Object> values) {
+		val str = new StringBuilder();
+		for (var f : keys) str.append(ValueConverter.canonical(values.apply(f), f.getType())).append('|');
+		return str.toString();
+	}
+	
 	/**
 	 * Only works with {@link Incremental auto-increment} fields present. Persist a copy of the object.
 	 */
@@ -462,6 +704,21 @@ public interface PersistenceInterface extends LoggingInterface {
 		execute(PersistenceExecutions.copyAsNew);
 	}
 	
+	/**
+	 * Loads current state of the object's record from the database as a new object, bypassing the {@link PersistenceMemory}. Empty if the record is not found.
+	 *
+	 * @see RefreshAhead
+	 * @see StaleWhileRevalidate
+	 */
+	default Optional<? extends PersistenceInterface> reload() {
+		if (!classHasKeys(getClass())) throw new RuntimeException(String.format("%s.class is missing @Keys - can not perform single persistence operations.", getClass().getSimpleName()));
+		val keyValuePairs = getKeyValuePairs(getKeys(), getFieldsToColumns(getClass(), this), getFieldsToValues(), true);
+		return loadFromDatabase(keyValuePairs).map(another -> {
+			another.runReaders();
+			return another;
+		});
+	}
+	
 	/*
 	 * Persistence executions
 	 */
@@ -491,14 +748,25 @@ public interface PersistenceInterface extends LoggingInterface {
 		val table = getTable();
 		
 		switch (execution) {
-			case load -> PersistenceMemory
-					             .getInstance()
-					             .filter(_ -> !getClass().isAnnotationPresent(Fresh.class))
-					             .map(mem -> mem.get(hashKeys(getClass(), fieldsToValues)))
-					             .ifPresentOrElse(this::copyFrom, () -> loadFromDatabase(keyValuePairs).ifPresentOrElse(another -> {
-						             copyFrom(another);
-						             runReaders();
-					             }, () -> log().trace("  ! No record found for persistence to loadFromDatabase {}.class.", getClass().getSimpleName())));
+			case load -> {
+				val memory = PersistenceMemory.getInstance().filter(_ -> !getClass().isAnnotationPresent(Fresh.class));
+				val hashKey = hashKeys(getClass(), fieldsToValues);
+				memory.map(mem -> mem.get(hashKey))
+				      .ifPresentOrElse(this::copyFrom, () -> {
+					      if (memory.filter(mem -> mem.isKnownMissing(hashKey)).isPresent()) {
+						      log().trace("  ! Record of {}.class known to be missing, skipping loadFromDatabase.", getClass().getSimpleName());
+						      return;
+					      }
+					      
+					      loadFromDatabase(keyValuePairs).ifPresentOrElse(another -> {
+						      copyFrom(another);
+						      runReaders();
+					      }, () -> {
+						      log().trace("  ! No record found for persistence to loadFromDatabase {}.class.", getClass().getSimpleName());
+						      memory.ifPresent(mem -> mem.markMissing(getClass(), hashKey));
+					      });
+				      });
+			}
 			case instantiate -> instantiateInDatabase(table, keyValuePairs, fieldsToColumns, fieldsToValues);
 			case delete -> deleteFromDatabase(table, keyValuePairs);
 			case save -> saveToDatabaseAndConsume(table, keyValuePairs, fieldsToColumns, fieldsToValues);
@@ -548,13 +816,12 @@ public interface PersistenceInterface extends LoggingInterface {
 			      }
 		      }, () -> {
 			      val values = getColumnsToValues(fieldsToColumns, fieldsToValues);
-			      val q = table.insert().into(values.getFirst().keySet().toArray(ColumnInterface[]::new));
-			      if (output.get()) q.output(getLoader().getColumns().toArray(ColumnInterface[]::new));
-			      values.forEach(v -> q.values(v.values().toArray()));
-			      insert.set(q);
+			      var q = table.insert().into(values.getFirst().keySet().toArray(ColumnInterface[]::new));
+			      if (output.get()) q = q.output(getLoader().getColumns().toArray(ColumnInterface[]::new));
+			      insert.set(q.values(values.stream().map(v -> v.values().toArray()).toList()));
 		      });
 		
-		val promise = insert.get().setProvider(getProvider()).promise();
+		val promise = insert.get().withProvider(getProvider()).promise();
 		if (output.get()) promise.compose(qr -> qr.toStreamOf(getClass()))
 		                         .accept(s -> s.findFirst().ifPresent(this::copyFrom));
 		
@@ -564,7 +831,12 @@ public interface PersistenceInterface extends LoggingInterface {
 		
 		if (!getClass().isAnnotationPresent(Fresh.class))
 			PersistenceMemory.getInstance()
-			                 .ifPresent(memory -> memory.put(hashKeys(getClass(), fieldsToValues), this, memory.getIntervalsCount()));
+			                 .ifPresent(memory -> {
+				                 memory.put(hashKeys(getClass(), fieldsToValues), this, memory.getIntervalsCount());
+				                 // incremental keys are known only after the insert
+				                 memory.markExisting(getClass(), hashKeys());
+				                 memory.publish(getClass(), hashKeys(), Change.INSERTED);
+			                 });
 	}
 	
 	/**
@@ -595,11 +867,10 @@ public interface PersistenceInterface extends LoggingInterface {
 					                                         .filter(e -> !e.getKey().isAnnotationPresent(Key.class))
 					                                         .map(e -> ColumnSetValueComparison.of(fieldsToColumns.get(e.getKey()), e.getValue()))
 					                                         .toArray(ColumnSetValueComparison[]::new));
-					      if (output.get()) q.output(getLoader().getColumns().toArray(ColumnInterface[]::new));
-					      update.set(q.where(keyValuePairs));
+					      update.set((output.get() ? q.output(getLoader().getColumns().toArray(ColumnInterface[]::new)) : q).where(keyValuePairs));
 				      });
 				
-				val promise = update.get().setProvider(getProvider()).promise();
+				val promise = update.get().withProvider(getProvider()).promise();
 				if (output.get()) promise.compose(qr -> qr.toStreamOf(getClass()))
 				                         .accept(s -> s.findFirst().ifPresent(this::copyFrom));
 				
@@ -607,6 +878,13 @@ public interface PersistenceInterface extends LoggingInterface {
 				       .thenRun(() -> log().trace("    Record updated."))
 				       .joinThrow();
 				
+				if (!getClass().isAnnotationPresent(Fresh.class))
+					PersistenceMemory.getInstance()
+					                 .ifPresent(memory -> {
+						                 memory.put(hashKeys(), this, memory.getIntervalsCount());
+						                 memory.publish(getClass(), hashKeys(), Change.UPDATED);
+					                 });
+				
 			}, () -> insertToDatabaseAndConsume(table, fieldsToColumns, fieldsToValues));
 		}
 	}
@@ -632,7 +910,7 @@ public interface PersistenceInterface extends LoggingInterface {
 		VirtualPromise.run(this::runRemovers).compose(() -> {
 			              var remover = Tools.getFirstAnnotatedValue(Remover.class, Query.class, this);
 			              if (remover == null) remover = table.delete().where(keysPairs);
-			              return remover.setProvider(getProvider()).promise();
+			              return remover.withProvider(getProvider()).promise();
 		              }).map(qr -> {
 			              if (getProvider().getDriver().getSupportedOutputtingStatements().contains(QueryType.DELETE)) {
 				              return qr.renderAsStringTable();
@@ -640,7 +918,10 @@ public interface PersistenceInterface extends LoggingInterface {
 				              return qr.getResult().map(String::valueOf);
 			              }
 		              }).accept(s -> log().trace("  ! Persisted object deleted from database. Deleted rows: {}", s))
-		              .thenRun(() -> PersistenceMemory.getInstance().ifPresent(memory -> memory.remove(this.hashKeys())))
+		              .thenRun(() -> PersistenceMemory.getInstance().ifPresent(memory -> {
+			              memory.remove(this.hashKeys());
+			              memory.publish(getClass(), this.hashKeys(), Change.DELETED);
+		              }))
 		              .join();
 	}
 	
@@ -696,6 +977,8 @@ public interface PersistenceInterface extends LoggingInterface {
 	
 	/**
 	 * Serialize to JSON, using {@link JSON io.krystal.JSON}
+	 *
+	 * @see krystal.framework.json.JsonCodec JsonCodec - compiled per class, writing straight to text
 	 */
 	default JSONObject toJSON() {
 		return JSON.fromObject(this);
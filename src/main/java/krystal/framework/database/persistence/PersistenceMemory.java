@@ -1,35 +1,84 @@
 package krystal.framework.database.persistence;
 
+import krystal.VirtualPromise;
 import krystal.framework.KrystalFramework;
+import krystal.framework.database.persistence.annotations.BloomFiltered;
+import krystal.framework.core.flow.ScheduledTaskInterface;
+import krystal.framework.core.flow.TasksSchedulerInterface;
 import krystal.framework.database.persistence.annotations.Fresh;
+import krystal.framework.database.persistence.annotations.Indexed;
 import krystal.framework.database.persistence.annotations.Memorized;
+import krystal.framework.database.persistence.annotations.OffHeap;
+import krystal.framework.database.persistence.annotations.RefreshAhead;
+import krystal.framework.database.persistence.annotations.StaleWhileRevalidate;
 import krystal.framework.database.persistence.filters.PersistenceFilters;
+import krystal.framework.database.persistence.memory.ClassSegment;
+import krystal.framework.database.persistence.memory.EvictionPolicy;
+import krystal.framework.database.persistence.memory.FrequencySketch;
+import krystal.framework.database.persistence.memory.MemoryPressureMonitor;
+import krystal.framework.database.persistence.memory.MemorySnapshot;
+import krystal.framework.database.persistence.memory.invalidation.Invalidation;
+import krystal.framework.database.persistence.memory.invalidation.Invalidation.Change;
+import krystal.framework.database.persistence.memory.invalidation.InvalidationBus;
+import krystal.framework.database.persistence.memory.invalidation.InvalidationTransportInterface;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
+import lombok.val;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Each {@link PersistenceInterface} object loaded are saved in memory for quick access.
  * <p>
+ * Besides the time-based expiry ({@link #intervalsCount}), the memory can be bounded by total {@link #maximumWeight weight} of objects and by per-class budgets ({@link #setClassBudget(Class, long)} or {@link Memorized#maximumWeight()}).
+ * Objects over the bound are evicted with frequency-aware {@link EvictionPolicy W-TinyLFU} policy, including {@link Memorized @Memorized} ones.
+ * <p>
+ * Objects are partitioned by class into {@link ClassSegment segments}, so class-wide look-ups and clears do not scan the whole memory. Fields marked {@link Indexed @Indexed} are indexed within the segment for {@link #find(Class, PersistenceFilters)}.
+ * <p>
+ * The memory knows when it holds {@link #isComplete(Class, PersistenceFilters) complete} set of objects for a class or filters, so such requests are answered without the database.
+ * <p>
+ * Keys not found in the database are remembered for {@link #defaultMissingTtl} (and for {@link BloomFiltered @BloomFiltered} classes - known keys are tracked), so repeated look-ups of missing records do not reach the database.
+ * <p>
+ * Objects of {@link OffHeap @OffHeap} classes are held encoded outside the heap, with a small on-heap tier of recently accessed ones.
+ * <p>
+ * Objects of classes marked {@link RefreshAhead @RefreshAhead} or {@link StaleWhileRevalidate @StaleWhileRevalidate} are reloaded in background around their expiry, at most {@link #defaultRefreshConcurrency} at once.
+ * <p>
+ * Nodes sharing the database can {@link #connect(InvalidationTransportInterface) exchange} invalidations of written records.
+ * <p>
+ * {@link Memorized @Memorized} objects can be {@link #snapshot(Path) saved} to a local file and {@link #restore(Path) restored} after restart - see {@link #enableSnapshots(Path, long, TimeUnit)}.
  *
  * @see Memorized
  * @see Fresh
  */
 @Log4j2
-public class PersistenceMemory {
+public class PersistenceMemory implements TasksSchedulerInterface {
 	
 	/**
 	 * Interval (cycle) in {@code ms} at which the {@link #monitorThread} checks the memory.
@@ -44,15 +93,81 @@ public class PersistenceMemory {
 	 * @see ConcurrentHashMap#forEach(long, BiConsumer)
 	 */
 	private static @Setter @Getter int parallelismThreshold = 50;
+	/**
+	 * Number of objects in class' segment, from which {@link #find(Class, PersistenceFilters)} tests them in parallel.
+	 */
+	private static @Setter @Getter int parallelFilterThreshold = 10_000;
+	/**
+	 * Maximum total weight of objects in memory. {@code 0} or less means unbounded (only the time-based expiry applies).
+	 *
+	 * @see #defaultWeigher
+	 */
+	private static @Setter @Getter long defaultMaximumWeight = 0;
+	/**
+	 * Weight of each object put to memory. By default, each object weights {@code 1}, so the {@link #maximumWeight} is the number of objects. Use {@link #ESTIMATED_SIZE} to bound the memory by estimated bytes instead.
+	 */
+	private static @Setter @Getter ToIntFunction<PersistenceInterface> defaultWeigher = _ -> 1;
+	
+	/**
+	 * Maximum number of concurrent background reloads of {@link RefreshAhead @RefreshAhead} and {@link StaleWhileRevalidate @StaleWhileRevalidate} objects. Reloads over the limit are skipped (retried at next occasion), so the refreshes never
+	 * take over the connection pool.
+	 */
+	private static @Setter @Getter int defaultRefreshConcurrency = 2;
+	/**
+	 * Time in {@code ms} keys not found in the database are remembered as missing. {@code 0} or less disables the negative cache.
+	 *
+	 * @see #markMissing(Class, String)
+	 */
+	private static @Setter @Getter long defaultMissingTtl = 5000;
+	/**
+	 * Upper limit of the number of keys each segment's {@link FrequencySketch} is sized for. Sketches are sized once, by the class budget or the {@link #maximumWeight} (the number of objects with the default weigher), and resized only when the
+	 * bounds are changed - growing them along with the number of objects would discard the frequency history.
+	 */
+	private static @Setter @Getter int maximumSketchSize = 1 << 20;
+	
+	/**
+	 * Rough, shallow estimation of the object's size in bytes - object header plus its fields, where {@link String Strings} and arrays are counted with their content.
+	 */
+	public static final ToIntFunction<PersistenceInterface> ESTIMATED_SIZE = PersistenceMemory::estimateSize;
 	
 	/**
 	 * Doing the job of monitoring the objects status in memory, moving to and clearing the trash.
 	 */
 	private final AtomicReference<Thread> monitorThread;
 	private final ReentrantLock persistenceLock;
-	private final ConcurrentHashMap<String, PersistenceInterface> persistenceMap;
+	/**
+	 * Objects partitioned by name of their class - the prefix of {@link PersistenceInterface#hashKeys()}.
+	 */
+	private final ConcurrentHashMap<String, ClassSegment> segments;
 	private final ConcurrentHashMap<String, Integer> persistenceTimeout;
 	private final List<String> persistenceTrash;
+	/**
+	 * Taken only to evict over the global {@link #maximumWeight} - segments' {@link EvictionPolicy policies} are guarded by their own {@link ClassSegment#getPolicyLock() locks}.
+	 */
+	private final ReentrantLock evictionLock;
+	private final Map<Class<?>, Long> classBudgets;
+	/**
+	 * Keys read since they were put - the candidates for {@link RefreshAhead}.
+	 */
+	private final Set<String> accessed;
+	/**
+	 * Number of intervals expired {@link StaleWhileRevalidate} objects are being served.
+	 */
+	private final ConcurrentHashMap<String, Integer> staleness;
+	private final Set<String> refreshing;
+	private final Semaphore refreshPermits;
+	private final LongAdder refreshes;
+	private final LongAdder rejections;
+	private final @Getter Map<ScheduledTaskInterface, ScheduledFuture<?>> scheduledTasks;
+	private final AtomicReference<Thread> snapshotHook;
+	private final AtomicReference<InvalidationBus> invalidationBus;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder evictions;
+	/**
+	 * Shrinks the memory on heap pressure, see {@link #enablePressureShrinking(double)}.
+	 */
+	private final @Getter MemoryPressureMonitor pressureMonitor;
 	/**
 	 * @see #defaultMonitorInterval
 	 */
@@ -61,15 +176,47 @@ public class PersistenceMemory {
 	 * @see #defaultIntervalsCount
 	 */
 	private @Setter @Getter int intervalsCount;
+	/**
+	 * @see #defaultMaximumWeight
+	 */
+	private @Getter long maximumWeight;
+	/**
+	 * @see #defaultMissingTtl
+	 */
+	private @Setter @Getter long missingTtl;
+	/**
+	 * @see #defaultWeigher
+	 */
+	private @Setter @Getter ToIntFunction<PersistenceInterface> weigher;
 	
 	public PersistenceMemory() {
 		monitorThread = new AtomicReference<>();
 		persistenceLock = new ReentrantLock();
-		persistenceMap = new ConcurrentHashMap<>();
+		segments = new ConcurrentHashMap<>();
 		persistenceTimeout = new ConcurrentHashMap<>();
 		persistenceTrash = new CopyOnWriteArrayList<>();
+		evictionLock = new ReentrantLock();
+		classBudgets = new ConcurrentHashMap<>();
+		accessed = ConcurrentHashMap.newKeySet();
+		staleness = new ConcurrentHashMap<>();
+		refreshing = ConcurrentHashMap.newKeySet();
+		refreshPermits = new Semaphore(Math.max(defaultRefreshConcurrency, 1));
+		refreshes = new LongAdder();
+		rejections = new LongAdder();
+		scheduledTasks = new ConcurrentHashMap<>();
+		snapshotHook = new AtomicReference<>();
+		invalidationBus = new AtomicReference<>();
+		hits = new LongAdder();
+		misses = new LongAdder();
+		evictions = new LongAdder();
+		pressureMonitor = new MemoryPressureMonitor();
+		pressureMonitor.addStage("cold half of non-@Memorized objects", () -> shrink(0.5));
+		pressureMonitor.addStage("all non-@Memorized objects", () -> shrink(1));
 		monitorInterval = defaultMonitorInterval;
 		intervalsCount = defaultIntervalsCount;
+		maximumWeight = defaultMaximumWeight;
+		missingTtl = defaultMissingTtl;
+		weigher = defaultWeigher;
 	}
 	
 	/**
@@ -86,33 +233,468 @@ public class PersistenceMemory {
 	 * 		Overrides {@link #defaultIntervalsCount} and {@link #intervalsCount}
 	 */
 	public void put(String hashCode, @NonNull PersistenceInterface persistence, int intervalsCount) {
+		val segment = segment(persistence.getClass());
 		persistenceTrash.remove(hashCode);
-		persistenceMap.put(hashCode, persistence);
+		segment.put(hashCode, persistence);
 		persistenceTimeout.put(hashCode, intervalsCount);
+		accessed.remove(hashCode);
+		staleness.remove(hashCode);
+		admit(segment, hashCode, weigher.applyAsInt(persistence));
 		startMonitorThread();
 	}
 	
 	public <T> List<T> find(Class<T> clazz, Predicate<T> filter) {
-		return persistenceMap.values()
-		                     .stream()
-		                     .filter(clazz::isInstance)
-		                     .map(clazz::cast)
-		                     .filter(filter)
-		                     .toList();
+		return segmentsOf(clazz).flatMap(ClassSegment::values)
+		                        .filter(clazz::isInstance)
+		                        .map(clazz::cast)
+		                        .filter(filter)
+		                        .toList();
+	}
+	
+	/**
+	 * Objects matching the filters, narrowed with {@link Indexed @Indexed} fields' indexes where the filters allow it. Filters are {@link PersistenceFilters#compile(Class) compiled} once per class, and the candidates of segments holding at least
+	 * {@link #parallelFilterThreshold} objects are tested in parallel.
+	 *
+	 * @see ClassSegment#candidates(PersistenceFilters)
+	 */
+	public <T> List<T> find(Class<T> clazz, PersistenceFilters filters) {
+		return segmentsOf(clazz).flatMap(segment -> {
+			                        val candidates = segment.candidates(filters);
+			                        return (segment.size() >= parallelFilterThreshold ? candidates.parallel() : candidates).filter(filters.compile(segment.getType())).toList().stream();
+		                        })
+		                        .filter(clazz::isInstance)
+		                        .map(clazz::cast)
+		                        .toList();
 	}
 	
 	public @Nullable PersistenceInterface get(String hashCode) {
-		return persistenceMap.get(hashCode);
+		val segment = segmentOf(hashCode);
+		val persistence = segment == null ? null : segment.get(hashCode);
+		if (persistence == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+			recordAccess(segment, hashCode);
+			accessed.add(hashCode);
+			if (staleness.containsKey(hashCode)) refresh(segment, hashCode);
+		}
+		return persistence;
+	}
+	
+	/**
+	 * Number of objects in memory.
+	 */
+	public int size() {
+		return segments.values().stream().mapToInt(ClassSegment::size).sum();
+	}
+	
+	/*
+	 * Missing keys
+	 */
+	
+	/**
+	 * Remembers the key as not found in the database for {@link #missingTtl}.
+	 */
+	public void markMissing(Class<?> clazz, String hashCode) {
+		segment(clazz).markMissing(hashCode, missingTtl);
+	}
+	
+	/**
+	 * Forgets the key as missing. Keys {@link #put(String, PersistenceInterface, int) put} to memory are forgotten anyway.
+	 */
+	public void markExisting(Class<?> clazz, String hashCode) {
+		segment(clazz).markExisting(hashCode);
+	}
+	
+	/**
+	 * Tells if the key is known not to exist in the database, so the look-up can be skipped.
+	 *
+	 * @see ClassSegment#isMissing(String)
+	 */
+	public boolean isKnownMissing(String hashCode) {
+		val segment = segmentOf(hashCode);
+		if (segment == null || !segment.isMissing(hashCode)) return false;
+		rejections.increment();
+		return true;
+	}
+	
+	/*
+	 * Refreshing
+	 */
+	
+	/**
+	 * Reloads the object from the database in background, replacing it in memory (or removing, if the record is gone). Skipped if the object is being refreshed already or {@link #defaultRefreshConcurrency} reloads are running.
+	 *
+	 * @return {@code true} if the reload started.
+	 */
+	private boolean refresh(ClassSegment segment, String hashCode) {
+		val persistence = segment.get(hashCode);
+		if (persistence == null || !PersistenceInterface.classHasKeys(segment.getType())) return false;
+		if (!refreshing.add(hashCode)) return false;
+		if (!refreshPermits.tryAcquire()) {
+			refreshing.remove(hashCode);
+			return false;
+		}
+		
+		VirtualPromise.supply(persistence::reload)
+		              .name("Persistence Memory Refresh")
+		              .accept(reloaded -> reloaded.ifPresentOrElse(r -> {
+			              put(hashCode, r, intervalsCount);
+			              refreshes.increment();
+		              }, () -> remove(hashCode)))
+		              .catchRun(e -> log.warn("Persistence Memory refresh of {} failed.", hashCode, e))
+		              .thenRun(() -> {
+			              refreshing.remove(hashCode);
+			              refreshPermits.release();
+		              });
+		return true;
+	}
+	
+	/*
+	 * Invalidation
+	 */
+	
+	/**
+	 * Publishes changes of records written on this node to the peers connected with the transport, and applies theirs. Replaces previous connection.
+	 *
+	 * @see InvalidationBus
+	 */
+	public void connect(InvalidationTransportInterface transport) {
+		Optional.ofNullable(invalidationBus.getAndSet(new InvalidationBus(transport, this::applyInvalidations))).ifPresent(InvalidationBus::close);
+	}
+	
+	public void disconnect() {
+		Optional.ofNullable(invalidationBus.getAndSet(null)).ifPresent(InvalidationBus::close);
+	}
+	
+	/**
+	 * Notifies peers about the record written on this node. No-op if not {@link #connect(InvalidationTransportInterface) connected}.
+	 */
+	public void publish(Class<?> clazz, String hashCode, Change change) {
+		Optional.ofNullable(invalidationBus.get()).ifPresent(bus -> bus.publish(new Invalidation(clazz.getName(), hashCode, change)));
+	}
+	
+	/**
+	 * Peers' changes - deleted objects are removed, updated are refreshed ({@link RefreshAhead @RefreshAhead} and {@link StaleWhileRevalidate @StaleWhileRevalidate} classes) or evicted, inserted ones invalidate complete sets and negative look-ups.
+	 */
+	private void applyInvalidations(List<Invalidation> batch) {
+		batch.forEach(invalidation -> {
+			val segment = segments.get(invalidation.className());
+			if (segment == null) return;
+			
+			val key = invalidation.key();
+			switch (invalidation.change()) {
+				case DELETED -> discard(key);
+				case UPDATED -> {
+					if (segment.get(key) == null) return;
+					val refreshable = segment.getRefreshAhead() >= 0 || segment.getStaleIntervals() > 0;
+					if (!(refreshable && refresh(segment, key))) {
+						discard(key);
+						segment.invalidate();
+					}
+				}
+				case INSERTED -> {
+					discard(key);
+					segment.markExisting(key);
+					segment.invalidate();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Removes the object immediately.
+	 */
+	private void discard(String hashCode) {
+		forget(hashCode);
+		persistenceTimeout.remove(hashCode);
+	}
+	
+	/*
+	 * Completeness
+	 */
+	
+	/**
+	 * Read before loading objects from database, to be passed to {@link #markComplete(Class, PersistenceFilters, long)} afterward.
+	 */
+	public long getCompletenessVersion(Class<?> clazz) {
+		return segment(clazz).getVersion();
+	}
+	
+	/**
+	 * Records that all objects of the class matching the filters ({@code null} for all objects) have been put to memory - unless anything was expired, evicted or cleared since the {@code version} was read.
+	 *
+	 * @see ClassSegment#markComplete(PersistenceFilters, long)
+	 */
+	public void markComplete(Class<?> clazz, @Nullable PersistenceFilters filters, long version) {
+		segment(clazz).markComplete(filters, version);
+	}
+	
+	/**
+	 * Tells if the memory holds all objects of the class that could match the filters, so the result of {@link #find(Class, PersistenceFilters)} is the same as from database.
+	 */
+	public boolean isComplete(Class<?> clazz, PersistenceFilters filters) {
+		return Optional.ofNullable(segments.get(clazz.getName())).map(segment -> segment.isComplete(filters)).orElse(false);
+	}
+	
+	private ClassSegment segment(Class<?> clazz) {
+		return segments.computeIfAbsent(clazz.getName(), _ -> new ClassSegment(clazz, new EvictionPolicy<>(new FrequencySketch(sketchSize(clazz)), getClassBudget(clazz))));
 	}
 	
+	/**
+	 * Segment holding the key - named with the key's prefix.
+	 *
+	 * @see PersistenceInterface#hashKeys(Class, Map)
+	 */
+	private @Nullable ClassSegment segmentOf(String hashCode) {
+		val end = hashCode.indexOf('>');
+		val name = end < 0 ? hashCode : hashCode.substring(0, end);
+		return segments.get(name.endsWith("@Memorized") ? name.substring(0, name.length() - "@Memorized".length()) : name);
+	}
+	
+	/**
+	 * Segments of the class and its subclasses.
+	 */
+	private Stream<ClassSegment> segmentsOf(Class<?> clazz) {
+		return segments.values().stream().filter(segment -> clazz.isAssignableFrom(segment.getType()));
+	}
+	
+	/**
+	 * Removes the object of deleted record. Unlike expiry or eviction, it does not break the {@link #isComplete(Class, PersistenceFilters) completeness}.
+	 */
 	public void remove(String hashCode) {
 		persistenceTimeout.replace(hashCode, -1);
 	}
 	
+	/*
+	 * Size bounds
+	 */
+	
+	/**
+	 * @see #defaultMaximumWeight
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+		segments.values().forEach(segment -> withPolicy(segment, () -> segment.getPolicy().getSketch().ensureCapacity(sketchSize(segment.getType()))));
+		evictionLock.lock();
+		try {
+			evictOverflow();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * Bound the total weight of objects of particular class, on top of the global {@link #maximumWeight}. Overrides {@link Memorized#maximumWeight()}. {@code 0} or less removes the budget.
+	 */
+	public void setClassBudget(Class<?> clazz, long maximumWeight) {
+		if (maximumWeight > 0) classBudgets.put(clazz, maximumWeight);
+		else classBudgets.remove(clazz);
+		
+		Optional.ofNullable(segments.get(clazz.getName())).ifPresent(segment -> withPolicy(segment, () -> {
+			segment.getPolicy().getSketch().ensureCapacity(sketchSize(clazz));
+			evict(segment, segment.getPolicy().setMaximumWeight(getClassBudget(clazz)));
+		}));
+	}
+	
+	public long getClassBudget(Class<?> clazz) {
+		return Optional.ofNullable(classBudgets.get(clazz))
+		               .or(() -> Optional.ofNullable(clazz.getAnnotation(Memorized.class)).map(Memorized::maximumWeight))
+		               .orElse(0L);
+	}
+	
+	/**
+	 * Total weight of objects in memory.
+	 */
+	public long getWeight() {
+		var weight = 0L;
+		for (var segment : segments.values()) {
+			segment.getPolicyLock().lock();
+			try {
+				weight += segment.getPolicy().getWeight();
+			} finally {
+				segment.getPolicyLock().unlock();
+			}
+		}
+		return weight;
+	}
+	
+	/**
+	 * Starts shrinking the memory, whenever heap pools' usage after garbage collection exceeds given fraction of their maximum size - first evicting the cold half of non-{@link Memorized @Memorized} objects, then all of them, and then the further
+	 * stages registered with {@link #getPressureMonitor()} (like {@link krystal.framework.core.cache.PersistenceCache#shrinkOnMemoryPressure() evictable cache collections}). {@link Memorized @Memorized} objects are never evicted this way.
+	 */
+	public void enablePressureShrinking(double threshold) {
+		pressureMonitor.start(threshold);
+	}
+	
+	public void disablePressureShrinking() {
+		pressureMonitor.stop();
+	}
+	
+	/**
+	 * Evicts given fraction of each non-{@link Memorized @Memorized} class objects, the coldest first.
+	 *
+	 * @return Number of evicted objects.
+	 */
+	public long shrink(double fraction) {
+		var evicted = 0L;
+		for (var segment : segments.values()) {
+			if (segment.getType().isAnnotationPresent(Memorized.class)) continue;
+			segment.getPolicyLock().lock();
+			try {
+				val policy = segment.getPolicy();
+				val count = (int) Math.ceil(policy.size() * fraction);
+				val victims = new ArrayList<String>(count);
+				while (victims.size() < count) {
+					val victim = policy.victim();
+					if (victim == null) break;
+					policy.remove(victim);
+					victims.add(victim);
+				}
+				evict(segment, victims);
+				evicted += victims.size();
+			} finally {
+				segment.getPolicyLock().unlock();
+			}
+		}
+		return evicted;
+	}
+	
+	/**
+	 * Puts of the same class wait for each other only - the global bound is kept afterward, by single thread at a time.
+	 */
+	private void admit(ClassSegment segment, String hashCode, int weight) {
+		withPolicy(segment, () -> evict(segment, segment.getPolicy().add(hashCode, weight)));
+		if (maximumWeight > 0 && evictionLock.tryLock()) {
+			try {
+				evictOverflow();
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Reads are not blocking - if the policy is busy, the access is not recorded (the frequency is an estimation anyway).
+	 */
+	private void recordAccess(ClassSegment segment, String hashCode) {
+		if (!segment.getPolicyLock().tryLock()) return;
+		try {
+			segment.getPolicy().record(hashCode);
+		} finally {
+			segment.getPolicyLock().unlock();
+		}
+	}
+	
+	private void withPolicy(ClassSegment segment, Runnable action) {
+		segment.getPolicyLock().lock();
+		try {
+			action.run();
+		} finally {
+			segment.getPolicyLock().unlock();
+		}
+	}
+	
+	/**
+	 * Number of keys the segment's sketch is sized for - by the tightest bound of the class, up to {@link #maximumSketchSize}.
+	 */
+	private long sketchSize(Class<?> clazz) {
+		val budget = getClassBudget(clazz);
+		val bound = budget > 0 && maximumWeight > 0 ? Math.min(budget, maximumWeight) : Math.max(budget, maximumWeight);
+		return Math.min(Math.max(bound, 0), maximumSketchSize);
+	}
+	
+	/**
+	 * Keeps the total weight within {@link #maximumWeight}, by evicting the coldest of each segment policy's victims. Segments are locked one at a time - puts meanwhile are evicted by the next rounds.
+	 */
+	private void evictOverflow() {
+		if (maximumWeight <= 0) return;
+		
+		while (getWeight() > maximumWeight) {
+			ClassSegment coldest = null;
+			String victim = null;
+			var coldestFrequency = Integer.MAX_VALUE;
+			for (var segment : segments.values()) {
+				segment.getPolicyLock().lock();
+				try {
+					val candidate = segment.getPolicy().victim();
+					if (candidate == null) continue;
+					val frequency = segment.getPolicy().frequency(candidate);
+					if (victim == null || frequency < coldestFrequency) {
+						coldest = segment;
+						victim = candidate;
+						coldestFrequency = frequency;
+					}
+				} finally {
+					segment.getPolicyLock().unlock();
+				}
+			}
+			
+			if (victim == null) return;
+			val segment = coldest;
+			val key = victim;
+			withPolicy(segment, () -> {
+				// might have been removed meanwhile
+				if (!segment.getPolicy().contains(key)) return;
+				segment.getPolicy().remove(key);
+				evict(segment, List.of(key));
+			});
+		}
+	}
+	
+	/**
+	 * Removes the objects immediately, without waiting for the {@link #monitorThread}.
+	 */
+	private void evict(ClassSegment segment, Collection<String> keys) {
+		if (!keys.isEmpty()) segment.invalidate();
+		keys.forEach(key -> {
+			segment.remove(key);
+			persistenceTimeout.remove(key);
+			accessed.remove(key);
+			staleness.remove(key);
+			evictions.increment();
+		});
+	}
+	
+	private void forget(String hashCode) {
+		accessed.remove(hashCode);
+		staleness.remove(hashCode);
+		val segment = segmentOf(hashCode);
+		if (segment == null || !segment.remove(hashCode)) return;
+		withPolicy(segment, () -> segment.getPolicy().remove(hashCode));
+	}
+	
+	private static int estimateSize(PersistenceInterface persistence) {
+		var size = 16L;
+		for (Class<?> c = persistence.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) continue;
+				if (field.getType().isPrimitive()) {
+					size += field.getType() == long.class || field.getType() == double.class ? 8 : 4;
+					continue;
+				}
+				
+				size += 4;
+				if (!field.trySetAccessible()) continue;
+				try {
+					size += switch (field.get(persistence)) {
+						case null -> 0;
+						case String s -> 40 + s.length();
+						case byte[] a -> 16 + a.length;
+						case Object[] a -> 16 + 4L * a.length;
+						case Collection<?> col -> 40 + 16L * col.size();
+						case Map<?, ?> m -> 48 + 32L * m.size();
+						default -> 24;
+					};
+				} catch (IllegalAccessException _) {
+				}
+			}
+		}
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+	
 	public boolean containsAny(Class<?> clazz) {
-		return persistenceMap.values()
-		                     .stream()
-		                     .anyMatch(clazz::isInstance);
+		return segmentsOf(clazz).anyMatch(segment -> !segment.isEmpty());
 	}
 	
 	private void startMonitorThread() {
@@ -137,14 +719,25 @@ public class PersistenceMemory {
 	}
 	
 	private void monitor() {
-		while (!(persistenceTimeout.isEmpty() || persistenceMap.isEmpty())) {
+		while (!persistenceTimeout.isEmpty()) {
 			
-			persistenceMap.forEachKey(parallelismThreshold, key -> {
+			persistenceTimeout.forEachKey(parallelismThreshold, key -> {
 				if (key == null) return;
 				
 				if (persistenceTimeout.computeIfPresent(key, (k, v) -> {
 					if (v < 0) return null;
 					if (key.contains("@Memorized")) return v;
+					
+					val segment = segmentOf(key);
+					if (segment == null) return v - 1;
+					if (v <= segment.getRefreshAhead() && accessed.contains(key)) refresh(segment, key);
+					if (v == 0) {
+						// served stale until read (and refreshed) or out of intervals
+						if (staleness.merge(key, 1, Integer::sum) <= segment.getStaleIntervals()) return 0;
+						staleness.remove(key);
+						// expiring (not deleted) objects are still in the database
+						segment.invalidate();
+					}
 					return v - 1;
 				}) == null) persistenceTrash.add(key);
 			});
@@ -164,33 +757,100 @@ public class PersistenceMemory {
 	private void clearTrash() {
 		persistenceTrash.forEach(key -> {
 			if (key == null) return;
-			persistenceMap.remove(key);
+			forget(key);
 			persistenceTimeout.remove(key);
 		});
 		persistenceTrash.clear();
 	}
 	
 	public void clear() {
-		persistenceMap.clear();
 		persistenceTimeout.clear();
 		persistenceTrash.clear();
+		accessed.clear();
+		staleness.clear();
+		segments.values().forEach(segment -> withPolicy(segment, () -> {
+			segment.clear();
+			segment.getPolicy().clear();
+		}));
 	}
 	
 	public void clear(Class<?> clazz) {
-		persistenceMap.entrySet()
-		              .stream()
-		              .filter(e -> clazz.isInstance(e.getValue()))
-		              .map(Entry::getKey)
-		              .forEach(this::remove);
+		val keys = new ArrayList<String>();
+		segmentsOf(clazz).forEach(segment -> {
+			segment.invalidate();
+			segment.clearMissing();
+			keys.addAll(segment.keys());
+		});
+		keys.forEach(this::remove);
 	}
 	
 	public void clear(Class<?> clazz, PersistenceFilters filters) {
-		persistenceMap.entrySet()
-		              .stream()
-		              .filter(e -> clazz.isInstance(e.getValue()))
-		              .filter(e -> filters.test(e.getValue()))
-		              .map(Entry::getKey)
-		              .forEach(this::remove);
+		val keys = new ArrayList<String>();
+		segmentsOf(clazz).forEach(segment -> {
+			segment.invalidate();
+			segment.candidateEntries(filters).filter(e -> filters.test(e.getValue())).map(Map.Entry::getKey).forEach(keys::add);
+		});
+		keys.forEach(this::remove);
+	}
+	
+	/*
+	 * Snapshots
+	 */
+	
+	/**
+	 * Writes {@link Memorized @Memorized} objects to the file.
+	 *
+	 * @return Number of written objects, {@code 0} if failed.
+	 * @see MemorySnapshot
+	 */
+	public long snapshot(Path file) {
+		try {
+			val written = MemorySnapshot.write(file, segments.values());
+			log.info("Persistence Memory snapshot of {} objects written to {}.", written, file);
+			return written;
+		} catch (IOException | RuntimeException e) {
+			log.error("Persistence Memory snapshot to {} failed.", file, e);
+			return 0;
+		}
+	}
+	
+	/**
+	 * Puts objects from the snapshot file to memory. Records changed in the database after the snapshot are not reflected - the objects need refreshing, or rely on {@link RefreshAhead @RefreshAhead} and
+	 * {@link StaleWhileRevalidate @StaleWhileRevalidate} policies.
+	 *
+	 * @return Snapshot creation time of each restored class.
+	 * @see MemorySnapshot
+	 */
+	public Map<Class<?>, Instant> restore(Path file) {
+		try {
+			val restored = MemorySnapshot.read(file, (key, persistence) -> put(key, persistence, intervalsCount));
+			if (!restored.isEmpty()) log.info("Persistence Memory restored {} classes from {}.", restored.size(), file);
+			return restored;
+		} catch (IOException | RuntimeException e) {
+			log.error("Persistence Memory restore from {} failed.", file, e);
+			return Map.of();
+		}
+	}
+	
+	/**
+	 * Restores the snapshot file (if present), then writes it every interval (if positive) and on JVM shutdown.
+	 */
+	public void enableSnapshots(Path file, long interval, TimeUnit unit) {
+		restore(file);
+		if (interval > 0) startSchedule(MemoryTask.SNAPSHOT, () -> snapshot(file), interval, unit);
+		
+		val hook = Thread.ofPlatform().name("Persistence Memory Snapshot").unstarted(() -> snapshot(file));
+		Optional.ofNullable(snapshotHook.getAndSet(hook)).ifPresent(Runtime.getRuntime()::removeShutdownHook);
+		Runtime.getRuntime().addShutdownHook(hook);
+	}
+	
+	public void disableSnapshots() {
+		cancelSchedule(MemoryTask.SNAPSHOT);
+		Optional.ofNullable(snapshotHook.getAndSet(null)).ifPresent(Runtime.getRuntime()::removeShutdownHook);
+	}
+	
+	public enum MemoryTask implements ScheduledTaskInterface {
+		SNAPSHOT
 	}
 	
 	public static Optional<PersistenceMemory> getInstance() {
@@ -202,7 +862,18 @@ public class PersistenceMemory {
 	}
 	
 	public String report() {
-		return "Persistence Memory: Interval: %s x %s, Map: %s, Trash: %s.".formatted(monitorInterval, intervalsCount, persistenceMap.size(), persistenceTrash.size());
+		val requests = hits.sum() + misses.sum();
+		return "Persistence Memory: Interval: %s x %s, Map: %s (%s classes), Trash: %s, Weight: %s / %s, Hit ratio: %.2f%%, Evicted: %s, Refreshed: %s (stale: %s), Rejected missing: %s.".formatted(
+				monitorInterval, intervalsCount, size(), segments.size(), persistenceTrash.size(),
+				getWeight(), maximumWeight > 0 ? maximumWeight : "unbounded",
+				requests == 0 ? 0d : 100d * hits.sum() / requests,
+				evictions.sum(), refreshes.sum(), staleness.size(), rejections.sum())
+		       + segments.values().stream()
+		                 .filter(ClassSegment::isOffHeap)
+		                 .map(segment -> "\n  %s: %s".formatted(segment.getType().getSimpleName(), segment.storageReport()))
+		                 .collect(Collectors.joining())
+		       + Optional.ofNullable(invalidationBus.get()).map(bus -> "\n" + bus.report()).orElse("")
+		       + "\n" + pressureMonitor.report();
 	}
 	
 }
\ No newline at end of file
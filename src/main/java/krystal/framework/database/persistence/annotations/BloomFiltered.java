@@ -0,0 +1,35 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.PersistenceMemory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * After each full (unfiltered) load of this class, {@link PersistenceMemory} builds a Bloom filter of the loaded keys, extended with each object inserted or loaded later. {@link PersistenceInterface#load()} of a key absent from the filter is
+ * rejected without querying the database - for the {@link #ttl()} after the load, then the filter is dropped until the next full load rebuilds it.
+ * <p>
+ * Records inserted bypassing the framework (or by nodes not {@link PersistenceMemory#connect(krystal.framework.database.persistence.memory.invalidation.InvalidationTransportInterface) connected}) stay unknown at most for the {@link #ttl()}.
+ *
+ * @see PersistenceMemory#getDefaultMissingTtl()
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BloomFiltered {
+	
+	/**
+	 * Minimal number of keys the filter is sized for. The filter is sized for at least twice the number of loaded keys anyway, leaving room for inserts.
+	 */
+	long expectedKeys() default 10_000;
+	
+	double falsePositiveRate() default 0.01;
+	
+	/**
+	 * Time in {@code ms} the filter answers after the full load it was built of. {@code 0} or less - until the class is {@link PersistenceMemory#clear(Class) cleared}.
+	 */
+	long ttl() default 60_000;
+	
+}
\ No newline at end of file
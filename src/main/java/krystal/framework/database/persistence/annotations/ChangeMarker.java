@@ -0,0 +1,18 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.core.cache.PersistenceCache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks field of a column, which value grows with each modification of the row - i.e. modified timestamp, sequence or rowversion ({@code byte[]}, compared unsigned). Enables the
+ * {@link PersistenceCache#refreshCacheCollection(Class) delta refresh} of cache collections. Mark also {@link Incremental @Incremental}, if the value is set by the database only.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ChangeMarker {
+	
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.filters.PersistenceFilters;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link PersistenceMemory} will maintain a secondary index of objects by this field's values, so {@link PersistenceMemory#find(Class, PersistenceFilters)} with condition on the field is a lookup rather than a scan of all memorized objects.
+ * {@link IndexType#HASH} serves equality ({@code EQUAL}, {@code IN}) conditions, {@link IndexType#SORTED} serves also ranges ({@code MORE}, {@code LESS}, {@code BETWEEN}, etc.) and requires {@link Comparable} field type.
+ * As only fields declared by the persistence class itself are persisted, inherited indexed fields are rejected.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Indexed {
+	
+	IndexType value() default IndexType.HASH;
+	
+	enum IndexType {
+		HASH, SORTED
+	}
+	
+}
\ No newline at end of file
@@ -10,12 +10,21 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * The {@link PersistenceMemory} will hold objects of this class infinitely unless explicitly cleared. {@link Persistence} and {@link PersistenceInterface} operations, besides database, will also overwrite or remove the memorized records.
+ * The {@link PersistenceMemory} will hold objects of this class infinitely unless explicitly cleared or evicted by the size bounds. {@link Persistence} and {@link PersistenceInterface} operations, besides database, will also overwrite or remove the
+ * memorized records.
  *
  * @see Fresh
+ * @see PersistenceMemory#setClassBudget(Class, long)
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Memorized {
-
+	
+	/**
+	 * Budget of total weight for objects of this class within {@link PersistenceMemory}. {@code 0} (default) means no class-specific bound.
+	 *
+	 * @see PersistenceMemory#getDefaultWeigher()
+	 */
+	long maximumWeight() default 0;
+	
 }
\ No newline at end of file
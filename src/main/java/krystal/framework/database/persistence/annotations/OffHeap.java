@@ -0,0 +1,25 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link PersistenceMemory} keeps objects of this class encoded in compact binary rows, in native memory outside the heap, and decodes them on access. Intended for large {@link Memorized @Memorized} reference sets, which would otherwise prolong each
+ * major GC. The most recently accessed {@link #hotEntries()} objects are held decoded on heap.
+ * <p>
+ * Decoded objects are new instances (unless hot), restored with the no-arguments constructor and fields values - so all instance fields must be of simple types (primitives, {@link String}, enums, numbers, dates, {@link java.util.UUID UUID}).
+ * Otherwise, the objects are kept on heap as usual.
+ *
+ * @see krystal.framework.database.persistence.memory.OffHeapStorage OffHeapStorage
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OffHeap {
+	
+	int hotEntries() default 1024;
+	
+}
\ No newline at end of file
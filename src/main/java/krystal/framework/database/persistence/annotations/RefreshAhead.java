@@ -0,0 +1,27 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Objects of this class, which were read from {@link PersistenceMemory} since they were put, are reloaded from the database in background shortly before they expire - so the next reader does not pay the database load. Objects not read meanwhile
+ * expire as usual. The number of concurrent reloads is bounded by {@link PersistenceMemory#getDefaultRefreshConcurrency()}.
+ * <p>
+ * Has no effect with {@link Memorized} (never expiring) or {@link Fresh} classes, nor classes without {@link Key @Keys}.
+ *
+ * @see StaleWhileRevalidate
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RefreshAhead {
+	
+	/**
+	 * Number of {@link PersistenceMemory} monitor intervals before expiry, at which the reload starts.
+	 */
+	int intervals() default 1;
+	
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package krystal.framework.database.persistence.annotations;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Expired objects of this class stay in {@link PersistenceMemory} as <i>stale</i> for given number of intervals. Reading a stale object returns it immediately and starts single background reload from the database, which replaces it. Stale
+ * objects not read within the intervals are removed. The number of concurrent reloads is bounded by {@link PersistenceMemory#getDefaultRefreshConcurrency()}.
+ * <p>
+ * Has no effect with {@link Memorized} (never expiring) or {@link Fresh} classes, nor classes without {@link Key @Keys}.
+ *
+ * @see RefreshAhead
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StaleWhileRevalidate {
+	
+	/**
+	 * Number of {@link PersistenceMemory} monitor intervals expired objects are still served.
+	 */
+	int intervals() default 3;
+	
+}
\ No newline at end of file
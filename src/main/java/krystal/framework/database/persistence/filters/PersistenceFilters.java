@@ -2,13 +2,17 @@ package krystal.framework.database.persistence.filters;
 
 import jakarta.annotation.Nullable;
 import krystal.Tools;
+import krystal.framework.KrystalFramework;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.implementation.Q;
 import krystal.framework.database.persistence.PersistenceInterface;
 import krystal.framework.database.persistence.annotations.ColumnsMapping;
+import krystal.framework.database.persistence.annotations.Key;
+import krystal.framework.database.persistence.annotations.Vertical;
 import krystal.framework.database.queryfactory.ComparisonOperator;
 import krystal.framework.database.queryfactory.OrderByDeclaration;
 import krystal.framework.database.queryfactory.OrderByDirection;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.Getter;
@@ -16,15 +20,22 @@ import lombok.Singular;
 import lombok.extern.log4j.Log4j2;
 import lombok.val;
 import org.apache.logging.log4j.util.Strings;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Getter
 @Log4j2
-@Builder(builderMethodName = "define", buildMethodName = "set")
+@Builder(builderMethodName = "define", buildMethodName = "set", toBuilder = true)
 public class PersistenceFilters implements Predicate<Object> {
 	
 	private @Singular Map<String, ValuesFilter> values;
@@ -32,6 +43,29 @@ public class PersistenceFilters implements Predicate<Object> {
 	private @Singular(value = "orderBy") List<ValuesOrder> orderBy;
 	private @Default boolean memorized = true;
 	private @Default ConditionalDelimiter valuesFiltersMatchingCondition = ConditionalDelimiter.AND;
+	/**
+	 * Names of fields to group the results by.
+	 *
+	 * @see #isAggregated()
+	 */
+	private @Singular(value = "groupBy") List<String> groupBy;
+	private @Singular List<ValuesAggregate> aggregates;
+	/**
+	 * Last values of the {@link #getOrderBy() order} - of the last object of the previous page.
+	 *
+	 * @see #cursor(Object)
+	 */
+	private @Nullable List<Object> after;
+	/**
+	 * Names of fields to load and serialize - the others are left empty.
+	 *
+	 * @see #isProjected()
+	 */
+	private @Singular List<String> fields;
+	/**
+	 * @see #compile(Class)
+	 */
+	private final @Getter(AccessLevel.NONE) Map<Class<?>, Predicate<Object>> compiled = new ConcurrentHashMap<>();
 	
 	/**
 	 * Creates a  group, out of given parameters {@link Map} - names and values.
@@ -44,6 +78,17 @@ public class PersistenceFilters implements Predicate<Object> {
 	 * <dd>Equivalent of SQL top-first rows;</dd>
 	 * <dt><strong>$orderBy=name / $orderBy$direction=name</strong></dt>
 	 * <dd>Equivalent of SQL ORDER BY clause. {@code direction} can be specified as {@code ASC} (default) or {@code DESC}.</dd>
+	 * <dt><strong>$count</strong></dt>
+	 * <dd>Equivalent of SQL {@code COUNT(*)}, resulting as {@code count};</dd>
+	 * <dt><strong>$groupBy=name</strong></dt>
+	 * <dd>Equivalent of SQL GROUP BY clause;</dd>
+	 * <dt><strong>$agg$function=name</strong></dt>
+	 * <dd>Aggregate {@link ColumnInterface.Functions function} ({@code SUM}, {@code MIN}, {@code MAX}, {@code AVG} or {@code COUNT}) of the field, resulting as {@code function_name}, i.e. {@code sum_amount}. Aggregated results can be
+	 * ordered by grouping names or such aliases.</dd>
+	 * <dt><strong>$fields=name</strong></dt>
+	 * <dd>Equivalent of SQL SELECT columns - objects are loaded only with these fields (and the ones they are ordered by);</dd>
+	 * <dt><strong>$after=cursor</strong></dt>
+	 * <dd>Next page - objects following the one the {@link #cursor(Object) cursor} was made of, in the same order. Use with {@code $limit} as the page size.</dd>
 	 * </dl>
 	 *
 	 * @apiNote This method intended use is parsing http GET requests. Each value within array of values is being split using comma as delimiter. To escape the split (i.e. if the comma is an intended part of the value), put the value within quotation
@@ -72,12 +117,41 @@ public class PersistenceFilters implements Predicate<Object> {
 					} catch (IllegalArgumentException | IndexOutOfBoundsException _) {
 					}
 					
-					for (var s : Arrays.stream(v)
-					                   .flatMap(s -> Arrays.stream(s.split(",")))
-					                   .map(String::trim)
-					                   .filter(Strings::isNotBlank)
-					                   .toArray(String[]::new))
-						filters.orderBy(new ValuesOrder(direction, s));
+					for (var s : getNames(v)) filters.orderBy(new ValuesOrder(direction, s));
+					return;
+				}
+				
+				if ("count".equalsIgnoreCase(arg[1])) {
+					if (v.length == 0 || Strings.isBlank(v[0]) || Boolean.parseBoolean(v[0])) filters.aggregate(ValuesAggregate.count());
+					return;
+				}
+				
+				if ("groupBy".equalsIgnoreCase(arg[1])) {
+					for (var s : getNames(v)) filters.groupBy(s);
+					return;
+				}
+				
+				if ("agg".equalsIgnoreCase(arg[1])) {
+					try {
+						val function = ColumnInterface.Functions.valueOf(arg[2].toUpperCase());
+						for (var s : getNames(v)) filters.aggregate(new ValuesAggregate(function, s));
+					} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+						log.debug("Invalid aggregate: %s".formatted(k), e);
+					}
+					return;
+				}
+				
+				if ("fields".equalsIgnoreCase(arg[1])) {
+					for (var s : getNames(v)) filters.field(s);
+					return;
+				}
+				
+				if ("after".equalsIgnoreCase(arg[1])) {
+					try {
+						filters.after(new JSONArray(new String(Base64.getUrlDecoder().decode(v[0]), StandardCharsets.UTF_8)).toList());
+					} catch (IllegalArgumentException | IndexOutOfBoundsException | JSONException e) {
+						log.debug("Invalid cursor: %s".formatted(Arrays.toString(v)), e);
+					}
 					return;
 				}
 				
@@ -111,6 +185,14 @@ public class PersistenceFilters implements Predicate<Object> {
 		return filters.set();
 	}
 	
+	private static String[] getNames(String[] arr) {
+		return Arrays.stream(arr)
+		             .flatMap(s -> Arrays.stream(s.split(",")))
+		             .map(String::trim)
+		             .filter(Strings::isNotBlank)
+		             .toArray(String[]::new);
+	}
+	
 	private static Object[] getMultiValues(String[] arr) {
 		return Arrays.stream(arr).flatMap(s -> Arrays.stream(s.splitWithDelimiters("'[^']*'|\"[^\"]*\"|[^,]*", 0)))
 		             .filter(s -> !",".equals(s))
@@ -124,8 +206,11 @@ public class PersistenceFilters implements Predicate<Object> {
 	 * Turn these set of filters into SQL statement filters.
 	 * By default, the column's name for the statement, will be derived from provided Class' Class' fields names (including {@link ColumnsMapping}), otherwise or if the param is prefixed with {@code _} - the name will be taken as it is. I.e.
 	 * {@code _column$operator=value}.
+	 *
+	 * @throws IllegalArgumentException If grouped, aggregated, projected or ordered by names not {@link #validate(Class) valid} for the class.
 	 */
 	public StatementModifiers toStatementModifiers(@Nullable Class<?> clazz) {
+		if (clazz != null) validate(clazz);
 		val modifiers = StatementModifiers.define();
 		modifiers.limit(limit);
 		
@@ -136,45 +221,195 @@ public class PersistenceFilters implements Predicate<Object> {
 		                       .collect(Collectors.toMap(e -> e.getKey().getName(), Map.Entry::getValue));
 		
 		modifiers.where(whereClause -> {
-			values.forEach((k, v) -> whereClause.andWhere(getColumnForParameter(k, namesMap).is(v.operator(), v.values())));
-			return whereClause;
+			var where = whereClause;
+			for (var e : values.entrySet()) where = where.andWhere(getColumnForParameter(e.getKey(), namesMap).is(e.getValue().operator(), e.getValue().values()));
+			return where;
+		});
+		
+		if (!isAggregated()) {
+			orderBy.forEach(vo -> modifiers.orderBy(new OrderByDeclaration(vo.direction(), getColumnForParameter(vo.name(), namesMap))));
+			if (after != null && after.size() == orderBy.size()) modifiers.after(typedAfter(clazz));
+			// projection - with the fields of the order, for the cursor
+			if (isProjected() && clazz != null && !clazz.isAnnotationPresent(Vertical.class)) {
+				val names = new LinkedHashSet<>(fields);
+				orderBy.forEach(vo -> names.add(vo.name()));
+				names.forEach(name -> modifiers.column(getColumnForParameter(name, namesMap)));
+			}
+			return modifiers.set();
+		}
+		
+		// aggregates - ordered only by the grouping columns or the aliases
+		groupBy.forEach(name -> {
+			val column = getColumnForParameter(name, namesMap);
+			modifiers.groupBy(column);
+			modifiers.column(column);
 		});
+		aggregates.forEach(a -> modifiers.column((a.name() == null ? Q.c("*") : getColumnForParameter(a.name(), namesMap)).fun(a.function(), false).as(a.alias())));
 		
-		orderBy.forEach(vo -> modifiers.orderBy(new OrderByDeclaration(vo.direction(), getColumnForParameter(vo.name(), namesMap))));
+		val aliases = aggregates.stream().map(ValuesAggregate::alias).collect(Collectors.toSet());
+		orderBy.forEach(vo -> {
+			if (groupBy.contains(vo.name())) modifiers.orderBy(new OrderByDeclaration(vo.direction(), getColumnForParameter(vo.name(), namesMap)));
+			else if (aliases.contains(vo.name())) modifiers.orderBy(new OrderByDeclaration(vo.direction(), Q.c(vo.name())));
+		});
 		
 		return modifiers.set();
 	}
 	
+	/**
+	 * Checks that the names of the {@link #getGroupBy() grouping}, {@link #getAggregates() aggregates}, {@link #getFields() projection} and {@link #getOrderBy() order} are the class' persisted fields (order can also name the aggregates'
+	 * aliases), as these are rendered into the statement as columns - unlike the {@link #getValues() values}, which are bound. {@link Vertical} classes can not be aggregated.
+	 *
+	 * @throws IllegalArgumentException Naming the first name not matching any persisted field, or if a {@link Vertical} class is aggregated.
+	 */
+	public void validate(Class<?> clazz) {
+		if (isAggregated() && clazz.isAnnotationPresent(Vertical.class)) throw new IllegalArgumentException("Vertical Persistence: %s can not be aggregated.".formatted(clazz.getSimpleName()));
+		
+		val persisted = PersistenceInterface.getFieldsToColumns(clazz, null).keySet().stream().map(Field::getName).collect(Collectors.toSet());
+		val aliases = aggregates.stream().map(ValuesAggregate::alias).collect(Collectors.toSet());
+		
+		val names = new ArrayList<String>(groupBy);
+		aggregates.stream().map(ValuesAggregate::name).filter(Objects::nonNull).forEach(names::add);
+		names.addAll(fields);
+		orderBy.stream().map(ValuesOrder::name).filter(n -> !isAggregated() || !aliases.contains(n)).forEach(names::add);
+		
+		for (var name : names)
+			if (!persisted.contains(name)) throw new IllegalArgumentException("%s has no persisted field named %s.".formatted(clazz.getSimpleName(), name));
+	}
+	
+	/**
+	 * Requests objects loaded only with {@link #getFields() some fields}. Such partial objects are not memorized.
+	 *
+	 * @see PersistenceInterface#mapQueryResultPartially(krystal.framework.database.abstraction.QueryResultInterface, Class)
+	 */
+	public boolean isProjected() {
+		return !fields.isEmpty();
+	}
+	
+	/**
+	 * Filters for pages of the class' objects - with {@link #getLimit() limit}, the order is completed with {@link Key @Key} fields (ascending), so it is unique and the {@link #cursor(Object) cursor} points to a single object.
+	 */
+	public PersistenceFilters paged(Class<?> clazz) {
+		if (limit == null || isAggregated()) return this;
+		
+		val ordered = orderBy.stream().map(ValuesOrder::name).collect(Collectors.toSet());
+		val keys = Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.isAnnotationPresent(Key.class)).map(Field::getName).filter(n -> !ordered.contains(n)).toList();
+		if (keys.isEmpty()) return this;
+		
+		val paged = toBuilder();
+		keys.forEach(k -> paged.orderBy(ValuesOrder.asc(k)));
+		return paged.set();
+	}
+	
+	/**
+	 * Opaque {@code $after} parameter's value for the page following the object - values of its {@link #getOrderBy() order} fields.
+	 */
+	public String cursor(Object last) {
+		val values = new JSONArray();
+		for (var vo : orderBy) {
+			try {
+				val field = last.getClass().getDeclaredField(vo.name());
+				field.trySetAccessible();
+				values.put(switch (field.get(last)) {
+					case null -> JSONObject.NULL;
+					case Number number -> number;
+					case Boolean bool -> bool;
+					// the same formats as of the values rendered to SQL, parsed back by ValueConverter
+					case LocalDateTime datetime -> datetime.format(KrystalFramework.getDatetimeFormat());
+					case LocalDate date -> date.format(KrystalFramework.getDateFormat());
+					case Object other -> String.valueOf(other);
+				});
+			} catch (NoSuchFieldException | IllegalAccessException e) {
+				throw new IllegalArgumentException("Cursor requires ordering by fields - %s.".formatted(vo.name()), e);
+			}
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(values.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * {@link #getAfter() Cursor's values} converted to the types of the order fields, so they are rendered to SQL the same way as the fields' values. Values of names not matching any field, or not convertible, are left as they are.
+	 */
+	private List<Object> typedAfter(@Nullable Class<?> clazz) {
+		if (clazz == null) return after;
+		
+		val fields = Arrays.stream(clazz.getDeclaredFields()).collect(Collectors.toMap(Field::getName, Field::getType, (a, _) -> a));
+		val typed = new ArrayList<>(after.size());
+		for (var i = 0; i < after.size(); i++) {
+			val value = after.get(i);
+			val type = fields.get(orderBy.get(i).name());
+			val converted = type == null ? null : ValueConverter.convert(value, type);
+			typed.add(converted == null ? value : converted);
+		}
+		return typed;
+	}
+	
+	/**
+	 * Requests rows of {@link #getGroupBy() grouping} fields' values with {@link #getAggregates() aggregates}, rather than objects.
+	 *
+	 * @see #toStatementModifiers(Class)
+	 * @see ValuesAggregate#aggregate(List, List, List, Class, List, Integer)
+	 */
+	public boolean isAggregated() {
+		return !groupBy.isEmpty() || !aggregates.isEmpty();
+	}
+	
+	/**
+	 * Tells if {@link #isAggregated() aggregates} computed in memory, out of the objects of the class, give the same answer as the database.
+	 *
+	 * @see ValuesAggregate#isComputable(Class)
+	 */
+	public boolean isComputable(Class<?> clazz) {
+		val names = Arrays.stream(clazz.getDeclaredFields()).map(Field::getName).collect(Collectors.toSet());
+		return names.containsAll(groupBy) && aggregates.stream().allMatch(a -> a.isComputable(clazz));
+	}
+	
 	private ColumnInterface getColumnForParameter(String param, Map<String, ColumnInterface> map) {
 		return param.startsWith("_") ? Q.c(param.substring(1)) : Optional.ofNullable(map.get(Tools.dequote(param))).orElse(Q.c(param));
 	}
 	
 	@Override
 	public boolean test(Object object) {
-		val conditionsToMatch = (long) values.size();
-		val conditionsMatching = Arrays.stream(object.getClass()
-		                                             .getDeclaredFields())
-		                               .filter(Field::trySetAccessible)
-		                               .filter(f -> values.containsKey(f.getName()))
-		                               .filter(f -> {
-			                               try {
-				                               val value = f.get(object);
-				                               return values.get(f.getName()).test(value);
-			                               } catch (IllegalAccessException e) {
-				                               log.error("PersistenceFilters field access failed", e);
-				                               return false;
-			                               }
-		                               }).count();
-		
-		switch (valuesFiltersMatchingCondition) {
-			case AND -> {
-				return conditionsMatching == conditionsToMatch;
-			}
-			case OR -> {
-				return conditionsMatching > 0;
-			}
-		}
-		return false;
+		return compile(object.getClass()).test(object);
+	}
+	
+	/**
+	 * Predicate for objects of given class - fields are resolved and {@link ValuesFilter#compile(Class) values filters} compiled once per class, so testing only reads the fields and compares. Names not matching any declared field never match.
+	 */
+	public Predicate<Object> compile(Class<?> clazz) {
+		return compiled.computeIfAbsent(clazz, this::compileFor);
+	}
+	
+	private Predicate<Object> compileFor(Class<?> clazz) {
+		val fields = Arrays.stream(clazz.getDeclaredFields())
+		                   .filter(f -> values.containsKey(f.getName()))
+		                   .filter(Field::trySetAccessible)
+		                   .collect(Collectors.toMap(Field::getName, f -> f));
+		
+		@SuppressWarnings("unchecked")
+		final Predicate<Object>[] conditions = values.entrySet().stream().map(e -> {
+			val field = fields.get(e.getKey());
+			if (field == null) return (Predicate<Object>) _ -> false;
+			
+			val filter = e.getValue().compile(field.getType());
+			return (Predicate<Object>) object -> {
+				try {
+					return filter.test(field.get(object));
+				} catch (IllegalAccessException ex) {
+					log.error("PersistenceFilters field access failed", ex);
+					return false;
+				}
+			};
+		}).toArray(Predicate[]::new);
+		
+		return switch (valuesFiltersMatchingCondition) {
+			case AND -> object -> {
+				for (var condition : conditions) if (!condition.test(object)) return false;
+				return true;
+			};
+			case OR -> object -> {
+				for (var condition : conditions) if (condition.test(object)) return true;
+				return false;
+			};
+		};
 	}
 	
 	public <T> Predicate<T> toPredicate() {
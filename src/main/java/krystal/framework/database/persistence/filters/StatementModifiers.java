@@ -1,5 +1,6 @@
 package krystal.framework.database.persistence.filters;
 
+import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.queryfactory.OrderByDeclaration;
 import krystal.framework.database.queryfactory.WhereClause;
 import lombok.Builder;
@@ -19,5 +20,14 @@ public class StatementModifiers {
 	private UnaryOperator<WhereClause> where;
 	private Integer limit;
 	private @Singular(value = "orderBy") List<OrderByDeclaration> orderBy;
+	/**
+	 * Replace the columns of the loader, if any.
+	 */
+	private @Singular List<ColumnInterface> columns;
+	private @Singular(value = "groupBy") List<ColumnInterface> groupBy;
+	/**
+	 * Last values of the {@link #orderBy}, to {@link krystal.framework.database.queryfactory.SelectStatement#seekAfter(List, List) seek} the next page.
+	 */
+	private List<Object> after;
 	
 }
\ No newline at end of file
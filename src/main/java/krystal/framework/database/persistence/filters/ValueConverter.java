@@ -0,0 +1,167 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.KrystalFramework;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Brings filters' values to the type of compared fields. Filters are often parsed from http parameters, so the values come as {@link String Strings} - numbers, booleans, enums (by name, case-insensitive), {@link UUID UUIDs} and temporals (ISO
+ * format, or the framework's {@link KrystalFramework#getDatetimeFormat() datetime} and {@link KrystalFramework#getDateFormat() date} formats) are parsed, and other {@link Number Numbers} or temporals are converted.
+ *
+ * @see ValuesFilter#compile(Class)
+ */
+@UtilityClass
+public class ValueConverter {
+	
+	/**
+	 * @return {@code null} if the value is {@code null}, {@code "null"} or can not be converted.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public @Nullable Object convert(@Nullable Object value, Class<?> type) {
+		if (isNull(value)) return null;
+		
+		val target = boxed(type);
+		if (target.isInstance(value)) return value;
+		
+		try {
+			if (value instanceof Number number) {
+				val converted = fromNumber(number, target);
+				if (converted != null) return converted;
+			}
+			if (value instanceof Date date) {
+				val converted = fromInstant(date.toInstant(), target);
+				if (converted != null) return converted;
+			}
+			
+			val str = String.valueOf(value).trim();
+			if (target == String.class) return str;
+			if (target == Integer.class) return Integer.valueOf(str);
+			if (target == Long.class) return Long.valueOf(str);
+			if (target == Short.class) return Short.valueOf(str);
+			if (target == Byte.class) return Byte.valueOf(str);
+			if (target == Double.class) return Double.valueOf(str);
+			if (target == Float.class) return Float.valueOf(str);
+			if (target == BigDecimal.class) return new BigDecimal(str);
+			if (target == BigInteger.class) return new BigInteger(str);
+			if (target == Boolean.class) return Boolean.valueOf(str);
+			if (target == Character.class) return str.length() == 1 ? str.charAt(0) : null;
+			if (target == UUID.class) return UUID.fromString(str);
+			if (target == LocalDate.class) return parseDate(str);
+			if (target == LocalDateTime.class) return parseDatetime(str);
+			if (target == LocalTime.class) return LocalTime.parse(str);
+			if (target == OffsetDateTime.class) return OffsetDateTime.parse(str);
+			if (target == ZonedDateTime.class) return ZonedDateTime.parse(str);
+			if (target == Instant.class) return Instant.parse(str);
+			if (target == Timestamp.class) return Timestamp.valueOf(parseDatetime(str));
+			if (target == java.sql.Date.class) return java.sql.Date.valueOf(parseDate(str));
+			if (target.isEnum()) {
+				return Arrays.stream(target.getEnumConstants())
+				             .map(c -> (Enum) c)
+				             .filter(c -> c.name().equalsIgnoreCase(str))
+				             .findFirst()
+				             .orElse(null);
+			}
+		} catch (IllegalArgumentException | DateTimeParseException | ArithmeticException _) {
+		}
+		return null;
+	}
+	
+	/**
+	 * Value of the type, as the database compares it - {@link #convert(Object, Class) converted}, decimals without trailing zeros, and dates and times in the {@link KrystalFramework#getDatetimeFormat() precision} they are written with. Used to
+	 * match values read from the database with the ones of objects, i.e. keys.
+	 *
+	 * @return {@link String} of the value, if it can not be converted.
+	 */
+	public @Nullable Object canonical(@Nullable Object value, Class<?> type) {
+		if (isNull(value)) return null;
+		
+		return switch (convert(value, type)) {
+			case null -> String.valueOf(value);
+			case BigDecimal decimal -> decimal.stripTrailingZeros();
+			case LocalDateTime datetime -> datetime.format(KrystalFramework.getDatetimeFormat());
+			case Timestamp timestamp -> timestamp.toLocalDateTime().format(KrystalFramework.getDatetimeFormat());
+			case LocalDate date -> date.format(KrystalFramework.getDateFormat());
+			case java.sql.Date date -> date.toLocalDate().format(KrystalFramework.getDateFormat());
+			case Object converted -> converted;
+		};
+	}
+	
+	public boolean isNull(@Nullable Object value) {
+		return value == null || "null".equalsIgnoreCase(String.valueOf(value));
+	}
+	
+	public Class<?> boxed(Class<?> type) {
+		if (!type.isPrimitive()) return type;
+		return switch (type.getName()) {
+			case "int" -> Integer.class;
+			case "long" -> Long.class;
+			case "short" -> Short.class;
+			case "double" -> Double.class;
+			case "float" -> Float.class;
+			case "boolean" -> Boolean.class;
+			case "char" -> Character.class;
+			default -> Byte.class;
+		};
+	}
+	
+	/**
+	 * Integral targets are converted exactly - fractions or overflows throw {@link ArithmeticException}.
+	 */
+	private @Nullable Object fromNumber(Number number, Class<?> target) {
+		val decimal = new BigDecimal(number.toString());
+		if (target == Integer.class) return decimal.intValueExact();
+		if (target == Long.class) return decimal.longValueExact();
+		if (target == Short.class) return decimal.shortValueExact();
+		if (target == Byte.class) return decimal.byteValueExact();
+		if (target == Double.class) return number.doubleValue();
+		if (target == Float.class) return number.floatValue();
+		if (target == BigDecimal.class) return decimal;
+		if (target == BigInteger.class) return decimal.toBigIntegerExact();
+		return null;
+	}
+	
+	/**
+	 * ISO format, or {@link KrystalFramework#getDatetimeFormat()} - the one of the values rendered to SQL.
+	 */
+	private LocalDateTime parseDatetime(String str) {
+		try {
+			return LocalDateTime.parse(str);
+		} catch (DateTimeParseException _) {
+			return LocalDateTime.parse(str, KrystalFramework.getDatetimeFormat());
+		}
+	}
+	
+	/**
+	 * ISO format, or {@link KrystalFramework#getDateFormat()} - the one of the values rendered to SQL.
+	 */
+	private LocalDate parseDate(String str) {
+		try {
+			return LocalDate.parse(str);
+		} catch (DateTimeParseException _) {
+			return LocalDate.parse(str, KrystalFramework.getDateFormat());
+		}
+	}
+	
+	private @Nullable Object fromInstant(Instant instant, Class<?> target) {
+		if (target == Instant.class) return instant;
+		if (target == Timestamp.class) return Timestamp.from(instant);
+		if (target == Date.class) return Date.from(instant);
+		return null;
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.database.abstraction.ColumnInterface.Functions;
+import krystal.framework.database.queryfactory.OrderByDirection;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Aggregate {@link Functions function} of the field, named in results as its {@link #alias()}. Without the name, it is {@code COUNT(*)}.
+ *
+ * @see PersistenceFilters#isAggregated()
+ */
+public record ValuesAggregate(Functions function, @Nullable String name) {
+	
+	public ValuesAggregate {
+		if (function == Functions.TRIM)
+			throw new IllegalArgumentException("TRIM is not an aggregate function.");
+		if (name == null && function != Functions.COUNT)
+			throw new IllegalArgumentException("Only COUNT can be applied to all rows.");
+	}
+	
+	public static ValuesAggregate count() {
+		return new ValuesAggregate(Functions.COUNT, null);
+	}
+	
+	/**
+	 * Name of the result, i.e. {@code count} or {@code sum_amount}.
+	 */
+	public String alias() {
+		return name == null ? "count" : function.name().toLowerCase() + "_" + name;
+	}
+	
+	/**
+	 * Tells if the aggregate computed in memory gives the same answer as the database - {@code SUM} needs numeric fields, {@code MIN} and {@code MAX} - {@link Comparable} ones, other than {@link String} (ordered by database collation), and
+	 * {@code AVG} - floating point ones, as the type and scale of average of integral or decimal columns depend on the dialect (i.e. SQL Server and DB2 truncate it to the column's integral type).
+	 */
+	public boolean isComputable(Class<?> clazz) {
+		if (name == null) return true;
+		
+		val field = Arrays.stream(clazz.getDeclaredFields()).filter(f -> f.getName().equals(name)).findFirst();
+		if (field.isEmpty()) return false;
+		
+		val type = ValueConverter.boxed(field.get().getType());
+		return switch (function) {
+			case COUNT -> true;
+			case SUM -> Number.class.isAssignableFrom(type);
+			case AVG -> type == Double.class || type == Float.class;
+			case MIN, MAX -> type != String.class && Comparable.class.isAssignableFrom(type);
+			case TRIM -> false;
+		};
+	}
+	
+	/**
+	 * Rows of the objects grouped by values of the fields, with the aggregates - the same as {@code SELECT groupBy, aggregates ... GROUP BY groupBy} would return. Without grouping fields, there is single row (also for no objects). Rows are
+	 * ordered by the given names of grouping fields or aggregates' aliases, and limited.
+	 */
+	public static <T> List<Map<String, Object>> aggregate(List<T> objects, List<String> groupBy, List<ValuesAggregate> aggregates, Class<T> clazz, List<ValuesOrder> orderBy, @Nullable Integer limit) {
+		val fields = new HashMap<String, Field>();
+		Arrays.stream(clazz.getDeclaredFields()).filter(Field::trySetAccessible).forEach(f -> fields.put(f.getName(), f));
+		
+		val groups = new LinkedHashMap<List<Object>, Accumulator[]>();
+		if (groupBy.isEmpty()) groups.put(List.of(), accumulators(aggregates));
+		for (var object : objects) {
+			val key = new ArrayList<>(groupBy.size());
+			for (var name : groupBy) key.add(read(fields.get(name), object));
+			val accumulators = groups.computeIfAbsent(Collections.unmodifiableList(key), _ -> accumulators(aggregates));
+			for (var i = 0; i < accumulators.length; i++) {
+				val name = aggregates.get(i).name();
+				accumulators[i].add(name == null ? object : read(fields.get(name), object));
+			}
+		}
+		
+		val rows = new ArrayList<Map<String, Object>>(groups.size());
+		groups.forEach((key, accumulators) -> {
+			val row = LinkedHashMap.<String, Object>newLinkedHashMap(key.size() + accumulators.length);
+			for (var i = 0; i < key.size(); i++) row.put(groupBy.get(i), key.get(i));
+			for (var i = 0; i < accumulators.length; i++) row.put(aggregates.get(i).alias(), accumulators[i].result());
+			rows.add(row);
+		});
+		
+		if (!orderBy.isEmpty()) rows.sort(comparator(orderBy));
+		return limit == null || limit >= rows.size() ? rows : rows.subList(0, Math.max(limit, 0));
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Comparator<Map<String, Object>> comparator(List<ValuesOrder> orderBy) {
+		Comparator<Map<String, Object>> comparator = (_, _) -> 0;
+		for (var vo : orderBy) {
+			Comparator<Object> byValue = (a, b) -> a instanceof Comparable comparable && a.getClass() == b.getClass() ? comparable.compareTo(b) : String.valueOf(a).compareTo(String.valueOf(b));
+			Comparator<Map<String, Object>> byName = Comparator.comparing(row -> row.get(vo.name()), Comparator.nullsFirst(byValue));
+			comparator = comparator.thenComparing(vo.direction() == OrderByDirection.DESC ? byName.reversed() : byName);
+		}
+		return comparator;
+	}
+	
+	private static @Nullable Object read(@Nullable Field field, Object object) {
+		if (field == null) return null;
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	private static Accumulator[] accumulators(List<ValuesAggregate> aggregates) {
+		return aggregates.stream().map(a -> new Accumulator(a.function())).toArray(Accumulator[]::new);
+	}
+	
+	/**
+	 * Like in SQL, {@code null} values are skipped. Sums of integral values are {@link Long}, of decimals - {@link BigDecimal}, others - {@link Double}.
+	 */
+	private static class Accumulator {
+		
+		private final Functions function;
+		private long count;
+		private long integral;
+		private @Nullable BigDecimal decimal;
+		private double floating;
+		private boolean integralOnly = true;
+		private @Nullable Comparable<Object> extreme;
+		
+		Accumulator(Functions function) {
+			this.function = function;
+		}
+		
+		@SuppressWarnings("unchecked")
+		void add(@Nullable Object value) {
+			if (value == null) return;
+			count++;
+			switch (function) {
+				case SUM, AVG -> {
+					switch (value) {
+						case Integer _, Long _, Short _, Byte _ -> integral += ((Number) value).longValue();
+						case BigDecimal bd -> {
+							decimal = decimal == null ? bd : decimal.add(bd);
+							integralOnly = false;
+						}
+						case Number number -> {
+							floating += number.doubleValue();
+							integralOnly = false;
+						}
+						default -> {
+						}
+					}
+				}
+				case MIN, MAX -> {
+					val comparable = (Comparable<Object>) value;
+					if (extreme == null || (function == Functions.MIN ? comparable.compareTo(extreme) < 0 : comparable.compareTo(extreme) > 0)) extreme = comparable;
+				}
+				case COUNT, TRIM -> {
+				}
+			}
+		}
+		
+		@Nullable Object result() {
+			return switch (function) {
+				case COUNT -> count;
+				case MIN, MAX -> extreme;
+				case SUM -> count == 0 ? null : sum();
+				case AVG -> count == 0 ? null : sum().doubleValue() / count;
+				case TRIM -> null;
+			};
+		}
+		
+		private Number sum() {
+			if (integralOnly) return integral;
+			if (decimal != null && floating == 0) return decimal.add(BigDecimal.valueOf(integral));
+			return integral + floating + (decimal == null ? 0 : decimal.doubleValue());
+		}
+		
+	}
+	
+}
\ No newline at end of file
@@ -3,8 +3,15 @@ package krystal.framework.database.persistence.filters;
 import krystal.framework.database.queryfactory.ComparisonOperator;
 import lombok.val;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 public record ValuesFilter(ComparisonOperator operator, Object... values) implements Predicate<Object> {
 	
@@ -22,55 +29,98 @@ public record ValuesFilter(ComparisonOperator operator, Object... values) implem
 		return new ValuesFilter(operator, values);
 	}
 	
+	/**
+	 * @see #compile(Class)
+	 */
 	@Override
 	public boolean test(Object value) {
-		if (values.length == 0) return false;
-		switch (operator) {
+		return compile(value == null ? Object.class : value.getClass()).test(value);
+	}
+	
+	/**
+	 * Predicate for values of given type, with the filter's values {@link ValueConverter converted} to it upfront - so the predicate only compares. Values which can not be converted, can not match.
+	 * <ul>
+	 *     <li>Empty values or {@code "null"} stand for SQL {@code NULL};</li>
+	 *     <li>Ranges compare {@link Comparable} values - {@code MORE} than the highest, {@code LESS} than the lowest and {@code BETWEEN} both of the filter's values;</li>
+	 *     <li>{@code LIKE} matches {@link String#valueOf(Object) String representation} of values against any of the SQL patterns ({@code %} and {@code _} wildcards), case-insensitive - as default database collations.</li>
+	 * </ul>
+	 */
+	public Predicate<Object> compile(Class<?> type) {
+		val nulls = values.length == 0 || Arrays.stream(values).anyMatch(ValueConverter::isNull);
+		val normalize = normalizer(type);
+		val converted = Arrays.stream(values)
+		                      .map(v -> ValueConverter.convert(v, type))
+		                      .filter(Objects::nonNull)
+		                      .map(normalize)
+		                      .toList();
+		
+		return switch (operator) {
 			case EQUAL, IN -> {
-				for (val v : values) if (v == value || value.equals(v)) return true;
-				return false;
-			}
-			case MORE, LESS, MORE_EQUAL, LESS_EQUAL, BETWEEN -> {
-				
-				val dValue = String.valueOf(value).hashCode();
-				val dVals = Arrays.stream(values).map(v -> String.valueOf(v).hashCode()).sorted().toList();
-				
-				switch (operator) {
-					case MORE -> {
-						for (val v : dVals) {
-							if (dValue <= v) return false;
-						}
-						return true;
-					}
-					case LESS -> {
-						for (val v : dVals) {
-							if (dValue >= v) return false;
-						}
-						return true;
-					}
-					case MORE_EQUAL -> {
-						for (val v : dVals) {
-							if (dValue < v) return false;
-						}
-						return true;
-					}
-					case LESS_EQUAL -> {
-						for (val v : dVals) {
-							if (dValue > v) return false;
-						}
-						return true;
-					}
-					case BETWEEN -> {
-						return dValue >= dVals.getFirst() && dValue <= dVals.getLast();
-					}
-				}
+				val matching = matching(converted, normalize);
+				yield value -> value == null ? nulls : matching.test(value);
 			}
 			case NOT_EQUAL, NOT_IN -> {
-				for (val v : values) if (v == value || value.equals(v)) return false;
-				return true;
+				val matching = matching(converted, normalize);
+				yield value -> value != null && !matching.test(value);
+			}
+			case MORE, MORE_EQUAL, LESS, LESS_EQUAL, BETWEEN, NOT_BETWEEN -> range(type, converted);
+			case LIKE, NOT_LIKE -> {
+				val patterns = Arrays.stream(values).filter(v -> !ValueConverter.isNull(v)).map(v -> like(String.valueOf(v))).toList();
+				val like = (Predicate<Object>) value -> value != null && patterns.stream().anyMatch(p -> p.matcher(String.valueOf(value)).matches());
+				yield operator == ComparisonOperator.LIKE ? like : value -> value != null && !like.test(value);
+			}
+		};
+	}
+	
+	private static Predicate<Object> matching(List<Object> converted, UnaryOperator<Object> normalize) {
+		if (converted.isEmpty()) return _ -> false;
+		if (converted.size() == 1) {
+			val single = converted.getFirst();
+			return value -> single.equals(normalize.apply(value));
+		}
+		val set = new HashSet<>(converted);
+		return value -> set.contains(normalize.apply(value));
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Predicate<Object> range(Class<?> type, List<Object> converted) {
+		if (converted.isEmpty() || !Comparable.class.isAssignableFrom(ValueConverter.boxed(type))) return _ -> false;
+		
+		val sorted = converted.stream().map(v -> (Comparable) v).sorted(Comparator.naturalOrder()).toList();
+		val lowest = sorted.getFirst();
+		val highest = sorted.getLast();
+		return switch (operator) {
+			case MORE -> value -> value != null && highest.compareTo(value) < 0;
+			case MORE_EQUAL -> value -> value != null && highest.compareTo(value) <= 0;
+			case LESS -> value -> value != null && lowest.compareTo(value) > 0;
+			case LESS_EQUAL -> value -> value != null && lowest.compareTo(value) >= 0;
+			case BETWEEN -> value -> value != null && lowest.compareTo(value) <= 0 && highest.compareTo(value) >= 0;
+			default -> value -> value != null && (lowest.compareTo(value) > 0 || highest.compareTo(value) < 0);
+		};
+	}
+	
+	/**
+	 * {@link BigDecimal BigDecimals} are equal regardless of their scale, as in the database.
+	 */
+	private static UnaryOperator<Object> normalizer(Class<?> type) {
+		if (type == BigDecimal.class) return value -> value instanceof BigDecimal decimal ? decimal.stripTrailingZeros() : value;
+		return UnaryOperator.identity();
+	}
+	
+	private static Pattern like(String pattern) {
+		val regex = new StringBuilder();
+		val literal = new StringBuilder();
+		for (var c : pattern.toCharArray()) {
+			if (c != '%' && c != '_') {
+				literal.append(c);
+				continue;
 			}
+			if (!literal.isEmpty()) regex.append(Pattern.quote(literal.toString()));
+			literal.setLength(0);
+			regex.append(c == '%' ? ".*" : ".");
 		}
-		return false;
+		if (!literal.isEmpty()) regex.append(Pattern.quote(literal.toString()));
+		return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
 	}
 	
 }
\ No newline at end of file
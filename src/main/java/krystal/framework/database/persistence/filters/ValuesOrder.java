@@ -3,15 +3,30 @@ package krystal.framework.database.persistence.filters;
 import krystal.framework.database.queryfactory.OrderByDirection;
 import lombok.val;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 public record ValuesOrder(OrderByDirection direction, String name) {
 	
+	/**
+	 * Number of objects, from which sorting without the limit is done in parallel.
+	 */
+	public static final int PARALLEL_SORT_THRESHOLD = 10_000;
+	/**
+	 * Bound of compiled comparators cached per class - further orders are compiled on each use.
+	 */
+	public static final int MAXIMUM_COMPARATORS = 256;
+	
+	/**
+	 * Keyed with the orders resolved to the class' fields.
+	 */
+	private static final Map<Class<?>, Map<List<ValuesOrder>, Comparator<Object>>> comparators = new ConcurrentHashMap<>();
+	
 	public static ValuesOrder asc(String name) {
 		return new ValuesOrder(OrderByDirection.ASC, name);
 	}
@@ -21,55 +36,161 @@ public record ValuesOrder(OrderByDirection direction, String name) {
 	}
 	
 	public static <T> Stream<T> sort(List<T> objects, List<ValuesOrder> orderBy, Class<T> clazz) {
-		val fields = Arrays.stream(clazz.getDeclaredFields())
-		                   .filter(Field::trySetAccessible)
-		                   .toList();
+		return sort(objects, orderBy, clazz, null);
+	}
+	
+	/**
+	 * Sorts the objects with {@link #comparator(List, Class) compiled comparator}. With the limit, only the first {@code limit} objects are selected (with bounded heap) and sorted - so a page of large set does not cost the full sort.
+	 */
+	public static <T> Stream<T> sort(List<T> objects, List<ValuesOrder> orderBy, Class<T> clazz, @Nullable Integer limit) {
+		val comparator = comparator(orderBy, clazz);
+		
+		if (limit != null && limit < objects.size()) return top(objects, comparator, limit).stream();
+		
+		if (objects.size() >= PARALLEL_SORT_THRESHOLD) {
+			@SuppressWarnings("unchecked")
+			T[] array = (T[]) objects.toArray();
+			Arrays.parallelSort(array, comparator);
+			return Arrays.stream(array);
+		}
+		
+		return objects.stream().sorted(comparator);
+	}
+	
+	/**
+	 * Comparator of the class' objects by the declared fields of given names, compiled once per class and order. Primitive fields are compared without boxing, {@code null} values go first in {@link OrderByDirection#ASC ascending} order (as
+	 * in SQL Server) and values which are not {@link Comparable} - by their {@link String#valueOf(Object) String representation}. Names not matching any field, and repeated ones, are ignored.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Comparator<T> comparator(List<ValuesOrder> orderBy, Class<T> clazz) {
+		val cached = comparators.computeIfAbsent(clazz, _ -> new ConcurrentHashMap<>());
+		val resolved = resolve(orderBy, clazz);
+		val comparator = cached.get(resolved);
+		if (comparator != null) return (Comparator<T>) comparator;
+		
+		val compiled = compile(resolved, clazz);
+		if (cached.size() < MAXIMUM_COMPARATORS) cached.putIfAbsent(resolved, compiled);
+		return (Comparator<T>) compiled;
+	}
+	
+	/**
+	 * The order narrowed to the first occurrences of the class' fields - so requests differing only in unknown or repeated names share the comparator.
+	 */
+	private static List<ValuesOrder> resolve(List<ValuesOrder> orderBy, Class<?> clazz) {
+		val names = new HashSet<String>();
+		Arrays.stream(clazz.getDeclaredFields()).forEach(f -> names.add(f.getName()));
+		return orderBy.stream().filter(vo -> names.remove(vo.name())).toList();
+	}
+	
+	private static Comparator<Object> compile(List<ValuesOrder> orderBy, Class<?> clazz) {
+		val fields = new HashMap<String, Field>();
+		Arrays.stream(clazz.getDeclaredFields()).filter(Field::trySetAccessible).forEach(f -> fields.put(f.getName(), f));
 		
-		Map<T, Map<String, Object>> values = new HashMap<>(objects.size());
-		objects.forEach(obj -> {
-			val vals = new HashMap<String, Object>(fields.size());
-			fields.forEach(field -> {
+		Comparator<Object> comparator = (_, _) -> 0;
+		for (var vo : orderBy) {
+			val field = fields.get(vo.name());
+			if (field == null) continue;
+			
+			val byField = compile(field);
+			comparator = comparator.thenComparing(vo.direction() == OrderByDirection.DESC ? byField.reversed() : byField);
+		}
+		return comparator;
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Comparator<Object> compile(Field field) {
+		val type = field.getType();
+		
+		if (type == int.class) return Comparator.comparingInt(o -> {
+			try {
+				return field.getInt(o);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		if (type == long.class) return Comparator.comparingLong(o -> {
+			try {
+				return field.getLong(o);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		if (type == double.class) return Comparator.comparingDouble(o -> {
+			try {
+				return field.getDouble(o);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		
+		val values = ValueConverter.boxed(type);
+		Comparator<Object> byValue = Comparable.class.isAssignableFrom(values) ? (a, b) -> ((Comparable) a).compareTo(b) : Comparator.comparing(Object::toString);
+		return Comparator.comparing(o -> {
+			try {
+				return field.get(o);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}, Comparator.nullsFirst(byValue));
+	}
+	
+	/**
+	 * Predicate of the objects following the last values in the order - the in-memory counterpart of {@link krystal.framework.database.queryfactory.SelectStatement#seekAfter(List, List) keyset seek}. The values are
+	 * {@link ValueConverter converted} to the fields' types, as they come from the cursor. Names not matching any field are ignored.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <T> Predicate<T> after(List<ValuesOrder> orderBy, List<Object> values, Class<T> clazz) {
+		val fields = new HashMap<String, Field>();
+		Arrays.stream(clazz.getDeclaredFields()).filter(Field::trySetAccessible).forEach(f -> fields.put(f.getName(), f));
+		
+		val comparators = new ArrayList<Function<Object, Integer>>(orderBy.size());
+		for (var i = 0; i < Math.min(orderBy.size(), values.size()); i++) {
+			val vo = orderBy.get(i);
+			val field = fields.get(vo.name());
+			if (field == null) continue;
+			
+			val type = ValueConverter.boxed(field.getType());
+			val last = ValueConverter.convert(values.get(i), type);
+			Comparator<Object> byValue = Comparator.nullsFirst(Comparable.class.isAssignableFrom(type) ? (a, b) -> ((Comparable) a).compareTo(b) : Comparator.comparing(Object::toString));
+			if (vo.direction() == OrderByDirection.DESC) byValue = byValue.reversed();
+			val comparator = byValue;
+			comparators.add(object -> {
 				try {
-					vals.put(field.getName(), field.get(obj));
-				} catch (IllegalAccessException _) {
+					return comparator.compare(field.get(object), last);
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException(e);
 				}
 			});
-			values.put(obj, vals);
-		});
+		}
+		
+		return object -> {
+			for (var comparator : comparators) {
+				val result = comparator.apply(object);
+				if (result != 0) return result > 0;
+			}
+			return false;
+		};
+	}
+	
+	/**
+	 * First {@code limit} objects in order, kept stable - equal objects keep their order from the list.
+	 */
+	private static <T> List<T> top(List<T> objects, Comparator<T> comparator, int limit) {
+		if (limit <= 0) return List.of();
 		
-		return objects.stream()
-		              .sorted((a, b) -> {
-			              val aVals = values.get(a);
-			              val bVals = values.get(b);
-			              
-			              for (var vo : orderBy) {
-				              val direction = switch (vo.direction) {
-					              case ASC -> 1;
-					              case DESC -> -1;
-				              };
-				              
-				              val av = aVals.get(vo.name());
-				              val bv = bVals.get(vo.name());
-				              
-				              var result = 0;
-				              
-				              if (av == null) result = -1;
-				              if (bv == null) result = 1;
-				              
-				              if (result == 0) {
-					              // noinspection rawtypes
-					              if (av instanceof Comparable ac && bv instanceof Comparable bc) {
-						              // noinspection unchecked
-						              result = ac.compareTo(bc);
-					              } else {
-						              result = Integer.compare(av.hashCode(), bv.hashCode());
-					              }
-				              }
-				              
-				              if (result != 0) return result * direction;
-			              }
-			              return 0;
-		              });
+		Comparator<Integer> order = (i, j) -> {
+			val result = comparator.compare(objects.get(i), objects.get(j));
+			return result != 0 ? result : Integer.compare(i, j);
+		};
+		val heap = new PriorityQueue<>(limit + 1, order.reversed());
+		for (var i = 0; i < objects.size(); i++) {
+			if (heap.size() < limit) heap.add(i);
+			else if (order.compare(i, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(i);
+			}
+		}
+		return heap.stream().sorted(order).map(objects::get).toList();
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package krystal.framework.database.persistence.memory;
+
+import lombok.Getter;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Probabilistic set of keys - tells for sure that a key was never added, with {@link #falsePositiveRate} chance of mistakenly claiming otherwise. Sized for the expected number of keys, at the cost of about 10 bits per key for 1% rate.
+ *
+ * @apiNote Thread-safe. Keys can not be removed.
+ */
+public class BloomFilter {
+	
+	private final AtomicLongArray bits;
+	private final long size;
+	private final int hashes;
+	private final @Getter double falsePositiveRate;
+	
+	public BloomFilter(long expectedKeys, double falsePositiveRate) {
+		val n = Math.max(expectedKeys, 1);
+		this.falsePositiveRate = Math.min(Math.max(falsePositiveRate, 1e-6), 0.5);
+		
+		val optimalSize = (long) Math.ceil(-n * Math.log(this.falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		val words = (int) Math.min((Math.max(optimalSize, 64) + 63) / 64, Integer.MAX_VALUE - 8);
+		bits = new AtomicLongArray(words);
+		size = 64L * words;
+		hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+	}
+	
+	public void add(String key) {
+		val hash = hash(key);
+		val h1 = (int) hash;
+		val h2 = (int) (hash >>> 32);
+		for (var i = 1; i <= hashes; i++) {
+			val bit = index(h1 + i * h2);
+			val word = (int) (bit >>> 6);
+			val mask = 1L << bit;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0) {
+				if (bits.compareAndSet(word, current, current | mask)) break;
+			}
+		}
+	}
+	
+	/**
+	 * {@code false} means the key was never added.
+	 */
+	public boolean mightContain(String key) {
+		val hash = hash(key);
+		val h1 = (int) hash;
+		val h2 = (int) (hash >>> 32);
+		for (var i = 1; i <= hashes; i++) {
+			val bit = index(h1 + i * h2);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+		}
+		return true;
+	}
+	
+	private long index(int combined) {
+		return (combined & Integer.MAX_VALUE) % size;
+	}
+	
+	/**
+	 * 64-bit FNV-1a, split into two 32-bit hashes for double hashing.
+	 */
+	private static long hash(String key) {
+		var hash = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,345 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.annotations.BloomFiltered;
+import krystal.framework.database.persistence.annotations.Indexed;
+import krystal.framework.database.persistence.annotations.OffHeap;
+import krystal.framework.database.persistence.annotations.RefreshAhead;
+import krystal.framework.database.persistence.annotations.StaleWhileRevalidate;
+import krystal.framework.database.persistence.filters.ConditionalDelimiter;
+import krystal.framework.database.persistence.filters.PersistenceFilters;
+import krystal.framework.database.persistence.filters.ValueConverter;
+import krystal.framework.database.persistence.filters.ValuesAggregate;
+import krystal.framework.database.persistence.filters.ValuesFilter;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Partition of {@link PersistenceMemory} holding objects of a single class, along with their {@link EvictionPolicy} and {@link Indexed @Indexed} fields' {@link FieldIndex indexes}. The objects are kept in {@link HeapStorage}, or
+ * {@link OffHeapStorage} for {@link OffHeap @OffHeap} classes.
+ * <p>
+ * The segment also tracks filters (conditions sets) for which it is known to hold <i>complete</i> contents of the database - i.e. after loading them without a limit. Anything expired, evicted or cleared from the segment
+ * {@link #invalidate() invalidates} the completeness.
+ * <p>
+ * Keys known to be missing in the database are held for a short time ({@link #markMissing(String, long)}), and for {@link BloomFiltered @BloomFiltered} classes - a {@link BloomFilter} of known keys is built on full loads and trusted for
+ * {@link BloomFiltered#ttl()}.
+ */
+@Log4j2
+public class ClassSegment {
+	
+	/**
+	 * Bound of the negative cache size.
+	 */
+	public static final int MAXIMUM_MISSING = 10_000;
+	
+	private final @Getter Class<?> type;
+	private final SegmentStorageInterface entries;
+	/**
+	 * Guarded by the {@link #policyLock}.
+	 */
+	private final @Getter EvictionPolicy<String> policy;
+	/**
+	 * Per segment, so puts of different classes are admitted concurrently.
+	 */
+	private final @Getter ReentrantLock policyLock;
+	private final Map<String, FieldIndex> indexes;
+	private final Map<String, Field> fields;
+	/**
+	 * @see RefreshAhead#intervals()
+	 */
+	private final @Getter int refreshAhead;
+	/**
+	 * @see StaleWhileRevalidate#intervals()
+	 */
+	private final @Getter int staleIntervals;
+	/**
+	 * Conditions (joined with {@code AND}) of complete loads. Empty conditions mean the whole class is held.
+	 */
+	private final List<Map<String, ValuesFilter>> complete;
+	/**
+	 * Incremented with each {@link #invalidate()}, so the completeness of a load started before is not marked.
+	 */
+	private volatile @Getter long version;
+	/**
+	 * Negative cache - keys not found in the database, with their expiry time.
+	 */
+	private final ConcurrentHashMap<String, Long> missing;
+	private volatile @Nullable BloomFilter knownKeys;
+	/**
+	 * Time the {@link #knownKeys} stop answering - keys inserted by other writers meanwhile are not known.
+	 */
+	private volatile long knownKeysExpiry;
+	
+	public ClassSegment(Class<?> type, EvictionPolicy<String> policy) {
+		this.type = type;
+		this.policy = policy;
+		policyLock = new ReentrantLock();
+		entries = Optional.ofNullable(type.getAnnotation(OffHeap.class))
+		                  .flatMap(offHeap -> RowCodec.of(type).map(codec -> (SegmentStorageInterface) new OffHeapStorage(codec, offHeap.hotEntries())))
+		                  .orElseGet(() -> {
+			                  if (type.isAnnotationPresent(OffHeap.class)) log.warn("{}.class fields can not be encoded - objects are kept on heap.", type.getSimpleName());
+			                  return new HeapStorage();
+		                  });
+		indexes = new HashMap<>();
+		fields = new HashMap<>();
+		complete = new CopyOnWriteArrayList<>();
+		missing = new ConcurrentHashMap<>();
+		refreshAhead = Optional.ofNullable(type.getAnnotation(RefreshAhead.class)).map(RefreshAhead::intervals).orElse(-1);
+		staleIntervals = Optional.ofNullable(type.getAnnotation(StaleWhileRevalidate.class)).map(StaleWhileRevalidate::intervals).orElse(0);
+		
+		Arrays.stream(type.getDeclaredFields()).forEach(f -> fields.put(f.getName(), f));
+		// only declared fields are persisted, inherited ones would be indexed with values never loaded
+		for (Class<?> c = type.getSuperclass(); c != null && c != Object.class; c = c.getSuperclass())
+			for (var f : c.getDeclaredFields())
+				if (f.isAnnotationPresent(Indexed.class)) throw new RuntimeException(String.format("%s.class inherits @Indexed field %s of %s.class - only fields declared by the persisted class can be indexed.", type.getSimpleName(), f.getName(), c.getSimpleName()));
+		fields.values().stream()
+		      .filter(f -> f.isAnnotationPresent(Indexed.class) && f.trySetAccessible())
+		      .forEach(f -> indexes.put(f.getName(), new FieldIndex(f, f.getAnnotation(Indexed.class).value())));
+	}
+	
+	public @Nullable PersistenceInterface get(String key) {
+		return entries.get(key);
+	}
+	
+	public void put(String key, PersistenceInterface persistence) {
+		entries.put(key, persistence);
+		indexes.values().forEach(index -> index.add(key, persistence));
+		markExisting(key);
+	}
+	
+	/**
+	 * @return {@code true} if the key was present.
+	 */
+	public boolean remove(String key) {
+		val removed = entries.remove(key);
+		if (removed) indexes.values().forEach(index -> index.remove(key));
+		return removed;
+	}
+	
+	public Set<String> keys() {
+		return entries.keys();
+	}
+	
+	public Stream<Map.Entry<String, PersistenceInterface>> entries() {
+		return entries.entries();
+	}
+	
+	public Stream<PersistenceInterface> values() {
+		return entries.entries().map(Map.Entry::getValue);
+	}
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	public boolean isEmpty() {
+		return entries.size() == 0;
+	}
+	
+	public boolean isOffHeap() {
+		return entries instanceof OffHeapStorage;
+	}
+	
+	/**
+	 * @see SegmentStorageInterface#report()
+	 */
+	public String storageReport() {
+		return entries.report();
+	}
+	
+	public void clear() {
+		entries.clear();
+		indexes.values().forEach(FieldIndex::clear);
+		clearMissing();
+		invalidate();
+	}
+	
+	/*
+	 * Completeness
+	 */
+	
+	/**
+	 * Records that all objects matching the filters ({@code null} for all objects of the class) are held, unless the segment was {@link #invalidate() invalidated} since the {@code version} was read. Only unlimited {@code AND} conditions on
+	 * the class' fields are recorded.
+	 */
+	public synchronized void markComplete(@Nullable PersistenceFilters filters, long version) {
+		if (this.version != version) return;
+		// pages and partial objects are never complete
+		if (filters != null && (filters.getLimit() != null || filters.getAfter() != null || filters.isProjected())) return;
+		if (filters == null || filters.getValues().isEmpty()) {
+			complete.clear();
+			complete.add(Map.of());
+			buildKnownKeys();
+			return;
+		}
+		
+		if (filters.getValuesFiltersMatchingCondition() != ConditionalDelimiter.AND) return;
+		if (!fields.keySet().containsAll(filters.getValues().keySet())) return;
+		complete.add(Map.copyOf(filters.getValues()));
+	}
+	
+	public synchronized void invalidate() {
+		version++;
+		complete.clear();
+	}
+	
+	/*
+	 * Missing keys
+	 */
+	
+	/**
+	 * Remembers the key as not found in the database, for given time.
+	 */
+	public void markMissing(String key, long ttl) {
+		if (ttl <= 0) return;
+		if (missing.size() >= MAXIMUM_MISSING) {
+			val now = System.currentTimeMillis();
+			missing.values().removeIf(expiry -> expiry < now);
+			// probing with random keys should not grow the memory
+			if (missing.size() >= MAXIMUM_MISSING) missing.clear();
+		}
+		missing.put(key, System.currentTimeMillis() + ttl);
+	}
+	
+	/**
+	 * Forgets the key as missing - i.e. after insert.
+	 */
+	public void markExisting(String key) {
+		missing.remove(key);
+		val filter = knownKeys;
+		if (filter != null) filter.add(key);
+	}
+	
+	/**
+	 * Tells if the key is known not to exist in the database - recently not found, or absent from the {@link BloomFilter} of known keys, built within its {@link BloomFiltered#ttl()}.
+	 */
+	public boolean isMissing(String key) {
+		val expiry = missing.get(key);
+		if (expiry != null) {
+			if (expiry >= System.currentTimeMillis()) return true;
+			missing.remove(key, expiry);
+		}
+		
+		val filter = knownKeys;
+		if (filter == null) return false;
+		if (System.currentTimeMillis() >= knownKeysExpiry) {
+			// rebuilt by the next full load
+			clearKnownKeys(filter);
+			return false;
+		}
+		return !entries.containsKey(key) && !filter.mightContain(key);
+	}
+	
+	public void clearMissing() {
+		missing.clear();
+		knownKeys = null;
+	}
+	
+	private void buildKnownKeys() {
+		val bloomFiltered = type.getAnnotation(BloomFiltered.class);
+		if (bloomFiltered == null) return;
+		
+		val filter = new BloomFilter(Math.max(bloomFiltered.expectedKeys(), 2L * entries.size()), bloomFiltered.falsePositiveRate());
+		knownKeysExpiry = bloomFiltered.ttl() > 0 ? System.currentTimeMillis() + bloomFiltered.ttl() : Long.MAX_VALUE;
+		// published first, so keys put meanwhile are not lost
+		knownKeys = filter;
+		entries.keys().forEach(filter::add);
+	}
+	
+	private synchronized void clearKnownKeys(BloomFilter expired) {
+		// unless rebuilt meanwhile
+		if (knownKeys == expired) knownKeys = null;
+	}
+	
+	/**
+	 * Tells if the filters can be answered in memory - all objects they could match are held, and the conditions can be evaluated on the objects as they would be in the database.
+	 */
+	public boolean isComplete(PersistenceFilters filters) {
+		if (complete.isEmpty() || !isTestable(filters)) return false;
+		return complete.stream().anyMatch(conditions -> conditions.isEmpty() || (filters.getValuesFiltersMatchingCondition() == ConditionalDelimiter.AND && conditions.entrySet().stream().allMatch(c -> {
+			val requested = filters.getValues().get(c.getKey());
+			return requested != null && requested.operator() == c.getValue().operator() && Arrays.equals(requested.values(), c.getValue().values());
+		})));
+	}
+	
+	/**
+	 * Filters' values must be {@link ValueConverter convertible} to the fields' types, ranges need {@link Comparable} fields (other than {@link String}, ordered by database collation), and {@code LIKE} - {@link String} fields, for {@link ValuesFilter#compile(Class)} to give the same answer as the database.
+	 * The same goes for the {@link PersistenceFilters#getOrderBy() order} - which decides the pages ({@code $limit} and {@code $after}) - of fields or {@link ValuesAggregate#alias() aggregates' aliases}.
+	 */
+	private boolean isTestable(PersistenceFilters filters) {
+		if (!filters.getOrderBy().stream().allMatch(o -> isOrderable(o.name(), filters))) return false;
+		return filters.getValues().entrySet().stream().allMatch(e -> {
+			val field = fields.get(e.getKey());
+			if (field == null) return false;
+			
+			val type = ValueConverter.boxed(field.getType());
+			val filter = e.getValue();
+			val convertible = Arrays.stream(filter.values()).allMatch(v -> ValueConverter.isNull(v) || ValueConverter.convert(v, type) != null);
+			return convertible && switch (filter.operator()) {
+				case EQUAL, IN, NOT_EQUAL, NOT_IN -> true;
+				case MORE, MORE_EQUAL, LESS, LESS_EQUAL, BETWEEN, NOT_BETWEEN -> type != String.class && Comparable.class.isAssignableFrom(type);
+				case LIKE, NOT_LIKE -> type == String.class;
+			};
+		});
+	}
+	
+	private boolean isOrderable(String name, PersistenceFilters filters) {
+		val field = fields.get(name);
+		if (field == null) return filters.getAggregates().stream().anyMatch(a -> a.alias().equals(name));
+		
+		val type = ValueConverter.boxed(field.getType());
+		return type != String.class && Comparable.class.isAssignableFrom(type);
+	}
+	
+	public boolean isIndexed(String fieldName) {
+		return indexes.containsKey(fieldName);
+	}
+	
+	/**
+	 * Objects that might match the filters - narrowed by intersection of the indexes serving the conditions, or all objects if none can. The result still has to be tested with the filters.
+	 *
+	 * @implNote Indexes are refreshed when an object is put to memory. Objects mutated in place, without being put again, can be missed by the index look-up.
+	 */
+	public Stream<PersistenceInterface> candidates(PersistenceFilters filters) {
+		return candidateEntries(filters).map(Map.Entry::getValue);
+	}
+	
+	/**
+	 * @see #candidates(PersistenceFilters)
+	 */
+	public Stream<Map.Entry<String, PersistenceInterface>> candidateEntries(PersistenceFilters filters) {
+		if (indexes.isEmpty() || filters.getValuesFiltersMatchingCondition() != ConditionalDelimiter.AND) return entries.entries();
+		
+		Set<String> keys = null;
+		for (var filter : filters.getValues().entrySet()) {
+			val index = indexes.get(filter.getKey());
+			if (index == null) continue;
+			
+			val found = index.lookup(filter.getValue());
+			if (found.isEmpty()) continue;
+			
+			if (keys == null) {
+				keys = found.get();
+			} else {
+				keys.retainAll(found.get());
+			}
+			if (keys.isEmpty()) return Stream.empty();
+		}
+		
+		if (keys == null) return entries.entries();
+		return keys.stream()
+		           .map(key -> Optional.ofNullable(entries.get(key)).map(value -> Map.entry(key, value)))
+		           .flatMap(Optional::stream);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package krystal.framework.database.persistence.memory;
+
+import lombok.Getter;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Size-bounded W-TinyLFU ordering of keys. New keys enter a small LRU <i>window</i> ({@link #WINDOW_PERCENTAGE}) and, when pushed out of it, compete for a place in the <i>main</i> segmented LRU against its least recently used <i>probation</i>
+ * victim. The {@link FrequencySketch} decides which one stays - so one-hit wonders from a traffic spike can not flush out the keys used all the time. Keys accessed again within probation are promoted to the <i>protected</i> segment
+ * ({@link #PROTECTED_PERCENTAGE} of main).
+ * <p>
+ * The policy only orders keys and their weights - the values are held by the owner, which removes the keys returned as evicted.
+ *
+ * @apiNote Not thread-safe - use under the lock of the owner.
+ */
+public class EvictionPolicy<K> {
+	
+	public static final double WINDOW_PERCENTAGE = 0.01;
+	public static final double PROTECTED_PERCENTAGE = 0.8;
+	
+	private final @Getter FrequencySketch sketch;
+	private final LinkedHashSet<K> window;
+	private final LinkedHashSet<K> probation;
+	private final LinkedHashSet<K> protect;
+	private final Map<K, Integer> weights;
+	
+	/**
+	 * Maximum total weight of keys. {@code 0} or less means unbounded.
+	 */
+	private @Getter long maximumWeight;
+	private @Getter long weight;
+	private long windowWeight;
+	private long protectedWeight;
+	
+	public EvictionPolicy(FrequencySketch sketch, long maximumWeight) {
+		this.sketch = sketch;
+		window = new LinkedHashSet<>();
+		probation = new LinkedHashSet<>();
+		protect = new LinkedHashSet<>();
+		weights = new HashMap<>();
+		this.maximumWeight = maximumWeight;
+	}
+	
+	/**
+	 * Changes the bound and returns keys that exceed it.
+	 */
+	public List<K> setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+		return evictOverflow();
+	}
+	
+	public boolean isBounded() {
+		return maximumWeight > 0;
+	}
+	
+	public int size() {
+		return weights.size();
+	}
+	
+	public boolean contains(K key) {
+		return weights.containsKey(key);
+	}
+	
+	/**
+	 * Adds or updates the key with its weight.
+	 *
+	 * @return Keys evicted to stay within {@link #maximumWeight}. Might include the added key itself, if it lost the admission.
+	 */
+	public List<K> add(K key, int keyWeight) {
+		sketch.increment(key);
+		
+		val previous = weights.put(key, keyWeight);
+		if (previous != null) {
+			val delta = keyWeight - previous;
+			weight += delta;
+			if (window.contains(key)) windowWeight += delta;
+			if (protect.contains(key)) protectedWeight += delta;
+			reorder(key);
+			return evictOverflow();
+		}
+		
+		weight += keyWeight;
+		window.add(key);
+		windowWeight += keyWeight;
+		return evictOverflow();
+	}
+	
+	/**
+	 * Registers access to the key - raising its frequency and recency.
+	 */
+	public void record(K key) {
+		sketch.increment(key);
+		if (weights.containsKey(key)) reorder(key);
+	}
+	
+	public void remove(K key) {
+		val keyWeight = weights.remove(key);
+		if (keyWeight == null) return;
+		weight -= keyWeight;
+		if (window.remove(key)) windowWeight -= keyWeight;
+		else if (protect.remove(key)) protectedWeight -= keyWeight;
+		else probation.remove(key);
+	}
+	
+	public void clear() {
+		window.clear();
+		probation.clear();
+		protect.clear();
+		weights.clear();
+		weight = windowWeight = protectedWeight = 0;
+	}
+	
+	/**
+	 * The key that would be evicted next, if any.
+	 */
+	public @Nullable K victim() {
+		if (!probation.isEmpty()) return probation.getFirst();
+		if (!protect.isEmpty()) return protect.getFirst();
+		if (!window.isEmpty()) return window.getFirst();
+		return null;
+	}
+	
+	public int frequency(K key) {
+		return sketch.frequency(key);
+	}
+	
+	private void reorder(K key) {
+		if (window.remove(key)) {
+			window.add(key);
+		} else if (probation.remove(key)) {
+			// promotion
+			protect.add(key);
+			protectedWeight += weights.get(key);
+			while (protectedWeight > protectedMaximum() && protect.size() > 1) {
+				val demoted = protect.removeFirst();
+				protectedWeight -= weights.get(demoted);
+				probation.add(demoted);
+			}
+		} else if (protect.remove(key)) {
+			protect.add(key);
+		}
+	}
+	
+	private List<K> evictOverflow() {
+		if (!isBounded()) return List.of();
+		
+		// window overflow falls to probation, as candidates
+		val windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENTAGE));
+		while (windowWeight > windowMaximum && window.size() > 1) {
+			val candidate = window.removeFirst();
+			windowWeight -= weights.get(candidate);
+			probation.add(candidate);
+		}
+		
+		val evicted = new LinkedList<K>();
+		while (weight > maximumWeight) {
+			K candidate = probation.isEmpty() ? null : probation.getLast();
+			K victim = victim();
+			if (victim == null) break;
+			
+			K loser = victim;
+			if (candidate != null && !candidate.equals(victim) && sketch.frequency(candidate) <= sketch.frequency(victim)) loser = candidate;
+			
+			remove(loser);
+			evicted.add(loser);
+		}
+		return evicted;
+	}
+	
+	private long protectedMaximum() {
+		if (!isBounded()) return Long.MAX_VALUE;
+		return (long) ((maximumWeight - Math.max(1, (long) (maximumWeight * WINDOW_PERCENTAGE))) * PROTECTED_PERCENTAGE);
+	}
+	
+}
\ No newline at end of file
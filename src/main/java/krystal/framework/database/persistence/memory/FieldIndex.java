@@ -0,0 +1,116 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.annotations.Indexed.IndexType;
+import krystal.framework.database.persistence.filters.ValueConverter;
+import krystal.framework.database.persistence.filters.ValuesFilter;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary index of memorized objects' keys by the value of single field.
+ *
+ * @see ClassSegment
+ */
+@Log4j2
+public class FieldIndex {
+	
+	private final @Getter Field field;
+	private final @Getter IndexType type;
+	private final Map<Object, Set<String>> index;
+	/**
+	 * Reverse look-up of values indexed under each key - for re-indexing of replaced objects.
+	 */
+	private final Map<String, Object> indexed;
+	
+	public FieldIndex(Field field, IndexType type) {
+		this.field = field;
+		// values of non-comparable types can not be ordered
+		this.type = type == IndexType.SORTED && !Comparable.class.isAssignableFrom(field.getType()) && !field.getType().isPrimitive() ? IndexType.HASH : type;
+		index = this.type == IndexType.SORTED ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+		indexed = new ConcurrentHashMap<>();
+	}
+	
+	public void add(String key, Object object) {
+		remove(key);
+		val value = valueOf(object);
+		if (value == null) return;
+		index.computeIfAbsent(value, _ -> ConcurrentHashMap.newKeySet()).add(key);
+		indexed.put(key, value);
+	}
+	
+	public void remove(String key) {
+		val value = indexed.remove(key);
+		if (value == null) return;
+		index.computeIfPresent(value, (_, keys) -> {
+			keys.remove(key);
+			return keys.isEmpty() ? null : keys;
+		});
+	}
+	
+	public void clear() {
+		index.clear();
+		indexed.clear();
+	}
+	
+	/**
+	 * Keys of objects which field's value can match the filter. Empty if the index can not serve the filter (i.e. negations, {@code null} values or ranges on {@link IndexType#HASH}) - then the objects must be scanned.
+	 */
+	@SuppressWarnings("unchecked")
+	public Optional<Set<String>> lookup(ValuesFilter filter) {
+		if (filter.values().length == 0) return Optional.empty();
+		
+		val values = new ArrayList<Object>(filter.values().length);
+		for (var v : filter.values()) {
+			val converted = convert(v);
+			if (converted == null) return Optional.empty();
+			values.add(converted);
+		}
+		
+		return switch (filter.operator()) {
+			case EQUAL, IN -> {
+				val keys = new HashSet<String>();
+				values.forEach(v -> Optional.ofNullable(index.get(v)).ifPresent(keys::addAll));
+				yield Optional.of(keys);
+			}
+			case MORE, MORE_EQUAL, LESS, LESS_EQUAL, BETWEEN -> {
+				if (type != IndexType.SORTED) yield Optional.empty();
+				val sorted = (ConcurrentSkipListMap<Object, Set<String>>) index;
+				values.sort((a, b) -> ((Comparable<Object>) a).compareTo(b));
+				val range = switch (filter.operator()) {
+					case MORE -> sorted.tailMap(values.getLast(), false);
+					case MORE_EQUAL -> sorted.tailMap(values.getLast(), true);
+					case LESS -> sorted.headMap(values.getFirst(), false);
+					case LESS_EQUAL -> sorted.headMap(values.getFirst(), true);
+					default -> sorted.subMap(values.getFirst(), true, values.getLast(), true);
+				};
+				val keys = new HashSet<String>();
+				range.values().forEach(keys::addAll);
+				yield Optional.of(keys);
+			}
+			default -> Optional.empty();
+		};
+	}
+	
+	private Object valueOf(Object object) {
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			log.error("FieldIndex field access failed", e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Filters are often parsed from http parameters, so the values are brought to the field's type.
+	 */
+	private Object convert(Object value) {
+		return ValueConverter.convert(value, field.getType());
+	}
+	
+}
\ No newline at end of file
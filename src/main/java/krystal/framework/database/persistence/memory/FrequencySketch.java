@@ -0,0 +1,93 @@
+package krystal.framework.database.persistence.memory;
+
+import lombok.val;
+
+/**
+ * Probabilistic (Count-Min) estimator of how often particular key was accessed, backing the TinyLFU admission in {@link EvictionPolicy}. Each key is counted on 4 out of 16 4-bit counters packed within single {@code long}, so the estimation saturates
+ * at 15. After the number of increments reaches the sample size, all counters are halved (aged), so the history fades and recent popularity wins.
+ *
+ * @apiNote Not thread-safe - use under the lock of the owner.
+ */
+public class FrequencySketch {
+	
+	private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final int MINIMUM_SIZE = 16;
+	
+	private long[] table;
+	private int tableMask;
+	private int sampleSize;
+	private int size;
+	
+	public FrequencySketch(long expectedSize) {
+		ensureCapacity(expectedSize);
+	}
+	
+	/**
+	 * Re-creates the counters table if the expected number of keys outgrows it. Previous history is lost - so the sketch is meant to be sized once, by the configured bound, rather than along with the number of keys.
+	 */
+	public void ensureCapacity(long expectedSize) {
+		val maximum = (int) Math.min(Math.max(expectedSize, MINIMUM_SIZE), 1 << 30);
+		if (table != null && table.length >= maximum) return;
+		
+		table = new long[Integer.highestOneBit(maximum - 1) << 1];
+		tableMask = table.length - 1;
+		sampleSize = 10 * maximum;
+		size = 0;
+	}
+	
+	/**
+	 * Estimated number of occurrences of the key, up to 15.
+	 */
+	public int frequency(Object key) {
+		val hash = spread(key.hashCode());
+		val start = (hash & 3) << 2;
+		var frequency = Integer.MAX_VALUE;
+		for (var i = 0; i < 4; i++) {
+			val index = indexOf(hash, i);
+			val count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+	
+	public void increment(Object key) {
+		val hash = spread(key.hashCode());
+		val start = (hash & 3) << 2;
+		var added = false;
+		for (var i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		
+		if (added && ++size >= sampleSize) reset();
+	}
+	
+	private boolean incrementAt(int index, int counter) {
+		val offset = counter << 2;
+		val mask = 0xfL << offset;
+		if ((table[index] & mask) == mask) return false;
+		table[index] += 1L << offset;
+		return true;
+	}
+	
+	/**
+	 * Halves all counters.
+	 */
+	private void reset() {
+		for (var i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+		size = size >>> 1;
+	}
+	
+	private int indexOf(int hash, int i) {
+		var h = (hash + SEEDS[i]) * SEEDS[i];
+		h += h >>> 32;
+		return (int) h & tableMask;
+	}
+	
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+	
+}
\ No newline at end of file
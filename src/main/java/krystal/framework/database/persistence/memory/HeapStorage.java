@@ -0,0 +1,63 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Default storage - objects as they are, on heap.
+ */
+public class HeapStorage implements SegmentStorageInterface {
+	
+	private final ConcurrentHashMap<String, PersistenceInterface> entries = new ConcurrentHashMap<>();
+	
+	@Override
+	public @Nullable PersistenceInterface get(String key) {
+		return entries.get(key);
+	}
+	
+	@Override
+	public void put(String key, PersistenceInterface persistence) {
+		entries.put(key, persistence);
+	}
+	
+	@Override
+	public boolean remove(String key) {
+		return entries.remove(key) != null;
+	}
+	
+	@Override
+	public boolean containsKey(String key) {
+		return entries.containsKey(key);
+	}
+	
+	@Override
+	public Set<String> keys() {
+		return entries.keySet();
+	}
+	
+	@Override
+	public Stream<Map.Entry<String, PersistenceInterface>> entries() {
+		return entries.entrySet().stream();
+	}
+	
+	@Override
+	public int size() {
+		return entries.size();
+	}
+	
+	@Override
+	public void clear() {
+		entries.clear();
+	}
+	
+	@Override
+	public String report() {
+		return "heap";
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reacts to heap pressure - when heap pools' usage after garbage collection exceeds the {@link #threshold} (JVM collection usage threshold notification), runs the next of shrinking {@link #addStage(String, LongSupplier) stages}: the first
+ * stage on the first notification, the next one if the pressure persists, and so on (repeating the last). After {@link #defaultCalmPeriod} without notifications, the escalation starts over.
+ *
+ * @see PersistenceMemory#enablePressureShrinking(double)
+ */
+@Log4j2
+public class MemoryPressureMonitor {
+	
+	/**
+	 * Time in {@code ms} without pressure notifications, after which the shrinking starts over from the first stage.
+	 */
+	private static @Setter @Getter long defaultCalmPeriod = 30_000;
+	private static final int HISTORY = 10;
+	
+	private final List<Stage> stages;
+	private final LinkedList<String> history;
+	private final AtomicBoolean shrinking;
+	private final NotificationListener listener;
+	private final List<MemoryPoolMXBean> pools;
+	private @Getter double threshold;
+	private @Getter boolean started;
+	private int level;
+	private long lastPressure;
+	
+	public MemoryPressureMonitor() {
+		stages = new CopyOnWriteArrayList<>();
+		history = new LinkedList<>();
+		shrinking = new AtomicBoolean();
+		listener = this::onNotification;
+		pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+		                         .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported())
+		                         .toList();
+	}
+	
+	/**
+	 * Appends a shrinking stage, returning the number of evicted objects.
+	 */
+	public void addStage(String name, LongSupplier shrink) {
+		stages.add(new Stage(name, shrink));
+	}
+	
+	/**
+	 * @param threshold
+	 * 		Fraction of heap pools' maximum size.
+	 */
+	public synchronized void start(double threshold) {
+		this.threshold = threshold;
+		pools.forEach(pool -> {
+			val max = pool.getUsage().getMax();
+			if (max > 0) pool.setCollectionUsageThreshold((long) (max * threshold));
+		});
+		
+		if (!started) ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(listener, null, null);
+		started = true;
+		log.debug("Memory Pressure Monitor started at {}% of heap pools: {}.", Math.round(threshold * 100), pools.stream().map(MemoryPoolMXBean::getName).collect(Collectors.joining(", ")));
+	}
+	
+	public synchronized void stop() {
+		if (!started) return;
+		try {
+			((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(listener);
+		} catch (Exception e) {
+			log.warn("  ! Memory Pressure Monitor listener removal failed.", e);
+		}
+		started = false;
+	}
+	
+	/**
+	 * Runs the next stage, as if the pressure notification was received.
+	 */
+	public void shrink() {
+		if (stages.isEmpty() || !shrinking.compareAndSet(false, true)) return;
+		try {
+			Stage stage;
+			synchronized (this) {
+				val now = System.currentTimeMillis();
+				if (now - lastPressure > defaultCalmPeriod) level = 0;
+				lastPressure = now;
+				stage = stages.get(Math.min(level++, stages.size() - 1));
+			}
+			
+			val evicted = stage.shrink().getAsLong();
+			val entry = "%s: %s - %s evicted.".formatted(LocalDateTime.now().withNano(0), stage.name(), evicted);
+			log.warn("Memory pressure - {}", entry);
+			synchronized (history) {
+				history.addFirst(entry);
+				if (history.size() > HISTORY) history.removeLast();
+			}
+		} catch (RuntimeException e) {
+			log.error("  ! Memory pressure shrinking failed.", e);
+		} finally {
+			shrinking.set(false);
+		}
+	}
+	
+	public String report() {
+		List<String> entries;
+		synchronized (history) {
+			entries = new ArrayList<>(history);
+		}
+		return "Memory Pressure: %s, Stages: %s.%s".formatted(
+				started ? "at %s%% of heap".formatted(Math.round(threshold * 100)) : "not monitored",
+				stages.stream().map(Stage::name).collect(Collectors.joining(" > ")),
+				entries.stream().map(e -> "\n  " + e).collect(Collectors.joining()));
+	}
+	
+	private void onNotification(Notification notification, Object handback) {
+		if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) return;
+		// off the JMX notification thread
+		Thread.ofVirtual().name("Memory Pressure Shrinking").start(this::shrink);
+	}
+	
+	private record Stage(String name, LongSupplier shrink) {
+		
+	}
+	
+}
\ No newline at end of file
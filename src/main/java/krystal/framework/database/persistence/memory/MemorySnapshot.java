@@ -0,0 +1,161 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.annotations.Memorized;
+import lombok.experimental.UtilityClass;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Binary snapshot of {@link Memorized @Memorized} objects of {@link PersistenceMemory}, for warm restarts. Objects are written as {@link RowCodec} rows:
+ * <pre>
+ * header:  int magic, int format version, long created (epoch ms), int classes count
+ * class:   string class name, long codec fingerprint, int entries count
+ * entry:   string hash key, bytes row
+ * </pre>
+ * where {@code string} and {@code bytes} are int length-prefixed. The file is read memory-mapped. Classes missing or changed since the snapshot (different {@link RowCodec#fingerprint()}) are skipped, as is the whole file of different format version.
+ */
+@Log4j2
+@UtilityClass
+public class MemorySnapshot {
+	
+	public final int MAGIC = 0x4B534E50;
+	public final int FORMAT_VERSION = 1;
+	
+	private final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	
+	/**
+	 * Writes the segments of {@link Memorized @Memorized} and encodable classes. The file is replaced atomically.
+	 *
+	 * @return Number of written objects.
+	 */
+	public long write(Path file, Collection<ClassSegment> segments) throws IOException {
+		val temp = Files.createTempFile(Optional.ofNullable(file.toAbsolutePath().getParent()).orElse(Path.of(".")), file.getFileName().toString(), ".tmp");
+		long written = 0;
+		
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+			val codecs = new LinkedHashMap<ClassSegment, RowCodec>();
+			segments.stream()
+			        .filter(segment -> segment.getType().isAnnotationPresent(Memorized.class))
+			        .forEach(segment -> RowCodec.of(segment.getType()).ifPresentOrElse(
+					        codec -> codecs.put(segment, codec),
+					        () -> log.debug("  Snapshot skips {}.class - fields can not be encoded.", segment.getType().getSimpleName())));
+			
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(System.currentTimeMillis());
+			out.writeInt(codecs.size());
+			
+			for (val entry : codecs.entrySet()) {
+				// snapshot of keys, so the count matches the rows
+				val rows = new LinkedHashMap<String, byte[]>();
+				entry.getKey().entries().forEach(e -> rows.put(e.getKey(), entry.getValue().encode(e.getValue())));
+				
+				writeBytes(out, entry.getKey().getType().getName().getBytes(StandardCharsets.UTF_8));
+				out.writeLong(entry.getValue().fingerprint());
+				out.writeInt(rows.size());
+				for (val row : rows.entrySet()) {
+					writeBytes(out, row.getKey().getBytes(StandardCharsets.UTF_8));
+					writeBytes(out, row.getValue());
+				}
+				written += rows.size();
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return written;
+	}
+	
+	/**
+	 * Reads the snapshot, passing each valid object with its hash key to the consumer.
+	 *
+	 * @return Creation time of the snapshot, for each restored class - objects changed after it need refreshing. Empty if the file is missing or invalid.
+	 */
+	public Map<Class<?>, Instant> read(Path file, BiConsumer<String, PersistenceInterface> consumer) throws IOException {
+		if (!Files.isRegularFile(file)) return Map.of();
+		
+		val restored = new LinkedHashMap<Class<?>, Instant>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); Arena arena = Arena.ofConfined()) {
+			val data = channel.map(MapMode.READ_ONLY, 0, channel.size(), arena);
+			val position = new long[]{0};
+			
+			if (data.byteSize() < 20 || data.get(INT, 0) != MAGIC) {
+				log.warn("  ! {} is not a Persistence Memory snapshot.", file);
+				return Map.of();
+			}
+			if (data.get(INT, 4) != FORMAT_VERSION) {
+				log.warn("  ! Snapshot {} format version {} is not supported ({}).", file, data.get(INT, 4), FORMAT_VERSION);
+				return Map.of();
+			}
+			
+			val created = Instant.ofEpochMilli(data.get(LONG, 8));
+			val classes = data.get(INT, 16);
+			position[0] = 20;
+			
+			for (var c = 0; c < classes; c++) {
+				val className = new String(readBytes(data, position), StandardCharsets.UTF_8);
+				val fingerprint = data.get(LONG, position[0]);
+				val count = data.get(INT, position[0] + 8);
+				position[0] += 12;
+				
+				val codec = codecFor(className, fingerprint);
+				for (var i = 0; i < count; i++) {
+					val key = readBytes(data, position);
+					val row = readBytes(data, position);
+					codec.ifPresent(cdc -> consumer.accept(new String(key, StandardCharsets.UTF_8), cdc.decode(row)));
+				}
+				codec.ifPresent(cdc -> restored.put(cdc.getType(), created));
+			}
+		} catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+			log.warn("  ! Snapshot {} is truncated - restored classes: {}.", file, restored.size());
+		}
+		return restored;
+	}
+	
+	private Optional<RowCodec> codecFor(String className, long fingerprint) {
+		try {
+			val codec = RowCodec.of(Class.forName(className)).filter(cdc -> cdc.fingerprint() == fingerprint);
+			if (codec.isEmpty()) log.warn("  ! Snapshot of {} does not match the class - skipped.", className);
+			return codec;
+		} catch (ClassNotFoundException _) {
+			log.warn("  ! Snapshot class {} not found - skipped.", className);
+			return Optional.empty();
+		}
+	}
+	
+	private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private byte[] readBytes(MemorySegment data, long[] position) {
+		val bytes = new byte[data.get(INT, position[0])];
+		MemorySegment.copy(data, ValueLayout.JAVA_BYTE, position[0] + 4, bytes, 0, bytes.length);
+		position[0] += 4 + bytes.length;
+		return bytes;
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import lombok.Getter;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Compact tier - objects are {@link RowCodec encoded} into rows appended to {@link #SLAB_SIZE} slabs of native memory (outside the heap, so not traced by GC), and decoded on access. The most recently accessed {@link #hotEntries} objects are held
+ * decoded on heap in front of the slabs. Replaced and removed rows leave garbage, which is compacted once it outweighs the live rows.
+ * <p>
+ * Only the keys (and the hot objects) stay on heap - the native memory is released with {@link #clear()}.
+ */
+public class OffHeapStorage implements SegmentStorageInterface {
+	
+	public static final int SLAB_SIZE = 64 << 20;
+	private static final int HEADER = Integer.BYTES;
+	
+	private final RowCodec codec;
+	private final @Getter int hotEntries;
+	/**
+	 * Slab index (high 32 bits) and offset of each row.
+	 */
+	private final ConcurrentHashMap<String, Long> addresses;
+	/**
+	 * Guarded by itself.
+	 */
+	private final LinkedHashMap<String, PersistenceInterface> hot;
+	/**
+	 * Guards slabs - shared for reads, exclusive for writes and compaction.
+	 */
+	private final ReentrantReadWriteLock lock;
+	private Arena arena;
+	private final List<MemorySegment> slabs;
+	private int position;
+	private long liveBytes;
+	private long garbageBytes;
+	
+	public OffHeapStorage(RowCodec codec, int hotEntries) {
+		this.codec = codec;
+		this.hotEntries = Math.max(hotEntries, 0);
+		addresses = new ConcurrentHashMap<>();
+		hot = new LinkedHashMap<>(16, 0.75f, true);
+		lock = new ReentrantReadWriteLock();
+		arena = Arena.ofShared();
+		slabs = new ArrayList<>();
+	}
+	
+	@Override
+	public @Nullable PersistenceInterface get(String key) {
+		synchronized (hot) {
+			val persistence = hot.get(key);
+			if (persistence != null) return persistence;
+		}
+		
+		val row = read(key);
+		if (row == null) return null;
+		val persistence = codec.decode(row);
+		toHot(key, persistence);
+		return persistence;
+	}
+	
+	@Override
+	public void put(String key, PersistenceInterface persistence) {
+		val row = codec.encode(persistence);
+		if (row.length + HEADER > SLAB_SIZE) throw new IllegalArgumentException("Row of %s exceeds the slab size.".formatted(key));
+		
+		lock.writeLock().lock();
+		try {
+			if (slabs.isEmpty() || position + HEADER + row.length > SLAB_SIZE) {
+				slabs.add(arena.allocate(SLAB_SIZE));
+				position = 0;
+			}
+			
+			val slab = slabs.getLast();
+			slab.set(ValueLayout.JAVA_INT_UNALIGNED, position, row.length);
+			MemorySegment.copy(row, 0, slab, ValueLayout.JAVA_BYTE, position + HEADER, row.length);
+			
+			val previous = addresses.put(key, ((long) (slabs.size() - 1) << 32) | position);
+			if (previous != null) release(previous);
+			position += HEADER + row.length;
+			liveBytes += HEADER + row.length;
+			
+			if (garbageBytes > liveBytes && garbageBytes > SLAB_SIZE) compact();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		toHot(key, persistence);
+	}
+	
+	@Override
+	public boolean remove(String key) {
+		synchronized (hot) {
+			hot.remove(key);
+		}
+		
+		lock.writeLock().lock();
+		try {
+			val address = addresses.remove(key);
+			if (address == null) return false;
+			release(address);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	@Override
+	public boolean containsKey(String key) {
+		return addresses.containsKey(key);
+	}
+	
+	@Override
+	public Set<String> keys() {
+		return addresses.keySet();
+	}
+	
+	/**
+	 * Decodes the objects lazily, without promoting them to the hot tier - so the scans do not flush it.
+	 */
+	@Override
+	public Stream<Map.Entry<String, PersistenceInterface>> entries() {
+		return addresses.keySet().stream()
+		                .map(key -> {
+			                PersistenceInterface persistence;
+			                synchronized (hot) {
+				                persistence = hot.get(key);
+			                }
+			                if (persistence == null) {
+				                val row = read(key);
+				                if (row != null) persistence = codec.decode(row);
+			                }
+			                return persistence == null ? null : Map.entry(key, persistence);
+		                })
+		                .filter(Objects::nonNull);
+	}
+	
+	@Override
+	public int size() {
+		return addresses.size();
+	}
+	
+	@Override
+	public void clear() {
+		synchronized (hot) {
+			hot.clear();
+		}
+		
+		lock.writeLock().lock();
+		try {
+			addresses.clear();
+			slabs.clear();
+			arena.close();
+			arena = Arena.ofShared();
+			position = 0;
+			liveBytes = garbageBytes = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	@Override
+	public String report() {
+		lock.readLock().lock();
+		try {
+			return "off-heap %s MB in %s slabs (%s%% garbage), hot %s".formatted(
+					(long) slabs.size() * SLAB_SIZE >> 20, slabs.size(),
+					liveBytes + garbageBytes == 0 ? 0 : 100 * garbageBytes / (liveBytes + garbageBytes),
+					hot.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	private @Nullable byte[] read(String key) {
+		lock.readLock().lock();
+		try {
+			val address = addresses.get(key);
+			if (address == null) return null;
+			
+			val slab = slabs.get((int) (address >>> 32));
+			val offset = address & 0xffffffffL;
+			val row = new byte[slab.get(ValueLayout.JAVA_INT_UNALIGNED, offset)];
+			MemorySegment.copy(slab, ValueLayout.JAVA_BYTE, offset + HEADER, row, 0, row.length);
+			return row;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	private void toHot(String key, PersistenceInterface persistence) {
+		if (hotEntries == 0) return;
+		synchronized (hot) {
+			hot.put(key, persistence);
+			if (hot.size() > hotEntries) hot.pollFirstEntry();
+		}
+	}
+	
+	/**
+	 * Under the write lock.
+	 */
+	private void release(long address) {
+		val slab = slabs.get((int) (address >>> 32));
+		val length = HEADER + slab.get(ValueLayout.JAVA_INT_UNALIGNED, address & 0xffffffffL);
+		liveBytes -= length;
+		garbageBytes += length;
+	}
+	
+	/**
+	 * Rewrites live rows into new slabs and releases the old ones. Under the write lock.
+	 */
+	private void compact() {
+		val oldArena = arena;
+		val oldSlabs = new ArrayList<>(slabs);
+		arena = Arena.ofShared();
+		slabs.clear();
+		position = 0;
+		liveBytes = garbageBytes = 0;
+		
+		addresses.replaceAll((_, address) -> {
+			val oldSlab = oldSlabs.get((int) (address >>> 32));
+			val offset = address & 0xffffffffL;
+			val length = oldSlab.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+			
+			if (slabs.isEmpty() || position + HEADER + length > SLAB_SIZE) {
+				slabs.add(arena.allocate(SLAB_SIZE));
+				position = 0;
+			}
+			val slab = slabs.getLast();
+			MemorySegment.copy(oldSlab, offset, slab, position, HEADER + length);
+			
+			val moved = ((long) (slabs.size() - 1) << 32) | position;
+			position += HEADER + length;
+			liveBytes += HEADER + length;
+			return moved;
+		});
+		
+		oldArena.close();
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import lombok.Getter;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Compact binary row format of objects of single class, derived from its instance fields. Each field is written in declaration order as one tag byte ({@code 0} for {@code null}) followed by the value. Objects are restored with the no-arguments
+ * constructor and the fields set back - without {@link krystal.framework.database.persistence.annotations.Reader @Reader} methods, as the fields already hold their outcome.
+ * <p>
+ * Supported field types: primitives and their wrappers, {@link String}, enums, {@link BigDecimal}, {@link BigInteger}, {@link LocalDate}, {@link LocalTime}, {@link LocalDateTime}, {@link Instant}, {@link UUID} and {@code byte[]}.
+ *
+ * @see #of(Class)
+ */
+public class RowCodec {
+	
+	private static final List<Class<?>> SUPPORTED_TYPES = List.of(
+			boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class, char.class, Character.class, int.class, Integer.class, long.class, Long.class, float.class, Float.class, double.class, Double.class,
+			String.class, BigDecimal.class, BigInteger.class, LocalDate.class, LocalTime.class, LocalDateTime.class, Instant.class, UUID.class, byte[].class);
+	
+	private final @Getter Class<?> type;
+	private final Constructor<?> constructor;
+	private final Field[] fields;
+	
+	private RowCodec(Class<?> type, Constructor<?> constructor, Field[] fields) {
+		this.type = type;
+		this.constructor = constructor;
+		this.fields = fields;
+	}
+	
+	/**
+	 * Codec for the class, if all its instance fields are of supported types and accessible, and the class declares no-arguments constructor.
+	 */
+	public static Optional<RowCodec> of(Class<?> type) {
+		try {
+			val constructor = type.getDeclaredConstructor();
+			if (!constructor.trySetAccessible()) return Optional.empty();
+			
+			val fields = new ArrayList<Field>();
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+					if (!(SUPPORTED_TYPES.contains(field.getType()) || field.getType().isEnum()) || !field.trySetAccessible()) return Optional.empty();
+					fields.add(field);
+				}
+			}
+			return Optional.of(new RowCodec(type, constructor, fields.toArray(Field[]::new)));
+		} catch (NoSuchMethodException _) {
+			return Optional.empty();
+		}
+	}
+	
+	/**
+	 * Hash of the class name and its fields' names and types in encoding order - rows encoded with different fingerprint can not be decoded.
+	 */
+	public long fingerprint() {
+		val description = new StringBuilder(type.getName());
+		for (Field field : fields) {
+			description.append(';').append(field.getName()).append(':').append(field.getType().getName());
+			// enums are encoded by ordinals
+			if (field.getType().isEnum()) description.append(Arrays.toString(field.getType().getEnumConstants()));
+		}
+		
+		var hash = 0xcbf29ce484222325L;
+		for (byte b : description.toString().getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+	
+	public byte[] encode(PersistenceInterface persistence) {
+		val bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			for (Field field : fields) write(out, field.get(persistence));
+		} catch (IOException | IllegalAccessException e) {
+			throw new RuntimeException("Failed to encode %s.class object.".formatted(type.getSimpleName()), e);
+		}
+		return bytes.toByteArray();
+	}
+	
+	public PersistenceInterface decode(byte[] row) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(row))) {
+			val persistence = (PersistenceInterface) constructor.newInstance();
+			for (Field field : fields) {
+				val value = read(in, field.getType());
+				if (value != null || !field.getType().isPrimitive()) field.set(persistence, value);
+			}
+			return persistence;
+		} catch (IOException | ReflectiveOperationException e) {
+			throw new RuntimeException("Failed to decode %s.class object.".formatted(type.getSimpleName()), e);
+		}
+	}
+	
+	private static void write(DataOutputStream out, @Nullable Object value) throws IOException {
+		switch (value) {
+			case null -> out.writeByte(0);
+			case Boolean v -> {
+				out.writeByte(1);
+				out.writeBoolean(v);
+			}
+			case Byte v -> {
+				out.writeByte(2);
+				out.writeByte(v);
+			}
+			case Short v -> {
+				out.writeByte(3);
+				out.writeShort(v);
+			}
+			case Character v -> {
+				out.writeByte(4);
+				out.writeChar(v);
+			}
+			case Integer v -> {
+				out.writeByte(5);
+				out.writeInt(v);
+			}
+			case Long v -> {
+				out.writeByte(6);
+				out.writeLong(v);
+			}
+			case Float v -> {
+				out.writeByte(7);
+				out.writeFloat(v);
+			}
+			case Double v -> {
+				out.writeByte(8);
+				out.writeDouble(v);
+			}
+			case String v -> {
+				out.writeByte(9);
+				writeBytes(out, v.getBytes(StandardCharsets.UTF_8));
+			}
+			case Enum<?> v -> {
+				out.writeByte(10);
+				out.writeInt(v.ordinal());
+			}
+			case BigDecimal v -> {
+				out.writeByte(11);
+				out.writeInt(v.scale());
+				writeBytes(out, v.unscaledValue().toByteArray());
+			}
+			case BigInteger v -> {
+				out.writeByte(12);
+				writeBytes(out, v.toByteArray());
+			}
+			case LocalDate v -> {
+				out.writeByte(13);
+				out.writeLong(v.toEpochDay());
+			}
+			case LocalTime v -> {
+				out.writeByte(14);
+				out.writeLong(v.toNanoOfDay());
+			}
+			case LocalDateTime v -> {
+				out.writeByte(15);
+				out.writeLong(v.toLocalDate().toEpochDay());
+				out.writeLong(v.toLocalTime().toNanoOfDay());
+			}
+			case Instant v -> {
+				out.writeByte(16);
+				out.writeLong(v.getEpochSecond());
+				out.writeInt(v.getNano());
+			}
+			case UUID v -> {
+				out.writeByte(17);
+				out.writeLong(v.getMostSignificantBits());
+				out.writeLong(v.getLeastSignificantBits());
+			}
+			case byte[] v -> {
+				out.writeByte(18);
+				writeBytes(out, v);
+			}
+			default -> throw new IOException("Unsupported type: " + value.getClass().getName());
+		}
+	}
+	
+	private static @Nullable Object read(DataInputStream in, Class<?> fieldType) throws IOException {
+		return switch (in.readByte()) {
+			case 0 -> null;
+			case 1 -> in.readBoolean();
+			case 2 -> in.readByte();
+			case 3 -> in.readShort();
+			case 4 -> in.readChar();
+			case 5 -> in.readInt();
+			case 6 -> in.readLong();
+			case 7 -> in.readFloat();
+			case 8 -> in.readDouble();
+			case 9 -> new String(readBytes(in), StandardCharsets.UTF_8);
+			case 10 -> fieldType.getEnumConstants()[in.readInt()];
+			case 11 -> {
+				val scale = in.readInt();
+				yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+			}
+			case 12 -> new BigInteger(readBytes(in));
+			case 13 -> LocalDate.ofEpochDay(in.readLong());
+			case 14 -> LocalTime.ofNanoOfDay(in.readLong());
+			case 15 -> LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()));
+			case 16 -> Instant.ofEpochSecond(in.readLong(), in.readInt());
+			case 17 -> new UUID(in.readLong(), in.readLong());
+			case 18 -> readBytes(in);
+			default -> throw new IOException("Corrupted row.");
+		};
+	}
+	
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		val bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+	
+}
\ No newline at end of file
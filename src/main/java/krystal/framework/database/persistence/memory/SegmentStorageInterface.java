@@ -0,0 +1,42 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Storage of {@link ClassSegment} objects, by their hash keys.
+ *
+ * @see HeapStorage
+ * @see OffHeapStorage
+ */
+public interface SegmentStorageInterface {
+	
+	@Nullable PersistenceInterface get(String key);
+	
+	void put(String key, PersistenceInterface persistence);
+	
+	/**
+	 * @return {@code true} if the key was present.
+	 */
+	boolean remove(String key);
+	
+	boolean containsKey(String key);
+	
+	Set<String> keys();
+	
+	Stream<Map.Entry<String, PersistenceInterface>> entries();
+	
+	int size();
+	
+	void clear();
+	
+	/**
+	 * Short description of the storage state, for the memory report.
+	 */
+	String report();
+	
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport between {@link InvalidationBus buses} within the same JVM, joined by the channel name - i.e. separate {@link krystal.framework.database.persistence.PersistenceMemory PersistenceMemory} instances or tests.
+ */
+public class InJvmTransport implements InvalidationTransportInterface {
+	
+	private static final Map<String, List<Consumer<byte[]>>> CHANNELS = new ConcurrentHashMap<>();
+	
+	private final @Getter String channel;
+	private final List<Consumer<byte[]>> receivers;
+	
+	public InJvmTransport(String channel) {
+		this.channel = channel;
+		receivers = new CopyOnWriteArrayList<>();
+	}
+	
+	@Override
+	public void send(byte[] message) {
+		CHANNELS.getOrDefault(channel, List.of())
+		        .forEach(receiver -> Thread.ofVirtual().name("Invalidation Receiver").start(() -> receiver.accept(message)));
+	}
+	
+	@Override
+	public void subscribe(Consumer<byte[]> receiver) {
+		receivers.add(receiver);
+		CHANNELS.computeIfAbsent(channel, _ -> new CopyOnWriteArrayList<>()).add(receiver);
+	}
+	
+	@Override
+	public void close() {
+		CHANNELS.computeIfPresent(channel, (_, subscribed) -> {
+			subscribed.removeAll(receivers);
+			return subscribed.isEmpty() ? null : subscribed;
+		});
+		receivers.clear();
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import lombok.val;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notice of a record written by another node - {@link Change change} of the object of given class and hash key.
+ *
+ * @see InvalidationBus
+ */
+public record Invalidation(String className, String key, Change change) {
+	
+	public static final int FORMAT_VERSION = 1;
+	
+	public enum Change {
+		/**
+		 * New record - peers can not hold it, but their complete sets and negative look-ups are no longer valid.
+		 */
+		INSERTED,
+		/**
+		 * Peers refresh or evict their object.
+		 */
+		UPDATED,
+		/**
+		 * Peers remove their object.
+		 */
+		DELETED
+	}
+	
+	/**
+	 * Merges two changes of the same key, within one batch, into one that is safe for peers to apply.
+	 */
+	public Invalidation coalesce(Invalidation next) {
+		if (change == next.change) return next;
+		if (next.change == Change.DELETED && change == Change.UPDATED) return next;
+		// evicting and dropping complete sets is always safe
+		return new Invalidation(className, key, Change.INSERTED);
+	}
+	
+	/**
+	 * Compact binary message: {@code byte} version, {@code UTF} node id, {@code int} count and for each - {@code byte} change, {@code UTF} class name, {@code int} length-prefixed UTF-8 key.
+	 */
+	public static byte[] encode(String nodeId, List<Invalidation> batch) {
+		val bytes = new ByteArrayOutputStream(64 + 64 * batch.size());
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(FORMAT_VERSION);
+			out.writeUTF(nodeId);
+			out.writeInt(batch.size());
+			for (val invalidation : batch) {
+				out.writeByte(invalidation.change.ordinal());
+				out.writeUTF(invalidation.className);
+				val key = invalidation.key.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(key.length);
+				out.write(key);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * @see #encode(String, List)
+	 */
+	public static Message decode(byte[] message) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+			val version = in.readByte();
+			if (version != FORMAT_VERSION) throw new IOException("Unsupported invalidation message version: " + version);
+			
+			val nodeId = in.readUTF();
+			val count = in.readInt();
+			val batch = new ArrayList<Invalidation>(Math.min(count, 1024));
+			for (var i = 0; i < count; i++) {
+				val change = Change.values()[in.readByte()];
+				val className = in.readUTF();
+				val key = new byte[in.readInt()];
+				in.readFully(key);
+				batch.add(new Invalidation(className, new String(key, StandardCharsets.UTF_8), change));
+			}
+			return new Message(nodeId, batch);
+		} catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+			throw new IOException("Corrupted invalidation message.", e);
+		}
+	}
+	
+	public record Message(String nodeId, List<Invalidation> batch) {
+		
+	}
+	
+}
\ No newline at end of file
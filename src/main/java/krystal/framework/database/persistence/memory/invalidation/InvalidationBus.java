@@ -0,0 +1,135 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Publishes {@link Invalidation invalidations} of records written on this node to the peers' {@link PersistenceMemory}, and passes the peers' ones to the listener. Invalidations are not sent one by one - they are collected for
+ * {@link #defaultFlushInterval} (or until {@link #defaultMaximumBatch} keys are pending) and changes of the same key are {@link Invalidation#coalesce(Invalidation) coalesced}, so write bursts result in few compact messages.
+ *
+ * @see PersistenceMemory#connect(InvalidationTransportInterface)
+ */
+@Log4j2
+public class InvalidationBus implements AutoCloseable {
+	
+	/**
+	 * Time in {@code ms} invalidations are collected before sending.
+	 */
+	private static @Setter @Getter long defaultFlushInterval = 50;
+	private static @Setter @Getter int defaultMaximumBatch = 256;
+	
+	private final @Getter String nodeId;
+	private final InvalidationTransportInterface transport;
+	/**
+	 * Pending invalidations, by class and key.
+	 */
+	private final ConcurrentHashMap<String, Invalidation> pending;
+	private final Thread flusher;
+	private final LongAdder published;
+	private final LongAdder coalesced;
+	private final LongAdder sent;
+	private final LongAdder received;
+	private volatile boolean closed;
+	
+	public InvalidationBus(InvalidationTransportInterface transport, Consumer<List<Invalidation>> listener) {
+		nodeId = UUID.randomUUID().toString();
+		this.transport = transport;
+		pending = new ConcurrentHashMap<>();
+		published = new LongAdder();
+		coalesced = new LongAdder();
+		sent = new LongAdder();
+		received = new LongAdder();
+		
+		transport.subscribe(bytes -> {
+			try {
+				val message = Invalidation.decode(bytes);
+				if (nodeId.equals(message.nodeId())) return;
+				received.add(message.batch().size());
+				listener.accept(message.batch());
+			} catch (IOException | RuntimeException e) {
+				log.warn("  ! Invalidation message rejected.", e);
+			}
+		});
+		flusher = Thread.ofVirtual().name("Invalidation Bus Flusher").start(this::flushLoop);
+	}
+	
+	public void publish(Invalidation invalidation) {
+		if (closed) return;
+		published.increment();
+		pending.merge(invalidation.className() + '>' + invalidation.key(), invalidation, (previous, next) -> {
+			coalesced.increment();
+			return previous.coalesce(next);
+		});
+		if (pending.size() >= defaultMaximumBatch) LockSupport.unpark(flusher);
+	}
+	
+	/**
+	 * Sends all pending invalidations.
+	 */
+	public void flush() {
+		val batch = new ArrayList<Invalidation>(Math.min(pending.size(), defaultMaximumBatch));
+		for (val key : pending.keySet()) {
+			val invalidation = pending.remove(key);
+			if (invalidation == null) continue;
+			batch.add(invalidation);
+			if (batch.size() >= defaultMaximumBatch) {
+				send(batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) send(batch);
+	}
+	
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(flusher);
+		flush();
+		transport.close();
+	}
+	
+	public String report() {
+		return "Invalidation Bus: Node: %s, Published: %s (coalesced: %s), Sent: %s, Received: %s, Pending: %s.".formatted(
+				nodeId, published.sum(), coalesced.sum(), sent.sum(), received.sum(), pending.size());
+	}
+	
+	private void flushLoop() {
+		while (!closed) {
+			LockSupport.parkNanos(defaultFlushInterval * 1_000_000);
+			try {
+				flush();
+			} catch (RuntimeException e) {
+				log.error("  ! Invalidation Bus flush failed.", e);
+			}
+		}
+	}
+	
+	/**
+	 * Splits the batch if its message exceeds the transport's limit.
+	 */
+	private void send(List<Invalidation> batch) {
+		val message = Invalidation.encode(nodeId, batch);
+		if (message.length > transport.getMaximumMessageSize() && batch.size() > 1) {
+			val half = batch.size() / 2;
+			send(new ArrayList<>(batch.subList(0, half)));
+			send(new ArrayList<>(batch.subList(half, batch.size())));
+			return;
+		}
+		
+		transport.send(message);
+		sent.add(batch.size());
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers encoded {@link Invalidation} messages between nodes. Messages sent are delivered to all subscribers - including the sender's own, which the {@link InvalidationBus} ignores.
+ *
+ * @see InJvmTransport
+ * @see UdpLoopbackTransport
+ */
+public interface InvalidationTransportInterface extends AutoCloseable {
+	
+	void send(byte[] message);
+	
+	void subscribe(Consumer<byte[]> receiver);
+	
+	/**
+	 * Larger batches are split by the {@link InvalidationBus}.
+	 */
+	default int getMaximumMessageSize() {
+		return Integer.MAX_VALUE;
+	}
+	
+	@Override
+	void close();
+	
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport between processes on the same host - each node listens on its own loopback UDP port and sends datagrams to the peers' ports. Intended for local testing of multi-node setups; datagrams are not acknowledged, so lost messages leave
+ * peers to the time-based expiry.
+ */
+@Log4j2
+public class UdpLoopbackTransport implements InvalidationTransportInterface {
+	
+	/**
+	 * Safe UDP payload size.
+	 */
+	public static final int MAXIMUM_DATAGRAM = 65_000;
+	
+	private final @Getter int port;
+	private final List<InetSocketAddress> peers;
+	private final DatagramChannel channel;
+	private final List<Consumer<byte[]>> receivers;
+	private final Thread listener;
+	
+	public UdpLoopbackTransport(int port, int... peerPorts) {
+		this.port = port;
+		peers = Arrays.stream(peerPorts).mapToObj(p -> new InetSocketAddress(InetAddress.getLoopbackAddress(), p)).toList();
+		receivers = new CopyOnWriteArrayList<>();
+		try {
+			channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to bind invalidation transport to port %s.".formatted(port), e);
+		}
+		listener = Thread.ofVirtual().name("Invalidation UDP Listener " + port).start(this::listen);
+	}
+	
+	@Override
+	public void send(byte[] message) {
+		for (val peer : peers) {
+			try {
+				channel.send(ByteBuffer.wrap(message), peer);
+			} catch (IOException e) {
+				log.warn("  ! Invalidation datagram to {} failed: {}", peer, e.getMessage());
+			}
+		}
+	}
+	
+	@Override
+	public void subscribe(Consumer<byte[]> receiver) {
+		receivers.add(receiver);
+	}
+	
+	@Override
+	public int getMaximumMessageSize() {
+		return MAXIMUM_DATAGRAM;
+	}
+	
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.warn("  ! Invalidation transport close failed.", e);
+		}
+		listener.interrupt();
+	}
+	
+	private void listen() {
+		val buffer = ByteBuffer.allocate(MAXIMUM_DATAGRAM + 1024);
+		while (channel.isOpen()) {
+			try {
+				buffer.clear();
+				channel.receive(buffer);
+				buffer.flip();
+				val message = new byte[buffer.remaining()];
+				buffer.get(message);
+				receivers.forEach(receiver -> receiver.accept(message));
+			} catch (ClosedChannelException _) {
+				return;
+			} catch (IOException | RuntimeException e) {
+				log.warn("  ! Invalidation datagram receive failed.", e);
+			}
+		}
+	}
+	
+}
\ No newline at end of file
@@ -10,7 +10,7 @@ public record ColumnSetValueComparison(ColumnInterface column, Object value) imp
 	
 	@Override
 	public String getComparison() {
-		return String.format("%s = %s", column.getSqlName(), Query.parseValueForSQL(value));
+		return column.getSqlName() + " = " + Query.parseValueForSQL(value);
 	}
 	
 	@Override
@@ -6,7 +6,7 @@ public record ColumnToColumnComparison(ColumnInterface first, ComparisonOperator
 	
 	@Override
 	public String getComparison() {
-		return "%s %s %s".formatted(first.getSqlName(), is.face, second.getSqlName());
+		return first.getSqlName() + " " + is.face + " " + second.getSqlName();
 	}
 	
 	@Override
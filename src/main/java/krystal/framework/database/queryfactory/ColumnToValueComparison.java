@@ -1,22 +1,23 @@
 package krystal.framework.database.queryfactory;
 
-import krystal.Tools;
 import krystal.framework.KrystalFramework;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+import krystal.framework.database.abstraction.QueryRenderer.ArrayParameter;
+import lombok.val;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
- * Pairing column with values for different data comparisons in WHERE clauses.
+ * Pairing column with values for different data comparisons in WHERE clauses. Values are kept as they are and parsed for SQL when rendered - {@code IN} lists longer than {@link InListStrategy#MAXIMUM_INLINE} are rendered with the driver's
+ * {@link InListStrategy}.
  */
 public record ColumnToValueComparison(ColumnInterface column, ComparisonOperator is, List<Object> values) implements ColumnsComparisonInterface {
 	
 	public ColumnToValueComparison {
 		if (!values.isEmpty())
-			values = Query.parseValuesForSQL(values.toArray()).filter(val -> val != null && !"null".equalsIgnoreCase(String.valueOf(val))).toList();
+			values = values.stream().filter(val -> val != null && !"null".equalsIgnoreCase(String.valueOf(val))).toList();
 	}
 	
 	public ColumnToValueComparison(ColumnInterface column, ComparisonOperator is, Object... values) {
@@ -25,19 +26,77 @@ public record ColumnToValueComparison(ColumnInterface column, ComparisonOperator
 	
 	@Override
 	public String getComparison() {
-		boolean nullValue = values.isEmpty();
-		return String.format(
-				"%s%s %s " + (nullValue || is.equals(ComparisonOperator.BETWEEN) ? "%s" : "(%s)"),
-				is.prefix,
-				column.getSqlName(),
-				nullValue ? "IS" : is.face,
-				switch (is) {
-					case IN, NOT_IN -> nullValue ? "NULL" : Tools.concat(KrystalFramework.getDefaultDelimeter(), values.stream());
-					case EQUAL, NOT_EQUAL -> nullValue ? "NULL" : values.getFirst();
-					case BETWEEN -> "%s AND %s".formatted(values.getFirst(), values.getLast());
-					default -> values.getFirst();
+		val sql = new StringBuilder();
+		render(new QueryRenderer(sql, null));
+		return sql.toString();
+	}
+	
+	@Override
+	public void render(QueryRenderer renderer) {
+		if (values.isEmpty()) {
+			renderer.append(is.prefix).append(column.getSqlName()).append(" IS NULL");
+			return;
+		}
+		
+		switch (is) {
+			case IN, NOT_IN -> renderList(renderer);
+			case BETWEEN, NOT_BETWEEN -> renderer.append(is.prefix).append(column.getSqlName()).append(' ').append(is.face).append(' ')
+			                                     .append(Query.parseValueForSQL(values.getFirst())).append(" AND ").append(Query.parseValueForSQL(values.getLast()));
+			default -> renderer.append(is.prefix).append(column.getSqlName()).append(' ').append(is.face).append(" (").append(Query.parseValueForSQL(values.getFirst())).append(')');
+		}
+	}
+	
+	private void renderList(QueryRenderer renderer) {
+		val distinct = List.copyOf(new LinkedHashSet<>(values));
+		
+		switch (renderer.getInListStrategy(distinct.size())) {
+			case INLINE -> inline(renderer, distinct);
+			case ARRAY -> {
+				if (!renderer.isExecutable()) {
+					chunked(renderer, distinct);
+					return;
 				}
-		);
+				renderer.append(is.prefix).append(column.getSqlName()).append(" = ANY(").bind(ArrayParameter.of(distinct)).append(')');
+			}
+			case TEMP_TABLE -> {
+				renderer.append(is.prefix).append(column.getSqlName()).append(" IN (SELECT v FROM ");
+				if (renderer.isExecutable()) {
+					renderer.append(renderer.temporaryTable(distinct));
+				} else {
+					renderer.append("(VALUES (").join(distinct, "), (", Query::parseValueForSQL).append(")) AS t(v)");
+				}
+				renderer.append(')');
+			}
+			case CHUNKED -> {
+				// rows excluded by NOT IN have to be excluded by all the chunks at once
+				val chunk = is == ComparisonOperator.IN ? renderer.chunk(distinct) : distinct;
+				if (chunk.size() < distinct.size()) inline(renderer, chunk);
+				else chunked(renderer, distinct);
+			}
+		}
+	}
+	
+	private void inline(QueryRenderer renderer, List<Object> values) {
+		renderer.append(is.prefix).append(column.getSqlName()).append(' ').append(is.face).append(" (")
+		        .join(values, KrystalFramework.getDefaultDelimeter(), Query::parseValueForSQL)
+		        .append(')');
+	}
+	
+	/**
+	 * Chunks within single statement - {@code OR} joined for {@code IN}, {@code AND} joined for {@code NOT IN}.
+	 */
+	private void chunked(QueryRenderer renderer, List<Object> values) {
+		if (values.size() <= InListStrategy.MAXIMUM_INLINE) {
+			inline(renderer, values);
+			return;
+		}
+		
+		renderer.append('(');
+		for (var from = 0; from < values.size(); from += InListStrategy.MAXIMUM_INLINE) {
+			if (from > 0) renderer.append(is == ComparisonOperator.IN ? " OR " : " AND ");
+			inline(renderer, values.subList(from, Math.min(from + InListStrategy.MAXIMUM_INLINE, values.size())));
+		}
+		renderer.append(')');
 	}
 	
 	@Override
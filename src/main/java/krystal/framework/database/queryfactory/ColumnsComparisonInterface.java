@@ -1,5 +1,7 @@
 package krystal.framework.database.queryfactory;
 
+import krystal.framework.database.abstraction.QueryRenderer;
+
 /**
  * Used to pair columns with values in different query parts.
  *
@@ -11,4 +13,11 @@ public interface ColumnsComparisonInterface {
 	
 	String getComparison();
 	
-}
\ No newline at end of file
+	/**
+	 * Override to write the comparison directly, without building intermediate {@link String}.
+	 */
+	default void render(QueryRenderer renderer) {
+		renderer.append(getComparison());
+	}
+	
+}
@@ -0,0 +1,22 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+
+import java.util.List;
+
+/**
+ * Named query of the {@code WITH} clause, referred to by the statement as a table (i.e. {@code TableInterface.of(name)}).
+ *
+ * @param recursive Refers to itself, i.e. with {@link Query#union(boolean, Query) UNION ALL} of the anchor and recursive member.
+ * @param columns   Names of the columns - required by some dialects for recursive expressions.
+ */
+record CommonTableExpression(String name, Query query, boolean recursive, List<String> columns) {
+	
+	void render(QueryRenderer renderer) {
+		renderer.append(name);
+		if (!columns.isEmpty()) renderer.append(" (").join(columns, ", ", c -> c).append(')');
+		renderer.append(" AS (").query(query).append(')');
+	}
+	
+}
\ No newline at end of file
@@ -3,24 +3,35 @@ package krystal.framework.database.queryfactory;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.ProviderInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
 import krystal.framework.database.abstraction.TableInterface;
 import krystal.framework.database.implementation.DBCDrivers;
 import lombok.val;
 
-import java.util.Collections;
-import java.util.LinkedHashSet;
+import javax.annotation.Nullable;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Modifiers return copies - the statement they were called on stays intact.
+ * <p>
+ * Deleting rows matched {@link #using(TableInterface, ColumnsComparisonInterface...) using} joined table or sub-query is rendered per dialect:
+ * <ul>
+ *     <li>SQL Server - {@code DELETE FROM target OUTPUT ... FROM target INNER JOIN source ON ...};</li>
+ *     <li>MySQL - {@code DELETE target FROM target INNER JOIN source ON ...};</li>
+ *     <li>PostgreSQL - {@code DELETE FROM target USING source WHERE ...};</li>
+ *     <li>others (H2, DB2-i) - {@code DELETE FROM target WHERE EXISTS (SELECT 1 FROM source WHERE ...)}.</li>
+ * </ul>
+ * The target should not be aliased - qualify its columns with the table name in the conditions.
+ */
 public class DeleteStatement extends Query implements WhereClauseInterface {
 	
 	private final TableInterface from;
-	private final Set<ColumnInterface> output;
+	private Set<ColumnInterface> output;
+	private @Nullable JoinedSource source;
 	
 	public DeleteStatement(TableInterface from) {
 		super(QueryType.DELETE);
-		output = Collections.synchronizedSet(new LinkedHashSet<>());
+		output = Set.of();
 		this.from = from;
 	}
 	
@@ -29,36 +40,87 @@ public class DeleteStatement extends Query implements WhereClauseInterface {
 	}
 	
 	public DeleteStatement output(ColumnInterface... columns) {
-		output.addAll(Stream.of(columns).toList());
-		return this;
+		DeleteStatement copy = copy();
+		copy.output = InsertStatement.added(output, columns);
+		return copy;
+	}
+	
+	/**
+	 * Deletes only rows matching the source table.
+	 */
+	public DeleteStatement using(TableInterface source, ColumnsComparisonInterface... on) {
+		DeleteStatement copy = copy();
+		copy.source = JoinedSource.of(source, on);
+		return copy;
+	}
+	
+	/**
+	 * Deletes only rows matching the sub-query under the alias.
+	 */
+	public DeleteStatement using(Query source, String alias, ColumnsComparisonInterface... on) {
+		DeleteStatement copy = copy();
+		copy.source = JoinedSource.of(source, alias, on);
+		return copy;
+	}
+	
+	@Override
+	public DeleteStatement withProvider(ProviderInterface provider) {
+		return (DeleteStatement) super.withProvider(provider);
 	}
 	
 	@Override
+	@Deprecated
 	public DeleteStatement setProvider(ProviderInterface provider) {
-		this.provider = provider;
-		return this;
+		return (DeleteStatement) super.setProvider(provider);
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (from == null)
 			throw new IllegalArgumentException();
 		
-		query.append("DELETE FROM ").append(from.getSqlName());
+		val driver = renderer.getDriver();
+		if (source != null && driver == DBCDrivers.jdbcMySQL) renderer.append("DELETE ").append(from.getSqlName()).append(" FROM ").append(from.getSqlName());
+		else renderer.append("DELETE FROM ").append(from.getSqlName());
 		
 		/*
 		 * Output deleted
 		 */
 		
-		val drv = provider.getDriver();
-		if (DBCDrivers.jdbcSQLServer.equals(drv)) {
-			query.append(String.format(
-					" OUTPUT %s",
-					output.isEmpty() ? "DELETED.*" :
-					output.stream()
-					      .map(c -> "DELETED." + c.getSqlName())
-					      .collect(Collectors.joining(", "))
-			));
+		if (DBCDrivers.jdbcSQLServer.equals(driver)) {
+			renderer.append(" OUTPUT ");
+			if (output.isEmpty()) renderer.append("DELETED.*");
+			else renderer.join(output, ", ", c -> "DELETED." + c.getSqlName());
+		}
+		
+		/*
+		 * Joined source
+		 */
+		
+		if (source != null) switch (driver) {
+			case DBCDrivers.jdbcSQLServer -> {
+				renderer.append(" FROM ").append(from.getSqlName()).append(" INNER JOIN ");
+				source.render(renderer);
+				renderer.append(" ON ");
+				source.renderOn(renderer);
+			}
+			case DBCDrivers.jdbcMySQL -> {
+				renderer.append(" INNER JOIN ");
+				source.render(renderer);
+				renderer.append(" ON ");
+				source.renderOn(renderer);
+			}
+			case DBCDrivers.jdbcPostgresql -> {
+				renderer.append(" USING ");
+				source.render(renderer);
+				renderer.where();
+				source.renderOn(renderer);
+			}
+			case null, default -> {
+				renderer.where();
+				renderer.append("EXISTS ");
+				source.renderCorrelated(renderer, "1");
+			}
 		}
 		
 		// Not supported in DB2-i
@@ -2,34 +2,41 @@ package krystal.framework.database.queryfactory;
 
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+import lombok.val;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class GroupByStatement extends Query implements OrderByInterface {
 	
-	private final Set<ColumnInterface> columns = Collections.synchronizedSet(new LinkedHashSet<>());
+	private Set<ColumnInterface> columns;
 	
 	public GroupByStatement(Query query, ColumnInterface... columns) {
 		super(query);
-		columns(columns);
+		this.columns = Collections.unmodifiableSequencedSet(new LinkedHashSet<>(List.of(columns)));
 	}
 	
+	/**
+	 * @return Copy with the columns added to the grouping.
+	 */
 	public GroupByStatement columns(ColumnInterface... columns) {
-		this.columns.addAll(Stream.of(columns).toList());
-		return this;
+		val grouped = new LinkedHashSet<>(this.columns);
+		grouped.addAll(List.of(columns));
+		
+		GroupByStatement copy = copy();
+		copy.columns = Collections.unmodifiableSequencedSet(grouped);
+		return copy;
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (type != QueryType.SELECT || columns.isEmpty())
 			throw new IllegalArgumentException();
 		
-		query.append(String.format(" GROUP BY %s",
-		                           columns.stream().map(ColumnInterface::getSqlName).collect(Collectors.joining(", "))));
+		renderer.keepWhole().append(" GROUP BY ").columns(columns);
 	}
 	
 }
\ No newline at end of file
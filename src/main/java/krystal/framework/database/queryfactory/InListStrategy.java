@@ -0,0 +1,33 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.abstraction.DBCDriverInterface;
+
+/**
+ * How {@code IN} lists longer than {@link #MAXIMUM_INLINE} values are rendered, as {@link DBCDriverInterface#getInListStrategy(int) chosen by the driver}. Large lists inlined as they are hit parameter or plan limits of some databases.
+ */
+public enum InListStrategy {
+	/**
+	 * All values within single {@code IN (...)}.
+	 */
+	INLINE,
+	/**
+	 * Executed as separate statements for each {@link #MAXIMUM_INLINE} values, which results are merged - as long as the list is {@code IN} of a {@code SELECT}, within {@code AND}-only conditions (otherwise rows could repeat across chunks).
+	 * {@code NOT IN} lists, writes, statements which order, limit, group, aggregate or de-duplicate rows, lists within {@code OR} conditions, or rendered as text, are chunked within single statement - {@code OR} joined for {@code IN},
+	 * {@code AND} joined for {@code NOT IN}.
+	 */
+	CHUNKED,
+	/**
+	 * Single array parameter bound to {@code = ANY(?)} - PostgreSQL and H2.
+	 */
+	ARRAY,
+	/**
+	 * Values inserted with batched parameters into SQL Server's session temporary table ({@code #table}), dropped after the statement, and matched with a sub-query - so the statement's text and plan do not depend on the values. Rendered as text,
+	 * the values form a derived {@code VALUES} table instead.
+	 */
+	TEMP_TABLE;
+	
+	/**
+	 * Lists up to this size are always {@link #INLINE inlined}. Also the size of {@link #CHUNKED chunks}.
+	 */
+	public static final int MAXIMUM_INLINE = 1000;
+}
\ No newline at end of file
@@ -1,40 +1,41 @@
 package krystal.framework.database.queryfactory;
 
-import krystal.Tools;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.ProviderInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
 import krystal.framework.database.abstraction.TableInterface;
 import krystal.framework.database.implementation.DBCDrivers;
 import lombok.val;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Modifiers return copies - the statement they were called on stays intact.
+ */
 public class InsertStatement extends Query {
 	
-	private final Set<ColumnInterface> columns;
-	private final Set<ColumnInterface> output;
-	private final List<Object[]> values;
+	private Set<ColumnInterface> columns;
+	private Set<ColumnInterface> output;
+	private List<Object[]> values;
 	private final TableInterface into;
 	
 	public InsertStatement(TableInterface into) {
 		super(QueryType.INSERT);
 		this.into = into;
-		columns = Collections.synchronizedSet(new LinkedHashSet<>());
-		output = Collections.synchronizedSet(new LinkedHashSet<>());
-		values = Collections.synchronizedList(new LinkedList<>());
+		columns = Set.of();
+		output = Set.of();
+		values = List.of();
 	}
 	
 	public InsertStatement(TableInterface into, ColumnInterface... columns) {
 		this(into);
-		this.columns.addAll(Stream.of(columns).toList());
+		this.columns = added(this.columns, columns);
 	}
 	
 	public InsertStatement(TableInterface into, Object... values) {
 		this(into);
-		this.values.add(values);
+		this.values = List.<Object[]>of(values.clone());
 	}
 	
 	public static InsertStatement into(TableInterface into) {
@@ -49,75 +50,89 @@ public class InsertStatement extends Query {
 		return new InsertStatement(into, values);
 	}
 	
+	static Set<ColumnInterface> added(Set<ColumnInterface> columns, ColumnInterface... added) {
+		val result = new LinkedHashSet<>(columns);
+		result.addAll(List.of(added));
+		return Collections.unmodifiableSequencedSet(result);
+	}
+	
 	public InsertStatement output(ColumnInterface... columns) {
-		output.addAll(Stream.of(columns).toList());
-		return this;
+		InsertStatement copy = copy();
+		copy.output = added(output, columns);
+		return copy;
 	}
 	
 	public InsertStatement into(ColumnInterface... columns) {
-		this.columns.addAll(Arrays.asList(columns));
-		return this;
+		InsertStatement copy = copy();
+		copy.columns = added(this.columns, columns);
+		return copy;
 	}
 	
 	/**
 	 * Can be chained for multiple rows inserts.
 	 */
 	public InsertStatement values(Object... values) {
-		this.values.add(values);
-		return this;
+		val rows = new ArrayList<>(this.values);
+		rows.add(values.clone());
+		
+		InsertStatement copy = copy();
+		copy.values = Collections.unmodifiableList(rows);
+		return copy;
+	}
+	
+	/**
+	 * @return Copy with all the rows added - without copying the rows list for each of them.
+	 */
+	public InsertStatement values(Collection<Object[]> rows) {
+		val all = new ArrayList<>(this.values);
+		rows.forEach(row -> all.add(row.clone()));
+		
+		InsertStatement copy = copy();
+		copy.values = Collections.unmodifiableList(all);
+		return copy;
+	}
+	
+	@Override
+	public InsertStatement withProvider(ProviderInterface provider) {
+		return (InsertStatement) super.withProvider(provider);
 	}
 	
 	@Override
+	@Deprecated
 	public InsertStatement setProvider(ProviderInterface provider) {
-		this.provider = provider;
-		return this;
+		return (InsertStatement) super.setProvider(provider);
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (values.isEmpty() || into == null)
 			throw new IllegalArgumentException();
 		
+		val drv = renderer.getDriver();
+		val start = renderer.mark();
+		
 		// insert
-		query.append(String.format(
-				"INSERT INTO %s%s",
-				into.getSqlName(),
-				!columns.isEmpty() ? String.format(" (%s)", Tools.concat(", ", columns.stream().map(ColumnInterface::getSqlName))) : ""
-		));
+		renderer.append("INSERT INTO ").append(into.getSqlName());
+		if (!columns.isEmpty()) renderer.append(" (").columns(columns).append(')');
 		
 		// sqls output inserted
-		val drv = provider.getDriver();
 		if (DBCDrivers.jdbcSQLServer.equals(drv)) {
-			query.append(String.format(
-					" OUTPUT %s",
-					output.isEmpty() ? "INSERTED.*" :
-					output.stream()
-					      .map(c -> "INSERTED." + c.getSqlName())
-					      .collect(Collectors.joining(", "))
-			));
+			renderer.append(" OUTPUT ");
+			if (output.isEmpty()) renderer.append("INSERTED.*");
+			else renderer.join(output, ", ", c -> "INSERTED." + c.getSqlName());
 		}
 		
 		// values
-		query.append(String.format(
-				" VALUES %s",
-				values.stream()
-				      .map(Query::parseValuesForSQL)
-				      .map(Stream::toArray)
-				      .filter(v -> columns.isEmpty() || v.length == columns.size())
-				      .map(v -> String.format("(%s)", Tools.concat(", ", Stream.of(v))))
-				      .collect(Collectors.joining(", ")))
-		);
+		renderer.append(" VALUES ")
+		        .join(values.stream().filter(v -> columns.isEmpty() || v.length == columns.size()).toList(), ", ", v -> {
+			        val row = new StringJoiner(", ", "(", ")");
+			        for (var value : v) row.add(String.valueOf(Query.parseValueForSQL(value)));
+			        return row;
+		        });
 		
 		// output supported in DB2-i
-		if (DBCDrivers.jdbcAS400.equals(provider.getDriver())) {
-			query.replace(0, query.length(), String.format(
-					"SELECT %s FROM FINAL TABLE (%s)",
-					output.isEmpty() ? "*" :
-					output.stream()
-					      .map(ColumnInterface::getSqlName)
-					      .collect(Collectors.joining(", ")),
-					query
-			));
+		if (DBCDrivers.jdbcAS400.equals(drv)) {
+			renderer.wrap(start, "SELECT " + (output.isEmpty() ? "*" : String.join(", ", output.stream().map(ColumnInterface::getSqlName).toList())) + " FROM FINAL TABLE (", ")");
 		}
 	}
 	
@@ -0,0 +1,56 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+import krystal.framework.database.abstraction.TableInterface;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Table or aliased sub-query joined to the target of {@link UpdateStatement} or {@link DeleteStatement}, with the conditions linking them. Sub-queries are rendered within the statement, so they share its parameters.
+ */
+record JoinedSource(@Nullable TableInterface table, @Nullable Query query, @Nullable String alias, List<ColumnsComparisonInterface> on) {
+	
+	JoinedSource {
+		if ((table == null) == (query == null) || (query != null && alias == null))
+			throw new IllegalArgumentException("Joined source is either a table or an aliased query.");
+		if (on.isEmpty())
+			throw new IllegalArgumentException("Joined source requires at least one condition.");
+	}
+	
+	static JoinedSource of(TableInterface table, ColumnsComparisonInterface... on) {
+		return new JoinedSource(table, null, null, List.of(on));
+	}
+	
+	static JoinedSource of(Query query, String alias, ColumnsComparisonInterface... on) {
+		return new JoinedSource(null, query, alias, List.of(on));
+	}
+	
+	void render(QueryRenderer renderer) {
+		if (query != null) renderer.append('(').query(query).append(") ").append(alias);
+		else renderer.append(Objects.requireNonNull(table).getSqlName());
+	}
+	
+	void renderOn(QueryRenderer renderer) {
+		var first = true;
+		for (var condition : on) {
+			if (!first) renderer.append(" AND ");
+			renderer.comparison(condition);
+			first = false;
+		}
+	}
+	
+	/**
+	 * Correlated {@code SELECT expression FROM source WHERE conditions} - for dialects without joins in {@code UPDATE} and {@code DELETE}.
+	 */
+	void renderCorrelated(QueryRenderer renderer, String expression) {
+		renderer.append("(SELECT ").append(expression).append(" FROM ");
+		render(renderer);
+		renderer.append(" WHERE ");
+		renderOn(renderer);
+		renderer.append(')');
+	}
+	
+}
\ No newline at end of file
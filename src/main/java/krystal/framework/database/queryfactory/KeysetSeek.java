@@ -0,0 +1,58 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+import krystal.framework.database.implementation.DBCDrivers;
+import lombok.val;
+
+import java.util.List;
+
+/**
+ * Rows following the last seen values of the ordering columns. PostgreSQL, MySQL and H2 compare rows ordered in single direction as row values - {@code (a, b) > (1, 2)}, which they can seek in the index. Otherwise, the comparison is expanded -
+ * {@code (a > 1 OR (a = 1 AND b > 2))}.
+ */
+record KeysetSeek(List<OrderByDeclaration> order, List<Object> values) {
+	
+	KeysetSeek {
+		if (order.isEmpty() || order.size() != values.size())
+			throw new IllegalArgumentException("Seek requires the last value for each ordering column.");
+		order = List.copyOf(order);
+		values = values.stream().map(Query::parseValueForSQL).toList();
+	}
+	
+	void render(QueryRenderer renderer) {
+		val direction = order.getFirst().order();
+		val rowValues = order.stream().allMatch(o -> o.order() == direction)
+				                && (DBCDrivers.jdbcPostgresql.equals(renderer.getDriver()) || DBCDrivers.jdbcMySQL.equals(renderer.getDriver()) || DBCDrivers.jdbcH2.equals(renderer.getDriver()));
+		
+		if (rowValues) {
+			renderer.append('(').join(order, ", ", o -> o.column().getSqlName())
+			        .append(direction == OrderByDirection.DESC ? ") < (" : ") > (")
+			        .join(values, ", ", v -> v)
+			        .append(')');
+			return;
+		}
+		
+		renderer.append('(');
+		for (var i = 0; i < order.size(); i++) {
+			if (i > 0) renderer.append(" OR ");
+			renderer.append('(');
+			for (var j = 0; j < i; j++) renderer.append(order.get(j).column().getSqlName()).append(" = ").append(values.get(j)).append(" AND ");
+			renderer.append(order.get(i).column().getSqlName())
+			        .append(order.get(i).order() == OrderByDirection.DESC ? " < " : " > ")
+			        .append(values.get(i))
+			        .append(')');
+		}
+		renderer.append(')');
+	}
+	
+	String orderBy() {
+		val clause = new StringBuilder("ORDER BY ");
+		for (var i = 0; i < order.size(); i++) {
+			if (i > 0) clause.append(", ");
+			clause.append(order.get(i).column().getSqlName()).append(' ').append(order.get(i).order());
+		}
+		return clause.toString();
+	}
+	
+}
\ No newline at end of file
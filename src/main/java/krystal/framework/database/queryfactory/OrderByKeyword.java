@@ -2,40 +2,47 @@ package krystal.framework.database.queryfactory;
 
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
+import lombok.val;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 public class OrderByKeyword extends Query {
 	
-	private final List<OrderByDeclaration> order = Collections.synchronizedList(new LinkedList<>());
+	private List<OrderByDeclaration> order;
 	
 	public OrderByKeyword(Query query, OrderByDirection order, ColumnInterface... columns) {
 		super(query);
-		for (var column : columns) this.order.add(new OrderByDeclaration(order, column));
+		this.order = Arrays.stream(columns).map(column -> new OrderByDeclaration(order, column)).toList();
 	}
 	
 	public OrderByKeyword(Query query, List<OrderByDeclaration> order) {
 		super(query);
-		this.order.addAll(order);
+		this.order = List.copyOf(order);
 	}
 	
+	/**
+	 * @return Copy with the column added to the order.
+	 */
 	public OrderByKeyword orderBy(OrderByDirection direction, ColumnInterface column) {
+		val order = new ArrayList<>(this.order);
 		order.add(new OrderByDeclaration(direction, column));
-		return this;
+		
+		OrderByKeyword copy = copy();
+		copy.order = Collections.unmodifiableList(order);
+		return copy;
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (type != QueryType.SELECT || order.isEmpty()) throw new IllegalArgumentException();
 		
-		query.append(" ORDER BY ");
-		query.append(order.stream()
-		                  .map(o -> String.format("%s %s", o.column().getSqlName(), o.order()))
-		                  .collect(Collectors.joining(", ")));
+		renderer.keepWhole()
+		        .append(" ORDER BY ")
+		        .join(order, ", ", o -> o.column().getSqlName() + " " + o.order());
 	}
 	
 }
\ No newline at end of file
@@ -3,25 +3,36 @@ package krystal.framework.database.queryfactory;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.ProviderInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
 import krystal.framework.database.abstraction.TableInterface;
 import krystal.framework.database.implementation.DBCDrivers;
 import krystal.framework.logging.LoggingInterface;
 import lombok.Getter;
+import lombok.val;
 
+import javax.annotation.Nullable;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Modifiers return copies - so the statement can be built once and shared as a template, i.e. by loaders.
+ * <p>
+ * Pages of large results are read with {@link #seekAfter(List, List) keyset seek} - each page costs the same as the first one, unlike with offsets.
+ * <p>
+ * Statements {@link #with(String, Query, String...) with} common table expressions render them first. SQL Server does not accept {@code WITH} within sub-queries, so such statement should be the outermost one.
+ */
 public class SelectStatement extends Query implements WhereClauseInterface, OrderByInterface, GroupByInterface, LoggingInterface {
 	
-	private final @Getter Set<ColumnInterface> columns;
+	private @Getter Set<ColumnInterface> columns;
 	private TableInterface from;
 	private int limit;
 	private boolean distinct;
+	private List<CommonTableExpression> with;
+	private @Nullable KeysetSeek seek;
 	
 	public SelectStatement() {
 		super(QueryType.SELECT);
-		columns = Collections.synchronizedSet(new LinkedHashSet<>());
+		columns = Set.of();
+		with = List.of();
 	}
 	
 	public SelectStatement(TableInterface from) {
@@ -31,12 +42,12 @@ public class SelectStatement extends Query implements WhereClauseInterface, Orde
 	
 	public SelectStatement(ColumnInterface... columns) {
 		this();
-		this.columns.addAll(Stream.of(columns).toList());
+		this.columns = columnsOf(List.of(columns));
 	}
 	
 	public SelectStatement(TableInterface from, ColumnInterface... columns) {
 		this(from);
-		this.columns.addAll(Stream.of(columns).toList());
+		this.columns = columnsOf(List.of(columns));
 	}
 	
 	public static SelectStatement columns(ColumnInterface... columns) {
@@ -47,10 +58,14 @@ public class SelectStatement extends Query implements WhereClauseInterface, Orde
 		return columns(Arrays.stream(columns).map(ColumnInterface::of).toArray(ColumnInterface[]::new));
 	}
 	
+	private static Set<ColumnInterface> columnsOf(Collection<ColumnInterface> columns) {
+		return Collections.unmodifiableSequencedSet(new LinkedHashSet<>(columns));
+	}
+	
 	public SelectStatement theseColumns(List<ColumnInterface> columns) {
-		this.columns.clear();
-		this.columns.addAll(columns);
-		return this;
+		SelectStatement copy = copy();
+		copy.columns = columnsOf(columns);
+		return copy;
 	}
 	
 	public SelectStatement theseColumns(ColumnInterface... columns) {
@@ -58,60 +73,105 @@ public class SelectStatement extends Query implements WhereClauseInterface, Orde
 	}
 	
 	public SelectStatement from(TableInterface from) {
-		this.from = from;
-		return this;
+		SelectStatement copy = copy();
+		copy.from = from;
+		return copy;
 	}
 	
 	public SelectStatement limit(int limit) {
-		this.limit = limit;
-		return this;
+		SelectStatement copy = copy();
+		copy.limit = limit;
+		return copy;
+	}
+	
+	/**
+	 * Orders the statement and selects only rows following the last values of the ordering columns - i.e. of the last row of the previous page, with {@link #limit(int)} as the page size. The order has to be unique (end it with the keys) and
+	 * the columns not {@code null}. Do not add other {@link OrderByInterface#orderBy(List) order}.
+	 */
+	public SelectStatement seekAfter(List<OrderByDeclaration> order, List<Object> lastValues) {
+		SelectStatement copy = copy();
+		copy.seek = new KeysetSeek(order, lastValues);
+		return copy;
 	}
 	
 	public SelectStatement distinct() {
-		distinct = true;
-		return this;
+		SelectStatement copy = copy();
+		copy.distinct = true;
+		return copy;
+	}
+	
+	/**
+	 * Adds named query to the {@code WITH} clause - to be selected from or joined as {@code TableInterface.of(name)}.
+	 */
+	public SelectStatement with(String name, Query query, String... columns) {
+		return with(new CommonTableExpression(name, query, false, List.of(columns)));
+	}
+	
+	/**
+	 * Adds named query referring to itself - rendered {@code WITH RECURSIVE} where the dialect requires it.
+	 */
+	public SelectStatement withRecursive(String name, Query query, String... columns) {
+		return with(new CommonTableExpression(name, query, true, List.of(columns)));
+	}
+	
+	private SelectStatement with(CommonTableExpression expression) {
+		val with = new ArrayList<>(this.with);
+		with.add(expression);
+		
+		SelectStatement copy = copy();
+		copy.with = Collections.unmodifiableList(with);
+		return copy;
 	}
 	
 	@Override
+	public SelectStatement withProvider(ProviderInterface provider) {
+		return (SelectStatement) super.withProvider(provider);
+	}
+	
+	@Override
+	@Deprecated
 	public SelectStatement setProvider(ProviderInterface provider) {
-		this.provider = provider;
-		return this;
+		return (SelectStatement) super.setProvider(provider);
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (from == null)
 			throw new IllegalArgumentException();
 		
 		// TODO LAST if negative
-		var limitString = "";
-		if (limit > 0) {
-			// val drv = provider.getDriver();
-			switch (provider.getDriver()) {
-				case DBCDrivers.jdbcSQLServer -> limitString = " TOP " + limit;
-				case DBCDrivers.jdbcMySQL -> appendLast.add("LIMIT " + limit);
-				default -> appendLast.add("FETCH FIRST %s ROWS ONLY".formatted(limit));
+		val top = limit > 0 && DBCDrivers.jdbcSQLServer.equals(renderer.getDriver());
+		// rows of the chunks would be ordered, limited or aggregated separately
+		if (seek != null || limit > 0 || distinct || columns.stream().anyMatch(c -> c.getSqlName().contains("(") || c.getSqlName().startsWith("DISTINCT "))) renderer.keepWhole();
+		if (seek != null) renderer.appendLast(seek.orderBy());
+		if (limit > 0 && !top) renderer.appendLast(DBCDrivers.jdbcMySQL.equals(renderer.getDriver()) ? "LIMIT " + limit : "FETCH FIRST " + limit + " ROWS ONLY");
+		
+		if (!with.isEmpty()) {
+			renderer.append("WITH ");
+			// SQL Server and DB2-i recognize recursion without the keyword
+			if (with.stream().anyMatch(CommonTableExpression::recursive) && (DBCDrivers.jdbcPostgresql.equals(renderer.getDriver()) || DBCDrivers.jdbcMySQL.equals(renderer.getDriver()) || DBCDrivers.jdbcH2.equals(renderer.getDriver())))
+				renderer.append("RECURSIVE ");
+			var first = true;
+			for (var expression : with) {
+				if (!first) renderer.append(", ");
+				expression.render(renderer);
+				first = false;
 			}
-			//
-			//
-			// if (DBCDrivers.jdbcSQLServer.equals(drv)
-			// 		|| DBCDrivers.r2dbcSQLServer.equals(drv))
-			// 	limitString = " TOP " + limit;
-			// else if (DBCDrivers.jdbcMySQL.asProvider().equals(provider)
-			// 		|| DBCDrivers.r2dbcMySQL.asProvider().equals(provider))
-			// 	appendLast.add("LIMIT " + limit);
-			// else appendLast.add("FETCH FIRST %s ROWS ONLY".formatted(limit));
-			// else log().warn("  ! Unsupported LIMIT keyword in select statement for %s provider.".formatted(provider));
+			renderer.append(' ');
 		}
 		
-		query.append(
-				String.format(
-						"SELECT%s%s %s FROM %s",
-						distinct ? " DISTINCT" : "",
-						limitString,
-						!columns.isEmpty() ? columns.stream().map(ColumnInterface::getSqlName).collect(Collectors.joining(", ")) : "*",
-						from.getSqlName()
-				));
+		renderer.append("SELECT");
+		if (distinct) renderer.append(" DISTINCT");
+		if (top) renderer.append(" TOP ").append(limit);
+		renderer.append(' ');
+		if (columns.isEmpty()) renderer.append('*');
+		else renderer.columns(columns);
+		renderer.append(" FROM ").append(from.getSqlName());
+		
+		if (seek != null) {
+			renderer.where();
+			seek.render(renderer);
+		}
 	}
 	
 }
\ No newline at end of file
@@ -1,36 +1,49 @@
 package krystal.framework.database.queryfactory;
 
-import krystal.Tools;
 import krystal.framework.database.abstraction.ColumnInterface;
 import krystal.framework.database.abstraction.ProviderInterface;
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
 import krystal.framework.database.abstraction.TableInterface;
 import krystal.framework.database.implementation.DBCDrivers;
 import lombok.val;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Modifiers return copies - the statement they were called on stays intact.
+ * <p>
+ * Updated {@link #from(TableInterface, ColumnsComparisonInterface...) from} joined table or sub-query, the statement is set-based - i.e. recalculating all rows at once in the database, with SET pairs of
+ * {@link ColumnToColumnComparison columns} taking values of the source. Rendered per dialect:
+ * <ul>
+ *     <li>SQL Server - {@code UPDATE target SET ... OUTPUT ... FROM target INNER JOIN source ON ...};</li>
+ *     <li>MySQL - {@code UPDATE target INNER JOIN source ON ... SET ...};</li>
+ *     <li>PostgreSQL - {@code UPDATE target SET ... FROM source WHERE ...};</li>
+ *     <li>others (H2, DB2-i) - correlated sub-queries: {@code UPDATE target SET column = (SELECT ... FROM source WHERE ...) WHERE EXISTS (...)}.</li>
+ * </ul>
+ * The target should not be aliased - qualify its columns with the table name in the conditions. SET columns should not be qualified (PostgreSQL rejects it).
+ */
 public class UpdateStatement extends Query implements WhereClauseInterface {
 	
-	private final Set<ColumnsComparisonInterface> columnSetPairs;
+	private Set<ColumnsComparisonInterface> columnSetPairs;
 	private final TableInterface table;
-	private final Set<ColumnInterface> output;
+	private Set<ColumnInterface> output;
+	private @Nullable JoinedSource source;
 	
 	public UpdateStatement(TableInterface table) {
 		super(QueryType.UPDATE);
-		columnSetPairs = new CopyOnWriteArraySet<>();
-		output = Collections.synchronizedSet(new LinkedHashSet<>());
+		columnSetPairs = Set.of();
+		output = Set.of();
 		this.table = table;
 	}
 	
 	public UpdateStatement(TableInterface table, ColumnsComparisonInterface... columnSetPairs) {
 		this(table);
-		this.columnSetPairs.addAll(Stream.of(columnSetPairs).toList());
+		this.columnSetPairs = Collections.unmodifiableSequencedSet(new LinkedHashSet<>(List.of(columnSetPairs)));
 	}
 	
 	public static UpdateStatement table(TableInterface table) {
@@ -38,39 +51,106 @@ public class UpdateStatement extends Query implements WhereClauseInterface {
 	}
 	
 	public UpdateStatement set(ColumnsComparisonInterface... columnSetPairs) {
-		this.columnSetPairs.addAll(Stream.of(columnSetPairs).toList());
-		return this;
+		val pairs = new LinkedHashSet<>(this.columnSetPairs);
+		pairs.addAll(List.of(columnSetPairs));
+		
+		UpdateStatement copy = copy();
+		copy.columnSetPairs = Collections.unmodifiableSequencedSet(pairs);
+		return copy;
 	}
 	
 	public UpdateStatement output(ColumnInterface... columns) {
-		output.addAll(Stream.of(columns).toList());
-		return this;
+		UpdateStatement copy = copy();
+		copy.output = InsertStatement.added(output, columns);
+		return copy;
+	}
+	
+	/**
+	 * Joins the source table, so the SET pairs and conditions can refer to its columns.
+	 */
+	public UpdateStatement from(TableInterface source, ColumnsComparisonInterface... on) {
+		UpdateStatement copy = copy();
+		copy.source = JoinedSource.of(source, on);
+		return copy;
+	}
+	
+	/**
+	 * Joins the sub-query (i.e. aggregation) under the alias, so the SET pairs and conditions can refer to its columns.
+	 */
+	public UpdateStatement from(Query source, String alias, ColumnsComparisonInterface... on) {
+		UpdateStatement copy = copy();
+		copy.source = JoinedSource.of(source, alias, on);
+		return copy;
 	}
 	
 	@Override
+	public UpdateStatement withProvider(ProviderInterface provider) {
+		return (UpdateStatement) super.withProvider(provider);
+	}
+	
+	@Override
+	@Deprecated
 	public UpdateStatement setProvider(ProviderInterface provider) {
-		this.provider = provider;
-		return this;
+		return (UpdateStatement) super.setProvider(provider);
 	}
 	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
+	public void build(QueryRenderer renderer) {
 		if (table == null || columnSetPairs.isEmpty())
 			throw new IllegalArgumentException();
 		
-		query.append("UPDATE ").append(table.getSqlName());
-		query.append(" SET ").append(Tools.concat(", ", columnSetPairs.stream()));
+		val driver = renderer.getDriver();
+		if (source != null && driver == DBCDrivers.jdbcMySQL) {
+			renderer.append("UPDATE ").append(table.getSqlName()).append(" INNER JOIN ");
+			source.render(renderer);
+			renderer.append(" ON ");
+			source.renderOn(renderer);
+			renderer.append(" SET ");
+		} else renderer.append("UPDATE ").append(table.getSqlName()).append(" SET ");
+		
+		val correlated = source != null && driver != DBCDrivers.jdbcMySQL && driver != DBCDrivers.jdbcSQLServer && driver != DBCDrivers.jdbcPostgresql;
+		var first = true;
+		for (var pair : columnSetPairs) {
+			if (!first) renderer.append(", ");
+			if (correlated && pair instanceof ColumnToColumnComparison(var column, var _, var value)) {
+				renderer.append(column.getSqlName()).append(" = ");
+				source.renderCorrelated(renderer, value.getSqlName());
+			} else renderer.comparison(pair);
+			first = false;
+		}
 		
 		// sqls output
-		val drv = provider.getDriver();
-		if (DBCDrivers.jdbcSQLServer.equals(drv)) {
-			query.append(String.format(
-					" OUTPUT %s",
-					output.isEmpty() ? "INSERTED.*" :
-					output.stream()
-					      .map(c -> "INSERTED." + c.getSqlName())
-					      .collect(Collectors.joining(", "))
-			));
+		if (DBCDrivers.jdbcSQLServer.equals(driver)) {
+			renderer.append(" OUTPUT ");
+			if (output.isEmpty()) renderer.append("INSERTED.*");
+			else renderer.join(output, ", ", c -> "INSERTED." + c.getSqlName());
+		}
+		
+		/*
+		 * Joined source
+		 */
+		
+		if (source != null) switch (driver) {
+			case DBCDrivers.jdbcSQLServer -> {
+				renderer.append(" FROM ").append(table.getSqlName()).append(" INNER JOIN ");
+				source.render(renderer);
+				renderer.append(" ON ");
+				source.renderOn(renderer);
+			}
+			case DBCDrivers.jdbcMySQL -> {
+				// joined before SET
+			}
+			case DBCDrivers.jdbcPostgresql -> {
+				renderer.append(" FROM ");
+				source.render(renderer);
+				renderer.where();
+				source.renderOn(renderer);
+			}
+			case null, default -> {
+				renderer.where();
+				renderer.append("EXISTS ");
+				source.renderCorrelated(renderer, "1");
+			}
 		}
 		
 		// Not supported in DB2-i
@@ -86,5 +166,4 @@ public class UpdateStatement extends Query implements WhereClauseInterface {
 		// }
 	}
 	
-	// TODO UPDATE from SELECT. Create "from" chain.
 }
\ No newline at end of file
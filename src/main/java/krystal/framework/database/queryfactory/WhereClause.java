@@ -1,31 +1,33 @@
 package krystal.framework.database.queryfactory;
 
 import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer;
 import lombok.Getter;
+import lombok.val;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * Adding conditions returns a copy - the clause it was added to stays intact.
+ */
 @Getter
 public class WhereClause extends Query implements OrderByInterface, GroupByInterface {
 	
-	private final List<WhereClauseOuterBlock> where = Collections.synchronizedList(new LinkedList<>());
+	private List<WhereClauseOuterBlock> where;
 	
 	public WhereClause(Query query, WhereClauseDelimiter delimiter, ColumnsComparisonInterface... columnsAre) {
 		super(query);
-		where.add(new WhereClauseOuterBlock(WhereClauseDelimiter.NULL, new WhereClauseInnerBlock(delimiter, columnsAre)));
+		where = List.of(new WhereClauseOuterBlock(WhereClauseDelimiter.NULL, new WhereClauseInnerBlock(delimiter, columnsAre)));
 	}
 	
 	public WhereClause orWhere(WhereClauseDelimiter delimiter, ColumnsComparisonInterface... columnsAre) {
-		where.add(new WhereClauseOuterBlock(WhereClauseDelimiter.OR, new WhereClauseInnerBlock(delimiter, columnsAre)));
-		return this;
+		return with(WhereClauseDelimiter.OR, new WhereClauseInnerBlock(delimiter, columnsAre));
 	}
 	
 	public WhereClause orWhere(ColumnsComparisonInterface columnIs) {
-		where.add(new WhereClauseOuterBlock(WhereClauseDelimiter.OR, new WhereClauseInnerBlock(WhereClauseDelimiter.NULL, columnIs)));
-		return this;
+		return with(WhereClauseDelimiter.OR, new WhereClauseInnerBlock(WhereClauseDelimiter.NULL, columnIs));
 	}
 	
 	public WhereClause orWhere(ColumnsComparisonInterface[] columnIs) {
@@ -33,23 +35,34 @@ public class WhereClause extends Query implements OrderByInterface, GroupByInter
 	}
 	
 	public WhereClause andWhere(WhereClauseDelimiter delimiter, ColumnsComparisonInterface... columnsAre) {
-		where.add(new WhereClauseOuterBlock(WhereClauseDelimiter.AND, new WhereClauseInnerBlock(delimiter, columnsAre)));
-		return this;
+		return with(WhereClauseDelimiter.AND, new WhereClauseInnerBlock(delimiter, columnsAre));
 	}
 	
 	public WhereClause andWhere(ColumnsComparisonInterface columnIs) {
-		where.add(new WhereClauseOuterBlock(WhereClauseDelimiter.AND, new WhereClauseInnerBlock(WhereClauseDelimiter.NULL, columnIs)));
-		return this;
+		return with(WhereClauseDelimiter.AND, new WhereClauseInnerBlock(WhereClauseDelimiter.NULL, columnIs));
 	}
 	
 	public WhereClause andWhere(ColumnsComparisonInterface[] columnIs) {
 		return andWhere(WhereClauseDelimiter.AND, columnIs);
 	}
 	
+	private WhereClause with(WhereClauseDelimiter delimiter, WhereClauseInnerBlock block) {
+		val where = new ArrayList<>(this.where);
+		where.add(new WhereClauseOuterBlock(delimiter, block));
+		
+		WhereClause copy = copy();
+		copy.where = Collections.unmodifiableList(where);
+		return copy;
+	}
+	
 	@Override
-	public void build(StringBuilder query, Set<String> appendLast) {
-		query.append(" WHERE ");
-		where.forEach(query::append);
+	public void build(QueryRenderer renderer) {
+		val continued = renderer.where();
+		// rows of AND-only conditions can not repeat across chunks of a list
+		renderer.setChunkable(where.stream().allMatch(block -> block.delimiter() != WhereClauseDelimiter.OR && block.whereClause().getDelimiter() != WhereClauseDelimiter.OR));
+		where.forEach(block -> block.render(renderer));
+		renderer.setChunkable(false);
+		if (continued) renderer.append(')');
 	}
 	
 }
\ No newline at end of file
@@ -1,27 +1,29 @@
 package krystal.framework.database.queryfactory;
 
 import krystal.Tools;
+import krystal.framework.database.abstraction.QueryRenderer;
 import lombok.Getter;
-import lombok.Setter;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.List;
 
 @Getter
 public class WhereClauseInnerBlock {
 	
-	private final Set<ColumnsComparisonInterface> columnIsPairs = new HashSet<>();
-	@Setter
-	private WhereClauseDelimiter delimiter;
+	private final List<ColumnsComparisonInterface> columnIsPairs;
+	private final WhereClauseDelimiter delimiter;
 	
 	public WhereClauseInnerBlock(WhereClauseDelimiter delimiter, ColumnsComparisonInterface... columnIsPairs) {
 		this.delimiter = delimiter;
-		setPairs(columnIsPairs);
+		this.columnIsPairs = List.of(columnIsPairs);
 	}
 	
-	public void setPairs(ColumnsComparisonInterface... columnIsPairs) {
-		this.columnIsPairs.addAll(Stream.of(columnIsPairs).toList());
+	public void render(QueryRenderer renderer) {
+		var first = true;
+		for (var pair : columnIsPairs) {
+			if (!first) renderer.append(delimiter.toString());
+			renderer.comparison(pair);
+			first = false;
+		}
 	}
 	
 	@Override
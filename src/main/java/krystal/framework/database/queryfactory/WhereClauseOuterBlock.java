@@ -1,20 +1,15 @@
 package krystal.framework.database.queryfactory;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import krystal.framework.database.abstraction.QueryRenderer;
 import lombok.NonNull;
-import lombok.Setter;
 
-@Setter
-@Getter
-@AllArgsConstructor
-class WhereClauseOuterBlock {
+record WhereClauseOuterBlock(@NonNull WhereClauseDelimiter delimiter, @NonNull WhereClauseInnerBlock whereClause) {
 	
-	@NonNull
-	private WhereClauseDelimiter delimiter;
-	
-	@NonNull
-	private WhereClauseInnerBlock whereClause;
+	public void render(QueryRenderer renderer) {
+		renderer.append(delimiter.toString()).append('(');
+		whereClause.render(renderer);
+		renderer.append(')');
+	}
 	
 	@Override
 	public String toString() {
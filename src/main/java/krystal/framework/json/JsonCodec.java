@@ -0,0 +1,348 @@
+package krystal.framework.json;
+
+import krystal.JSON;
+import krystal.JSON.Flattison;
+import krystal.Skip.SkipTypes;
+import krystal.Tools;
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.filters.ValueConverter;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.*;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reader and writer of JSON for particular class, compiled once - from its fields, without the ones {@link krystal.Skip skipped} for {@link SkipTypes#json json} - and reused for every object. Objects are written straight into the given
+ * {@link StringBuilder} (i.e. the chunk of {@link krystal.framework.tomcat.StreamingJsonWriter}), without intermediate {@link JSONObject} trees, and read from parsed {@link JSONObject} by the prepared field converters.
+ * <p>
+ * {@link Flattison @Flattison} classes and {@link PersistenceInterface persistence} classes are compiled, as their JSON is just the map of fields - the same as {@link JSON#fromObject(Object)} and the default {@link PersistenceInterface#toJSON()} write.
+ * Classes which override {@link PersistenceInterface#toJSON()} are written with it. Other classes, fields of types without direct representation, and classes without no-args constructor or not {@link Flattison @Flattison} (for reading) fall back
+ * to {@link JSON io.krystal.JSON}.
+ *
+ * @see #of(Class)
+ */
+@Log4j2
+public class JsonCodec<T> {
+	
+	private static final Map<Class<?>, JsonCodec<?>> codecs = new ConcurrentHashMap<>();
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final Class<T> clazz;
+	private final boolean custom;
+	private final @Getter boolean compiled;
+	private final Property[] properties;
+	private final Map<String, Property> byName;
+	private final @Nullable Constructor<T> constructor;
+	
+	private JsonCodec(Class<T> clazz) {
+		this.clazz = clazz;
+		val persisted = PersistenceInterface.class.isAssignableFrom(clazz);
+		custom = persisted && definesJson(clazz);
+		compiled = !custom && (persisted || clazz.isAnnotationPresent(Flattison.class));
+		properties = compiled
+		             ? Arrays.stream(clazz.getDeclaredFields())
+		                     .filter(f -> !Modifier.isStatic(f.getModifiers()) && !Modifier.isTransient(f.getModifiers()) && !f.isSynthetic())
+		                     .filter(f -> !Tools.isSkipped(f, SkipTypes.json))
+		                     .filter(AccessibleObject::trySetAccessible)
+		                     .map(Property::new)
+		                     .toArray(Property[]::new)
+		             : new Property[0];
+		byName = LinkedHashMap.newLinkedHashMap(properties.length);
+		for (var p : properties) byName.put(p.name, p);
+		constructor = compiled && clazz.isAnnotationPresent(Flattison.class) ? noArgsConstructor(clazz) : null;
+	}
+	
+	/**
+	 * Whether the persistence class (or its superclass) overrides {@link PersistenceInterface#toJSON()}.
+	 */
+	private static boolean definesJson(Class<?> clazz) {
+		try {
+			return clazz.getMethod("toJSON").getDeclaringClass() != PersistenceInterface.class;
+		} catch (NoSuchMethodException _) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Codec of the class, compiled on first use.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> JsonCodec<T> of(Class<T> clazz) {
+		return (JsonCodec<T>) codecs.computeIfAbsent(clazz, JsonCodec::new);
+	}
+	
+	/*
+	 * Writing
+	 */
+	
+	/**
+	 * Appends the object to the JSON text.
+	 */
+	public void write(T object, StringBuilder out) {
+		write(object, out, null);
+	}
+	
+	/**
+	 * Appends the object to the JSON text, limited to the given field names (if not {@code null}).
+	 */
+	public void write(T object, StringBuilder out, @Nullable Set<String> fields) {
+		if (!compiled) {
+			val json = custom ? ((PersistenceInterface) object).toJSON() : JSON.fromObject(object);
+			out.append(fields == null ? json : new JSONObject(json, fields.toArray(String[]::new)));
+			return;
+		}
+		
+		out.append('{');
+		var first = true;
+		for (var p : properties) {
+			if (fields != null && !fields.contains(p.name)) continue;
+			if (!first) out.append(',');
+			out.append(p.quotedName).append(':');
+			p.writer.write(p.get(object), out);
+			first = false;
+		}
+		out.append('}');
+	}
+	
+	public String toJson(T object) {
+		val out = new StringBuilder(64 + 32 * properties.length);
+		write(object, out);
+		return out.toString();
+	}
+	
+	/**
+	 * Appends the objects as JSON array, each with the codec of its class.
+	 */
+	public static void writeAll(Iterable<?> objects, StringBuilder out, @Nullable Set<String> fields) {
+		out.append('[');
+		var first = true;
+		for (var object : objects) {
+			if (!first) out.append(',');
+			writeAny(object, out, fields);
+			first = false;
+		}
+		out.append(']');
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static void writeAny(@Nullable Object object, StringBuilder out, @Nullable Set<String> fields) {
+		if (object == null) out.append("null");
+		else of((Class<Object>) object.getClass()).write(object, out, fields);
+	}
+	
+	/**
+	 * Writes any value, choosing the representation by its runtime type - for fields declared with non-final types.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void writeValue(@Nullable Object value, StringBuilder out) {
+		switch (value) {
+			case null -> out.append("null");
+			case String s -> quote(s, out);
+			case Character c -> quote(String.valueOf(c), out);
+			case Boolean b -> out.append(b.booleanValue());
+			case Number n -> writeNumber(n, out);
+			case Enum<?> e -> quote(e.name(), out);
+			// as org.json writes values of java.* classes it does not know
+			case UUID _, TemporalAccessor _, Date _ -> quote(value.toString(), out);
+			case JSONObject _, JSONArray _ -> out.append(value);
+			case JSONString js -> out.append(js.toJSONString());
+			case Collection<?> collection -> {
+				out.append('[');
+				var first = true;
+				for (var element : collection) {
+					if (!first) out.append(',');
+					writeValue(element, out);
+					first = false;
+				}
+				out.append(']');
+			}
+			case Map<?, ?> map -> {
+				out.append('{');
+				var first = true;
+				for (var entry : map.entrySet()) {
+					if (!first) out.append(',');
+					quote(String.valueOf(entry.getKey()), out);
+					out.append(':');
+					writeValue(entry.getValue(), out);
+					first = false;
+				}
+				out.append('}');
+			}
+			default -> {
+				if (value.getClass().isArray()) {
+					out.append('[');
+					val length = Array.getLength(value);
+					for (var i = 0; i < length; i++) {
+						if (i > 0) out.append(',');
+						writeValue(Array.get(value, i), out);
+					}
+					out.append(']');
+				} else of((Class<Object>) value.getClass()).write(value, out);
+			}
+		}
+	}
+	
+	private static void writeNumber(Number number, StringBuilder out) {
+		if ((number instanceof Double d && !Double.isFinite(d)) || (number instanceof Float f && !Float.isFinite(f))) out.append("null");
+		else out.append(JSONObject.numberToString(number));
+	}
+	
+	/**
+	 * Quoted and escaped the same as {@link JSONObject#quote(String)}.
+	 */
+	private static void quote(String string, StringBuilder out) {
+		out.append('"');
+		char previous = 0;
+		for (var i = 0; i < string.length(); i++) {
+			val c = string.charAt(i);
+			switch (c) {
+				case '"', '\\' -> out.append('\\').append(c);
+				case '/' -> {
+					if (previous == '<') out.append('\\');
+					out.append(c);
+				}
+				case '\b' -> out.append("\\b");
+				case '\t' -> out.append("\\t");
+				case '\n' -> out.append("\\n");
+				case '\f' -> out.append("\\f");
+				case '\r' -> out.append("\\r");
+				default -> {
+					if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) out.append("\\u").append(HEX[c >> 12 & 0xf]).append(HEX[c >> 8 & 0xf]).append(HEX[c >> 4 & 0xf]).append(HEX[c & 0xf]);
+					else out.append(c);
+				}
+			}
+			previous = c;
+		}
+		out.append('"');
+	}
+	
+	/*
+	 * Reading
+	 */
+	
+	/**
+	 * New object with the fields set from the JSON - unknown names are ignored and missing fields keep the defaults.
+	 */
+	@SuppressWarnings("unchecked")
+	public T read(JSONObject json) {
+		if (constructor == null) return (T) JSON.into(json, clazz);
+		
+		try {
+			val object = constructor.newInstance();
+			for (var name : json.keySet()) {
+				val p = byName.get(name);
+				if (p == null) continue;
+				val value = json.opt(name);
+				p.set(object, value == JSONObject.NULL ? null : p.reader.apply(value));
+			}
+			return object;
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new RuntimeException("Exception during JSON reading of %s.\n%s".formatted(clazz.getSimpleName(), e.getMessage()), e);
+		}
+	}
+	
+	private static <T> @Nullable Constructor<T> noArgsConstructor(Class<T> clazz) {
+		try {
+			val constructor = clazz.getDeclaredConstructor();
+			return constructor.trySetAccessible() ? constructor : null;
+		} catch (NoSuchMethodException _) {
+			log.trace("    {} has no args constructor - reading JSON falls back to io.krystal.JSON.", clazz.getSimpleName());
+			return null;
+		}
+	}
+	
+	/*
+	 * Fields
+	 */
+	
+	@FunctionalInterface
+	private interface ValueWriter {
+		
+		void write(@Nullable Object value, StringBuilder out);
+		
+	}
+	
+	/**
+	 * Field with its writer and reader, chosen by the declared type.
+	 */
+	private static class Property {
+		
+		private final Field field;
+		private final String name;
+		private final String quotedName;
+		private final ValueWriter writer;
+		private final Function<Object, Object> reader;
+		
+		Property(Field field) {
+			this.field = field;
+			name = field.getName();
+			val quoted = new StringBuilder(name.length() + 2);
+			quote(name, quoted);
+			quotedName = quoted.toString();
+			writer = writer(field.getType());
+			reader = reader(field.getType(), field.getGenericType());
+		}
+		
+		@Nullable Object get(Object object) {
+			try {
+				return field.get(object);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		void set(Object object, @Nullable Object value) throws IllegalAccessException {
+			if (value != null || !field.getType().isPrimitive()) field.set(object, value);
+		}
+		
+		private static ValueWriter writer(Class<?> type) {
+			val boxed = ValueConverter.boxed(type);
+			if (boxed == String.class) return (v, out) -> {
+				if (v == null) out.append("null");
+				else quote((String) v, out);
+			};
+			if (boxed == Boolean.class) return (v, out) -> out.append(v == null ? "null" : v.toString());
+			if (Number.class.isAssignableFrom(boxed) && Modifier.isFinal(boxed.getModifiers())) return (v, out) -> {
+				if (v == null) out.append("null");
+				else writeNumber((Number) v, out);
+			};
+			if (boxed.isEnum()) return (v, out) -> {
+				if (v == null) out.append("null");
+				else quote(((Enum<?>) v).name(), out);
+			};
+			return JsonCodec::writeValue;
+		}
+		
+		private static Function<Object, Object> reader(Class<?> type, Type genericType) {
+			val boxed = ValueConverter.boxed(type);
+			if (boxed == String.class) return v -> v instanceof String s ? s : String.valueOf(v);
+			val scalar = Number.class.isAssignableFrom(boxed) || boxed == Boolean.class || boxed == Character.class || boxed.isEnum() || boxed == UUID.class;
+			if (scalar || TemporalAccessor.class.isAssignableFrom(boxed) || Date.class.isAssignableFrom(boxed)) return v -> ValueConverter.convert(v, boxed);
+			if (boxed.isAnnotationPresent(Flattison.class)) return v -> of(boxed).read((JSONObject) v);
+			
+			if (Collection.class.isAssignableFrom(boxed) && genericType instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+				val elementReader = reader(element, element);
+				val isSet = Set.class.isAssignableFrom(boxed);
+				if (boxed.isInterface()) return v -> {
+					val array = (JSONArray) v;
+					Collection<Object> collection = isSet ? LinkedHashSet.newLinkedHashSet(array.length()) : new ArrayList<>(array.length());
+					for (var e : array) collection.add(e == JSONObject.NULL ? null : elementReader.apply(e));
+					return collection;
+				};
+				return v -> JSON.into(v, boxed, element);
+			}
+			return v -> JSON.into(v, boxed);
+		}
+		
+	}
+	
+}
\ No newline at end of file
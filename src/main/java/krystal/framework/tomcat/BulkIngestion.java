@@ -0,0 +1,110 @@
+package krystal.framework.tomcat;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.json.JsonCodec;
+import lombok.val;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Objects of the request's body, parsed element by element - from newline-delimited JSON ({@code application/x-ndjson}) or JSON array, without reading the whole body - and {@link PersistenceInterface#saveAll(List) saved} in batches of
+ * {@link #BATCH_SIZE}, as they are iterated. So at most single batch is held in memory, and the saved objects can be written back right away, i.e. with {@link StreamingJsonWriter}.
+ *
+ * @apiNote Syntax errors are thrown as {@link JSONException} once reached - batches before are already saved.
+ */
+class BulkIngestion implements Iterator<PersistenceInterface> {
+	
+	public static final int BATCH_SIZE = 500;
+	public static final String NDJSON = "application/x-ndjson";
+	
+	private final BufferedReader reader;
+	private final @Nullable JSONTokener tokener;
+	private final JsonCodec<? extends PersistenceInterface> codec;
+	private final Class<? extends PersistenceInterface> clazz;
+	private Iterator<PersistenceInterface> batch;
+	private boolean started;
+	private boolean exhausted;
+	
+	BulkIngestion(BufferedReader reader, boolean lines, Class<? extends PersistenceInterface> clazz) {
+		this.reader = reader;
+		this.clazz = clazz;
+		tokener = lines ? null : new JSONTokener(reader);
+		codec = JsonCodec.of(clazz);
+		batch = Collections.emptyIterator();
+	}
+	
+	static boolean isNdjson(@Nullable String contentType) {
+		return contentType != null && contentType.toLowerCase().startsWith(NDJSON);
+	}
+	
+	@Override
+	public boolean hasNext() {
+		while (!batch.hasNext() && !exhausted) batch = nextBatch();
+		return batch.hasNext();
+	}
+	
+	@Override
+	public PersistenceInterface next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return batch.next();
+	}
+	
+	private Iterator<PersistenceInterface> nextBatch() {
+		val objects = new ArrayList<PersistenceInterface>(BATCH_SIZE);
+		while (objects.size() < BATCH_SIZE) {
+			val element = tokener == null ? nextLine() : nextElement(tokener);
+			if (element == null) {
+				exhausted = true;
+				break;
+			}
+			if (element instanceof JSONObject json) objects.add(codec.read(json));
+			else throw new ClassCastException("Can not perform persistence execution on provided request's body element - %s is not a JSON object of %s.".formatted(element, clazz.getSimpleName()));
+		}
+		PersistenceInterface.saveAll(objects);
+		return objects.iterator();
+	}
+	
+	/**
+	 * Next non-blank line, or {@code null} at the end.
+	 */
+	private @Nullable Object nextLine() {
+		try {
+			String line;
+			do {
+				line = reader.readLine();
+				if (line == null) return null;
+			} while (line.isBlank());
+			return new JSONObject(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Next value of the array, or {@code null} after its closing bracket.
+	 */
+	private @Nullable Object nextElement(JSONTokener tokener) {
+		var c = tokener.nextClean();
+		if (!started) {
+			if (c != '[') throw tokener.syntaxError("A JSON array text must start with '['");
+			started = true;
+			c = tokener.nextClean();
+			if (c == ']') return null;
+		} else {
+			if (c == ']') return null;
+			if (c != ',') throw tokener.syntaxError("Expected a ',' or ']'");
+			c = tokener.nextClean();
+		}
+		if (c == 0) throw tokener.syntaxError("Expected a ',' or ']'");
+		tokener.back();
+		return tokener.nextValue();
+	}
+	
+}
\ No newline at end of file
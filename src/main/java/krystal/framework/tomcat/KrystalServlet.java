@@ -15,6 +15,7 @@ import krystal.framework.database.abstraction.QueryResultInterface;
 import krystal.framework.database.persistence.Persistence;
 import krystal.framework.database.persistence.PersistenceInterface;
 import krystal.framework.database.persistence.filters.PersistenceFilters;
+import krystal.framework.json.JsonCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
@@ -183,34 +184,88 @@ public class KrystalServlet extends HttpServlet {
 						                             if (info.patternIsPlural) {
 							                             val params = req.getParameterMap();
 							                             val clazz = info.mapping.getPersistenceClass();
+							                             val filters = params.isEmpty() ? null : PersistenceFilters.fromParams(params);
 							                             
-							                             Persistence.promiseAll(clazz, params.isEmpty() ? null : PersistenceFilters.fromParams(params))
-							                                        .map(Stream::toList)
-							                                        .apply(requestResult::set)
-							                                        .map(JSON::fromObjects)
-							                                        .map(JSONArray::toString)
-							                                        .accept(result -> {
-								                                        if (result.length() > 2) {
+							                             try {
+								                             // names rendered as columns must be the class' fields
+								                             if (filters != null) filters.validate(clazz);
+							                             } catch (IllegalArgumentException e) {
+								                             log.debug("Invalid GET request - %s".formatted(e.getMessage()));
+								                             resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+								                             return;
+							                             }
+							                             
+							                             if (filters != null && filters.isAggregated()) {
+								                             // $count, $groupBy, $agg - rows of aggregates instead of objects
+								                             Persistence.promiseAggregate(clazz, filters)
+								                                        .apply(requestResult::set)
+								                                        .map(rows -> filters.getGroupBy().isEmpty() && rows.size() == 1 ? new JSONObject(rows.getFirst()).toString() : new JSONArray(rows).toString())
+								                                        .accept(result -> {
 									                                        try {
 										                                        resp.getWriter().write(result);
 									                                        } catch (IOException e) {
 										                                        log.error("ServeGetPersistence", e);
 										                                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 									                                        }
-								                                        } else {
-									                                        resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-								                                        }
-							                                        }).catchRun(e -> {
-								                                        log.error("ServeGetPersistence", e);
-								                                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-							                                        })
-							                                        .join();
+								                                        }).catchRun(e -> {
+									                                        log.error("ServeGetPersistence", e);
+									                                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+								                                        })
+								                                        .join();
+							                             } else if ((filters == null || filters.getLimit() == null) && (beforeAndAfter == null || beforeAndAfter.after == null)) {
+								                             // unbounded results are streamed as they are mapped, not collected
+								                             val names = filters == null || !filters.isProjected() ? null : Set.copyOf(filters.getFields());
+								                             Persistence.promiseAll(clazz, filters)
+								                                        .accept(stream -> {
+									                                        val objects = stream.iterator();
+									                                        if (!objects.hasNext()) {
+										                                        resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+										                                        return;
+									                                        }
+									                                        try {
+										                                        new StreamingJsonWriter(resp.getOutputStream()).write(objects, (o, chunk) -> JsonCodec.writeAny(o, chunk, names));
+									                                        } catch (IOException e) {
+										                                        log.error("ServeGetPersistence", e);
+									                                        }
+								                                        }).catchRun(e -> {
+									                                        log.error("ServeGetPersistence", e);
+									                                        if (!resp.isCommitted()) resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+								                                        })
+								                                        .join();
+							                             } else {
+								                             // pages are ordered uniquely, so the next one follows the cursor of the last object
+								                             val paged = filters == null ? null : filters.paged(clazz);
+								                             Persistence.promiseAll(clazz, paged)
+								                                        .map(Stream::toList)
+								                                        .apply(requestResult::set)
+								                                        .apply(list -> {
+									                                        if (paged != null && paged.getLimit() != null && !list.isEmpty() && list.size() >= paged.getLimit())
+										                                        resp.setHeader("Link", "<%s>; rel=\"next\"".formatted(nextPage(req, paged.cursor(list.getLast()))));
+								                                        })
+								                                        .map(list -> toJson(list, paged == null || !paged.isProjected() ? null : Set.copyOf(paged.getFields())))
+								                                        .accept(result -> {
+									                                        if (result.length() > 2) {
+										                                        try {
+											                                        resp.getWriter().write(result);
+										                                        } catch (IOException e) {
+											                                        log.error("ServeGetPersistence", e);
+											                                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+										                                        }
+									                                        } else {
+										                                        resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+									                                        }
+								                                        }).catchRun(e -> {
+									                                        log.error("ServeGetPersistence", e);
+									                                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+								                                        })
+								                                        .join();
+							                             }
 						                             } else {
 							                             try {
 								                             val id = req.getHttpServletMapping().getMatchValue();
 								                             // TODO include doc explanation for String argument constructor required for persistence
 								                             var result = info.mapping.getPersistenceClass().getDeclaredConstructor(String.class).newInstance(id);
-								                             if (result.noneIsNull()) resp.getWriter().write(result.toJSON().toString());
+								                             if (result.noneIsNull()) resp.getWriter().write(toJson(result));
 								                             else resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
 								                             requestResult.set(result);
 							                             } catch (NumberFormatException e) {
@@ -269,14 +324,14 @@ public class KrystalServlet extends HttpServlet {
 									                             // objects posted
 									                             val str = req.getReader().lines().collect(Collectors.joining());
 									                             val results = processBodyOfArray(new JSONArray(str), clazz, PersistenceInterface::delete);
-									                             resp.getWriter().write(JSON.fromObjects(results).toString());
+									                             resp.getWriter().write(toJson(results, null));
 									                             requestResult.set(results);
 								                             }
 							                             } else {
 								                             // single object by /id
 								                             val obj = clazz.getDeclaredConstructor(String.class).newInstance(req.getHttpServletMapping().getMatchValue());
 								                             obj.delete();
-								                             resp.getWriter().write(obj.toJSON().toString());
+								                             resp.getWriter().write(toJson(obj));
 								                             requestResult.set(obj);
 							                             }
 						                             } catch (NumberFormatException | JSONException | ClassCastException e) {
@@ -308,18 +363,30 @@ public class KrystalServlet extends HttpServlet {
 						                             AtomicReference<Object> requestResult = new AtomicReference<>();
 						                             
 						                             try {
-							                             val str = req.getReader().lines().collect(Collectors.joining());
 							                             val clazz = info.mapping.getPersistenceClass();
 							                             
 							                             if (info.patternIsPlural) {
-								                             val results = processBodyOfArray(new JSONArray(str), clazz, PersistenceInterface::save);
-								                             resp.getWriter().write(JSON.fromObjects(results).toString());
-								                             requestResult.set(results);
+								                             // elements are parsed and saved in batches, as they come
+								                             val ndjson = BulkIngestion.isNdjson(req.getContentType());
+								                             val saved = new BulkIngestion(req.getReader(), ndjson, clazz);
+								                             if (beforeAndAfter == null || beforeAndAfter.after == null) {
+									                             // and written back the same way, so the body is never held in memory
+									                             if (ndjson) resp.setContentType(BulkIngestion.NDJSON + "; charset=utf-8");
+									                             val writer = new StreamingJsonWriter(resp.getOutputStream());
+									                             BiConsumer<Object, StringBuilder> serializer = (o, chunk) -> JsonCodec.writeAny(o, chunk, null);
+									                             requestResult.set(ndjson ? writer.writeLines(saved, serializer) : writer.write(saved, serializer));
+								                             } else {
+									                             val results = new ArrayList<PersistenceInterface>();
+									                             saved.forEachRemaining(results::add);
+									                             resp.getWriter().write(toJson(results, null));
+									                             requestResult.set(results);
+								                             }
 							                             } else {
+								                             val str = req.getReader().lines().collect(Collectors.joining());
 								                             processSingleJsonElement(new JSONObject(str), clazz, element -> {
 									                             try {
 										                             element.save();
-										                             resp.getWriter().write(element.toJSON().toString());
+										                             resp.getWriter().write(toJson(element));
 										                             requestResult.set(element);
 									                             } catch (Exception e) {
 										                             log.error("ServePostPersistence", e);
@@ -329,10 +396,10 @@ public class KrystalServlet extends HttpServlet {
 							                             }
 						                             } catch (JSONException | ClassCastException e) {
 							                             log.debug("ServePostPersistence", e);
-							                             resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+							                             if (!resp.isCommitted()) resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
 						                             } catch (Exception e) {
 							                             log.error("ServePostPersistence", e);
-							                             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+							                             if (!resp.isCommitted()) resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 						                             }
 						                             
 						                             if (resp.getStatus() < 300 && beforeAndAfter != null && beforeAndAfter.after != null) {
@@ -348,11 +415,39 @@ public class KrystalServlet extends HttpServlet {
 		}
 		
 		private void processSingleJsonElement(Object json, Class<? extends PersistenceInterface> clazz, Consumer<PersistenceInterface> process) throws JSONException, ClassCastException {
-			if (JSON.into(json, clazz) instanceof PersistenceInterface obj) {
+			if (json instanceof JSONObject object) {
+				process.accept(JsonCodec.of(clazz).read(object));
+			} else if (JSON.into(json, clazz) instanceof PersistenceInterface obj) {
 				process.accept(obj);
 			} else throw new ClassCastException("Can not perform persistence execution on provided request's body element - %s is not a PersistenceInterface.".formatted(clazz));
 		}
 		
+		/**
+		 * Serialized with {@link JsonCodec codecs} of the objects' classes, limited to the requested fields (if any).
+		 */
+		private String toJson(Collection<?> objects, @Nullable Set<String> fields) {
+			val out = new StringBuilder(64 * objects.size() + 2);
+			JsonCodec.writeAll(objects, out, fields);
+			return out.toString();
+		}
+		
+		private String toJson(Object object) {
+			val out = new StringBuilder(256);
+			JsonCodec.writeAny(object, out, null);
+			return out.toString();
+		}
+		
+		/**
+		 * The request's URL with the {@code $after} cursor replaced.
+		 */
+		private String nextPage(HttpServletRequest request, String cursor) {
+			val query = Optional.ofNullable(request.getQueryString()).stream()
+			                    .flatMap(q -> Arrays.stream(q.split("&")))
+			                    .filter(p -> !p.toLowerCase().startsWith("$after=") && !p.toLowerCase().startsWith("%24after="))
+			                    .collect(Collectors.joining("&"));
+			return "%s?%s%s=%s".formatted(request.getRequestURL(), query.isEmpty() ? "" : query + "&", "%24after", cursor);
+		}
+		
 		private void prepStandardResponseWithHeaders(HttpServletResponse response, Map<String, String> headers) {
 			response.setContentType("application/json; charset=utf-8");
 			headers.forEach(response::setHeader);
@@ -550,7 +645,8 @@ public class KrystalServlet extends HttpServlet {
 						}
 						
 						try {
-							response.getWriter();
+							// throws once recycled - without binding the response to the writer, as streamed ones use the output stream
+							response.isCommitted();
 						} catch (Exception e) {
 							log.info("{} cancelled.", promise.getName(), e);
 							try {
@@ -0,0 +1,134 @@
+package krystal.framework.tomcat;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.extern.log4j.Log4j2;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes JSON array (or {@link #writeLines(Iterator, BiConsumer) lines}) of objects to the response as they come - through non-blocking {@link ServletOutputStream} ({@link WriteListener}), without {@code Content-Length}, so in chunked transfer. The producing thread serializes the objects into
+ * {@link #CHUNK_SIZE chunks} of a bounded queue, and the container writes them whenever the stream {@link ServletOutputStream#isReady() is ready} - so neither the whole result nor its text is held in memory, and a slow client holds the producer
+ * back instead.
+ * <p>
+ * The objects are consumed from {@link Iterator}, so lazily loaded sources (i.e. database cursors or pages) are written without being collected.
+ *
+ * @apiNote Requires asynchronous request. Once the first chunk is written, the status can not be changed - errors only break the array.
+ */
+@Log4j2
+public class StreamingJsonWriter implements WriteListener {
+	
+	/**
+	 * Size of serialized text, from which it is queued for writing.
+	 */
+	public static final int CHUNK_SIZE = 16 * 1024;
+	public static final int QUEUE_CAPACITY = 64;
+	
+	private final ServletOutputStream out;
+	private final BlockingQueue<byte[]> chunks;
+	private final CompletableFuture<Void> done;
+	private volatile boolean finished;
+	
+	public StreamingJsonWriter(ServletOutputStream out) {
+		this.out = out;
+		chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		done = new CompletableFuture<>();
+		out.setWriteListener(this);
+	}
+	
+	/**
+	 * Serializes and writes all the objects, blocking until they are written or the client is gone - run on virtual thread. The serializer appends each object to the current chunk (i.e. with {@link krystal.framework.json.JsonCodec}).
+	 *
+	 * @return Number of written objects.
+	 */
+	public long write(Iterator<?> objects, BiConsumer<Object, StringBuilder> serializer) throws IOException {
+		return write(objects, serializer, "[", ",", "]");
+	}
+	
+	/**
+	 * Like {@link #write(Iterator, BiConsumer)}, but as newline-delimited JSON ({@code application/x-ndjson}) - object per line, without the enclosing array.
+	 */
+	public long writeLines(Iterator<?> objects, BiConsumer<Object, StringBuilder> serializer) throws IOException {
+		return write(objects, serializer, "", "\n", "\n");
+	}
+	
+	private long write(Iterator<?> objects, BiConsumer<Object, StringBuilder> serializer, String open, String separator, String close) throws IOException {
+		val buffer = new StringBuilder(CHUNK_SIZE + 1024).append(open);
+		var count = 0L;
+		while (objects.hasNext()) {
+			if (count++ > 0) buffer.append(separator);
+			serializer.accept(objects.next(), buffer);
+			if (buffer.length() >= CHUNK_SIZE) {
+				enqueue(buffer);
+				buffer.setLength(0);
+			}
+		}
+		// no empty line for no objects
+		enqueue(buffer.append(count > 0 || !open.isEmpty() ? close : ""));
+		finished = true;
+		drain();
+		
+		try {
+			done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Streaming interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Streaming failed.", e.getCause());
+		}
+		return count;
+	}
+	
+	private void enqueue(StringBuilder buffer) throws IOException {
+		val chunk = buffer.toString().getBytes(StandardCharsets.UTF_8);
+		try {
+			do {
+				// the client is gone - stop serializing, rather than filling the queue again
+				if (done.isCompletedExceptionally()) throw new IOException("Streaming aborted.", done.exceptionNow());
+			} while (!chunks.offer(chunk, 1, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Streaming interrupted.", e);
+		}
+		drain();
+	}
+	
+	/**
+	 * Writes queued chunks while the stream is ready. Called by both the producer and the container, so one at a time - when the stream is not ready, the container calls {@link #onWritePossible()} once it is.
+	 */
+	private synchronized void drain() throws IOException {
+		if (done.isDone()) return;
+		while (out.isReady()) {
+			val chunk = chunks.poll();
+			if (chunk == null) {
+				if (finished) done.complete(null);
+				else out.flush();
+				return;
+			}
+			out.write(chunk);
+		}
+	}
+	
+	@Override
+	public void onWritePossible() throws IOException {
+		drain();
+	}
+	
+	@Override
+	public void onError(@Nullable Throwable throwable) {
+		log.debug("Streaming response error.", throwable);
+		done.completeExceptionally(throwable == null ? new IOException("Streaming response error.") : throwable);
+		chunks.clear();
+	}
+	
+}
\ No newline at end of file
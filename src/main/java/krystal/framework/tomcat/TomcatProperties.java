@@ -3,6 +3,7 @@ package krystal.framework.tomcat;
 import jakarta.servlet.http.HttpServlet;
 import krystal.Tools;
 import krystal.framework.KrystalFramework;
+import krystal.framework.core.cache.PersistenceCache;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
@@ -25,6 +26,7 @@ import java.util.function.Consumer;
  *     <dt><b><i>appSrcAsCollection</i></b></dt><dd>If <code><i>true</i></code> and <code><i>appSrc</i></code> is a directory, it will import {@code .war} files content from it and treat it's top-level sub-dirs as web-apps directly.</dd>
  *     <dt><b><i>connectionTimeout</i></b></dt><dd>Connection timeout set for the {@link Connector}. If the request is not served within given time, it will be discarded (page will output error 500 though). Equivalent of {@link Connector#setAsyncTimeout(long)}.<br /><code>Default (ms): <i>30000</i></code></dd>
  *     <dt><b><i>connectorSettings</i></b></dt><dd>Manual processing of {@link Connector}. Applied in the end if present.</dd>
+ *     <dt><b><i>awaitCacheWarmUp</i></b></dt><dd>If <code><i>true</i></code>, the server starts accepting requests after the running {@link PersistenceCache#warmUp() cache warm-up} finishes.</dd>
  * </dl>
  */
 @Builder
@@ -42,5 +44,6 @@ public class TomcatProperties {
 	private boolean appSrcAsCollection;
 	private long connectionTimeout;
 	private Consumer<Connector> connectorSettings;
+	private boolean awaitCacheWarmUp;
 	
 }
\ No newline at end of file
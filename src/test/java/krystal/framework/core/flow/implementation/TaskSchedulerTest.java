@@ -0,0 +1,137 @@
+package krystal.framework.core.flow.implementation;
+
+import krystal.framework.core.flow.ScheduledTaskInterface;
+import krystal.framework.core.flow.TaskMetrics;
+import krystal.framework.core.flow.TaskSchedule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+	
+	private final TaskScheduler scheduler = new TaskScheduler();
+	private final List<ScheduledFuture<?>> schedules = new ArrayList<>();
+	
+	@AfterEach
+	void cancel() {
+		schedules.forEach(s -> s.cancel(true));
+	}
+	
+	private TaskMetrics schedule(String name, Runnable runnable, TaskSchedule schedule) {
+		ScheduledTaskInterface task = () -> name;
+		schedules.add(scheduler.schedule(task, runnable, schedule));
+		return scheduler.getMetrics(task).orElseThrow();
+	}
+	
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) fail("Condition not met in time.");
+			Thread.sleep(10);
+		}
+	}
+	
+	@Test
+	void intervalMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(() -> "none", () -> {}, TaskSchedule.define().interval(0).set()));
+	}
+	
+	@Test
+	void failingRunsAreCountedAndDoNotStopTheSchedule() throws InterruptedException {
+		AtomicInteger calls = new AtomicInteger();
+		TaskMetrics metrics = schedule("failing", () -> {
+			calls.incrementAndGet();
+			throw new IllegalStateException("Failed on purpose.");
+		}, TaskSchedule.define().interval(10).set());
+		
+		await(() -> metrics.getFailures() >= 3);
+		assertTrue(calls.get() >= 3);
+		assertTrue(metrics.getRuns() >= 2);
+	}
+	
+	@Test
+	void overlappingRunsAreSkipped() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		TaskMetrics metrics = schedule("slow", () -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				release.await();
+			} catch (InterruptedException _) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+		}, TaskSchedule.define().interval(10).set());
+		
+		await(() -> metrics.getSkipped() >= 3);
+		assertEquals(0, metrics.getRuns());
+		assertEquals(1, maxRunning.get());
+		
+		release.countDown();
+		await(() -> metrics.getRuns() >= 2);
+		assertEquals(1, maxRunning.get());
+	}
+	
+	@Test
+	void overlappingRunsCanBeAllowed() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger running = new AtomicInteger();
+		TaskMetrics metrics = schedule("parallel", () -> {
+			running.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException _) {
+				Thread.currentThread().interrupt();
+			}
+		}, TaskSchedule.define().interval(10).preventOverlap(false).set());
+		
+		await(() -> running.get() >= 3);
+		assertEquals(0, metrics.getSkipped());
+		release.countDown();
+	}
+	
+	@Test
+	void timedOutRunsAreInterrupted() throws InterruptedException {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		TaskMetrics metrics = schedule("hanging", () -> {
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException _) {
+				interrupted.countDown();
+			}
+		}, TaskSchedule.define().interval(1).unit(TimeUnit.SECONDS).timeout(1).set());
+		
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		await(() -> metrics.getRuns() == 1);
+		assertEquals(1, metrics.getTimeouts());
+		assertEquals(0, metrics.getFailures());
+		assertTrue(metrics.getLastDuration(TimeUnit.MILLISECONDS) >= 900);
+	}
+	
+	@Test
+	void cancelledScheduleStopsRunning() throws InterruptedException {
+		AtomicInteger calls = new AtomicInteger();
+		ScheduledTaskInterface task = () -> "cancelled";
+		ScheduledFuture<?> schedule = scheduler.schedule(task, calls::incrementAndGet, TaskSchedule.define().interval(10).set());
+		
+		await(() -> calls.get() >= 2);
+		assertTrue(schedule.cancel(true));
+		assertTrue(schedule.isCancelled());
+		Thread.sleep(50);
+		int stopped = calls.get();
+		Thread.sleep(100);
+		assertEquals(stopped, calls.get());
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package krystal.framework.database;
+
+import krystal.framework.database.abstraction.DBCDriverInterface;
+import krystal.framework.database.abstraction.ProviderInterface;
+
+/**
+ * Provider of the driver's dialect, for rendering queries without connections.
+ */
+public record TestProvider(DBCDriverInterface driver) implements ProviderInterface {
+	
+	@Override
+	public String name() {
+		return "test_" + driver;
+	}
+	
+	@Override
+	public DBCDriverInterface getDriver() {
+		return driver;
+	}
+	
+}
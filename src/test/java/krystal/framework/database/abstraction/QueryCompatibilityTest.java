@@ -0,0 +1,55 @@
+package krystal.framework.database.abstraction;
+
+import krystal.framework.database.TestProvider;
+import krystal.framework.database.implementation.DBCDrivers;
+import krystal.framework.database.queryfactory.SelectStatement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("deprecation")
+class QueryCompatibilityTest {
+	
+	private static final TestProvider MYSQL = new TestProvider(DBCDrivers.jdbcMySQL);
+	private static final TestProvider SQL_SERVER = new TestProvider(DBCDrivers.jdbcSQLServer);
+	
+	@Test
+	void getQueryRendersTheStatement() {
+		SelectStatement select = TableInterface.of("t").select().limit(5).withProvider(MYSQL);
+		assertEquals(select.sqlQuery(), select.getQuery().toString());
+	}
+	
+	@Test
+	void packedStepsAreTheLinkedSteps() {
+		SelectStatement select = TableInterface.of("t").select();
+		Query where = select.where(ColumnInterface.of("a").is(1));
+		assertEquals(List.of(select, where), where.getPackedSteps());
+		assertEquals(List.of(select), select.getPackedSteps());
+	}
+	
+	@Test
+	void setProviderModifiesTheStatement() {
+		SelectStatement select = TableInterface.of("t").select().limit(5);
+		assertTrue(select.sqlQuery(MYSQL).endsWith("LIMIT 5"));
+		
+		select.setProvider(SQL_SERVER);
+		assertSame(SQL_SERVER, select.getProvider());
+		assertTrue(select.sqlQuery().startsWith("SELECT TOP 5"));
+		
+		select.setProvidersPacked(MYSQL);
+		assertTrue(select.sqlQuery().endsWith("LIMIT 5"));
+	}
+	
+	@Test
+	void withProviderLeavesTheStatement() {
+		SelectStatement select = TableInterface.of("t").select().limit(5).withProvider(MYSQL);
+		SelectStatement copy = select.withProvider(SQL_SERVER);
+		assertNotSame(select, copy);
+		assertSame(MYSQL, select.getProvider());
+		assertTrue(select.sqlQuery().endsWith("LIMIT 5"));
+		assertTrue(copy.sqlQuery().startsWith("SELECT TOP 5"));
+	}
+	
+}
\ No newline at end of file
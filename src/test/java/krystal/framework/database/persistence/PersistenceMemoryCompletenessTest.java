@@ -0,0 +1,73 @@
+package krystal.framework.database.persistence;
+
+import krystal.framework.database.persistence.filters.PersistenceFilters;
+import krystal.framework.database.persistence.filters.ValuesFilter;
+import krystal.framework.database.persistence.filters.ValuesOrder;
+import krystal.framework.database.queryfactory.ComparisonOperator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceMemoryCompletenessTest {
+	
+	private PersistenceMemory memory;
+	
+	@BeforeEach
+	void setup() {
+		memory = new PersistenceMemory();
+		memory.put(new TestEntity(1, "a", 10, null));
+		memory.put(new TestEntity(2, "b", 20, null));
+	}
+	
+	private static PersistenceFilters byName(String name) {
+		return PersistenceFilters.define().value("name", new ValuesFilter(ComparisonOperator.EQUAL, name)).set();
+	}
+	
+	@Test
+	void objectsPutOneByOneAreNotComplete() {
+		assertEquals(1, memory.find(TestEntity.class, byName("a")).size());
+		assertFalse(memory.isComplete(TestEntity.class, byName("a")));
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().set()));
+	}
+	
+	@Test
+	void fullLoadCompletesAnyFilters() {
+		memory.markComplete(TestEntity.class, null, memory.getCompletenessVersion(TestEntity.class));
+		assertTrue(memory.isComplete(TestEntity.class, byName("a")));
+		assertTrue(memory.isComplete(TestEntity.class, PersistenceFilters.define().set()));
+	}
+	
+	@Test
+	void filteredLoadCompletesOnlyItsFilters() {
+		memory.markComplete(TestEntity.class, byName("a"), memory.getCompletenessVersion(TestEntity.class));
+		assertTrue(memory.isComplete(TestEntity.class, byName("a")));
+		assertFalse(memory.isComplete(TestEntity.class, byName("b")));
+	}
+	
+	@Test
+	void pagesAreNeverComplete() {
+		memory.markComplete(TestEntity.class, PersistenceFilters.define().limit(1).set(), memory.getCompletenessVersion(TestEntity.class));
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().set()));
+	}
+	
+	@Test
+	void stringOrderIsLeftToDatabase() {
+		memory.markComplete(TestEntity.class, null, memory.getCompletenessVersion(TestEntity.class));
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().orderBy(ValuesOrder.asc("name")).limit(1).set()));
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().orderBy(ValuesOrder.asc("name")).after(List.of("a")).set()));
+		assertTrue(memory.isComplete(TestEntity.class, PersistenceFilters.define().orderBy(ValuesOrder.asc("amount")).limit(1).set()));
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().orderBy(ValuesOrder.asc("unknown")).set()));
+	}
+	
+	@Test
+	void loadStartedBeforeClearIsNotComplete() {
+		long version = memory.getCompletenessVersion(TestEntity.class);
+		memory.clear(TestEntity.class);
+		memory.markComplete(TestEntity.class, null, version);
+		assertFalse(memory.isComplete(TestEntity.class, PersistenceFilters.define().set()));
+	}
+	
+}
\ No newline at end of file
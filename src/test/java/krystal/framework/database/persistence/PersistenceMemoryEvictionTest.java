@@ -0,0 +1,50 @@
+package krystal.framework.database.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceMemoryEvictionTest {
+	
+	private PersistenceMemory memory;
+	
+	@BeforeEach
+	void setup() {
+		memory = new PersistenceMemory();
+		memory.setMaximumWeight(100);
+	}
+	
+	@AfterEach
+	void cleanup() {
+		memory.clear();
+	}
+	
+	@Test
+	void weightIsKeptWithinMaximum() {
+		for (var i = 0; i < 1000; i++) memory.put(new TestEntity(i, "n" + i, i, null));
+		assertEquals(100, memory.getWeight());
+	}
+	
+	@Test
+	void readObjectsSurviveFlood() {
+		for (var i = 0; i < 10; i++) memory.put(new TestEntity(i, "hot", i, null));
+		
+		for (var i = 10; i < 2000; i++) {
+			memory.put(new TestEntity(i, "cold", i, null));
+			if (i % 10 == 0) for (var h = 0; h < 10; h++) memory.get(new TestEntity(h, "hot", h, null).hashKeys());
+		}
+		
+		for (var h = 0; h < 10; h++) assertNotNull(memory.get(new TestEntity(h, "hot", h, null).hashKeys()));
+		assertTrue(memory.getWeight() <= 100);
+	}
+	
+	@Test
+	void classBudgetEvictsWithinTheSegment() {
+		memory.setClassBudget(TestEntity.class, 10);
+		for (var i = 0; i < 50; i++) memory.put(new TestEntity(i, "n" + i, i, null));
+		assertEquals(10, memory.getWeight());
+	}
+	
+}
\ No newline at end of file
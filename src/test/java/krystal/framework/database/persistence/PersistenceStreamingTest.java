@@ -0,0 +1,66 @@
+package krystal.framework.database.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceStreamingTest {
+	
+	@Test
+	void elementsAreNotCollectedBeforeTheyAreConsumed() {
+		AtomicInteger mapped = new AtomicInteger();
+		AtomicInteger completed = new AtomicInteger();
+		var objects = Persistence.whenConsumed(IntStream.range(0, 3).boxed().peek(_ -> mapped.incrementAndGet()), completed::incrementAndGet).iterator();
+		
+		assertEquals(0, mapped.get());
+		assertEquals(0, objects.next());
+		assertEquals(1, mapped.get());
+		assertEquals(1, objects.next());
+		assertEquals(2, objects.next());
+		assertEquals(0, completed.get());
+		
+		assertFalse(objects.hasNext());
+		assertFalse(objects.hasNext());
+		assertEquals(1, completed.get());
+	}
+	
+	@Test
+	void actionRunsOnceAllElementsAreConsumed() {
+		AtomicInteger completed = new AtomicInteger();
+		List<Integer> consumed = new ArrayList<>();
+		
+		Persistence.whenConsumed(Stream.of(1, 2, 3), completed::incrementAndGet).forEach(consumed::add);
+		
+		assertEquals(List.of(1, 2, 3), consumed);
+		assertEquals(1, completed.get());
+		
+		Persistence.whenConsumed(Stream.<Integer>empty(), completed::incrementAndGet).forEach(consumed::add);
+		assertEquals(2, completed.get());
+	}
+	
+	@Test
+	void abandonedStreamsAreNeverComplete() {
+		AtomicInteger completed = new AtomicInteger();
+		
+		assertEquals(1, Persistence.whenConsumed(Stream.of(1, 2, 3), completed::incrementAndGet).findFirst().orElseThrow());
+		assertEquals(List.of(1, 2), Persistence.whenConsumed(Stream.of(1, 2, 3), completed::incrementAndGet).limit(2).toList());
+		assertEquals(0, completed.get());
+	}
+	
+	@Test
+	void closingClosesTheSource() {
+		AtomicInteger closed = new AtomicInteger();
+		
+		try (var stream = Persistence.whenConsumed(Stream.of(1).onClose(closed::incrementAndGet), () -> {})) {
+			assertEquals(1, stream.count());
+		}
+		assertEquals(1, closed.get());
+	}
+	
+}
\ No newline at end of file
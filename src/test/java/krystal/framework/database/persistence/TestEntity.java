@@ -0,0 +1,27 @@
+package krystal.framework.database.persistence;
+
+import krystal.JSON.Flattison;
+import krystal.framework.database.persistence.annotations.Key;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyed object of the persistence tests - never loaded from or saved to database.
+ */
+@Getter
+@Setter
+@Flattison
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestEntity implements PersistenceInterface {
+	
+	private @Key int id;
+	private String name;
+	private int amount;
+	private LocalDateTime created;
+	
+}
\ No newline at end of file
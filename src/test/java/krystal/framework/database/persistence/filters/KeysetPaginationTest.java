@@ -0,0 +1,105 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.database.TestProvider;
+import krystal.framework.database.abstraction.ColumnInterface;
+import krystal.framework.database.abstraction.TableInterface;
+import krystal.framework.database.implementation.DBCDrivers;
+import krystal.framework.database.persistence.TestEntity;
+import krystal.framework.database.queryfactory.OrderByDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+	
+	private static final List<TestEntity> OBJECTS = List.of(
+			new TestEntity(5, "b", 1, null),
+			new TestEntity(1, "a", 3, null),
+			new TestEntity(4, "b", 3, null),
+			new TestEntity(2, "c", 2, null),
+			new TestEntity(3, "a", 2, null),
+			new TestEntity(7, "b", 1, null),
+			new TestEntity(6, "a", 1, null)
+	);
+	
+	/**
+	 * Pages as the memory answers them - objects after the cursor, in order, limited.
+	 */
+	private static List<TestEntity> walk(Map<String, String[]> params) {
+		List<TestEntity> walked = new ArrayList<>();
+		PersistenceFilters filters = PersistenceFilters.fromParams(params).paged(TestEntity.class);
+		while (true) {
+			PersistenceFilters current = filters;
+			List<TestEntity> after = current.getAfter() == null ? OBJECTS : OBJECTS.stream().filter(ValuesOrder.after(current.getOrderBy(), current.getAfter(), TestEntity.class)).toList();
+			List<TestEntity> page = ValuesOrder.sort(after, current.getOrderBy(), TestEntity.class, current.getLimit()).limit(current.getLimit()).toList();
+			walked.addAll(page);
+			if (page.size() < current.getLimit()) return walked;
+			
+			Map<String, String[]> next = new HashMap<>(params);
+			next.put("$after", new String[]{current.cursor(page.getLast())});
+			filters = PersistenceFilters.fromParams(next).paged(TestEntity.class);
+			assertTrue(walked.size() <= OBJECTS.size(), "pages repeat objects");
+		}
+	}
+	
+	@Test
+	void pagesCoverEachObjectOnceInOrder() {
+		List<TestEntity> walked = walk(Map.of("$orderBy", new String[]{"name"}, "$limit", new String[]{"2"}));
+		List<TestEntity> expected = OBJECTS.stream().sorted(Comparator.comparing(TestEntity::getName).thenComparing(TestEntity::getId)).toList();
+		assertEquals(expected, walked);
+	}
+	
+	@Test
+	void descendingPagesCoverEachObjectOnce() {
+		List<TestEntity> walked = walk(Map.of("$orderBy$desc", new String[]{"amount"}, "$limit", new String[]{"3"}));
+		List<TestEntity> expected = OBJECTS.stream().sorted(Comparator.comparing(TestEntity::getAmount).reversed().thenComparing(TestEntity::getId)).toList();
+		assertEquals(expected, walked);
+	}
+	
+	@Test
+	void orderIsCompletedWithKeys() {
+		PersistenceFilters filters = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"name"}, "$limit", new String[]{"2"}));
+		assertEquals(List.of(ValuesOrder.asc("name"), ValuesOrder.asc("id")), filters.paged(TestEntity.class).getOrderBy());
+		
+		PersistenceFilters unlimited = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"name"}));
+		assertSame(unlimited, unlimited.paged(TestEntity.class));
+		PersistenceFilters byKey = PersistenceFilters.fromParams(Map.of("$orderBy$desc", new String[]{"id"}, "$limit", new String[]{"2"}));
+		assertEquals(List.of(ValuesOrder.desc("id")), byKey.paged(TestEntity.class).getOrderBy());
+	}
+	
+	@Test
+	void incompleteCursorIsNotSought() {
+		PersistenceFilters paged = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"name"}, "$limit", new String[]{"2"})).paged(TestEntity.class);
+		String cursor = paged.cursor(OBJECTS.getFirst());
+		
+		PersistenceFilters unpaged = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"name"}, "$limit", new String[]{"2"}, "$after", new String[]{cursor}));
+		assertNull(unpaged.toStatementModifiers(TestEntity.class).getAfter());
+		assertEquals(List.of("b", 5), unpaged.paged(TestEntity.class).toStatementModifiers(TestEntity.class).getAfter());
+	}
+	
+	@Test
+	void invalidCursorIsIgnored() {
+		assertNull(PersistenceFilters.fromParams(Map.of("$after", new String[]{"not a cursor"})).getAfter());
+	}
+	
+	@Test
+	void descendingSeekComparesRowValuesDownward() {
+		var query = TableInterface.of("t").select().seekAfter(List.of(OrderByDeclaration.desc(ColumnInterface.of("a")), OrderByDeclaration.desc(ColumnInterface.of("id"))), List.of("x", 5)).limit(2);
+		assertEquals("SELECT * FROM t WHERE (a, id) < ('x', 5) ORDER BY a DESC, id DESC FETCH FIRST 2 ROWS ONLY", query.sqlQuery(new TestProvider(DBCDrivers.jdbcPostgresql)));
+		assertEquals("SELECT TOP 2 * FROM t WHERE ((a < 'x') OR (a = 'x' AND id < 5)) ORDER BY a DESC, id DESC", query.sqlQuery(new TestProvider(DBCDrivers.jdbcSQLServer)));
+	}
+	
+	@Test
+	void seekRequiresValueOfEachColumn() {
+		var select = TableInterface.of("t").select();
+		assertThrows(IllegalArgumentException.class, () -> select.seekAfter(List.of(OrderByDeclaration.asc(ColumnInterface.of("id"))), List.of()));
+		assertThrows(IllegalArgumentException.class, () -> select.seekAfter(List.of(), List.of()));
+	}
+	
+}
\ No newline at end of file
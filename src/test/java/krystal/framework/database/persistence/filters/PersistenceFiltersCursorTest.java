@@ -0,0 +1,50 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.KrystalFramework;
+import krystal.framework.database.persistence.TestEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceFiltersCursorTest {
+	
+	private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+	
+	private static PersistenceFilters next(String cursor) {
+		return PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"created,id"}, "$limit", new String[]{"10"}, "$after", new String[]{cursor}));
+	}
+	
+	@Test
+	void temporalsAreWrittenInSqlFormat() {
+		String cursor = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"created,id"})).cursor(new TestEntity(7, "a", 1, CREATED));
+		assertEquals(List.of(CREATED.format(KrystalFramework.getDatetimeFormat()), 7), next(cursor).getAfter());
+	}
+	
+	@Test
+	void seekValuesAreTyped() {
+		String cursor = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"created,id"})).cursor(new TestEntity(7, "a", 1, CREATED));
+		assertEquals(List.of(CREATED, 7), next(cursor).toStatementModifiers(TestEntity.class).getAfter());
+	}
+	
+	@Test
+	void memoryFollowsTheCursor() {
+		PersistenceFilters filters = PersistenceFilters.fromParams(Map.of("$orderBy", new String[]{"created,id"}));
+		String cursor = filters.cursor(new TestEntity(7, "a", 1, CREATED));
+		var after = ValuesOrder.after(filters.getOrderBy(), next(cursor).getAfter(), TestEntity.class);
+		assertFalse(after.test(new TestEntity(7, "a", 1, CREATED)));
+		assertFalse(after.test(new TestEntity(6, "a", 1, CREATED)));
+		assertTrue(after.test(new TestEntity(8, "a", 1, CREATED)));
+		assertTrue(after.test(new TestEntity(1, "a", 1, CREATED.plusSeconds(1))));
+	}
+	
+	@Test
+	void isoTemporalsAreStillAccepted() {
+		assertEquals(CREATED, ValueConverter.convert(CREATED.toString(), LocalDateTime.class));
+		assertEquals(CREATED, ValueConverter.convert(CREATED.format(KrystalFramework.getDatetimeFormat()), LocalDateTime.class));
+	}
+	
+}
\ No newline at end of file
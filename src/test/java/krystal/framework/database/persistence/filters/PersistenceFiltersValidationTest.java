@@ -0,0 +1,57 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.database.persistence.TestEntity;
+import krystal.framework.database.persistence.annotations.Vertical;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceFiltersValidationTest {
+	
+	@Vertical
+	private static class VerticalEntity {
+		
+	}
+	
+	private static PersistenceFilters filters(String name, String value) {
+		return PersistenceFilters.fromParams(Map.of(name, new String[]{value}));
+	}
+	
+	@Test
+	void fieldsAreAccepted() {
+		assertDoesNotThrow(() -> filters("$groupBy", "name").validate(TestEntity.class));
+		assertDoesNotThrow(() -> filters("$agg$sum", "amount").validate(TestEntity.class));
+		assertDoesNotThrow(() -> filters("$fields", "id,name").validate(TestEntity.class));
+		assertDoesNotThrow(() -> filters("$orderBy$desc", "created").validate(TestEntity.class));
+	}
+	
+	@Test
+	void otherNamesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> filters("$groupBy", "name) ; DROP TABLE x --").validate(TestEntity.class));
+		assertThrows(IllegalArgumentException.class, () -> filters("$agg$max", "1/0").validate(TestEntity.class));
+		assertThrows(IllegalArgumentException.class, () -> filters("$fields", "id,_secret").validate(TestEntity.class));
+		assertThrows(IllegalArgumentException.class, () -> filters("$orderBy", "unknown").validate(TestEntity.class));
+	}
+	
+	@Test
+	void aggregatesAreOrderedByAliases() {
+		var filters = PersistenceFilters.fromParams(Map.of("$groupBy", new String[]{"name"}, "$agg$sum", new String[]{"amount"}, "$orderBy$desc", new String[]{"sum_amount"}));
+		assertDoesNotThrow(() -> filters.validate(TestEntity.class));
+		assertThrows(IllegalArgumentException.class, () -> filters("$orderBy", "sum_amount").validate(TestEntity.class));
+	}
+	
+	@Test
+	void verticalClassesAreNotAggregated() {
+		assertThrows(IllegalArgumentException.class, () -> filters("$count", "true").validate(VerticalEntity.class));
+		assertThrows(IllegalArgumentException.class, () -> filters("$groupBy", "name").validate(VerticalEntity.class));
+	}
+	
+	@Test
+	void statementIsNotBuiltOfInvalidNames() {
+		assertThrows(IllegalArgumentException.class, () -> filters("$groupBy", "unknown").toStatementModifiers(TestEntity.class));
+		assertDoesNotThrow(() -> filters("_column", "1").toStatementModifiers(TestEntity.class));
+	}
+	
+}
\ No newline at end of file
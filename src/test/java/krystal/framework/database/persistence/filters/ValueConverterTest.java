@@ -0,0 +1,54 @@
+package krystal.framework.database.persistence.filters;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueConverterTest {
+	
+	@Test
+	void convertsStringsOfParameters() {
+		assertEquals(5, ValueConverter.convert("5", int.class));
+		assertEquals(5L, ValueConverter.convert(5, Long.class));
+		assertEquals(true, ValueConverter.convert("true", boolean.class));
+		assertEquals(LocalDate.of(2024, 1, 2), ValueConverter.convert("2024-01-02", LocalDate.class));
+		assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000001"), ValueConverter.convert("00000000-0000-0000-0000-000000000001", UUID.class));
+		assertNull(ValueConverter.convert("1.5", int.class));
+		assertNull(ValueConverter.convert("null", String.class));
+	}
+	
+	@Test
+	void canonicalDecimalsIgnoreScale() {
+		assertEquals(ValueConverter.canonical(new BigDecimal("1.50"), BigDecimal.class), ValueConverter.canonical(new BigDecimal("1.5"), BigDecimal.class));
+		assertEquals(ValueConverter.canonical(new BigDecimal("0.000"), BigDecimal.class), ValueConverter.canonical(BigDecimal.ZERO, BigDecimal.class));
+		assertEquals(ValueConverter.canonical(10, BigDecimal.class), ValueConverter.canonical(new BigDecimal("10.0"), BigDecimal.class));
+	}
+	
+	@Test
+	void canonicalTimesHaveWrittenPrecision() {
+		LocalDateTime written = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+		LocalDateTime precise = written.withNano(123_456_789);
+		assertEquals(ValueConverter.canonical(written, LocalDateTime.class), ValueConverter.canonical(precise, LocalDateTime.class));
+		assertEquals(ValueConverter.canonical(written, Timestamp.class), ValueConverter.canonical(Timestamp.valueOf(precise), Timestamp.class));
+		assertNotEquals(ValueConverter.canonical(written, LocalDateTime.class), ValueConverter.canonical(written.plusSeconds(1), LocalDateTime.class));
+	}
+	
+	@Test
+	void canonicalNumbersOfDifferentTypes() {
+		assertEquals(ValueConverter.canonical(7L, int.class), ValueConverter.canonical(7, int.class));
+		assertEquals(ValueConverter.canonical("7", Integer.class), ValueConverter.canonical(7, int.class));
+	}
+	
+	@Test
+	void canonicalFallsBackToText() {
+		assertEquals("abc", ValueConverter.canonical("abc", int.class));
+		assertNull(ValueConverter.canonical(null, String.class));
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.database.abstraction.ColumnInterface.Functions;
+import krystal.framework.database.persistence.TestEntity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuesAggregateTest {
+	
+	@SuppressWarnings("unused")
+	private static class Row {
+		
+		private String group;
+		private int amount;
+		private Double price;
+		private BigDecimal value;
+		
+		Row(String group, int amount, Double price, BigDecimal value) {
+			this.group = group;
+			this.amount = amount;
+			this.price = price;
+			this.value = value;
+		}
+		
+	}
+	
+	private static final List<Row> ROWS = List.of(
+			new Row("a", 1, 1.5, new BigDecimal("1.10")),
+			new Row("a", 2, null, new BigDecimal("2.20")),
+			new Row("b", 4, 3.0, null)
+	);
+	
+	@Test
+	void averageOfIntegralOrDecimalIsLeftToDatabase() {
+		assertFalse(new ValuesAggregate(Functions.AVG, "amount").isComputable(Row.class));
+		assertFalse(new ValuesAggregate(Functions.AVG, "value").isComputable(Row.class));
+		assertTrue(new ValuesAggregate(Functions.AVG, "price").isComputable(Row.class));
+		assertTrue(new ValuesAggregate(Functions.SUM, "amount").isComputable(Row.class));
+		assertFalse(new ValuesAggregate(Functions.MIN, "group").isComputable(Row.class));
+		assertFalse(new ValuesAggregate(Functions.SUM, "unknown").isComputable(Row.class));
+		assertTrue(ValuesAggregate.count().isComputable(Row.class));
+	}
+	
+	@Test
+	void filtersWithIntegralAverageAreNotComputable() {
+		assertFalse(PersistenceFilters.fromParams(Map.of("$agg$avg", new String[]{"amount"})).isComputable(TestEntity.class));
+		assertTrue(PersistenceFilters.fromParams(Map.of("$groupBy", new String[]{"name"}, "$agg$sum", new String[]{"amount"})).isComputable(TestEntity.class));
+	}
+	
+	@Test
+	void rowsAreGroupedLikeSql() {
+		var aggregates = List.of(ValuesAggregate.count(), new ValuesAggregate(Functions.SUM, "amount"), new ValuesAggregate(Functions.SUM, "value"), new ValuesAggregate(Functions.AVG, "price"), new ValuesAggregate(Functions.MAX, "amount"));
+		var rows = ValuesAggregate.aggregate(ROWS, List.of("group"), aggregates, Row.class, List.of(), null);
+		
+		assertEquals(2, rows.size());
+		assertEquals(Map.of("group", "a", "count", 2L, "sum_amount", 3L, "sum_value", new BigDecimal("3.30"), "avg_price", 1.5, "max_amount", 2), rows.get(0));
+		assertEquals("b", rows.get(1).get("group"));
+		assertNull(rows.get(1).get("sum_value"));
+		assertEquals(3.0, rows.get(1).get("avg_price"));
+	}
+	
+	@Test
+	void withoutGroupingThereIsSingleRow() {
+		var aggregates = List.of(ValuesAggregate.count(), new ValuesAggregate(Functions.SUM, "amount"));
+		assertEquals(List.of(Map.of("count", 3L, "sum_amount", 7L)), ValuesAggregate.aggregate(ROWS, List.of(), aggregates, Row.class, List.of(), null));
+		
+		var empty = ValuesAggregate.aggregate(List.<Row>of(), List.of(), aggregates, Row.class, List.of(), null);
+		assertEquals(1, empty.size());
+		assertEquals(0L, empty.getFirst().get("count"));
+		assertNull(empty.getFirst().get("sum_amount"));
+	}
+	
+	@Test
+	void rowsAreOrderedByAliasesAndLimited() {
+		var rows = ValuesAggregate.aggregate(ROWS, List.of("group"), List.of(new ValuesAggregate(Functions.SUM, "amount")), Row.class, List.of(ValuesOrder.desc("sum_amount")), 1);
+		assertEquals(List.of(Map.of("group", "b", "sum_amount", 4L)), rows);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package krystal.framework.database.persistence.filters;
+
+import krystal.framework.database.queryfactory.OrderByDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuesOrderComparatorsTest {
+	
+	@SuppressWarnings("unused")
+	private static class Row {
+		
+		private int a;
+		private int b;
+		private String c;
+		private long d;
+		
+	}
+	
+	private static final List<String> NAMES = List.of("a", "b", "c", "d");
+	
+	@Test
+	void unknownAndRepeatedNamesShareTheComparator() {
+		assertSame(ValuesOrder.comparator(List.of(ValuesOrder.asc("a")), Row.class), ValuesOrder.comparator(List.of(ValuesOrder.asc("a"), ValuesOrder.desc("x")), Row.class));
+		assertSame(ValuesOrder.comparator(List.of(ValuesOrder.asc("a")), Row.class), ValuesOrder.comparator(List.of(ValuesOrder.asc("a"), ValuesOrder.desc("a")), Row.class));
+		assertNotSame(ValuesOrder.comparator(List.of(ValuesOrder.asc("a")), Row.class), ValuesOrder.comparator(List.of(ValuesOrder.desc("a")), Row.class));
+	}
+	
+	@Test
+	void cacheIsBounded() {
+		List<List<ValuesOrder>> orders = new ArrayList<>();
+		permutations(new ArrayList<>(), orders);
+		assertTrue(orders.size() > ValuesOrder.MAXIMUM_COMPARATORS);
+		
+		orders.forEach(order -> ValuesOrder.comparator(order, Row.class));
+		List<ValuesOrder> last = orders.getLast();
+		assertNotSame(ValuesOrder.comparator(last, Row.class), ValuesOrder.comparator(last, Row.class));
+	}
+	
+	@Test
+	void uncachedComparatorStillOrders() {
+		Row first = new Row();
+		first.a = 1;
+		Row second = new Row();
+		second.a = 2;
+		assertTrue(ValuesOrder.comparator(List.of(ValuesOrder.desc("d"), ValuesOrder.asc("a")), Row.class).compare(first, second) < 0);
+	}
+	
+	private static void permutations(List<ValuesOrder> prefix, List<List<ValuesOrder>> orders) {
+		orders.add(List.copyOf(prefix));
+		for (var name : NAMES) {
+			if (prefix.stream().anyMatch(vo -> vo.name().equals(name))) continue;
+			for (var direction : OrderByDirection.values()) {
+				prefix.add(new ValuesOrder(direction, name));
+				permutations(prefix, orders);
+				prefix.removeLast();
+			}
+		}
+	}
+	
+}
\ No newline at end of file
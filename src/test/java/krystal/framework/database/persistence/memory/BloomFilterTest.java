@@ -0,0 +1,32 @@
+package krystal.framework.database.persistence.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+	
+	@Test
+	void addedKeysAreNeverMissed() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (var i = 0; i < 10_000; i++) filter.add("key" + i);
+		for (var i = 0; i < 10_000; i++) assertTrue(filter.mightContain("key" + i));
+	}
+	
+	@Test
+	void falsePositivesStayNearTheRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (var i = 0; i < 10_000; i++) filter.add("key" + i);
+		
+		var positives = 0;
+		for (var i = 0; i < 100_000; i++) if (filter.mightContain("other" + i)) positives++;
+		assertTrue(positives < 3_000, "false positives: " + positives);
+	}
+	
+	@Test
+	void rateIsClamped() {
+		assertEquals(0.5, new BloomFilter(10, 1).getFalsePositiveRate());
+		assertEquals(1e-6, new BloomFilter(10, 0).getFalsePositiveRate());
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.annotations.Indexed;
+import krystal.framework.database.persistence.annotations.Key;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassSegmentIndexesTest {
+	
+	@SuppressWarnings("unused")
+	private static class Base implements PersistenceInterface {
+		
+		private @Key int id;
+		private @Indexed String name;
+		
+	}
+	
+	@SuppressWarnings("unused")
+	private static class Derived extends Base {
+		
+		private int amount;
+		
+	}
+	
+	private static ClassSegment segment(Class<?> type) {
+		return new ClassSegment(type, new EvictionPolicy<>(new FrequencySketch(0), 0));
+	}
+	
+	@Test
+	void declaredFieldsAreIndexed() {
+		assertDoesNotThrow(() -> segment(Base.class));
+	}
+	
+	@Test
+	void inheritedIndexedFieldsAreRejected() {
+		var e = assertThrows(RuntimeException.class, () -> segment(Derived.class));
+		assertTrue(e.getMessage().contains("name"));
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.annotations.BloomFiltered;
+import krystal.framework.database.persistence.annotations.Key;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassSegmentKnownKeysTest {
+	
+	private static final long TTL = 200;
+	
+	@SuppressWarnings("unused")
+	@BloomFiltered(expectedKeys = 100, ttl = TTL)
+	private static class Keyed implements PersistenceInterface {
+		
+		private @Key int id;
+		
+	}
+	
+	private ClassSegment segment;
+	
+	@BeforeEach
+	void setup() {
+		segment = new ClassSegment(Keyed.class, new EvictionPolicy<>(new FrequencySketch(0), 0));
+		segment.put("known", new Keyed());
+	}
+	
+	@Test
+	void keysAreNotTrackedBeforeFullLoad() {
+		assertFalse(segment.isMissing("inserted"));
+	}
+	
+	@Test
+	void fullLoadAnswersUnknownKeys() {
+		segment.markComplete(null, segment.getVersion());
+		assertTrue(segment.isMissing("inserted"));
+		assertFalse(segment.isMissing("known"));
+		
+		segment.markExisting("inserted");
+		assertFalse(segment.isMissing("inserted"));
+	}
+	
+	@Test
+	void keysInsertedByOtherWritersAreUnknownOnlyForTheTtl() throws InterruptedException {
+		segment.markComplete(null, segment.getVersion());
+		assertTrue(segment.isMissing("inserted"));
+		
+		Thread.sleep(TTL + 50);
+		assertFalse(segment.isMissing("inserted"));
+		
+		// rebuilt by the next full load
+		segment.markComplete(null, segment.getVersion());
+		assertTrue(segment.isMissing("inserted"));
+	}
+	
+	@Test
+	void recentlyNotFoundKeysExpire() throws InterruptedException {
+		segment.markMissing("gone", 50);
+		assertTrue(segment.isMissing("gone"));
+		Thread.sleep(100);
+		assertFalse(segment.isMissing("gone"));
+	}
+	
+	@Test
+	void clearForgetsKnownKeys() {
+		segment.markComplete(null, segment.getVersion());
+		segment.clearMissing();
+		assertFalse(segment.isMissing("inserted"));
+	}
+	
+}
\ No newline at end of file
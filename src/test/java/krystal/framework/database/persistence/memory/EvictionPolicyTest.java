@@ -0,0 +1,56 @@
+package krystal.framework.database.persistence.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictionPolicyTest {
+	
+	@Test
+	void unboundedPolicyNeverEvicts() {
+		EvictionPolicy<String> policy = new EvictionPolicy<>(new FrequencySketch(0), 0);
+		for (var i = 0; i < 100; i++) assertEquals(List.of(), policy.add("k" + i, 1));
+		assertEquals(100, policy.getWeight());
+	}
+	
+	@Test
+	void oneHitCandidateLosesToFrequentVictim() {
+		EvictionPolicy<String> policy = new EvictionPolicy<>(new FrequencySketch(3), 3);
+		policy.add("a", 1);
+		for (var i = 0; i < 3; i++) policy.record("a");
+		policy.add("b", 1);
+		policy.add("c", 1);
+		
+		assertEquals(List.of("c"), policy.add("d", 1));
+		assertTrue(policy.contains("a"));
+		assertEquals(3, policy.getWeight());
+	}
+	
+	@Test
+	void frequentKeysSurviveFlood() {
+		EvictionPolicy<String> policy = new EvictionPolicy<>(new FrequencySketch(100), 100);
+		for (var i = 0; i < 50; i++) policy.add("hot" + i, 1);
+		
+		for (var i = 0; i < 1000; i++) {
+			policy.add("cold" + i, 1);
+			if (i % 10 == 0) for (var h = 0; h < 50; h++) policy.record("hot" + h);
+		}
+		
+		for (var h = 0; h < 50; h++) assertTrue(policy.contains("hot" + h), "hot" + h);
+		assertEquals(100, policy.getWeight());
+	}
+	
+	@Test
+	void updatedWeightIsAccounted() {
+		EvictionPolicy<String> policy = new EvictionPolicy<>(new FrequencySketch(10), 10);
+		policy.add("a", 1);
+		policy.add("a", 5);
+		assertEquals(5, policy.getWeight());
+		assertEquals(1, policy.size());
+		policy.remove("a");
+		assertEquals(0, policy.getWeight());
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package krystal.framework.database.persistence.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+	
+	@Test
+	void frequencySaturatesAt15() {
+		FrequencySketch sketch = new FrequencySketch(1024);
+		for (var i = 0; i < 20; i++) sketch.increment("a");
+		assertEquals(15, sketch.frequency("a"));
+		assertEquals(0, sketch.frequency("b"));
+	}
+	
+	@Test
+	void countersAreHalvedAfterTheSample() {
+		FrequencySketch sketch = new FrequencySketch(64);
+		for (var i = 0; i < 15; i++) sketch.increment("a");
+		
+		var i = 0;
+		while (sketch.frequency("a") == 15 && i < 10_000) sketch.increment("key" + i++);
+		assertEquals(7, sketch.frequency("a"));
+		assertTrue(i <= 10 * 64);
+	}
+	
+	@Test
+	void historyIsKeptWithinCapacity() {
+		FrequencySketch sketch = new FrequencySketch(1024);
+		for (var i = 0; i < 5; i++) sketch.increment("a");
+		sketch.ensureCapacity(1000);
+		assertEquals(5, sketch.frequency("a"));
+		sketch.ensureCapacity(1 << 16);
+		assertEquals(0, sketch.frequency("a"));
+	}
+	
+}
\ No newline at end of file
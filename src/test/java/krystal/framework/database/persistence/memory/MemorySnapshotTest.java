@@ -0,0 +1,149 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.annotations.Key;
+import krystal.framework.database.persistence.annotations.Memorized;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemorySnapshotTest {
+	
+	@Memorized
+	private static class Cached implements PersistenceInterface {
+		
+		private @Key int id;
+		private String name;
+		
+		Cached() {
+		}
+		
+		Cached(int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+		
+	}
+	
+	@SuppressWarnings("unused")
+	private static class Expiring implements PersistenceInterface {
+		
+		private @Key int id;
+		
+	}
+	
+	@TempDir
+	Path directory;
+	
+	private static ClassSegment segment(Class<?> type) {
+		return new ClassSegment(type, new EvictionPolicy<>(new FrequencySketch(0), 0));
+	}
+	
+	private static Map<String, String> read(Path file) throws IOException {
+		Map<String, String> names = new LinkedHashMap<>();
+		MemorySnapshot.read(file, (key, persistence) -> names.put(key, ((Cached) persistence).name));
+		return names;
+	}
+	
+	@Test
+	void memorizedObjectsRoundTrip() throws IOException {
+		ClassSegment cached = segment(Cached.class);
+		cached.put("a", new Cached(1, "first"));
+		cached.put("b", new Cached(2, null));
+		ClassSegment expiring = segment(Expiring.class);
+		expiring.put("c", new Expiring());
+		
+		Path file = directory.resolve("memory.snapshot");
+		Instant before = Instant.ofEpochMilli(System.currentTimeMillis());
+		assertEquals(2, MemorySnapshot.write(file, List.of(cached, expiring)));
+		
+		Map<String, String> names = new LinkedHashMap<>();
+		Map<Class<?>, Instant> restored = MemorySnapshot.read(file, (key, persistence) -> names.put(key, ((Cached) persistence).name));
+		assertEquals(Set.of("a", "b"), names.keySet());
+		assertEquals("first", names.get("a"));
+		assertNull(names.get("b"));
+		assertEquals(List.of(Cached.class), List.copyOf(restored.keySet()));
+		assertFalse(restored.get(Cached.class).isBefore(before));
+	}
+	
+	@Test
+	void writingReplacesTheFile() throws IOException {
+		Path file = directory.resolve("memory.snapshot");
+		ClassSegment cached = segment(Cached.class);
+		cached.put("a", new Cached(1, "first"));
+		MemorySnapshot.write(file, List.of(cached));
+		cached.put("a", new Cached(1, "second"));
+		MemorySnapshot.write(file, List.of(cached));
+		
+		assertEquals(Map.of("a", "second"), read(file));
+		try (var files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+	}
+	
+	@Test
+	void missingAndForeignFilesRestoreNothing() throws IOException {
+		assertEquals(Map.of(), MemorySnapshot.read(directory.resolve("none"), (_, _) -> fail()));
+		
+		Path foreign = Files.write(directory.resolve("foreign"), new byte[64]);
+		assertEquals(Map.of(), MemorySnapshot.read(foreign, (_, _) -> fail()));
+	}
+	
+	@Test
+	void otherFormatVersionIsSkipped() throws IOException {
+		Path file = directory.resolve("memory.snapshot");
+		ClassSegment cached = segment(Cached.class);
+		cached.put("a", new Cached(1, "first"));
+		MemorySnapshot.write(file, List.of(cached));
+		
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[7]++;
+		Files.write(file, bytes);
+		assertEquals(Map.of(), read(file));
+	}
+	
+	@Test
+	void truncatedFileRestoresWhatIsWhole() throws IOException {
+		Path file = directory.resolve("memory.snapshot");
+		ClassSegment cached = segment(Cached.class);
+		cached.put("a", new Cached(1, "first"));
+		cached.put("b", new Cached(2, "second"));
+		MemorySnapshot.write(file, List.of(cached));
+		
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+		assertEquals(1, read(file).size());
+	}
+	
+	@Test
+	void memoryIsRestoredAfterRestart() {
+		Path file = directory.resolve("memory.snapshot");
+		Cached object = new Cached(1, "first");
+		
+		PersistenceMemory memory = new PersistenceMemory();
+		memory.put(object);
+		assertEquals(1, memory.snapshot(file));
+		memory.clear();
+		
+		PersistenceMemory restarted = new PersistenceMemory();
+		try {
+			assertEquals(List.of(Cached.class), List.copyOf(restarted.restore(file).keySet()));
+			assertEquals("first", ((Cached) restarted.get(object.hashKeys())).name);
+		} finally {
+			restarted.clear();
+		}
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.annotations.Key;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+	
+	static class Entry implements PersistenceInterface {
+		
+		private @Key int id;
+		private String name;
+		
+		Entry() {
+		}
+		
+		Entry(int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+		
+	}
+	
+	private final OffHeapStorage cold = new OffHeapStorage(RowCodec.of(Entry.class).orElseThrow(), 0);
+	
+	@AfterEach
+	void cleanup() {
+		cold.clear();
+	}
+	
+	@Test
+	void objectsAreDecodedOnAccess() {
+		Entry entry = new Entry(1, "a");
+		cold.put("1", entry);
+		
+		Entry decoded = (Entry) cold.get("1");
+		assertNotSame(entry, decoded);
+		assertEquals("a", decoded.name);
+		assertNull(cold.get("2"));
+	}
+	
+	@Test
+	void hotObjectsAreKeptOnHeap() {
+		OffHeapStorage storage = new OffHeapStorage(RowCodec.of(Entry.class).orElseThrow(), 1);
+		try {
+			Entry first = new Entry(1, "a");
+			Entry second = new Entry(2, "b");
+			storage.put("1", first);
+			assertSame(first, storage.get("1"));
+			
+			storage.put("2", second);
+			assertSame(second, storage.get("2"));
+			assertNotSame(first, storage.get("1"));
+		} finally {
+			storage.clear();
+		}
+	}
+	
+	@Test
+	void replacedAndRemovedRowsAreGone() {
+		cold.put("1", new Entry(1, "a"));
+		cold.put("1", new Entry(1, "b"));
+		cold.put("2", new Entry(2, "c"));
+		assertEquals("b", ((Entry) cold.get("1")).name);
+		assertEquals(2, cold.size());
+		
+		assertTrue(cold.remove("2"));
+		assertFalse(cold.remove("2"));
+		assertFalse(cold.containsKey("2"));
+		assertEquals(Map.of("1", "b"), cold.entries().collect(Collectors.toMap(Map.Entry::getKey, e -> ((Entry) e.getValue()).name)));
+	}
+	
+	@Test
+	void rowsSurviveCompaction() {
+		// replacing the same rows makes garbage outweigh the live ones, past the slab size
+		String name = "x".repeat(1 << 16);
+		int rounds = 3 * OffHeapStorage.SLAB_SIZE / (1 << 16) / 10;
+		for (var round = 0; round < rounds; round++)
+			for (var i = 0; i < 10; i++) cold.put(String.valueOf(i), new Entry(i, name + round));
+		
+		assertEquals(10, cold.size());
+		for (var i = 0; i < 10; i++) assertEquals(name + (rounds - 1), ((Entry) cold.get(String.valueOf(i))).name);
+	}
+	
+	@Test
+	void clearReleasesEverything() {
+		cold.put("1", new Entry(1, "a"));
+		cold.clear();
+		assertEquals(0, cold.size());
+		assertNull(cold.get("1"));
+		cold.put("1", new Entry(1, "b"));
+		assertEquals("b", ((Entry) cold.get("1")).name);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package krystal.framework.database.persistence.memory;
+
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.annotations.Key;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowCodecTest {
+	
+	private enum Kind {
+		A, B
+	}
+	
+	private static class Row implements PersistenceInterface {
+		
+		private @Key int id;
+		private boolean flag;
+		private Byte tiny;
+		private short small;
+		private char letter;
+		private long big;
+		private Float ratio;
+		private double price;
+		private String name;
+		private Kind kind;
+		private BigDecimal amount;
+		private BigInteger huge;
+		private LocalDate date;
+		private LocalTime time;
+		private LocalDateTime created;
+		private Instant stamp;
+		private UUID uuid;
+		private byte[] blob;
+		private transient String cached;
+		
+	}
+	
+	@SuppressWarnings("unused")
+	private static class Narrow implements PersistenceInterface {
+		
+		private @Key int id;
+		
+	}
+	
+	@SuppressWarnings("unused")
+	private static class Unsupported implements PersistenceInterface {
+		
+		private List<String> names;
+		
+	}
+	
+	private static Row full() {
+		Row row = new Row();
+		row.id = 7;
+		row.flag = true;
+		row.tiny = -3;
+		row.small = 300;
+		row.letter = '\u017c';
+		row.big = Long.MIN_VALUE;
+		row.ratio = 0.5f;
+		row.price = -1.25;
+		row.name = "za\u017c\u00f3\u0142\u0107 \"quoted\"";
+		row.kind = Kind.B;
+		row.amount = new BigDecimal("-12.3400");
+		row.huge = BigInteger.TWO.pow(100);
+		row.date = LocalDate.of(1900, 1, 1);
+		row.time = LocalTime.of(23, 59, 59, 999_999_999);
+		row.created = LocalDateTime.of(2024, 2, 29, 12, 0, 1, 5);
+		row.stamp = Instant.ofEpochSecond(-1, 7);
+		row.uuid = UUID.randomUUID();
+		row.blob = new byte[]{0, 1, -1};
+		row.cached = "skipped";
+		return row;
+	}
+	
+	@Test
+	void valuesRoundTrip() {
+		RowCodec codec = RowCodec.of(Row.class).orElseThrow();
+		Row row = full();
+		Row decoded = (Row) codec.decode(codec.encode(row));
+		
+		assertNotSame(row, decoded);
+		assertEquals(row.id, decoded.id);
+		assertEquals(row.flag, decoded.flag);
+		assertEquals(row.tiny, decoded.tiny);
+		assertEquals(row.small, decoded.small);
+		assertEquals(row.letter, decoded.letter);
+		assertEquals(row.big, decoded.big);
+		assertEquals(row.ratio, decoded.ratio);
+		assertEquals(row.price, decoded.price);
+		assertEquals(row.name, decoded.name);
+		assertEquals(row.kind, decoded.kind);
+		assertEquals(row.amount, decoded.amount);
+		assertEquals(row.huge, decoded.huge);
+		assertEquals(row.date, decoded.date);
+		assertEquals(row.time, decoded.time);
+		assertEquals(row.created, decoded.created);
+		assertEquals(row.stamp, decoded.stamp);
+		assertEquals(row.uuid, decoded.uuid);
+		assertArrayEquals(row.blob, decoded.blob);
+		assertNull(decoded.cached);
+	}
+	
+	@Test
+	void nullsRoundTrip() {
+		RowCodec codec = RowCodec.of(Row.class).orElseThrow();
+		Row decoded = (Row) codec.decode(codec.encode(new Row()));
+		assertNull(decoded.name);
+		assertNull(decoded.tiny);
+		assertNull(decoded.created);
+		assertEquals(0, decoded.id);
+	}
+	
+	@Test
+	void unsupportedFieldsAreNotEncoded() {
+		assertTrue(RowCodec.of(Unsupported.class).isEmpty());
+	}
+	
+	@Test
+	void fingerprintDescribesTheFields() {
+		assertEquals(RowCodec.of(Row.class).orElseThrow().fingerprint(), RowCodec.of(Row.class).orElseThrow().fingerprint());
+		assertNotEquals(RowCodec.of(Row.class).orElseThrow().fingerprint(), RowCodec.of(Narrow.class).orElseThrow().fingerprint());
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import krystal.framework.database.persistence.PersistenceMemory;
+import krystal.framework.database.persistence.TestEntity;
+import krystal.framework.database.persistence.memory.invalidation.Invalidation.Change;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusTest {
+	
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) fail("Condition not met in time.");
+			Thread.sleep(10);
+		}
+	}
+	
+	/**
+	 * Collects sent messages, without delivering them.
+	 */
+	private static class Recording implements InvalidationTransportInterface {
+		
+		private final List<byte[]> messages = new CopyOnWriteArrayList<>();
+		private final int maximumMessageSize;
+		
+		Recording(int maximumMessageSize) {
+			this.maximumMessageSize = maximumMessageSize;
+		}
+		
+		@Override
+		public void send(byte[] message) {
+			messages.add(message);
+		}
+		
+		@Override
+		public void subscribe(Consumer<byte[]> receiver) {
+		}
+		
+		@Override
+		public int getMaximumMessageSize() {
+			return maximumMessageSize;
+		}
+		
+		@Override
+		public void close() {
+		}
+		
+	}
+	
+	@Test
+	void peersReceiveOthersInvalidationsOnly() throws InterruptedException {
+		String channel = UUID.randomUUID().toString();
+		List<Invalidation> first = new CopyOnWriteArrayList<>();
+		List<Invalidation> second = new CopyOnWriteArrayList<>();
+		
+		try (InvalidationBus a = new InvalidationBus(new InJvmTransport(channel), first::addAll);
+		     InvalidationBus b = new InvalidationBus(new InJvmTransport(channel), second::addAll)) {
+			a.publish(new Invalidation("Entity", "Entity>1", Change.UPDATED));
+			await(() -> !second.isEmpty());
+			assertEquals(List.of(new Invalidation("Entity", "Entity>1", Change.UPDATED)), second);
+			assertNotEquals(a.getNodeId(), b.getNodeId());
+		}
+		assertTrue(first.isEmpty());
+	}
+	
+	@Test
+	void burstsOfTheSameKeyAreSentOnce() throws IOException {
+		Recording transport = new Recording(Integer.MAX_VALUE);
+		long interval = InvalidationBus.getDefaultFlushInterval();
+		// no background flush in the middle of the burst
+		InvalidationBus.setDefaultFlushInterval(60_000);
+		try (InvalidationBus bus = new InvalidationBus(transport, _ -> fail())) {
+			for (var i = 0; i < 100; i++) bus.publish(new Invalidation("Entity", "Entity>1", Change.UPDATED));
+			bus.publish(new Invalidation("Entity", "Entity>1", Change.DELETED));
+			bus.flush();
+		} finally {
+			InvalidationBus.setDefaultFlushInterval(interval);
+		}
+		
+		List<Invalidation> sent = transport.messages.stream().flatMap(m -> {
+			try {
+				return Invalidation.decode(m).batch().stream();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}).toList();
+		assertEquals(List.of(new Invalidation("Entity", "Entity>1", Change.DELETED)), sent);
+	}
+	
+	@Test
+	void batchesAreSplitToTheTransportLimit() throws IOException {
+		Recording transport = new Recording(200);
+		try (InvalidationBus bus = new InvalidationBus(transport, _ -> fail())) {
+			for (var i = 0; i < 50; i++) bus.publish(new Invalidation("Entity", "Entity>" + i, Change.INSERTED));
+			bus.flush();
+		}
+		
+		assertTrue(transport.messages.size() > 1);
+		var total = 0;
+		for (var message : transport.messages) {
+			assertTrue(message.length <= 200);
+			total += Invalidation.decode(message).batch().size();
+		}
+		assertEquals(50, total);
+	}
+	
+	@Test
+	void closingSendsPending() {
+		Recording transport = new Recording(Integer.MAX_VALUE);
+		InvalidationBus bus = new InvalidationBus(transport, _ -> fail());
+		bus.publish(new Invalidation("Entity", "Entity>1", Change.INSERTED));
+		bus.close();
+		assertFalse(transport.messages.isEmpty());
+		
+		int sent = transport.messages.size();
+		bus.publish(new Invalidation("Entity", "Entity>2", Change.INSERTED));
+		bus.flush();
+		assertEquals(sent, transport.messages.size());
+	}
+	
+	@Test
+	void peerMemoryDropsDeletedObjects() throws InterruptedException {
+		String channel = UUID.randomUUID().toString();
+		PersistenceMemory writer = new PersistenceMemory();
+		PersistenceMemory reader = new PersistenceMemory();
+		TestEntity entity = new TestEntity(1, "a", 10, null);
+		try {
+			writer.connect(new InJvmTransport(channel));
+			reader.connect(new InJvmTransport(channel));
+			reader.put(entity);
+			
+			writer.publish(TestEntity.class, entity.hashKeys(), Change.DELETED);
+			await(() -> reader.get(entity.hashKeys()) == null);
+		} finally {
+			writer.disconnect();
+			reader.disconnect();
+			reader.clear();
+		}
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package krystal.framework.database.persistence.memory.invalidation;
+
+import krystal.framework.database.persistence.memory.invalidation.Invalidation.Change;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationTest {
+	
+	private static Invalidation of(Change change) {
+		return new Invalidation("Entity", "Entity>1", change);
+	}
+	
+	@Test
+	void messageRoundTrips() throws IOException {
+		List<Invalidation> batch = List.of(of(Change.INSERTED), new Invalidation("Other", "Other>\u017c\u00f3\u0142w", Change.DELETED));
+		Invalidation.Message message = Invalidation.decode(Invalidation.encode("node", batch));
+		assertEquals("node", message.nodeId());
+		assertEquals(batch, message.batch());
+	}
+	
+	@Test
+	void otherVersionsAndCorruptedMessagesAreRejected() {
+		byte[] message = Invalidation.encode("node", List.of(of(Change.UPDATED)));
+		message[0]++;
+		assertThrows(IOException.class, () -> Invalidation.decode(message));
+		assertThrows(IOException.class, () -> Invalidation.decode(new byte[]{Invalidation.FORMAT_VERSION}));
+	}
+	
+	@Test
+	void changesOfTheSameKeyCoalesceSafely() {
+		assertEquals(of(Change.UPDATED), of(Change.UPDATED).coalesce(of(Change.UPDATED)));
+		assertEquals(of(Change.DELETED), of(Change.UPDATED).coalesce(of(Change.DELETED)));
+		// deleted and inserted again, or inserted and updated - peers drop whatever they hold
+		assertEquals(of(Change.INSERTED), of(Change.DELETED).coalesce(of(Change.INSERTED)));
+		assertEquals(of(Change.INSERTED), of(Change.INSERTED).coalesce(of(Change.UPDATED)));
+		assertEquals(of(Change.INSERTED), of(Change.INSERTED).coalesce(of(Change.DELETED)));
+	}
+	
+}
\ No newline at end of file
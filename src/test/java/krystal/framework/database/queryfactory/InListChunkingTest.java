@@ -0,0 +1,78 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.TestProvider;
+import krystal.framework.database.abstraction.ColumnInterface;
+import krystal.framework.database.abstraction.QueryRenderer.SqlStatement;
+import krystal.framework.database.abstraction.TableInterface;
+import krystal.framework.database.implementation.DBCDrivers;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InListChunkingTest {
+	
+	private static final TestProvider MYSQL = new TestProvider(DBCDrivers.jdbcMySQL);
+	private static final TableInterface TABLE = TableInterface.of("t");
+	private static final ColumnInterface ID = ColumnInterface.of("id");
+	
+	private static Object[] values(int count) {
+		return IntStream.range(0, count).boxed().toArray();
+	}
+	
+	@Test
+	void selectInIsSplitIntoChunks() {
+		List<SqlStatement> statements = TABLE.select().where(ID.is(values(2500))).statements(MYSQL);
+		assertEquals(3, statements.size());
+		assertTrue(statements.getFirst().sql().contains("id IN (0, 1, "));
+		assertTrue(statements.getLast().sql().contains("id IN (2000, "));
+		assertFalse(statements.getFirst().sql().contains(" OR "));
+	}
+	
+	@Test
+	void notInIsSingleStatementOfAndJoinedGroups() {
+		List<SqlStatement> statements = TABLE.select().where(ID.isNot(values(2500))).statements(MYSQL);
+		assertEquals(1, statements.size());
+		assertEquals(3, statements.getFirst().sql().split("NOT id IN \\(", -1).length - 1);
+		assertTrue(statements.getFirst().sql().contains(") AND "));
+	}
+	
+	@Test
+	void writesAreNeverSplit() {
+		assertEquals(1, TABLE.delete().where(ID.is(values(2500))).statements(MYSQL).size());
+		assertEquals(1, TABLE.update(ColumnInterface.of("a").set(1)).where(ID.is(values(2500))).statements(MYSQL).size());
+	}
+	
+	@Test
+	void orderedLimitedOrGroupedAreNotSplit() {
+		assertEquals(1, TABLE.select().where(ID.is(values(2500))).orderBy(ID).statements(MYSQL).size());
+		assertEquals(1, TABLE.select().limit(10).where(ID.is(values(2500))).statements(MYSQL).size());
+		assertEquals(1, TABLE.select().distinct().where(ID.is(values(2500))).statements(MYSQL).size());
+		assertEquals(1, TABLE.select(ID).where(ID.is(values(2500))).groupBy(ID).statements(MYSQL).size());
+		assertEquals(1, TABLE.select(ID.fun(ColumnInterface.Functions.COUNT)).where(ID.is(values(2500))).statements(MYSQL).size());
+		assertEquals(1, TABLE.select().seekAfter(List.of(new OrderByDeclaration(OrderByDirection.ASC, ID)), List.of(5)).limit(10).where(ID.is(values(2500))).statements(MYSQL).size());
+	}
+	
+	@Test
+	void wholeStatementJoinsChunks() {
+		String sql = TABLE.select().where(ID.is(values(2500))).orderBy(ID).statements(MYSQL).getFirst().sql();
+		assertTrue(sql.contains(") OR id IN (2000, "));
+		assertTrue(sql.endsWith(" ORDER BY id ASC"));
+	}
+	
+	@Test
+	void orConditionsAreNotSplit() {
+		List<SqlStatement> statements = TABLE.select().where(ID.is(values(2500))).orWhere(ColumnInterface.of("a").is(1)).statements(MYSQL);
+		assertEquals(1, statements.size());
+		assertTrue(statements.getFirst().sql().contains(") OR id IN ("));
+	}
+	
+	@Test
+	void textIsSingleStatement() {
+		String sql = TABLE.select().where(ID.is(values(2500))).sqlQuery(MYSQL);
+		assertTrue(sql.contains(") OR id IN (2000, "));
+	}
+	
+}
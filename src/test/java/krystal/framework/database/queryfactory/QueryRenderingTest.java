@@ -0,0 +1,249 @@
+package krystal.framework.database.queryfactory;
+
+import krystal.framework.database.TestProvider;
+import krystal.framework.database.abstraction.ColumnInterface;
+import krystal.framework.database.abstraction.ColumnInterface.Functions;
+import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.abstraction.QueryRenderer.ArrayParameter;
+import krystal.framework.database.abstraction.QueryRenderer.SqlStatement;
+import krystal.framework.database.abstraction.QueryRenderer.TemporaryTable;
+import krystal.framework.database.abstraction.TableInterface;
+import krystal.framework.database.implementation.DBCDrivers;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden SQL of each statement type, for each driver.
+ */
+class QueryRenderingTest {
+	
+	private static final TestProvider SQL_SERVER = new TestProvider(DBCDrivers.jdbcSQLServer);
+	private static final TestProvider AS400 = new TestProvider(DBCDrivers.jdbcAS400);
+	private static final TestProvider H2 = new TestProvider(DBCDrivers.jdbcH2);
+	private static final TestProvider POSTGRES = new TestProvider(DBCDrivers.jdbcPostgresql);
+	private static final TestProvider MYSQL = new TestProvider(DBCDrivers.jdbcMySQL);
+	
+	private static final TableInterface TABLE = TableInterface.of("t");
+	private static final TableInterface OTHER = TableInterface.of("u");
+	private static final ColumnInterface ID = ColumnInterface.of("id");
+	private static final ColumnInterface A = ColumnInterface.of("a");
+	
+	private static Object[] values(int count) {
+		return IntStream.range(0, count).boxed().toArray();
+	}
+	
+	private static String joined(int from, int to, String delimiter, String format) {
+		return IntStream.range(from, to).mapToObj(format::formatted).collect(Collectors.joining(delimiter));
+	}
+	
+	private static void assertSql(String expected, Query query, TestProvider... providers) {
+		for (var provider : providers) assertEquals(expected, query.sqlQuery(provider), provider.name());
+	}
+	
+	/*
+	 * Select
+	 */
+	
+	@Test
+	void selectWithConditions() {
+		assertSql("SELECT * FROM t WHERE (id IN (1))", TABLE.select().where(ID.is(1)), SQL_SERVER, AS400, H2, POSTGRES, MYSQL);
+		assertSql("SELECT id, a FROM t WHERE (id IN (1) AND NOT a IN (2, 3))", TABLE.select(ID, A).where(ID.is(1), A.isNot(2, 3)), SQL_SERVER, AS400, H2, POSTGRES, MYSQL);
+		assertSql("SELECT * FROM t WHERE (id BETWEEN 1 AND 5) OR (a LIKE ('x'))", TABLE.select().where(ID.isBetween(1, 5)).orWhere(A.is(ComparisonOperator.LIKE, "x")), SQL_SERVER, MYSQL);
+		assertSql("SELECT * FROM t WHERE (id IS NULL) AND (NOT a IS NULL)", TABLE.select().where(ID.is()).andWhere(A.isNot()), SQL_SERVER, MYSQL);
+		assertSql("SELECT * FROM t WHERE (1 IN (1))", TABLE.select().where1is1(), SQL_SERVER, MYSQL);
+	}
+	
+	@Test
+	void limitIsPlacedPerDialect() {
+		Query query = TABLE.select().limit(5).where(ID.is(1)).orderBy(ID);
+		assertSql("SELECT TOP 5 * FROM t WHERE (id IN (1)) ORDER BY id ASC", query, SQL_SERVER);
+		assertSql("SELECT * FROM t WHERE (id IN (1)) ORDER BY id ASC LIMIT 5", query, MYSQL);
+		assertSql("SELECT * FROM t WHERE (id IN (1)) ORDER BY id ASC FETCH FIRST 5 ROWS ONLY", query, AS400, H2, POSTGRES);
+		assertEquals("SELECT * FROM t WHERE (id IN (1)) ORDER BY id ASC FETCH FIRST 5 ROWS ONLY", query.sqlQuery(null));
+	}
+	
+	@Test
+	void distinctGroupedAndOrdered() {
+		assertSql("SELECT DISTINCT a FROM t", TABLE.select(A).distinct(), SQL_SERVER, MYSQL);
+		assertSql("SELECT a, COUNT(id) n FROM t WHERE (id IN (1)) GROUP BY a ORDER BY a DESC", TABLE.select(A, ID.fun(Functions.COUNT, false).as("n")).where(ID.is(1)).groupBy(A).orderBy(OrderByDirection.DESC, A), SQL_SERVER, AS400, H2, POSTGRES, MYSQL);
+	}
+	
+	@Test
+	void seekContinuesWhereClause() {
+		Query query = TABLE.select().seekAfter(List.of(OrderByDeclaration.asc(ID), OrderByDeclaration.asc(A)), List.of(5, "x")).limit(10).where(A.is(1));
+		assertSql("SELECT * FROM t WHERE (id, a) > (5, 'x') AND ((a IN (1))) ORDER BY id ASC, a ASC LIMIT 10", query, MYSQL);
+		assertSql("SELECT * FROM t WHERE (id, a) > (5, 'x') AND ((a IN (1))) ORDER BY id ASC, a ASC FETCH FIRST 10 ROWS ONLY", query, H2, POSTGRES);
+		assertSql("SELECT * FROM t WHERE ((id > 5) OR (id = 5 AND a > 'x')) AND ((a IN (1))) ORDER BY id ASC, a ASC FETCH FIRST 10 ROWS ONLY", query, AS400);
+		assertSql("SELECT TOP 10 * FROM t WHERE ((id > 5) OR (id = 5 AND a > 'x')) AND ((a IN (1))) ORDER BY id ASC, a ASC", query, SQL_SERVER);
+	}
+	
+	@Test
+	void seekInMixedDirectionsIsExpanded() {
+		Query query = TABLE.select().seekAfter(List.of(OrderByDeclaration.desc(A), OrderByDeclaration.asc(ID)), List.of("x", 5)).limit(10);
+		assertSql("SELECT * FROM t WHERE ((a < 'x') OR (a = 'x' AND id > 5)) ORDER BY a DESC, id ASC LIMIT 10", query, MYSQL);
+	}
+	
+	@Test
+	void nestedQueriesKeepTheirOwnClauses() {
+		Query union = TABLE.select(ID).where(ID.is(1)).union(true, OTHER.select(ID).where(ID.is(2)));
+		assertSql("SELECT id FROM t WHERE (id IN (1))\nUNION ALL\nSELECT id FROM u WHERE (id IN (2))\n", union, SQL_SERVER, MYSQL);
+		
+		Query table = TABLE.select().limit(3).where(ID.is(1)).withProvider(MYSQL).asTable("s").select().where(A.is(2));
+		assertSql("SELECT * FROM (SELECT * FROM t WHERE (id IN (1)) LIMIT 3) s WHERE (a IN (2))", table, MYSQL);
+	}
+	
+	@Test
+	void commonTableExpressions() {
+		Query query = TableInterface.of("r").select().withRecursive("r", TABLE.select(ID), "id");
+		assertSql("WITH RECURSIVE r (id) AS (SELECT id FROM t) SELECT * FROM r", query, MYSQL, POSTGRES, H2);
+		assertSql("WITH r (id) AS (SELECT id FROM t) SELECT * FROM r", query, SQL_SERVER, AS400);
+	}
+	
+	/*
+	 * Insert
+	 */
+	
+	@Test
+	void insertPerDialect() {
+		Query query = TABLE.insert(ID, A).values(1, "x").values(2, "y");
+		assertSql("INSERT INTO t (id, a) VALUES (1, 'x'), (2, 'y')", query, H2, POSTGRES, MYSQL);
+		assertSql("INSERT INTO t (id, a) OUTPUT INSERTED.* VALUES (1, 'x'), (2, 'y')", query, SQL_SERVER);
+		assertSql("SELECT * FROM FINAL TABLE (INSERT INTO t (id, a) VALUES (1, 'x'), (2, 'y'))", query, AS400);
+	}
+	
+	@Test
+	void insertOutputIsWrapped() {
+		Query query = TABLE.insert(ID, A).values(1, "x").output(ID);
+		assertSql("INSERT INTO t (id, a) OUTPUT INSERTED.id VALUES (1, 'x')", query, SQL_SERVER);
+		assertSql("SELECT id FROM FINAL TABLE (INSERT INTO t (id, a) VALUES (1, 'x'))", query, AS400);
+		// wrapped from its own start, within the enclosing query
+		assertSql("WITH i AS (SELECT id FROM FINAL TABLE (INSERT INTO t (id, a) VALUES (1, 'x'))) SELECT * FROM i", TableInterface.of("i").select().with("i", query), AS400);
+	}
+	
+	/*
+	 * Update
+	 */
+	
+	@Test
+	void updatePerDialect() {
+		Query query = TABLE.update(A.set(2)).where(ID.is(1));
+		assertSql("UPDATE t SET a = 2 WHERE (id IN (1))", query, AS400, H2, POSTGRES, MYSQL);
+		assertSql("UPDATE t SET a = 2 OUTPUT INSERTED.* WHERE (id IN (1))", query, SQL_SERVER);
+	}
+	
+	@Test
+	void updateFromSubQueryPerDialect() {
+		Query source = OTHER.select().limit(3).where(ID.is(1));
+		Query query = TABLE.update(A.is(ColumnInterface.of("s.a"))).from(source, "s", ID.from("t").is(ColumnInterface.of("s.id"))).where(A.is(2));
+		assertSql("UPDATE t SET a = s.a OUTPUT INSERTED.* FROM t INNER JOIN (SELECT TOP 3 * FROM u WHERE (id IN (1))) s ON t.id = s.id WHERE (a IN (2))", query, SQL_SERVER);
+		assertSql("UPDATE t INNER JOIN (SELECT * FROM u WHERE (id IN (1)) LIMIT 3) s ON t.id = s.id SET a = s.a WHERE (a IN (2))", query, MYSQL);
+		assertSql("UPDATE t SET a = s.a FROM (SELECT * FROM u WHERE (id IN (1)) FETCH FIRST 3 ROWS ONLY) s WHERE t.id = s.id AND ((a IN (2)))", query, POSTGRES);
+		String correlated = "(SELECT %s FROM (SELECT * FROM u WHERE (id IN (1)) FETCH FIRST 3 ROWS ONLY) s WHERE t.id = s.id)";
+		assertSql("UPDATE t SET a = " + correlated.formatted("s.a") + " WHERE EXISTS " + correlated.formatted("1") + " AND ((a IN (2)))", query, H2, AS400);
+	}
+	
+	/*
+	 * Delete
+	 */
+	
+	@Test
+	void deletePerDialect() {
+		Query query = TABLE.delete().where(ID.is(1));
+		assertSql("DELETE FROM t WHERE (id IN (1))", query, AS400, H2, POSTGRES, MYSQL);
+		assertSql("DELETE FROM t OUTPUT DELETED.* WHERE (id IN (1))", query, SQL_SERVER);
+	}
+	
+	@Test
+	void deleteUsingTablePerDialect() {
+		Query query = TABLE.delete().using(OTHER, ID.from("t").is(ID.from("u"))).where(A.is(1));
+		assertSql("DELETE FROM t OUTPUT DELETED.* FROM t INNER JOIN u ON t.id = u.id WHERE (a IN (1))", query, SQL_SERVER);
+		assertSql("DELETE t FROM t INNER JOIN u ON t.id = u.id WHERE (a IN (1))", query, MYSQL);
+		assertSql("DELETE FROM t USING u WHERE t.id = u.id AND ((a IN (1)))", query, POSTGRES);
+		assertSql("DELETE FROM t WHERE EXISTS (SELECT 1 FROM u WHERE t.id = u.id) AND ((a IN (1)))", query, H2, AS400);
+	}
+	
+	/*
+	 * Large IN lists
+	 */
+	
+	@Test
+	void largeInListAsText() {
+		Query query = TABLE.select().where(ID.is(values(1500)));
+		String chunks = "((id IN (" + joined(0, 1000, ", ", "%d") + ") OR id IN (" + joined(1000, 1500, ", ", "%d") + ")))";
+		assertSql("SELECT * FROM t WHERE " + chunks, query, AS400, H2, POSTGRES, MYSQL);
+		assertSql("SELECT * FROM t WHERE (id IN (SELECT v FROM (VALUES " + joined(0, 1500, ", ", "(%d)") + ") AS t(v)))", query, SQL_SERVER);
+	}
+	
+	@Test
+	void temporaryTablesAreFilledWithParameters() {
+		List<SqlStatement> statements = TABLE.select().where(ID.is(values(1500)), A.is(values(1200))).statements(SQL_SERVER);
+		assertEquals(1, statements.size());
+		
+		SqlStatement statement = statements.getFirst();
+		assertFalse(statement.isBatchable());
+		assertTrue(statement.parameters().isEmpty());
+		assertEquals("SELECT * FROM t WHERE (id IN (SELECT v FROM #krystal_in_1) AND a IN (SELECT v FROM #krystal_in_2))", statement.sql());
+		
+		List<TemporaryTable> tables = statement.temporaryTables();
+		assertEquals(List.of("#krystal_in_1", "#krystal_in_2"), tables.stream().map(TemporaryTable::name).toList());
+		assertEquals(List.of(values(1500)), tables.getFirst().values());
+		assertEquals(1200, tables.getLast().values().size());
+		assertEquals("CREATE TABLE #krystal_in_1 (v int)", tables.getFirst().create());
+		assertEquals("INSERT INTO #krystal_in_1 (v) VALUES (?)", tables.getFirst().insert());
+		assertEquals("DROP TABLE IF EXISTS #krystal_in_1", tables.getFirst().drop());
+	}
+	
+	@Test
+	void temporaryTablesAreTypedAfterTheValues() {
+		assertEquals("bigint", TemporaryTable.of("#t", List.of(1L, 2L)).type());
+		assertEquals("decimal(38, 3)", TemporaryTable.of("#t", List.of(new BigDecimal("1.5"), new BigDecimal("2.125"))).type());
+		assertEquals("date", TemporaryTable.of("#t", List.of(LocalDate.of(2024, 1, 2))).type());
+		assertEquals(List.of(java.sql.Date.valueOf(LocalDate.of(2024, 1, 2))), TemporaryTable.of("#t", List.of(LocalDate.of(2024, 1, 2))).values());
+		assertEquals("nvarchar(4000)", TemporaryTable.of("#t", List.of("a", "b")).type());
+		
+		TemporaryTable mixed = TemporaryTable.of("#t", List.of(1, "b"));
+		assertEquals("nvarchar(4000)", mixed.type());
+		assertEquals(List.of("1", "b"), mixed.values());
+	}
+	
+	@Test
+	void arrayParameter() {
+		for (var provider : List.of(H2, POSTGRES)) {
+			List<SqlStatement> statements = TABLE.select().where(ID.is(values(1500))).statements(provider);
+			assertEquals(1, statements.size());
+			assertEquals("SELECT * FROM t WHERE (id = ANY(?))", statements.getFirst().sql());
+			assertEquals(1, statements.getFirst().parameters().size());
+			
+			ArrayParameter array = (ArrayParameter) statements.getFirst().parameters().getFirst();
+			assertEquals("int4", array.type());
+			assertEquals(1500, array.elements().length);
+		}
+	}
+	
+	@Test
+	void chunkCounts() {
+		assertEquals(1, TABLE.select().where(ID.is(values(1000))).statements(MYSQL).size());
+		assertEquals(2, TABLE.select().where(ID.is(values(1001))).statements(MYSQL).size());
+		assertEquals(3, TABLE.select().where(ID.is(values(2001))).statements(AS400).size());
+		assertEquals(1, TABLE.select().where(ID.is(values(2500))).statements(POSTGRES).size());
+		assertEquals(1, TABLE.select().where(ID.is(values(2500))).statements(SQL_SERVER).size());
+		// only the first large list is chunked
+		List<SqlStatement> statements = TABLE.select().where(ID.is(values(2500)), A.is(values(1500))).statements(MYSQL);
+		assertEquals(3, statements.size());
+		assertTrue(statements.getLast().sql().contains("(a IN (0, ") && statements.getLast().sql().contains(" OR a IN (1000, "));
+		assertEquals(1, TABLE.select().where(ID.is(values(2500))).statements(MYSQL).stream().filter(s -> s.sql().contains("id IN (2000, ")).count());
+	}
+	
+	@Test
+	void duplicatesAreRenderedOnce() {
+		assertSql("SELECT * FROM t WHERE (id IN (1, 2))", TABLE.select().where(ID.is(1, 2, 1)), MYSQL);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package krystal.framework.json;
+
+import krystal.JSON;
+import krystal.JSON.Flattison;
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.TestEntity;
+import krystal.framework.database.persistence.annotations.Key;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecTest {
+	
+	private enum Kind {
+		A, B
+	}
+	
+	@Flattison
+	static class Text {
+		
+		private String text;
+		
+		Text() {
+		}
+		
+		Text(String text) {
+			this.text = text;
+		}
+		
+	}
+	
+	@Flattison
+	static class Row {
+		
+		private int id;
+		private Double ratio;
+		private Kind kind;
+		private List<String> tags;
+		private Map<String, Object> extra;
+		private LocalDate date;
+		private transient String cached;
+		
+	}
+	
+	/**
+	 * Persistence class without {@link Flattison @Flattison}.
+	 */
+	static class Order implements PersistenceInterface {
+		
+		private @Key int id;
+		private String name;
+		private double total;
+		private LocalDateTime created;
+		private Date booked;
+		private Kind kind;
+		
+	}
+	
+	static class Custom implements PersistenceInterface {
+		
+		private @Key int id = 3;
+		
+		@Override
+		public JSONObject toJSON() {
+			return new JSONObject().put("custom", id).put("other", "x");
+		}
+		
+	}
+	
+	private static final List<String> TRICKY = List.of(
+			"plain", "", "quote \" and \\ backslash", "</script>", "a/b", "tab\tnew\nline\rform\fback\b", "\u0000\u001f", "\u0080\u009f\u00a0", "\u2028\u20ac\u2100", "za\u017c\u00f3\u0142\u0107", "\ud83d\ude00"
+	);
+	
+	@Test
+	void stringsAreQuotedAsByOrgJson() {
+		JsonCodec<Text> codec = JsonCodec.of(Text.class);
+		assertTrue(codec.isCompiled());
+		for (var text : TRICKY) {
+			assertEquals("{\"text\":" + JSONObject.quote(text) + "}", codec.toJson(new Text(text)), text);
+			assertEquals(text, new JSONObject(codec.toJson(new Text(text))).getString("text"));
+		}
+		assertEquals("{\"text\":null}", codec.toJson(new Text(null)));
+	}
+	
+	@Test
+	void valuesAreWrittenByTheirTypes() {
+		Row row = new Row();
+		row.id = 7;
+		row.ratio = Double.NaN;
+		row.kind = Kind.B;
+		row.tags = List.of("x", "\"y\"");
+		Map<String, Object> extra = new LinkedHashMap<>();
+		extra.put("n", 1.5);
+		extra.put("none", null);
+		extra.put("list", List.of(1, 2));
+		row.extra = extra;
+		row.date = LocalDate.of(2024, 1, 2);
+		row.cached = "skipped";
+		
+		assertEquals("{\"id\":7,\"ratio\":null,\"kind\":\"B\",\"tags\":[\"x\",\"\\\"y\\\"\"],\"extra\":{\"n\":1.5,\"none\":null,\"list\":[1,2]},\"date\":\"2024-01-02\"}", JsonCodec.of(Row.class).toJson(row));
+	}
+	
+	@Test
+	void projectionLimitsTheFields() {
+		Row row = new Row();
+		row.id = 7;
+		row.kind = Kind.A;
+		StringBuilder out = new StringBuilder();
+		JsonCodec.of(Row.class).write(row, out, Set.of("kind", "id"));
+		assertEquals("{\"id\":7,\"kind\":\"A\"}", out.toString());
+	}
+	
+	@Test
+	void objectsAreReadBack() {
+		Row read = JsonCodec.of(Row.class).read(new JSONObject("{\"id\":\"7\",\"ratio\":0.5,\"kind\":\"B\",\"tags\":[\"x\",null],\"date\":\"2024-01-02\",\"unknown\":1,\"cached\":\"c\"}"));
+		assertEquals(7, read.id);
+		assertEquals(0.5, read.ratio);
+		assertEquals(Kind.B, read.kind);
+		assertEquals(Arrays.asList("x", null), read.tags);
+		assertEquals(LocalDate.of(2024, 1, 2), read.date);
+		assertNull(read.cached);
+	}
+	
+	@Test
+	void nullKeepsPrimitiveDefaults() {
+		Row read = JsonCodec.of(Row.class).read(new JSONObject("{\"id\":null,\"kind\":null}"));
+		assertEquals(0, read.id);
+		assertNull(read.kind);
+	}
+	
+	@Test
+	void arraysAreWrittenWithTheCodecOfEachObject() {
+		StringBuilder out = new StringBuilder();
+		JsonCodec.writeAll(List.of(new Text("a"), new Text("b")), out, null);
+		assertEquals("[{\"text\":\"a\"},{\"text\":\"b\"}]", out.toString());
+		
+		out.setLength(0);
+		JsonCodec.writeAll(List.of(), out, null);
+		assertEquals("[]", out.toString());
+	}
+	
+	@Test
+	void persistenceClassesAreCompiled() {
+		assertTrue(JsonCodec.of(Order.class).isCompiled());
+		assertTrue(JsonCodec.of(TestEntity.class).isCompiled());
+		assertFalse(JsonCodec.of(Custom.class).isCompiled());
+	}
+	
+	@Test
+	void compiledOutputMatchesKrystalJson() {
+		Order order = new Order();
+		order.id = 5;
+		order.name = "caf\u00e9 \"</b>\"";
+		order.total = 12.5;
+		order.created = LocalDateTime.of(2024, 3, 4, 5, 6, 7, 8_000_000);
+		order.booked = new Date(1_700_000_000_000L);
+		order.kind = Kind.A;
+		
+		assertParity(JsonCodec.of(Order.class).toJson(order), order.toJSON());
+		assertParity(JsonCodec.of(Order.class).toJson(new Order()), new Order().toJSON());
+		
+		TestEntity entity = new TestEntity(1, "a", 10, LocalDateTime.of(2024, 1, 2, 3, 4));
+		assertParity(JsonCodec.of(TestEntity.class).toJson(entity), JSON.fromObject(entity));
+		assertParity(JsonCodec.of(TestEntity.class).toJson(entity), entity.toJSON());
+		assertParity(JsonCodec.of(TestEntity.class).toJson(new TestEntity()), JSON.fromObject(new TestEntity()));
+	}
+	
+	/**
+	 * The same JSON on the wire - both read back from their texts.
+	 */
+	private static void assertParity(String compiled, JSONObject expected) {
+		assertTrue(new JSONObject(compiled).similar(new JSONObject(expected.toString())), () -> "%s <> %s".formatted(compiled, expected));
+	}
+	
+	@Test
+	void overriddenToJsonIsKept() {
+		assertEquals("{\"custom\":3,\"other\":\"x\"}", JsonCodec.of(Custom.class).toJson(new Custom()));
+		
+		StringBuilder out = new StringBuilder();
+		JsonCodec.writeAll(List.of(new Custom()), out, Set.of("custom"));
+		assertEquals("[{\"custom\":3}]", out.toString());
+	}
+	
+}
\ No newline at end of file
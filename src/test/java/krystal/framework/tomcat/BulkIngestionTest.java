@@ -0,0 +1,136 @@
+package krystal.framework.tomcat;
+
+import krystal.JSON.Flattison;
+import krystal.framework.database.abstraction.Query;
+import krystal.framework.database.persistence.PersistenceInterface;
+import krystal.framework.database.persistence.annotations.Inserter;
+import krystal.framework.database.persistence.annotations.Key;
+import org.json.JSONException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIngestionTest {
+	
+	private static final List<Item> saved = Collections.synchronizedList(new ArrayList<>());
+	
+	/**
+	 * Saved one by one, because of its insert query - recorded instead of written to the database.
+	 */
+	@Flattison
+	static class Item implements PersistenceInterface {
+		
+		private @Key int id;
+		private String name;
+		
+		Item() {
+		}
+		
+		@Inserter
+		Query insert() {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public void save() {
+			saved.add(this);
+		}
+		
+	}
+	
+	@BeforeEach
+	void reset() {
+		saved.clear();
+	}
+	
+	private static BulkIngestion ingest(String body, boolean lines) {
+		return new BulkIngestion(new BufferedReader(new StringReader(body)), lines, Item.class);
+	}
+	
+	private static List<Item> drain(BulkIngestion ingestion) {
+		List<Item> items = new ArrayList<>();
+		ingestion.forEachRemaining(o -> items.add((Item) o));
+		return items;
+	}
+	
+	@Test
+	void recognizesNdjsonContentType() {
+		assertTrue(BulkIngestion.isNdjson("application/x-ndjson"));
+		assertTrue(BulkIngestion.isNdjson("Application/X-NDJSON; charset=UTF-8"));
+		assertFalse(BulkIngestion.isNdjson("application/json"));
+		assertFalse(BulkIngestion.isNdjson(null));
+	}
+	
+	@Test
+	void readsLinesSkippingBlankOnes() {
+		List<Item> items = drain(ingest("{\"id\":1,\"name\":\"a\"}\n\n   \n{\"id\":2,\"name\":\"b\"}\r\n{\"id\":3}", true));
+		
+		assertEquals(List.of(1, 2, 3), items.stream().map(i -> i.id).toList());
+		assertEquals("b", items.get(1).name);
+		assertNull(items.get(2).name);
+		assertEquals(items, saved);
+	}
+	
+	@Test
+	void readsArrayElements() {
+		List<Item> items = drain(ingest("  [ {\"id\":1,\"name\":\"a\"} ,\n{\"id\":2,\"name\":\"[,]\"} ]  ", false));
+		
+		assertEquals(List.of(1, 2), items.stream().map(i -> i.id).toList());
+		assertEquals("[,]", items.get(1).name);
+		assertEquals(items, saved);
+	}
+	
+	@Test
+	void emptyBodiesHaveNoObjects() {
+		for (BulkIngestion ingestion : List.of(ingest("", true), ingest("\n \n", true), ingest("[]", false), ingest(" [ ] ", false))) {
+			assertFalse(ingestion.hasNext());
+			assertThrows(NoSuchElementException.class, ingestion::next);
+		}
+		assertTrue(saved.isEmpty());
+	}
+	
+	@Test
+	void savesInBatchesAsIterated() {
+		int count = BulkIngestion.BATCH_SIZE * 2 + 1;
+		BulkIngestion ingestion = ingest(IntStream.range(0, count).mapToObj("{\"id\":%d}"::formatted).collect(Collectors.joining("\n")), true);
+		
+		assertTrue(ingestion.hasNext());
+		assertEquals(BulkIngestion.BATCH_SIZE, saved.size());
+		
+		for (int i = 0; i < BulkIngestion.BATCH_SIZE; i++) ingestion.next();
+		assertEquals(BulkIngestion.BATCH_SIZE, saved.size());
+		
+		ingestion.next();
+		assertEquals(BulkIngestion.BATCH_SIZE * 2, saved.size());
+		
+		assertEquals(count - BulkIngestion.BATCH_SIZE - 1, drain(ingestion).size());
+		assertEquals(count, saved.size());
+		assertEquals(IntStream.range(0, count).boxed().toList(), saved.stream().map(i -> i.id).toList());
+	}
+	
+	@Test
+	void rejectsMalformedArrays() {
+		assertThrows(JSONException.class, () -> drain(ingest("{\"id\":1}", false)));
+		assertThrows(JSONException.class, () -> drain(ingest("[{\"id\":1} {\"id\":2}]", false)));
+		assertThrows(JSONException.class, () -> drain(ingest("[{\"id\":1},", false)));
+		assertThrows(JSONException.class, () -> drain(ingest("{\"id\":1", true)));
+		assertTrue(saved.isEmpty());
+	}
+	
+	@Test
+	void rejectsElementsThatAreNotObjects() {
+		assertThrows(ClassCastException.class, () -> drain(ingest("[{\"id\":1}, 2]", false)));
+		assertTrue(saved.isEmpty());
+	}
+	
+}
\ No newline at end of file
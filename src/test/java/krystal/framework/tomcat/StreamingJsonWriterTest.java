@@ -0,0 +1,160 @@
+package krystal.framework.tomcat;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonWriterTest {
+	
+	/**
+	 * Client connection - ready to take bytes only when told so.
+	 */
+	private static class Client extends ServletOutputStream {
+		
+		private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+		private volatile boolean ready;
+		private volatile WriteListener listener;
+		
+		Client(boolean ready) {
+			this.ready = ready;
+		}
+		
+		@Override
+		public boolean isReady() {
+			return ready;
+		}
+		
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			listener = writeListener;
+		}
+		
+		@Override
+		public void write(int b) {
+			received.write(b);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {
+			received.write(b, off, len);
+		}
+		
+		String text() {
+			return received.toString(StandardCharsets.UTF_8);
+		}
+		
+	}
+	
+	private static final BiConsumer<Object, StringBuilder> NUMBERS = (o, out) -> out.append(o);
+	
+	private static Iterator<Object> numbers(int count) {
+		return IntStream.range(0, count).<Object>mapToObj(i -> i).iterator();
+	}
+	
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) fail("Condition not met in time.");
+			Thread.sleep(10);
+		}
+	}
+	
+	@Test
+	void objectsAreWrittenAsArray() throws IOException {
+		Client client = new Client(true);
+		assertEquals(3, new StreamingJsonWriter(client).write(numbers(3), NUMBERS));
+		assertEquals("[0,1,2]", client.text());
+		
+		Client empty = new Client(true);
+		assertEquals(0, new StreamingJsonWriter(empty).write(Collections.emptyIterator(), NUMBERS));
+		assertEquals("[]", empty.text());
+	}
+	
+	@Test
+	void objectsAreWrittenAsLines() throws IOException {
+		Client client = new Client(true);
+		assertEquals(2, new StreamingJsonWriter(client).writeLines(List.<Object>of("{}", "{}").iterator(), NUMBERS));
+		assertEquals("{}\n{}\n", client.text());
+		
+		Client empty = new Client(true);
+		new StreamingJsonWriter(empty).writeLines(Collections.emptyIterator(), NUMBERS);
+		assertEquals("", empty.text());
+	}
+	
+	@Test
+	void slowClientHoldsTheProducerBack() throws Exception {
+		Client client = new Client(false);
+		StreamingJsonWriter writer = new StreamingJsonWriter(client);
+		AtomicInteger serialized = new AtomicInteger();
+		String chunk = "x".repeat(StreamingJsonWriter.CHUNK_SIZE);
+		int count = 4 * StreamingJsonWriter.QUEUE_CAPACITY;
+		
+		CompletableFuture<Long> written = CompletableFuture.supplyAsync(() -> {
+			try {
+				return writer.write(numbers(count), (o, out) -> {
+					serialized.incrementAndGet();
+					out.append('"').append(chunk).append('"');
+				});
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		
+		// the queue is full and the next chunk waits
+		await(() -> serialized.get() > StreamingJsonWriter.QUEUE_CAPACITY);
+		Thread.sleep(200);
+		assertEquals(StreamingJsonWriter.QUEUE_CAPACITY + 1, serialized.get());
+		assertFalse(written.isDone());
+		assertEquals(0, client.text().length());
+		
+		client.ready = true;
+		client.listener.onWritePossible();
+		assertEquals(count, written.get(10, TimeUnit.SECONDS));
+		assertEquals(count, serialized.get());
+		assertEquals(count * (StreamingJsonWriter.CHUNK_SIZE + 3) + 1, client.text().length());
+	}
+	
+	@Test
+	void goneClientAbortsTheProducer() throws Exception {
+		Client client = new Client(false);
+		StreamingJsonWriter writer = new StreamingJsonWriter(client);
+		AtomicInteger serialized = new AtomicInteger();
+		String chunk = "x".repeat(StreamingJsonWriter.CHUNK_SIZE);
+		
+		CompletableFuture<Long> written = CompletableFuture.supplyAsync(() -> {
+			try {
+				return writer.write(numbers(Integer.MAX_VALUE), (o, out) -> {
+					serialized.incrementAndGet();
+					out.append(chunk);
+				});
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		
+		await(() -> serialized.get() > StreamingJsonWriter.QUEUE_CAPACITY);
+		client.listener.onError(new IOException("Connection reset."));
+		
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> written.get(10, TimeUnit.SECONDS));
+		assertInstanceOf(UncheckedIOException.class, thrown.getCause());
+		assertTrue(serialized.get() <= StreamingJsonWriter.QUEUE_CAPACITY + 2);
+	}
+	
+}
\ No newline at end of file